@@ -0,0 +1,86 @@
+package de.setsoftware.reviewtool.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.setsoftware.reviewtool.base.ComparableWrapper;
+import de.setsoftware.reviewtool.base.Logger;
+import de.setsoftware.reviewtool.base.Pair;
+import de.setsoftware.reviewtool.model.api.IMutableFileHistoryGraph;
+import de.setsoftware.reviewtool.model.api.IRepoRevision;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+import de.setsoftware.reviewtool.model.changestructure.AbstractRepository;
+import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
+
+/**
+ * An in-memory repository with numbered revisions that holds the generated file contents for the benchmarks.
+ */
+public final class BenchmarkRepository extends AbstractRepository {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String id;
+    private final Map<Pair<String, Object>, byte[]> contents = new HashMap<>();
+
+    public BenchmarkRepository(final String id) {
+        this.id = id;
+    }
+
+    /**
+     * Outside of Eclipse, there is no logger installed by the plugin activator. Installs one that discards
+     * all messages, so that logging does not influence the measurements.
+     */
+    public static void initLogging() {
+        Logger.setLogger(new Logger() {
+            @Override
+            protected void log(final int status, final String message) {
+            }
+
+            @Override
+            protected void log(final int status, final String message, final Throwable exception) {
+            }
+        });
+    }
+
+    /**
+     * Returns the revision with the given number in this repository.
+     */
+    public IRepoRevision<ComparableWrapper<Long>> revision(final long number) {
+        return ChangestructureFactory.createRepoRevision(ComparableWrapper.wrap(number), this);
+    }
+
+    /**
+     * Returns the file with the given path in the given revision of this repository.
+     */
+    public IRevisionedFile file(final String path, final long revision) {
+        return ChangestructureFactory.createFileInRevision(path, this.revision(revision));
+    }
+
+    /**
+     * Stores the (UTF-8 encoded) contents of the given file and returns the file.
+     */
+    public IRevisionedFile putFile(final String path, final long revision, final String content) {
+        final IRevisionedFile file = this.file(path, revision);
+        this.contents.put(
+                Pair.create(path, this.revision(revision).getId()),
+                content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Override
+    public String getId() {
+        return this.id;
+    }
+
+    @Override
+    public byte[] getFileContents(final String path, final IRepoRevision<?> revision) {
+        final byte[] ret = this.contents.get(Pair.create(path, revision.getId()));
+        return ret != null ? ret : new byte[0];
+    }
+
+    @Override
+    public IMutableFileHistoryGraph getFileHistoryGraph() {
+        return null;
+    }
+}
@@ -0,0 +1,46 @@
+package de.setsoftware.reviewtool.benchmarks;
+
+import java.io.File;
+
+import de.setsoftware.reviewtool.model.api.IFileHistoryGraph;
+import de.setsoftware.reviewtool.model.api.IRepository;
+import de.setsoftware.reviewtool.model.changestructure.AbstractWorkingCopy;
+
+/**
+ * A working copy of a {@link BenchmarkRepository}. It is only used to map paths, nothing is stored on disk.
+ */
+public final class BenchmarkWorkingCopy extends AbstractWorkingCopy {
+
+    private final BenchmarkRepository repo;
+    private final File localRoot;
+
+    public BenchmarkWorkingCopy(final BenchmarkRepository repo) {
+        this.repo = repo;
+        this.localRoot = new File("/benchmark/" + repo.getId());
+    }
+
+    @Override
+    public IRepository getRepository() {
+        return this.repo;
+    }
+
+    @Override
+    public File getLocalRoot() {
+        return this.localRoot;
+    }
+
+    @Override
+    public File toAbsolutePathInWc(final String absolutePathInRepo) {
+        return new File(this.localRoot, absolutePathInRepo);
+    }
+
+    @Override
+    public String toAbsolutePathInRepo(final File absolutePathInWc) {
+        return absolutePathInWc.toString().substring(this.localRoot.toString().length());
+    }
+
+    @Override
+    public IFileHistoryGraph getFileHistoryGraph() {
+        return null;
+    }
+}
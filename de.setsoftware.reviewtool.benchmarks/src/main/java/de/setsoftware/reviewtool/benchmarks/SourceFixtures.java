@@ -0,0 +1,154 @@
+package de.setsoftware.reviewtool.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic, Java-like source files and modified versions of them from a seeded random generator,
+ * and provides access to the real-world file pairs contained in this module.
+ */
+public final class SourceFixtures {
+
+    private static final String[] STATEMENT_TEMPLATES = {
+        "final int %1$s = this.%2$s.size() + %3$d;",
+        "if (%1$s == null) {\n    return %3$d;\n}",
+        "this.%2$s.add(\"%1$s-%3$d\");",
+        "for (int i = 0; i < %3$d; i++) {\n    %1$s += this.%2$s.get(i).length();\n}",
+        "Logger.debug(\"%1$s: \" + %3$d);",
+        "final String %1$s = String.valueOf(%3$d);",
+        "%1$s = Math.max(%1$s, this.%2$s.size());",
+        "// %1$s and %2$s are updated together",
+        "",
+    };
+
+    private static final String[] WORDS = {
+        "count", "name", "items", "result", "index", "value", "parts", "stops", "files", "buffer",
+        "offset", "limit", "current", "previous", "next", "entry", "cache", "revision", "path", "line",
+    };
+
+    /**
+     * Names of the pairs of real-world files contained in this module. Each pair consists of a file of this
+     * project before and after a commit that changed it. The files are in the resource folder "realworld",
+     * named "&lt;name&gt;.old.java" and "&lt;name&gt;.new.java".
+     */
+    public static final List<String> REAL_WORLD_PAIRS = Arrays.asList(
+            "TourCalculator",
+            "BundleCombinationTreeNode",
+            "PartialOrderAlgorithms");
+
+    private SourceFixtures() {
+    }
+
+    /**
+     * Generates a Java class with the given number of methods. Methods call some of the other methods, so that
+     * the ordering relations have something to find.
+     */
+    public static String generateClass(
+            final Random random, final String packageName, final String className, final int methodCount) {
+        final StringBuilder ret = new StringBuilder();
+        ret.append("package ").append(packageName).append(";\n\n");
+        ret.append("import java.util.ArrayList;\n");
+        ret.append("import java.util.List;\n\n");
+        ret.append("/**\n * Generated class ").append(className).append(".\n */\n");
+        ret.append("public class ").append(className).append(" {\n\n");
+        for (int i = 0; i < 3; i++) {
+            ret.append("    private final List<String> ").append(WORDS[i + 1]).append(" = new ArrayList<>();\n");
+        }
+        for (int m = 0; m < methodCount; m++) {
+            ret.append('\n');
+            ret.append("    public int method").append(m).append("(final int ").append(word(random)).append(") {\n");
+            final int statementCount = 3 + random.nextInt(12);
+            for (int s = 0; s < statementCount; s++) {
+                appendIndented(ret, statement(random), "        ");
+            }
+            if (methodCount > 1 && random.nextInt(3) == 0) {
+                ret.append("        this.method").append(random.nextInt(methodCount)).append("(0);\n");
+            }
+            ret.append("        return ").append(random.nextInt(100)).append(";\n");
+            ret.append("    }\n");
+        }
+        ret.append("}\n");
+        return ret.toString();
+    }
+
+    /**
+     * Returns a modified copy of the given file content. Each line starts a change (insertion, deletion
+     * or modification of some lines) with the given probability.
+     */
+    public static String mutate(final Random random, final String content, final double changeProbability) {
+        final List<String> lines = new ArrayList<>(Arrays.asList(content.split("\n", -1)));
+        final List<String> ret = new ArrayList<>(lines.size());
+        int i = 0;
+        while (i < lines.size()) {
+            if (random.nextDouble() >= changeProbability) {
+                ret.add(lines.get(i++));
+                continue;
+            }
+            final int length = 1 + random.nextInt(4);
+            switch (random.nextInt(3)) {
+            case 0:
+                for (int j = 0; j < length; j++) {
+                    for (final String line : statement(random).split("\n")) {
+                        ret.add("        " + line);
+                    }
+                }
+                break;
+            case 1:
+                i += length;
+                break;
+            default:
+                for (int j = 0; j < length && i < lines.size(); j++) {
+                    ret.add(lines.get(i++).replace(word(random), word(random)));
+                }
+                break;
+            }
+        }
+        return String.join("\n", ret);
+    }
+
+    /**
+     * Returns the old or new version of one of the {@link #REAL_WORLD_PAIRS}.
+     */
+    public static String loadRealWorldFile(final String name, final boolean newVersion) {
+        final String resource = "/realworld/" + name + (newVersion ? ".new.java" : ".old.java");
+        try (InputStream in = SourceFixtures.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("unknown fixture " + resource);
+            }
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            final byte[] chunk = new byte[8192];
+            int read;
+            while ((read = in.read(chunk)) >= 0) {
+                buffer.write(chunk, 0, read);
+            }
+            return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String statement(final Random random) {
+        final String template = STATEMENT_TEMPLATES[random.nextInt(STATEMENT_TEMPLATES.length)];
+        return String.format(template, word(random), word(random), random.nextInt(1000));
+    }
+
+    private static String word(final Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static void appendIndented(final StringBuilder target, final String code, final String indent) {
+        for (final String line : code.split("\n")) {
+            if (!line.isEmpty()) {
+                target.append(indent).append(line);
+            }
+            target.append('\n');
+        }
+    }
+}
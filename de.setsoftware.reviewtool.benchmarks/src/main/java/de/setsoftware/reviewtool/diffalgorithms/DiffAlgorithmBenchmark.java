@@ -0,0 +1,87 @@
+package de.setsoftware.reviewtool.diffalgorithms;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.setsoftware.reviewtool.base.Pair;
+import de.setsoftware.reviewtool.benchmarks.BenchmarkRepository;
+import de.setsoftware.reviewtool.benchmarks.SourceFixtures;
+import de.setsoftware.reviewtool.model.api.IDiffAlgorithm;
+import de.setsoftware.reviewtool.model.api.IFragment;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+
+/**
+ * Benchmarks for the source diff algorithms, on synthetic file pairs of different sizes and on real-world
+ * file pairs from the history of this project.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiffAlgorithmBenchmark {
+
+    /**
+     * "myers" for {@link MyersSourceDiffAlgorithm}, "simple" for {@link SimpleSourceDiffAlgorithm}.
+     */
+    @Param({"myers", "simple"})
+    public String algorithm;
+
+    /**
+     * "synthetic-N" for a generated class with N methods, otherwise one of {@link SourceFixtures#REAL_WORLD_PAIRS}.
+     */
+    @Param({"synthetic-20", "synthetic-100", "TourCalculator", "BundleCombinationTreeNode", "PartialOrderAlgorithms"})
+    public String filePair;
+
+    private IDiffAlgorithm diffAlgorithm;
+    private IRevisionedFile oldFile;
+    private IRevisionedFile newFile;
+    private byte[] oldContent;
+    private byte[] newContent;
+
+    @Setup
+    public void setUp() {
+        BenchmarkRepository.initLogging();
+        this.diffAlgorithm = this.algorithm.equals("simple")
+                ? new SimpleSourceDiffAlgorithm()
+                : new MyersSourceDiffAlgorithm();
+
+        final String oldText;
+        final String newText;
+        if (this.filePair.startsWith("synthetic-")) {
+            final Random random = new Random(42);
+            final int methodCount = Integer.parseInt(this.filePair.substring("synthetic-".length()));
+            oldText = SourceFixtures.generateClass(random, "com.example", "Synthetic", methodCount);
+            newText = SourceFixtures.mutate(random, oldText, 0.02);
+        } else {
+            oldText = SourceFixtures.loadRealWorldFile(this.filePair, false);
+            newText = SourceFixtures.loadRealWorldFile(this.filePair, true);
+        }
+
+        final BenchmarkRepository repo = new BenchmarkRepository("diff");
+        this.oldFile = repo.putFile("/File.java", 1, oldText);
+        this.newFile = repo.putFile("/File.java", 2, newText);
+        this.oldContent = oldText.getBytes(StandardCharsets.UTF_8);
+        this.newContent = newText.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<Pair<IFragment, IFragment>> determineDiff() {
+        return this.diffAlgorithm.determineDiff(this.oldFile, this.oldContent, this.newFile, this.newContent, "UTF-8");
+    }
+}
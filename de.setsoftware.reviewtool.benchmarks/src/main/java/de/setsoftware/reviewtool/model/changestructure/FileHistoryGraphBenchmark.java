@@ -0,0 +1,145 @@
+package de.setsoftware.reviewtool.model.changestructure;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.setsoftware.reviewtool.benchmarks.BenchmarkRepository;
+import de.setsoftware.reviewtool.diffalgorithms.DiffAlgorithmFactory;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+
+/**
+ * Benchmarks for the construction of a {@link FileHistoryGraph} and for queries on it. The history is generated
+ * from a fixed seed and consists of additions, changes, copies and deletions of files in a linear sequence
+ * of revisions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileHistoryGraphBenchmark {
+
+    private static final int QUERY_COUNT = 1000;
+
+    @Param({"100", "1000"})
+    public int initialFileCount;
+
+    @Param({"500"})
+    public int revisionCount;
+
+    private List<Consumer<FileHistoryGraph>> operations;
+    private List<IRevisionedFile> queries;
+    private FileHistoryGraph graph;
+
+    @Setup
+    public void setUp() {
+        BenchmarkRepository.initLogging();
+        final BenchmarkRepository repo = new BenchmarkRepository("history");
+        final Random random = new Random(123);
+        this.operations = new ArrayList<>();
+
+        final List<String> livePaths = new ArrayList<>();
+        final List<String> allPaths = new ArrayList<>();
+        final Map<String, Long> lastRevisions = new HashMap<>();
+        for (int i = 0; i < this.initialFileCount; i++) {
+            this.addAddition(repo, newPath(random, allPaths.size()), 1, livePaths, allPaths, lastRevisions);
+        }
+
+        for (long revision = 2; revision <= this.revisionCount; revision++) {
+            final long rev = revision;
+            final int operationCount = 1 + random.nextInt(8);
+            for (int i = 0; i < operationCount && !livePaths.isEmpty(); i++) {
+                final int kind = random.nextInt(10);
+                final String path = livePaths.get(random.nextInt(livePaths.size()));
+                final long previous = lastRevisions.get(path);
+                if (previous == rev) {
+                    continue;
+                }
+                if (kind < 7) {
+                    this.operations.add((final FileHistoryGraph g) -> g.addChange(
+                            path, repo.revision(rev), Collections.singleton(repo.revision(previous))));
+                    lastRevisions.put(path, rev);
+                } else if (kind == 7) {
+                    this.addAddition(repo, newPath(random, allPaths.size()), rev, livePaths, allPaths, lastRevisions);
+                } else if (kind == 8) {
+                    final String target = newPath(random, allPaths.size());
+                    this.operations.add((final FileHistoryGraph g) -> g.addCopy(
+                            path, repo.revision(previous), target, repo.revision(rev)));
+                    livePaths.add(target);
+                    allPaths.add(target);
+                    lastRevisions.put(target, rev);
+                } else {
+                    this.operations.add((final FileHistoryGraph g) -> g.addDeletion(path, repo.revision(rev)));
+                    livePaths.remove(path);
+                }
+            }
+        }
+
+        this.queries = new ArrayList<>();
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            final String path = allPaths.get(random.nextInt(allPaths.size()));
+            this.queries.add(repo.file(path, 1 + random.nextInt(this.revisionCount + 10)));
+        }
+        this.graph = this.buildGraph();
+    }
+
+    private void addAddition(
+            final BenchmarkRepository repo,
+            final String path,
+            final long revision,
+            final List<String> livePaths,
+            final List<String> allPaths,
+            final Map<String, Long> lastRevisions) {
+        this.operations.add((final FileHistoryGraph g) -> g.addAddition(path, repo.revision(revision)));
+        livePaths.add(path);
+        allPaths.add(path);
+        lastRevisions.put(path, revision);
+    }
+
+    private static String newPath(final Random random, final int number) {
+        return "/trunk/src/pkg" + random.nextInt(20) + "/File" + number + ".java";
+    }
+
+    @Benchmark
+    public FileHistoryGraph buildGraph() {
+        final FileHistoryGraph g = new FileHistoryGraph(DiffAlgorithmFactory.createDefault());
+        for (final Consumer<FileHistoryGraph> operation : this.operations) {
+            operation.accept(g);
+        }
+        return g;
+    }
+
+    @Benchmark
+    public void findAncestors(final Blackhole blackhole) {
+        for (final IRevisionedFile file : this.queries) {
+            blackhole.consume(this.graph.findAncestorsFor(file));
+        }
+    }
+
+    @Benchmark
+    public void getLatestFiles(final Blackhole blackhole) {
+        for (final IRevisionedFile file : this.queries) {
+            blackhole.consume(this.graph.getLatestFiles(file, false));
+        }
+    }
+}
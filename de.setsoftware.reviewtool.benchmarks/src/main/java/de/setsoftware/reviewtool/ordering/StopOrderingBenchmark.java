@@ -0,0 +1,99 @@
+package de.setsoftware.reviewtool.ordering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.setsoftware.reviewtool.base.Pair;
+import de.setsoftware.reviewtool.benchmarks.BenchmarkRepository;
+import de.setsoftware.reviewtool.benchmarks.BenchmarkWorkingCopy;
+import de.setsoftware.reviewtool.benchmarks.SourceFixtures;
+import de.setsoftware.reviewtool.diffalgorithms.DiffAlgorithmFactory;
+import de.setsoftware.reviewtool.model.api.FileChangeType;
+import de.setsoftware.reviewtool.model.api.IDiffAlgorithm;
+import de.setsoftware.reviewtool.model.api.IFragment;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
+import de.setsoftware.reviewtool.model.changestructure.Stop;
+import de.setsoftware.reviewtool.model.changestructure.TourElement;
+import de.setsoftware.reviewtool.ordering.efficientalgorithm.TourCalculatorControl;
+
+/**
+ * End to end benchmark for {@link StopOrdering#groupAndSort}, with the relation matchers that are active by
+ * default. The stops are determined by diffing generated source files with modified versions of them.
+ * <p/>
+ * The {@link InSameSourceFolderRelation} is left out because it needs the Eclipse workspace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StopOrderingBenchmark {
+
+    @Param({"10", "50"})
+    public int fileCount;
+
+    private StopOrdering ordering;
+    private List<Stop> stops;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkRepository.initLogging();
+        final BenchmarkRepository repo = new BenchmarkRepository("ordering");
+        final BenchmarkWorkingCopy wc = new BenchmarkWorkingCopy(repo);
+        final IDiffAlgorithm diffAlgorithm = DiffAlgorithmFactory.createDefault();
+        final Random random = new Random(815);
+
+        this.stops = new ArrayList<>();
+        for (int i = 0; i < this.fileCount; i++) {
+            final String className = "Class" + i;
+            final String packageName = "com.example.pkg" + random.nextInt(5);
+            final String path = "/project/src/" + packageName.replace('.', '/') + "/" + className + ".java";
+
+            final String oldContent =
+                    SourceFixtures.generateClass(random, packageName, className, 10 + random.nextInt(20));
+            final String newContent = SourceFixtures.mutate(random, oldContent, 0.03);
+            final IRevisionedFile oldFile = repo.putFile(path, 1, oldContent);
+            final IRevisionedFile newFile = repo.putFile(path, 2, newContent);
+
+            final List<Pair<IFragment, IFragment>> diff = diffAlgorithm.determineDiff(
+                    oldFile, oldFile.getContents(), newFile, newFile.getContents(), "UTF-8");
+            for (final Pair<IFragment, IFragment> hunk : diff) {
+                this.stops.add(new Stop(
+                        ChangestructureFactory.createTextualChangeHunk(
+                                wc, FileChangeType.OTHER, hunk.getFirst(), hunk.getSecond()),
+                        hunk.getSecond()));
+            }
+        }
+
+        this.ordering = new StopOrdering(Arrays.asList(
+                new InSameFileRelation(HierarchyExplicitness.ONLY_NONTRIVIAL),
+                new InSameSystemTestRelation(HierarchyExplicitness.ALWAYS),
+                new MethodOverrideRelation(HierarchyExplicitness.ONLY_NONTRIVIAL),
+                new MethodCallRelation(HierarchyExplicitness.NONE),
+                new TokenSimilarityRelation(),
+                new XsdBeforeRestRelation(HierarchyExplicitness.NONE)));
+    }
+
+    @Benchmark
+    public List<? extends TourElement> groupAndSort() throws InterruptedException {
+        return this.ordering.groupAndSort(this.stops, TourCalculatorControl.NO_CANCEL, Collections.emptySet());
+    }
+}
@@ -0,0 +1,51 @@
+package de.setsoftware.reviewtool.ordering.efficientalgorithm;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link TourCalculator#calculateFor}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TourCalculatorBenchmark {
+
+    /**
+     * See {@link TourCalculatorInput#create(String)}.
+     */
+    @Param({"c1", "c2", "random-50", "random-200", "random-1000"})
+    public String input;
+
+    private TourCalculatorInput data;
+
+    @Setup
+    public void setUp() {
+        this.data = TourCalculatorInput.create(this.input);
+    }
+
+    @Benchmark
+    public List<String> calculateTour() throws InterruptedException {
+        return TourCalculator.calculateFor(
+                this.data.getParts(),
+                this.data.getMatchSets(),
+                Comparator.naturalOrder(),
+                TourCalculatorControl.NO_CANCEL).getTour();
+    }
+}
@@ -0,0 +1,196 @@
+package de.setsoftware.reviewtool.ordering.efficientalgorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Input for the tour calculator benchmarks: the match data from the experiment (see ExperimentDataTest in the
+ * ordering tests) and larger, randomly generated inputs with a similar structure.
+ */
+final class TourCalculatorInput {
+
+    private final List<String> parts = new ArrayList<>();
+    private final List<MatchSet<String>> matchSets = new ArrayList<>();
+
+    private TourCalculatorInput() {
+    }
+
+    List<String> getParts() {
+        return this.parts;
+    }
+
+    List<MatchSet<String>> getMatchSets() {
+        return this.matchSets;
+    }
+
+    /**
+     * Creates the input with the given name: "c1" and "c2" for the two change sets from the experiment,
+     * "random-N" for random input with N change parts.
+     */
+    static TourCalculatorInput create(String name) {
+        switch (name) {
+        case "c1":
+            return experimentC1();
+        case "c2":
+            return experimentC2();
+        default:
+            if (name.startsWith("random-")) {
+                return random(new Random(4711), Integer.parseInt(name.substring("random-".length())));
+            }
+            throw new IllegalArgumentException("unknown input " + name);
+        }
+    }
+
+    private static TourCalculatorInput tourCalculatorFor(String... parts) {
+        final TourCalculatorInput ret = new TourCalculatorInput();
+        ret.parts.addAll(Arrays.asList(parts));
+        return ret;
+    }
+
+    private TourCalculatorInput matchChained(String... parts) {
+        assert parts.length >= 2;
+        for (int i = 0; i < parts.length - 1; i++) {
+            this.match(parts[i], parts[i + 1]);
+        }
+        return this;
+    }
+
+    private TourCalculatorInput matchSymmetric(String... parts) {
+        if (parts.length <= 1) {
+            return this;
+        }
+        final Set<String> set = new TreeSet<>();
+        set.addAll(Arrays.asList(parts));
+        this.matchSets.add(new UnorderedMatchSet<>(set));
+        return this;
+    }
+
+    private TourCalculatorInput match(String distinguishedElement, String... others) {
+        final Set<String> set = new TreeSet<>();
+        set.add(distinguishedElement);
+        set.addAll(Arrays.asList(others));
+        this.matchSets.add(new StarMatchSet<>(distinguishedElement, set));
+        return this;
+    }
+
+    private static TourCalculatorInput experimentC1() {
+        return tourCalculatorFor("a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "l", "m", "n", "o")
+            //in same file
+            .matchSymmetric("a", "b", "c", "d")
+            .matchSymmetric("e", "f", "g")
+            .matchSymmetric("k", "l", "m", "n")
+            //similarity
+            .matchChained("o", "h")
+            .matchChained("o", "i")
+            .matchChained("o", "j")
+            .matchChained("o", "m")
+            .matchChained("i", "j")
+            .matchChained("h", "j")
+            .matchChained("i", "h")
+            .matchChained("b", "c")
+            //declare & use
+            .match("l", "k", "m")
+            .match("g", "f", "h", "j", "m")
+            .match("g", "f", "m")
+            //class hierarchy
+            .matchSymmetric("h", "i", "j", "m")
+            //call flow
+            .match("h", "a")
+            .match("j", "b", "c")
+            .match("i", "d")
+            .match("f", "h", "i", "j", "k")
+            .match("f", "e")
+            .match("o", "a", "b", "c", "d")
+            //order inside files
+            .matchChained("a", "b", "c", "d")
+            .matchChained("e", "f", "g")
+            .matchChained("l", "k", "m", "n");
+    }
+
+    private static TourCalculatorInput experimentC2() {
+        return tourCalculatorFor(
+                "a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "l", "m",
+                "n", "o", "p", "q", "r", "s", "t", "u")
+            //in same file
+            .matchSymmetric("b", "c", "d")
+            .matchSymmetric("e", "f", "g")
+            .matchSymmetric("h", "i", "j")
+            .matchSymmetric("k", "l", "m")
+            .matchSymmetric("o", "p", "q", "r", "s", "t", "u")
+            //similarity
+            .matchSymmetric("f", "g", "n")
+            //declare & use
+            .match("b", "c", "d")
+            .match("s", "m", "l", "j", "h")
+            .match("u", "r", "p", "o")
+            //class hierarchy
+            .matchSymmetric("j", "m")
+            //call flow
+            .match("h", "e", "i")
+            .match("l", "e", "k")
+            .match("p", "c")
+            .match("o", "d", "f", "g", "n")
+            .match("q", "m")
+            .match("r", "q")
+            //order inside files
+            .matchChained("b", "c", "d")
+            .matchChained("e", "f", "g")
+            .matchChained("h", "i", "j")
+            .matchChained("k", "l", "m")
+            .matchChained("o", "p", "q", "r", "s", "u", "t");
+    }
+
+    /**
+     * Generates input with the structure of the experiment data: The parts are distributed on files, with
+     * a symmetric match for each file, followed by relations between random parts that are biased towards
+     * nearby parts, and finally the order inside the files.
+     */
+    private static TourCalculatorInput random(Random random, int partCount) {
+        final TourCalculatorInput ret = new TourCalculatorInput();
+        for (int i = 0; i < partCount; i++) {
+            ret.parts.add("p" + i);
+        }
+
+        final List<String[]> files = new ArrayList<>();
+        int fileStart = 0;
+        while (fileStart < partCount) {
+            final int fileEnd = Math.min(partCount, fileStart + 1 + random.nextInt(6));
+            files.add(ret.parts.subList(fileStart, fileEnd).toArray(new String[0]));
+            fileStart = fileEnd;
+        }
+        for (final String[] file : files) {
+            ret.matchSymmetric(file);
+        }
+
+        for (int i = 0; i < partCount; i++) {
+            final int center = random.nextInt(partCount);
+            final String[] others = new String[1 + random.nextInt(4)];
+            for (int j = 0; j < others.length; j++) {
+                others[j] = ret.parts.get(nearby(random, center, partCount));
+            }
+            if (random.nextBoolean()) {
+                ret.match(ret.parts.get(center), others);
+            } else {
+                final String[] all = Arrays.copyOf(others, others.length + 1);
+                all[others.length] = ret.parts.get(center);
+                ret.matchSymmetric(all);
+            }
+        }
+
+        for (final String[] file : files) {
+            if (file.length >= 2) {
+                ret.matchChained(file);
+            }
+        }
+        return ret;
+    }
+
+    private static int nearby(Random random, int index, int count) {
+        final int distance = (int) Math.round(random.nextGaussian() * 10);
+        return Math.max(0, Math.min(count - 1, index + distance));
+    }
+}
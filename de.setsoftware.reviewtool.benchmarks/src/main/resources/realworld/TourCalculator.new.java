@@ -0,0 +1,336 @@
+package de.setsoftware.reviewtool.ordering.efficientalgorithm;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Contains the algorithm for efficiently grouping and reordering change parts/stops.
+ * Internally, it uses a binder tree for the grouping.
+ *
+ * @param <T> Type of the stops.
+ */
+public class TourCalculator<T> {
+
+    private final Set<MatchSet<T>> successfulMatches = new LinkedHashSet<>();
+    private List<T> resultingTour;
+
+    /**
+     * Helper class for recursive folding and matching.
+     * <p/>
+     * To avoid comparing each fold with each unsatisfied match, the change parts get dense integer IDs and the
+     * change parts of match sets are represented as bit sets over these IDs. An inverted index from change part
+     * to the unsatisfied matches containing it allows visiting only the matches that overlap with a fold.
+     *
+     * @param <S> Type of the stops.
+     */
+    private static final class FoldMatchingHelper<S> {
+
+        /**
+         * An unsatisfied match together with the folds that might help to satisfy it.
+         *
+         * @param <S> Type of the stops.
+         */
+        private static final class UnsatisfiedMatch<S> {
+            private final int index;
+            private final MatchSet<S> match;
+            private final List<MatchSet<S>> potentiallyRelevantFolds = new ArrayList<>();
+            private final List<BitSet> potentiallyRelevantFoldParts = new ArrayList<>();
+
+            UnsatisfiedMatch(int index, MatchSet<S> match) {
+                this.index = index;
+                this.match = match;
+            }
+        }
+
+        private BundleCombinationTreeElement<S> bundler;
+        private final List<UnsatisfiedMatch<S>> unsatisfiedMatches;
+        private final BitSet stillUnsatisfied;
+        private final Map<S, Integer> partIds;
+        private final List<BitSet> unsatisfiedMatchesByPart;
+        private final ArrayDeque<MatchSet<S>> todoQueue;
+        private final Map<MatchSet<S>, List<MatchSet<S>>> matchedWithFolds;
+
+        public FoldMatchingHelper(BundleCombinationTreeElement<S> bundler, List<MatchSet<S>> unsatisfiedMatches) {
+            this.bundler = bundler;
+            this.unsatisfiedMatches = new ArrayList<>();
+            this.partIds = new HashMap<>();
+            this.unsatisfiedMatchesByPart = new ArrayList<>();
+            for (final MatchSet<S> unsatisfiedMatch : new LinkedHashSet<>(unsatisfiedMatches)) {
+                final int index = this.unsatisfiedMatches.size();
+                this.unsatisfiedMatches.add(new UnsatisfiedMatch<>(index, unsatisfiedMatch));
+                for (final S part : unsatisfiedMatch.getChangeParts()) {
+                    this.unsatisfiedMatchesByPart.get(this.getPartId(part)).set(index);
+                }
+            }
+            this.stillUnsatisfied = new BitSet();
+            this.stillUnsatisfied.set(0, this.unsatisfiedMatches.size());
+            this.todoQueue = new ArrayDeque<>();
+            this.matchedWithFolds = new LinkedHashMap<>();
+        }
+
+        private int getPartId(S part) {
+            Integer id = this.partIds.get(part);
+            if (id == null) {
+                id = this.partIds.size();
+                this.partIds.put(part, id);
+                this.unsatisfiedMatchesByPart.add(new BitSet());
+            }
+            return id;
+        }
+
+        private BitSet toBitSet(MatchSet<S> matchSet) {
+            final BitSet ret = new BitSet();
+            for (final S part : matchSet.getChangeParts()) {
+                ret.set(this.getPartId(part));
+            }
+            return ret;
+        }
+
+        public void addPotentialFolds(Collection<MatchSet<S>> matches, TourCalculatorControl control)
+            throws InterruptedException {
+
+            this.todoQueue.addAll(matches);
+            while (!this.todoQueue.isEmpty()) {
+                //assign the next batch of folds to try to the unsatisfied matches they might help to satisfy
+                final Set<UnsatisfiedMatch<S>> unsatisfiedMatchesThatCouldNowMatch = new LinkedHashSet<>();
+                while (!this.todoQueue.isEmpty()) {
+                    final MatchSet<S> toFold = this.todoQueue.poll();
+                    final BitSet foldParts = this.toBitSet(toFold);
+                    //to be able to satisfy the match, the candidate fold has to contain elements from the match
+                    final BitSet overlappingMatches = new BitSet();
+                    for (int part = foldParts.nextSetBit(0); part >= 0; part = foldParts.nextSetBit(part + 1)) {
+                        overlappingMatches.or(this.unsatisfiedMatchesByPart.get(part));
+                    }
+                    overlappingMatches.and(this.stillUnsatisfied);
+                    for (int i = overlappingMatches.nextSetBit(0); i >= 0; i = overlappingMatches.nextSetBit(i + 1)) {
+                        final UnsatisfiedMatch<S> e = this.unsatisfiedMatches.get(i);
+                        this.removeSubsets(e, foldParts);
+                        e.potentiallyRelevantFolds.add(toFold);
+                        e.potentiallyRelevantFoldParts.add(foldParts);
+                        unsatisfiedMatchesThatCouldNowMatch.add(e);
+                    }
+                }
+
+                checkInterruption(control);
+
+                //check for matches that can now be satisfied
+                for (final UnsatisfiedMatch<S> toMatch : unsatisfiedMatchesThatCouldNowMatch) {
+                    this.matchWithNewFold(toMatch, control);
+                }
+            }
+        }
+
+        private void removeSubsets(UnsatisfiedMatch<S> unsatisfiedMatch, BitSet toFold) {
+            final Iterator<MatchSet<S>> foldIter = unsatisfiedMatch.potentiallyRelevantFolds.iterator();
+            final Iterator<BitSet> partsIter = unsatisfiedMatch.potentiallyRelevantFoldParts.iterator();
+            while (foldIter.hasNext()) {
+                foldIter.next();
+                if (isSubset(partsIter.next(), toFold)) {
+                    foldIter.remove();
+                    partsIter.remove();
+                }
+            }
+        }
+
+        private static boolean isSubset(BitSet subset, BitSet superset) {
+            for (int i = subset.nextSetBit(0); i >= 0; i = subset.nextSetBit(i + 1)) {
+                if (!superset.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void matchWithNewFold(UnsatisfiedMatch<S> unsatisfiedMatch, TourCalculatorControl control) {
+            final MatchSet<S> toMatch = unsatisfiedMatch.match;
+            final List<MatchSet<S>> potentialFolds = unsatisfiedMatch.potentiallyRelevantFolds;
+            final SubsettingSet<S> activeFolds = new SubsettingSet<>(toMatch, potentialFolds);
+            final boolean matchesWithFullSet = this.matchesWithFoldSubset(toMatch, activeFolds);
+            if (!matchesWithFullSet) {
+                //does not match with the full set, cannot match with a subset either
+                return;
+            }
+
+            //determine a minimal subset that still allows the match to happen
+            //when the calculation already took quite long, don't go for minimality
+            if (!control.isFastModeNeeded()) {
+                for (final Integer index : activeFolds.potentialRemovals()) {
+                    //try without a fold
+                    activeFolds.preliminaryRemove(index);
+                    if (this.matchesWithFoldSubset(toMatch, activeFolds)) {
+                        //still matches => fold is unnecessary
+                        activeFolds.commitRemoval();
+                    } else {
+                        //does not match any more => fold is necessary
+                        activeFolds.rollbackRemoval();
+                    }
+                }
+            }
+
+            //change attributes according to match
+            this.bundler = this.bundler.bundle(activeFolds);
+            this.todoQueue.add(new UnorderedMatchSet<>(activeFolds.toSet()));
+            this.matchedWithFolds.put(toMatch, this.selectActiveFolds(potentialFolds, activeFolds));
+            this.stillUnsatisfied.clear(unsatisfiedMatch.index);
+        }
+
+        private boolean matchesWithFoldSubset(@SuppressWarnings("unused") MatchSet<S> toMatch, SimpleSet<S> set) {
+            return this.bundler.bundle(set) != null;
+        }
+
+        private List<MatchSet<S>> selectActiveFolds(
+                List<MatchSet<S>> potentialFolds, SubsettingSet<S> activeFolds) {
+
+            final List<MatchSet<S>> ret = new ArrayList<>();
+            for (final Integer index : activeFolds.potentialRemovals()) {
+                ret.add(potentialFolds.get(index));
+            }
+            return ret;
+        }
+
+        public BundleCombinationTreeElement<S> getBundler() {
+            return this.bundler;
+        }
+
+    }
+
+    private static<S> boolean disjoint(Set<S> c1, Set<S> c2) {
+        Set<S> iterate;
+        Set<S> contains;
+        if (c1.size() > c2.size()) {
+            iterate = c2;
+            contains = c1;
+        } else {
+            iterate = c1;
+            contains = c2;
+        }
+
+        for (final S e : iterate) {
+            if (contains.contains(e)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determine a reordering that satisfies as many of the given grouping and positioning requests as possible.
+     * A resulting tour can be requested from the returned {@link TourCalculator} object.
+     *
+     * @param allChangeParts The change parts/stops to reorder.
+     * @param matchSets The match sets to group. Order in list determines priority.
+     */
+    public static<S> TourCalculator<S> calculateFor(
+            List<S> allChangeParts,
+            List<MatchSet<S>> matchSets,
+            Comparator<S> tieBreakingComparator,
+            TourCalculatorControl isCanceled) throws InterruptedException {
+        assert new HashSet<>(allChangeParts).size() == allChangeParts.size() : "there are duplicate change parts";
+
+        final TourCalculator<S> ret = new TourCalculator<>();
+        if (allChangeParts.size() <= 1) {
+            ret.resultingTour = new ArrayList<>(allChangeParts);
+            return ret;
+        }
+
+        //phase one: bundling without folding
+        BundleCombinationTreeElement<S> bundler = BundleCombinationTreeElement.create(allChangeParts);
+        final List<MatchSet<S>> unsatisfiedMatches = new ArrayList<>();
+        for (final MatchSet<S> matchSet : matchSets) {
+            final BundleCombinationTreeElement<S> next =
+                    bundler.bundle(new SimpleSetAdapter<>(matchSet.getChangeParts()));
+            if (next != null) {
+                bundler = next;
+                ret.successfulMatches.add(matchSet);
+            } else {
+                unsatisfiedMatches.add(matchSet);
+            }
+            checkInterruption(isCanceled);
+        }
+
+        if (isCanceled.isFastModeNeeded()) {
+            //if the calculation already took too much time here, just give up with
+            //  the results we have so far
+            ret.resultingTour = bundler.getPossibleOrder(tieBreakingComparator);
+            return ret;
+        }
+
+        //phase two: taking folds into account
+        final FoldMatchingHelper<S> foldedBundler = new FoldMatchingHelper<>(bundler, unsatisfiedMatches);
+        foldedBundler.addPotentialFolds(ret.successfulMatches, isCanceled);
+        bundler = foldedBundler.getBundler();
+
+        //phase three: try to put centers first for ordered match sets
+        for (final MatchSet<S> matchSet : ret.successfulMatches) {
+            if (!(matchSet instanceof StarMatchSet)) {
+                continue;
+            }
+            final Set<S> rest = new HashSet<>(matchSet.getChangeParts());
+            final Set<S> distinguishedPart = ((StarMatchSet<S>) matchSet).getDistinguishedPart();
+            rest.removeAll(distinguishedPart);
+            final BundleCombinationTreeElement<S> next = bundler.bundleOrdered(
+                    new SimpleSetAdapter<>(distinguishedPart),
+                    new SimpleSetAdapter<>(rest));
+            if (next != null) {
+                bundler = next;
+            }
+            checkInterruption(isCanceled);
+        }
+        for (final MatchSet<S> matchSet : foldedBundler.matchedWithFolds.keySet()) {
+            if (!(matchSet instanceof StarMatchSet)) {
+                continue;
+            }
+            final Set<S> center = new HashSet<>();
+            center.addAll(((StarMatchSet<S>) matchSet).getDistinguishedPart());
+            final Set<S> rest = new HashSet<>(matchSet.getChangeParts());
+            for (final MatchSet<S> neededFold : foldedBundler.matchedWithFolds.get(matchSet)) {
+                if (disjoint(neededFold.getChangeParts(), center)) {
+                    rest.addAll(neededFold.getChangeParts());
+                } else {
+                    center.addAll(neededFold.getChangeParts());
+                }
+            }
+            rest.removeAll(center);
+            if (rest.isEmpty()) {
+                continue;
+            }
+            final BundleCombinationTreeElement<S> next = bundler.bundleOrdered(
+                    new SimpleSetAdapter<>(center),
+                    new SimpleSetAdapter<>(rest));
+            if (next != null) {
+                bundler = next;
+            }
+            checkInterruption(isCanceled);
+        }
+
+        ret.resultingTour = bundler.getPossibleOrder(tieBreakingComparator);
+        return ret;
+    }
+
+    public List<T> getTour() {
+        return this.resultingTour;
+    }
+
+    /**
+     * Helper method to check for the cancellation flag and throw an InterruptedException if needed.
+     */
+    public static void checkInterruption(TourCalculatorControl isCanceled) throws InterruptedException {
+        if (Thread.interrupted() || isCanceled.isCanceled()) {
+            //we use InterruptedException so that the sorting code is not depended on Eclipse
+            //  to avoid surprises, we also check for Thread.interrupted()
+            throw new InterruptedException();
+        }
+    }
+
+}
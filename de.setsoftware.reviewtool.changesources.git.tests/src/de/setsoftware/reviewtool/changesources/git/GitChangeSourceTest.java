@@ -2,10 +2,12 @@ package de.setsoftware.reviewtool.changesources.git;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
+import java.io.File;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -463,6 +465,52 @@ public class GitChangeSourceTest {
     }
 
 
+    private static IRevisionedFile getLatestFile(TestdataRepo repo, GitWorkingCopy wc, String path) {
+        final List<IRevisionedFile> latestFiles = wc.getFileHistoryGraph().getLatestFiles(
+                ChangestructureFactory.createFileInRevision(path,
+                        ChangestructureFactory.createRepoRevision(
+                                new RevisionId(repo.mapToHash("commit 1"), 15),
+                                wc.getRepository())),
+                false);
+        assertEquals(1, latestFiles.size());
+        return latestFiles.get(0);
+    }
+
+    @Test
+    public void testDetermineLocalChangesForSomePaths() throws Exception {
+        final TestdataRepo repo = new TestdataRepo();
+        try {
+            repo.addFile("A", 10).addFile("B", 10).addFile("C", 10).commit("TIC-1: Initial commit");
+            repo.change("A", 3, "new line content");
+
+            final GitChangeSource src = createCs(repo);
+            src.analyzeLocalChanges(null);
+
+            final GitWorkingCopy workingCopy =
+                    GitWorkingCopyManager.getInstance().getWorkingCopy(repo.getGitBaseDir());
+            final IRevision localRevision = ChangestructureFactory.createLocalRevision(workingCopy);
+            assertEquals(localRevision, getLatestFile(repo, workingCopy, "A").getRevision());
+            assertThat(getLatestFile(repo, workingCopy, "B").getRevision(), is(not(equalTo(localRevision))));
+
+            //only B is checked, the known change in A is kept
+            repo.change("B", 3, "new line content");
+            repo.change("C", 3, "new line content");
+            src.analyzeLocalChanges(Collections.singletonList(new File(repo.getGitBaseDir(), "B")));
+            assertEquals(localRevision, getLatestFile(repo, workingCopy, "A").getRevision());
+            assertEquals(localRevision, getLatestFile(repo, workingCopy, "B").getRevision());
+            assertThat(getLatestFile(repo, workingCopy, "C").getRevision(), is(not(equalTo(localRevision))));
+
+            //paths outside of the working copy do not lead to a new analysis
+            src.analyzeLocalChanges(Collections.singletonList(new File("/outsideOfWc")));
+            assertThat(getLatestFile(repo, workingCopy, "C").getRevision(), is(not(equalTo(localRevision))));
+
+            src.analyzeLocalChanges(null);
+            assertEquals(localRevision, getLatestFile(repo, workingCopy, "C").getRevision());
+        } finally {
+            repo.clean();
+        }
+    }
+
     @Test
     public void testMultipleBranches() throws Exception {
         final TestdataRepo repo = new TestdataRepo();
@@ -538,6 +586,77 @@ public class GitChangeSourceTest {
         }
     }
 
+    @Test
+    public void testFixCommitAfterFirstSearch() throws Exception {
+        final TestdataRepo repo = new TestdataRepo();
+        try {
+            repo.addBinaryFile("A").commit("TIC-1: Initial commit");
+            repo.changeBinaryFile("A").commit("TIC-2: Commit in another ticket");
+            repo.changeBinaryFile("A").commit("TIC-1: commit 3");
+
+            final GitChangeSource src = createCs(repo);
+            final IChangeData actual1 = src.getRepositoryChanges("TIC-1", createUi());
+            assertEquals(2, actual1.getMatchedCommits().size());
+
+            repo.changeBinaryFile("A").commit("TIC-1: fix");
+
+            final ChangeSourceUiStub ui = createUi();
+            final IChangeData actual2 = src.getRepositoryChanges("TIC-1", ui);
+            final List<? extends ICommit> commits = actual2.getMatchedCommits();
+            assertEquals("TIC-1: Initial commit (1970-01-01 01:00, author, " + repo.mapToHash("commit 1") + ")", commits.get(0).getMessage());
+            checkContainsOneBinaryChange(repo, commits.get(0), null, 11, "commit 1", 15, FileChangeType.ADDED, "A");
+            assertEquals("TIC-1: commit 3 (1970-01-01 01:00, author, " + repo.mapToHash("commit 3") + ")", commits.get(1).getMessage());
+            checkContainsOneBinaryChange(repo, commits.get(1), "commit 2", 18, "commit 3", 21, FileChangeType.OTHER, "A");
+            assertEquals("TIC-1: fix (1970-01-01 01:00, author, " + repo.mapToHash("commit 4") + ")", commits.get(2).getMessage());
+            checkContainsOneBinaryChange(repo, commits.get(2), "commit 3", 21, "commit 4", 24, FileChangeType.OTHER, "A");
+            assertEquals(3, commits.size());
+            assertEquals(
+                    "subTask Determining relevant commits...\n" +
+                    "increaseTaskNestingLevel\n" +
+                    "subTask Processing revision " + repo.mapToHash("commit 4") + "\n" +
+                    "decreaseTaskNestingLevel\n" +
+                    "subTask Analyzing commits...\n",
+                    ui.getLog());
+        } finally {
+            repo.clean();
+        }
+    }
+
+    @Test
+    public void testHeadSwitchedToOtherBranchAfterFirstSearch() throws Exception {
+        final TestdataRepo repo = new TestdataRepo();
+        try {
+            repo.addBinaryFile("A").commit("TIC-1: Initial commit");
+            repo.changeBinaryFile("A").commit("TIC-1: commit 2");
+
+            final GitChangeSource src = createCs(repo);
+            final IChangeData actual1 = src.getRepositoryChanges("TIC-1", createUi());
+            assertEquals(2, actual1.getMatchedCommits().size());
+
+            repo.createAndSwitchBranch(repo.mapToHash("commit 1"), "myBranch");
+            repo.changeBinaryFile("A").commit("TIC-1: commit 3 (in another branch)");
+
+            //the old HEAD is not contained in the new HEAD, so its commits must not be attributed to HEAD any more
+            final ChangeSourceUiStub ui = createUi(Boolean.TRUE);
+            final IChangeData actual2 = src.getRepositoryChanges("TIC-1", ui);
+            final List<? extends ICommit> commits = actual2.getMatchedCommits();
+            assertEquals("TIC-1: Initial commit (1970-01-01 01:00, author, " + repo.mapToHash("commit 1") + ")", commits.get(0).getMessage());
+            assertEquals("TIC-1: commit 3 (in another branch) (1970-01-01 01:00, author, " + repo.mapToHash("commit 3") + ")", commits.get(1).getMessage());
+            checkContainsOneBinaryChange(repo, commits.get(1), "commit 1", 15, "commit 3", 23, FileChangeType.OTHER, "A");
+            assertEquals(2, commits.size());
+            assertEquals(
+                    "subTask Determining relevant commits...\n" +
+                    "increaseTaskNestingLevel\n" +
+                    "subTask Processing revision " + repo.mapToHash("commit 3") + "\n" +
+                    "decreaseTaskNestingLevel\n" +
+                    "asking The current HEAD does not contain all commits for the ticket (other refs: [refs/heads/master]). Restrict review to current HEAD?\n" +
+                    "subTask Analyzing commits...\n",
+                    ui.getLog());
+        } finally {
+            repo.clean();
+        }
+    }
+
     @Test
     public void testBranchAndMerge() throws Exception {
         final TestdataRepo repo = new TestdataRepo();
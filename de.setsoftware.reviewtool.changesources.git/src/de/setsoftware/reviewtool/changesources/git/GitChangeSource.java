@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -30,9 +31,16 @@ import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
 
 /**
  * A change source that loads the changes from Git.
+ *
+ * <p>The results of the last search are kept, so that a later search for the same ticket only looks at
+ * the commits added to HEAD since then, and commits are only converted to changes once.
  */
 public class GitChangeSource extends AbstractChangeSource {
 
+    private String lastKey;
+    private Map<GitWorkingCopy, HeadHistory> lastHeadHistories = new HashMap<>();
+    private final Map<GitWorkingCopy, Map<String, List<? extends IChange>>> changesPerCommit = new HashMap<>();
+
     /**
      * Constructor.
      */
@@ -95,12 +103,30 @@ public class GitChangeSource extends AbstractChangeSource {
             return message != null && pattern.matcher(message).matches();
         };
 
+        final Map<GitWorkingCopy, HeadHistory> previousHistories = this.getHeadHistories(key);
+        final Map<GitWorkingCopy, HeadHistory> headHistories = new HashMap<>(previousHistories);
         final Map<GitRevision, String> matchingEntries =
-                GitWorkingCopyManager.getInstance().traverseEntries(handler, ui);
+                GitWorkingCopyManager.getInstance().traverseEntries(handler, headHistories, ui);
+        for (final HeadHistory history : headHistories.values()) {
+            final HeadHistory previous = previousHistories.get(history.getWorkingCopy());
+            if (previous != null && history.continues(previous)) {
+                historyFiller.registerKnownCommits(previous);
+            }
+        }
         historyFiller.populate(matchingEntries.keySet(), ui);
+        this.setHeadHistories(key, headHistories);
         return matchingEntries;
     }
 
+    private synchronized Map<GitWorkingCopy, HeadHistory> getHeadHistories(final String key) {
+        return key.equals(this.lastKey) ? this.lastHeadHistories : Collections.emptyMap();
+    }
+
+    private synchronized void setHeadHistories(final String key, final Map<GitWorkingCopy, HeadHistory> histories) {
+        this.lastKey = key;
+        this.lastHeadHistories = histories;
+    }
+
     private List<ICommit> convertRepoRevisionsToChanges(
             final List<GitRevision> revisions,
             final IProgressMonitor ui) throws IOException {
@@ -118,7 +144,7 @@ public class GitChangeSource extends AbstractChangeSource {
             final GitRevision e,
             final Collection<? super ICommit> result,
             final IProgressMonitor ui) throws IOException {
-        final List<? extends IChange> changes = this.determineChangesInCommit(e, ui);
+        final List<? extends IChange> changes = this.getChangesInCommit(e, ui);
         if (!changes.isEmpty()) {
             result.add(ChangestructureFactory.createCommit(
                     e.getWorkingCopy(),
@@ -129,10 +155,25 @@ public class GitChangeSource extends AbstractChangeSource {
         }
     }
 
+    private List<? extends IChange> getChangesInCommit(
+            final GitRevision e,
+            final IProgressMonitor ui) throws IOException {
+
+        synchronized (this.changesPerCommit) {
+            final Map<String, List<? extends IChange>> cache = this.changesPerCommit.get(e.getWorkingCopy());
+            final List<? extends IChange> cached = cache == null ? null : cache.get(e.getRevisionString());
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return this.determineChangesInCommit(e, ui);
+    }
+
     private List<? extends IChange> determineChangesInCommit(
             final GitRevision e,
             final IProgressMonitor ui) throws IOException {
 
+        boolean complete = true;
         final List<IChange> ret = new ArrayList<>();
         final Set<String> changedPaths = e.getChangedPaths();
         final List<String> sortedPaths = new ArrayList<>(changedPaths);
@@ -149,9 +190,21 @@ public class GitChangeSource extends AbstractChangeSource {
                     ret.addAll(this.determineChangesInFile(e.getWorkingCopy(), node));
                 } catch (final Exception ex) {
                     Logger.error("An error occurred while computing changes for " + fileInfo.toString(), ex);
+                    complete = false;
                 }
             }
         }
+        if (complete) {
+            //the changes of a commit do not change any more, so they can be reused until the caches are cleared
+            synchronized (this.changesPerCommit) {
+                Map<String, List<? extends IChange>> cache = this.changesPerCommit.get(e.getWorkingCopy());
+                if (cache == null) {
+                    cache = new HashMap<>();
+                    this.changesPerCommit.put(e.getWorkingCopy(), cache);
+                }
+                cache.put(e.getRevisionString(), ret);
+            }
+        }
         return ret;
     }
 
@@ -189,10 +242,17 @@ public class GitChangeSource extends AbstractChangeSource {
     @Override
     protected void workingCopyRemoved(File wcRoot) {
         GitWorkingCopyManager.getInstance().removeWorkingCopy(wcRoot);
+        synchronized (this.changesPerCommit) {
+            this.changesPerCommit.keySet().removeIf((GitWorkingCopy wc) -> wc.getLocalRoot().equals(wcRoot));
+        }
     }
 
     @Override
     public void clearCaches() {
+        this.setHeadHistories(null, new HashMap<>());
+        synchronized (this.changesPerCommit) {
+            this.changesPerCommit.clear();
+        }
         for (final GitWorkingCopy wc : GitWorkingCopyManager.getInstance().getWorkingCopies()) {
             wc.clearCache();
         }
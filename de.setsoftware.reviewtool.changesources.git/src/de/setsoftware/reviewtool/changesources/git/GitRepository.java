@@ -6,6 +6,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.Base64;
@@ -14,6 +15,7 @@ import java.util.Set;
 
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Repository;
@@ -27,6 +29,7 @@ import org.osgi.framework.FrameworkUtil;
 
 import de.setsoftware.reviewtool.base.Logger;
 import de.setsoftware.reviewtool.base.ReviewtoolException;
+import de.setsoftware.reviewtool.base.Util;
 import de.setsoftware.reviewtool.diffalgorithms.DiffAlgorithmFactory;
 import de.setsoftware.reviewtool.model.api.IMutableFileHistoryGraph;
 import de.setsoftware.reviewtool.model.api.IRepoRevision;
@@ -108,12 +111,45 @@ final class GitRepository extends AbstractRepository {
 
     @Override
     public byte[] getFileContents(final String path, final IRepoRevision<?> revision) throws Exception {
-        try (ObjectReader reader = this.getRepository().newObjectReader();
-                final RevWalk walk = new RevWalk(reader)) {
+        try (ObjectReader reader = this.getRepository().newObjectReader()) {
+            final ObjectId blobId = this.findBlob(reader, path, revision);
+            return blobId == null ? new byte[0] : reader.open(blobId).getBytes();
+        }
+    }
+
+    @Override
+    public long getFileSize(final String path, final IRepoRevision<?> revision) throws Exception {
+        try (ObjectReader reader = this.getRepository().newObjectReader()) {
+            final ObjectId blobId = this.findBlob(reader, path, revision);
+            return blobId == null ? 0L : reader.getObjectSize(blobId, Constants.OBJ_BLOB);
+        }
+    }
+
+    @Override
+    public byte[] getFileContentsPrefix(final String path, final IRepoRevision<?> revision, final int maxLength)
+            throws Exception {
+        try (ObjectReader reader = this.getRepository().newObjectReader()) {
+            final ObjectId blobId = this.findBlob(reader, path, revision);
+            if (blobId == null) {
+                return new byte[0];
+            }
+            // stream the blob, so that large files are not loaded completely
+            try (InputStream in = reader.open(blobId).openStream()) {
+                return Util.readPrefix(in, maxLength);
+            }
+        }
+    }
+
+    /**
+     * Returns the ID of the blob for the given path in the given revision, or null if it does not exist.
+     */
+    private ObjectId findBlob(final ObjectReader reader, final String path, final IRepoRevision<?> revision)
+            throws IOException {
+        try (RevWalk walk = new RevWalk(reader)) {
             // Get the commit object for that revision
             final ObjectId commitId = this.getRepository().resolve(((RevisionId) revision.getId()).getName());
             if (commitId == null) {
-                return new byte[0];
+                return null;
             }
             final RevCommit commit = walk.parseCommit(commitId);
 
@@ -121,13 +157,7 @@ final class GitRepository extends AbstractRepository {
             final RevTree tree = commit.getTree();
             // .. and narrow it down to the single file's path
             final TreeWalk treewalk = TreeWalk.forPath(reader, path, tree);
-
-            if (treewalk != null) {
-                // use the blob id to read the file's data
-                return reader.open(treewalk.getObjectId(0)).getBytes();
-            } else {
-                return new byte[0];
-            }
+            return treewalk != null ? treewalk.getObjectId(0) : null;
         }
     }
 
@@ -2,6 +2,10 @@ package de.setsoftware.reviewtool.changesources.git;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+
+import org.eclipse.jgit.lib.ObjectId;
 
 import de.setsoftware.reviewtool.diffalgorithms.DiffAlgorithmFactory;
 import de.setsoftware.reviewtool.model.api.IFileHistoryGraph;
@@ -17,6 +21,8 @@ final class GitWorkingCopy extends AbstractWorkingCopy {
     private final GitRepository repository;
     private final File workingCopyRoot;
     private VirtualFileHistoryGraph combinedFileHistoryGraph;
+    private ObjectId localChangesHead;
+    private Set<String> localChanges = Collections.emptySet();
 
     /**
      * Constructor.
@@ -73,6 +79,37 @@ final class GitWorkingCopy extends AbstractWorkingCopy {
         this.combinedFileHistoryGraph.setLocalFileHistoryGraph(localFileHistoryGraph);
     }
 
+    /**
+     * Replaces the local file history graph and remembers the locally modified paths it was built from,
+     * so that they can be reused when only some of the files are checked again.
+     * @param head The HEAD commit the local changes are relative to.
+     * @param modifiedPaths The locally modified paths, relative to the working copy root.
+     * @param localFileHistoryGraph The local file history graph built from the modified paths.
+     */
+    synchronized void setLocalChanges(
+            final ObjectId head,
+            final Set<String> modifiedPaths,
+            final IFileHistoryGraph localFileHistoryGraph) {
+        this.localChangesHead = head;
+        this.localChanges = modifiedPaths;
+        this.setLocalFileHistoryGraph(localFileHistoryGraph);
+    }
+
+    /**
+     * Returns the HEAD commit the current local changes are relative to, or {@code null} if they
+     * have not been determined yet.
+     */
+    synchronized ObjectId getLocalChangesHead() {
+        return this.localChangesHead;
+    }
+
+    /**
+     * Returns the locally modified paths the current local file history graph was built from.
+     */
+    synchronized Set<String> getLocalChanges() {
+        return this.localChanges;
+    }
+
     void clearCache() {
         this.repository.clearCache();
         final VirtualFileHistoryGraph oldGraph = this.combinedFileHistoryGraph;
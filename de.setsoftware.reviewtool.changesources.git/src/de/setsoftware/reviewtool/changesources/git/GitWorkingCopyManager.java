@@ -2,14 +2,20 @@ package de.setsoftware.reviewtool.changesources.git;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 
 import org.eclipse.jgit.api.Git;
@@ -23,6 +29,8 @@ import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
 
+import de.setsoftware.reviewtool.base.DaemonExecutors;
+import de.setsoftware.reviewtool.base.ReviewtoolException;
 import de.setsoftware.reviewtool.diffalgorithms.DiffAlgorithmFactory;
 import de.setsoftware.reviewtool.model.api.IChangeSourceUi;
 import de.setsoftware.reviewtool.model.api.IMutableFileHistoryGraph;
@@ -37,6 +45,8 @@ final class GitWorkingCopyManager {
 
     private static final GitWorkingCopyManager INSTANCE = new GitWorkingCopyManager();
 
+    private static final ExecutorService STATUS_POOL = DaemonExecutors.newFixedThreadPool("CoRT git status");
+
     private final Map<String, GitWorkingCopy> wcPerRootDirectory;
 
     /**
@@ -91,8 +101,18 @@ final class GitWorkingCopyManager {
         this.wcPerRootDirectory.remove(workingCopyRoot.toString());
     }
 
-    Map<GitRevision, String> traverseEntries(Predicate<GitRevision> handler, IChangeSourceUi ui)
-        throws GitAPIException, IOException {
+    /**
+     * Walks the commits of all refs in all working copies and returns those for which the handler returns true,
+     * together with the name of the ref they were found with.
+     * @param handler The handler that decides which commits are relevant.
+     * @param headHistories The HEAD histories per working copy from the last traversal with an equivalent handler.
+     *      The commits in them are not passed to the handler again when HEAD has only moved forward since.
+     *      The map is updated with the current HEAD histories.
+     */
+    Map<GitRevision, String> traverseEntries(
+            Predicate<GitRevision> handler,
+            Map<GitWorkingCopy, HeadHistory> headHistories,
+            IChangeSourceUi ui) throws GitAPIException, IOException {
 
         final Map<GitRevision, String> ret = new LinkedHashMap<>();
         for (final GitWorkingCopy wc : this.getWorkingCopies()) {
@@ -112,15 +132,25 @@ final class GitWorkingCopyManager {
                 }
             });
 
+            HeadHistory headHistory = null;
             final Set<ObjectId> visited = new HashSet<>();
             for (final Ref ref : allRefs) {
-                try (RevWalk revWalk = new RevWalk(repository)) {
-                    if (visited.contains(ref.getObjectId())) {
-                        break;
+                if (isVisited(ref.getObjectId(), headHistory, visited)) {
+                    break;
+                }
+                if (ref.getName().equals("HEAD")) {
+                    //the commits reachable from HEAD are usually most of the history, so they are only walked
+                    //  up to the HEAD of the last traversal
+                    headHistory = HeadHistory.determine(wc, ref.getObjectId(), headHistories.get(wc), handler);
+                    for (final GitRevision r : headHistory.getMatchingCommits()) {
+                        ret.put(r, ref.getName());
                     }
+                    continue;
+                }
+                try (RevWalk revWalk = new RevWalk(repository)) {
                     revWalk.markStart(revWalk.parseCommit(ref.getObjectId()));
                     for (final RevCommit commit : revWalk) {
-                        if (visited.contains(commit.getId())) {
+                        if (isVisited(commit, headHistory, visited)) {
                             break;
                         }
                         visited.add(commit.getId());
@@ -131,22 +161,70 @@ final class GitWorkingCopyManager {
                     }
                 }
             }
+            if (headHistory != null) {
+                headHistories.put(wc, headHistory);
+            } else {
+                headHistories.remove(wc);
+            }
         }
         return ret;
     }
 
+    private static boolean isVisited(ObjectId commit, HeadHistory headHistory, Set<ObjectId> visited) {
+        return visited.contains(commit) || (headHistory != null && headHistory.contains(commit));
+    }
+
     /**
      * Collects all local changes and integrates them into the {@link FileHistoryGraph}.
+     * The working copies are analyzed in parallel.
      * @param relevantPaths The list of additional paths to check. If {@code null}, the whole working copy is analyzed.
      */
     void collectWorkingCopyChanges(final List<File> relevantPaths) throws IOException, GitAPIException {
+        final List<Future<Void>> futures = new ArrayList<>();
         for (final GitWorkingCopy wc : this.getWorkingCopies()) {
-            this.collectWorkingCopyChanges(wc, relevantPaths);
+            futures.add(STATUS_POOL.submit(() -> {
+                this.collectWorkingCopyChanges(wc, relevantPaths);
+                return null;
+            }));
+        }
+
+        //wait for all working copies before reporting an error, so that the others are still updated
+        Throwable error = null;
+        try {
+            for (final Future<Void> f : futures) {
+                try {
+                    f.get();
+                } catch (final ExecutionException e) {
+                    if (error == null) {
+                        error = e.getCause();
+                    }
+                }
+            }
+        } catch (final InterruptedException e) {
+            for (final Future<Void> f : futures) {
+                f.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while collecting local changes");
+        }
+
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        } else if (error instanceof GitAPIException) {
+            throw (GitAPIException) error;
+        } else if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        } else if (error instanceof Error) {
+            throw (Error) error;
+        } else if (error != null) {
+            throw new ReviewtoolException((Exception) error);
         }
     }
 
     /**
      * Collects all local changes of a given working copy and integrates them into the {@link FileHistoryGraph}.
+     * When only some paths are given and HEAD is unchanged, only these paths are checked and the known
+     * local changes of all other files are reused.
      * @param relevantPaths The list of additional paths to check. If {@code null}, the whole working copy is analyzed.
      */
     private void collectWorkingCopyChanges(final GitWorkingCopy wc, final List<? extends File> relevantPaths)
@@ -158,28 +236,77 @@ final class GitWorkingCopyManager {
             return;
         }
 
-        try (final Git git = new Git(repo)) {
-            final StatusCommand status = git.status();
-            if (relevantPaths != null) {
-                for (final File p : relevantPaths) {
-                    status.addPath(p.toString());
+        synchronized (wc) {
+            final Set<String> pathsToCheck;
+            if (relevantPaths != null && head.equals(wc.getLocalChangesHead())) {
+                pathsToCheck = filterPaths(relevantPaths, wc);
+                if (pathsToCheck != null && pathsToCheck.isEmpty()) {
+                    //nothing has changed in this working copy
+                    return;
                 }
+            } else {
+                pathsToCheck = null;
             }
 
-            final Status statusResult = status.call();
-            final IRevision wcRevision = ChangestructureFactory.createLocalRevision(wc);
-            RevCommit headCommit;
-            try (RevWalk revWalk = new RevWalk(repo)) {
-                headCommit = revWalk.parseCommit(head);
+            try (final Git git = new Git(repo)) {
+                final StatusCommand status = git.status();
+                final Set<String> modifiedPaths = new TreeSet<>();
+                if (pathsToCheck != null) {
+                    for (final String p : pathsToCheck) {
+                        status.addPath(p);
+                    }
+                    for (final String p : wc.getLocalChanges()) {
+                        if (!isInPaths(p, pathsToCheck)) {
+                            modifiedPaths.add(p);
+                        }
+                    }
+                }
+
+                final Status statusResult = status.call();
+                modifiedPaths.addAll(statusResult.getModified());
+
+                final IRevision wcRevision = ChangestructureFactory.createLocalRevision(wc);
+                RevCommit headCommit;
+                try (RevWalk revWalk = new RevWalk(repo)) {
+                    headCommit = revWalk.parseCommit(head);
+                }
+                final IRevision headRevision = ChangestructureFactory.createRepoRevision(
+                        new RevisionId(headCommit), wc.getRepository());
+                final IMutableFileHistoryGraph localFileHistoryGraph =
+                        new FileHistoryGraph(DiffAlgorithmFactory.createDefault());
+                for (final String modifiedFile : modifiedPaths) {
+                    localFileHistoryGraph.addChange(modifiedFile, wcRevision, Collections.singleton(headRevision));
+                }
+                wc.setLocalChanges(head.copy(), modifiedPaths, localFileHistoryGraph);
+            }
+        }
+    }
+
+    /**
+     * Returns the given paths that belong to the passed working copy, relative to its root.
+     * Returns {@code null} if the whole working copy has to be checked.
+     */
+    private static Set<String> filterPaths(final List<? extends File> relevantPaths, final GitWorkingCopy wc) {
+        final Set<String> paths = new LinkedHashSet<>();
+        for (final File path : relevantPaths) {
+            final String repoPath = wc.toAbsolutePathInRepo(path);
+            if (repoPath == null) {
+                continue;
             }
-            final IRevision headRevision = ChangestructureFactory.createRepoRevision(
-                    new RevisionId(headCommit), wc.getRepository());
-            final IMutableFileHistoryGraph localFileHistoryGraph =
-                    new FileHistoryGraph(DiffAlgorithmFactory.createDefault());
-            for (final String modifiedFile : statusResult.getModified()) {
-                localFileHistoryGraph.addChange(modifiedFile, wcRevision, Collections.singleton(headRevision));
+            if (repoPath.equals("/")) {
+                return null;
+            }
+            paths.add(repoPath.substring(1));
+        }
+        return paths;
+    }
+
+    private static boolean isInPaths(final String path, final Set<String> paths) {
+        for (final String p : paths) {
+            if (path.equals(p) || path.startsWith(p + "/")) {
+                return true;
             }
-            wc.setLocalFileHistoryGraph(localFileHistoryGraph);
         }
+        return false;
     }
 }
@@ -0,0 +1,155 @@
+package de.setsoftware.reviewtool.changesources.git;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Predicate;
+
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+/**
+ * The commits reachable from the HEAD of a working copy, as found by a search for the commits of a ticket.
+ * When HEAD has only moved forward since the last search for the same ticket (i.e. the old HEAD is the
+ * merge base of the old and the new HEAD), the next search only has to look at the commits added in between.
+ */
+final class HeadHistory {
+
+    private final GitWorkingCopy wc;
+    private final ObjectId head;
+    private final ObjectId previousHead;
+    private final Map<ObjectId, Long> commitDates;
+    private final List<GitRevision> matchingCommits;
+
+    private HeadHistory(
+            final GitWorkingCopy wc,
+            final ObjectId head,
+            final ObjectId previousHead,
+            final Map<ObjectId, Long> commitDates,
+            final List<GitRevision> matchingCommits) {
+        this.wc = wc;
+        this.head = head;
+        this.previousHead = previousHead;
+        this.commitDates = commitDates;
+        this.matchingCommits = matchingCommits;
+    }
+
+    /**
+     * Determines the history of the given HEAD commit. Every commit that is not already known from the previous
+     * history is passed to the handler, and is remembered as matching when the handler returns true.
+     * @param wc The working copy.
+     * @param head The current HEAD commit.
+     * @param previous The history from the last search with an equivalent handler, or {@code null}.
+     * @param handler The handler that decides which commits match.
+     */
+    static HeadHistory determine(
+            final GitWorkingCopy wc,
+            final ObjectId head,
+            final HeadHistory previous,
+            final Predicate<GitRevision> handler) throws IOException {
+
+        if (previous != null && previous.wc == wc && previous.head.equals(head)) {
+            //nothing has changed, the old commit set can be shared because it is never modified
+            return new HeadHistory(wc, previous.head, previous.head, previous.commitDates, previous.matchingCommits);
+        }
+
+        try (RevWalk revWalk = new RevWalk(wc.getRepository().getRepository())) {
+            final RevCommit headCommit = revWalk.parseCommit(head);
+            final ObjectId previousHead;
+            final Map<ObjectId, Long> commitDates;
+            final List<GitRevision> matchingCommits = new ArrayList<>();
+            if (previous != null && previous.wc == wc && isAncestor(revWalk, previous.head, headCommit)) {
+                previousHead = previous.head;
+                commitDates = new HashMap<>(previous.commitDates);
+                matchingCommits.addAll(previous.matchingCommits);
+            } else {
+                previousHead = null;
+                commitDates = new HashMap<>();
+            }
+
+            //the ancestor check has used the walk, so it has to be reset
+            revWalk.reset();
+            if (previousHead != null) {
+                revWalk.markUninteresting(revWalk.parseCommit(previousHead));
+            }
+            revWalk.markStart(headCommit);
+            for (final RevCommit commit : revWalk) {
+                final GitRevision r = new GitRevision(wc, commit);
+                //only the ID is kept, so that the commit's data can be freed
+                commitDates.put(commit.copy(), r.getDate().getTime());
+                if (handler.test(r)) {
+                    matchingCommits.add(r);
+                }
+            }
+            return new HeadHistory(wc, head.copy(), previousHead, commitDates, matchingCommits);
+        }
+    }
+
+    private static boolean isAncestor(final RevWalk revWalk, final ObjectId commit, final RevCommit descendant)
+        throws IOException {
+        try {
+            return revWalk.isMergedInto(revWalk.parseCommit(commit), descendant);
+        } catch (final MissingObjectException e) {
+            //the old HEAD no longer exists, e.g. after a rebase and garbage collection
+            return false;
+        }
+    }
+
+    GitWorkingCopy getWorkingCopy() {
+        return this.wc;
+    }
+
+    /**
+     * Returns true iff this history was determined by continuing the given history, i.e. only the commits
+     * that are not in the given history were passed to the handler.
+     */
+    boolean continues(final HeadHistory previous) {
+        return previous.head.equals(this.previousHead);
+    }
+
+    /**
+     * Returns true iff the given commit is reachable from HEAD.
+     */
+    boolean contains(final AnyObjectId commit) {
+        return this.commitDates.containsKey(commit);
+    }
+
+    /**
+     * Returns the commits for which the handler returned true.
+     */
+    List<GitRevision> getMatchingCommits() {
+        return Collections.unmodifiableList(this.matchingCommits);
+    }
+
+    /**
+     * Loads the commits in this history that have an author date not before the given time and have
+     * not been analyzed yet. The newest commits come first.
+     */
+    List<GitRevision> loadUnanalyzedCommits(final long minTime) throws IOException {
+        final GitRepository repository = this.wc.getRepository();
+        final List<Entry<ObjectId, Long>> toLoad = new ArrayList<>();
+        for (final Entry<ObjectId, Long> e : this.commitDates.entrySet()) {
+            if (e.getValue() >= minTime && !repository.wasAlreadyAnalyzed(e.getKey().name())) {
+                toLoad.add(e);
+            }
+        }
+        Collections.sort(toLoad, (Entry<ObjectId, Long> e1, Entry<ObjectId, Long> e2) ->
+                Long.compare(e2.getValue(), e1.getValue()));
+
+        final List<GitRevision> ret = new ArrayList<>();
+        try (RevWalk revWalk = new RevWalk(repository.getRepository())) {
+            for (final Entry<ObjectId, Long> e : toLoad) {
+                ret.add(new GitRevision(this.wc, revWalk.parseCommit(e.getKey())));
+            }
+        }
+        return ret;
+    }
+
+}
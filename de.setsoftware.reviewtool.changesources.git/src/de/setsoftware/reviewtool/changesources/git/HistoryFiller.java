@@ -19,11 +19,20 @@ import de.setsoftware.reviewtool.model.api.IMutableFileHistoryGraph;
 class HistoryFiller {
 
     private final List<GitRevision> logEntries = new ArrayList<>();
+    private final List<HeadHistory> knownHistories = new ArrayList<>();
 
     public void register(GitRevision logEntry) {
         this.logEntries .add(logEntry);
     }
 
+    /**
+     * Registers the commits of a HEAD history that were not passed to {@link #register} again, because they
+     * were already known from an earlier search. They are only loaded when they still have to be analyzed.
+     */
+    public void registerKnownCommits(HeadHistory history) {
+        this.knownHistories.add(history);
+    }
+
     public void populate(Collection<? extends GitRevision> relevantRevisions, IChangeSourceUi ui) throws IOException {
         final Set<GitRepository> repos = new LinkedHashSet<>();
         long minTime = Long.MAX_VALUE;
@@ -40,6 +49,14 @@ class HistoryFiller {
                 revisionsToAnalyze.put(repository, r);
             }
         }
+        for (final HeadHistory history : this.knownHistories) {
+            final GitRepository repository = history.getWorkingCopy().getRepository();
+            if (repos.contains(repository)) {
+                for (final GitRevision r : history.loadUnanalyzedCommits(minTime)) {
+                    revisionsToAnalyze.put(repository, r);
+                }
+            }
+        }
 
         ui.increaseTaskNestingLevel();
         try {
@@ -4,12 +4,12 @@ import java.io.Serializable;
 
 import org.eclipse.jgit.revwalk.RevCommit;
 
-import de.setsoftware.reviewtool.base.IPartiallyComparable;
+import de.setsoftware.reviewtool.base.IWeaklyOrdered;
 
 /**
  * An ID for a git commit/revision.
  */
-class RevisionId implements IPartiallyComparable<RevisionId>, Serializable {
+class RevisionId implements IWeaklyOrdered<RevisionId, Integer>, Serializable {
 
     private static final long serialVersionUID = -8543239627001714924L;
 
@@ -31,6 +31,11 @@ class RevisionId implements IPartiallyComparable<RevisionId>, Serializable {
             || this.id.equals(other.id);
     }
 
+    @Override
+    public Integer getOrderKey() {
+        return this.time;
+    }
+
     @Override
     public int hashCode() {
         return this.time;
@@ -4,6 +4,7 @@ import java.io.ByteArrayOutputStream;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.tmatesoft.svn.core.SVNDirEntry;
 import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.SVNNodeKind;
 import org.tmatesoft.svn.core.io.SVNRepository;
@@ -75,6 +76,26 @@ final class SvnFileCache {
         return contents;
     }
 
+    /**
+     * Returns the size of some file in the repository. If the file's contents are not cached,
+     * only the file's directory entry is requested from the repository, without loading its contents.
+     * @param path The file path.
+     * @param revision The file revision.
+     * @return The file size in bytes, or 0 if the file does not exist.
+     * @throws SVNException if some error occurs.
+     */
+    long getFileSize(final String path, final long revision) throws SVNException {
+        final byte[] contents = this.fileContents.get(new CachedFile(path, revision));
+        if (contents != null) {
+            return contents.length;
+        }
+        final SVNDirEntry info = this.repo.info(path, revision);
+        if (info == null || info.getKind() != SVNNodeKind.FILE) {
+            return 0L;
+        }
+        return info.getSize();
+    }
+
     /**
      * Loads the contents of some file in the repository.
      * @param path The file path.
@@ -158,6 +158,11 @@ final class SvnRepo extends AbstractRepository implements ISvnRepo {
         return this.fileCache.getFileContents(path, ComparableWrapper.<Long> unwrap(revision.getId()));
     }
 
+    @Override
+    public long getFileSize(final String path, final IRepoRevision<?> revision) throws SVNException {
+        return this.fileCache.getFileSize(path, ComparableWrapper.<Long> unwrap(revision.getId()));
+    }
+
     @Override
     public Set<File> getFiles(final String path, final IRepoRevision<?> revision) {
         final Set<File> result = new LinkedHashSet<>();
@@ -8,7 +8,7 @@ import java.io.Serializable;
  * @param <T> The type of the underlying {@link Comparable}.
  */
 public final class ComparableWrapper<T extends Comparable<T>>
-        implements IPartiallyComparable<ComparableWrapper<T>>, Serializable {
+        implements IWeaklyOrdered<ComparableWrapper<T>, T>, Serializable {
 
     private static final long serialVersionUID = -167944665788166042L;
     private final T wrappedComparable;
@@ -48,6 +48,11 @@ public final class ComparableWrapper<T extends Comparable<T>>
         return this.wrappedComparable.compareTo(other.wrappedComparable) <= 0;
     }
 
+    @Override
+    public T getOrderKey() {
+        return this.wrappedComparable;
+    }
+
     @Override
     public boolean equals(final Object obj) {
         if (obj instanceof ComparableWrapper) {
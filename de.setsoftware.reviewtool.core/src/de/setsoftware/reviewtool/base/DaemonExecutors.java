@@ -0,0 +1,30 @@
+package de.setsoftware.reviewtool.base;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the thread pools used for computations in the background.
+ */
+public final class DaemonExecutors {
+
+    private DaemonExecutors() {
+    }
+
+    /**
+     * Creates a thread pool with one thread per processor, but at least two threads. The threads are daemon
+     * threads, so that the pool does not have to be shut down and does not keep the VM from exiting.
+     * Each use case should have its own pool, so that long running tasks of one do not delay the others.
+     * @param threadName The name of the pool's threads.
+     */
+    public static ExecutorService newFixedThreadPool(final String threadName) {
+        return Executors.newFixedThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors()),
+                (Runnable r) -> {
+                    final Thread t = new Thread(r, threadName);
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+}
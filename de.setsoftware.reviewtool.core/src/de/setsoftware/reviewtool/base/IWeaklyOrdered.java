@@ -0,0 +1,23 @@
+package de.setsoftware.reviewtool.base;
+
+/**
+ * Represents partially comparable objects whose order can be fully described by a sort key.
+ *
+ * <p>For objects {@code a} and {@code b} of the same concrete type, the following has to hold:
+ * <ul>
+ * <li>{@code a.le(b) && !b.le(a)} <=> {@code a.getOrderKey()} is less than {@code b.getOrderKey()}</li>
+ * <li>{@code a.getOrderKey()} equals {@code b.getOrderKey()} => {@code a} and {@code b} are equal or incomparable</li>
+ * </ul>
+ * In other words, the partial order is a strict weak order. This allows algorithms to use sorting and binary
+ * search on the keys instead of pairwise comparisons with {@link #le(Object)}.
+ *
+ * @param <T> The concrete type of the objects.
+ * @param <K> The type of the sort key.
+ */
+public interface IWeaklyOrdered<T, K extends Comparable<K>> extends IPartiallyComparable<T> {
+
+    /**
+     * Returns the sort key of this object.
+     */
+    public abstract K getOrderKey();
+}
@@ -0,0 +1,172 @@
+package de.setsoftware.reviewtool.base;
+
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Decoded text contents of a file together with the offsets of its lines, allowing lines and ranges of lines
+ * to be extracted without rescanning the text. Line indices start at zero.
+ * <p/>
+ * Lines are split like {@link java.io.BufferedReader#readLine()} does it, i.e. at "\n", "\r\n" and "\r".
+ * A line break at the very end of the text does not start a further line.
+ * <p/>
+ * Instances are immutable and can therefore be shared, e.g. between all fragments of a file revision.
+ */
+public final class LineIndex {
+
+    private final String content;
+
+    /**
+     * Offset of the start of each line. Contains an additional entry with the length of the content at the end.
+     */
+    private final int[] lineStarts;
+
+    /**
+     * Offset of the end of each line, excluding its line break.
+     */
+    private final int[] lineEnds;
+
+    private final int numberOfLines;
+
+    private LineIndex(final String content) {
+        this.content = content;
+
+        final int length = content.length();
+        int[] starts = new int[16];
+        int[] ends = new int[16];
+        int count = 0;
+        int lineStart = 0;
+        int i = 0;
+        while (i < length) {
+            final char ch = content.charAt(i);
+            if (ch == '\n' || ch == '\r') {
+                if (count + 1 >= starts.length) {
+                    starts = grow(starts);
+                    ends = grow(ends);
+                }
+                starts[count] = lineStart;
+                ends[count] = i;
+                count++;
+                i += ch == '\r' && i + 1 < length && content.charAt(i + 1) == '\n' ? 2 : 1;
+                lineStart = i;
+            } else {
+                i++;
+            }
+        }
+        if (lineStart < length) {
+            if (count + 1 >= starts.length) {
+                starts = grow(starts);
+                ends = grow(ends);
+            }
+            starts[count] = lineStart;
+            ends[count] = length;
+            count++;
+        }
+        starts[count] = length;
+
+        this.numberOfLines = count;
+        this.lineStarts = starts;
+        this.lineEnds = ends;
+    }
+
+    private static int[] grow(final int[] array) {
+        final int[] ret = new int[array.length * 2];
+        System.arraycopy(array, 0, ret, 0, array.length);
+        return ret;
+    }
+
+    /**
+     * Creates an index for the given text.
+     */
+    public static LineIndex create(final String content) {
+        return new LineIndex(content);
+    }
+
+    /**
+     * Creates an index for the given contents.
+     * @param contents The bytes of the text.
+     * @param charset The character set to use for the conversion from bytes to characters.
+     * @throws UnsupportedEncodingException if the character set is not supported.
+     */
+    public static LineIndex create(final byte[] contents, final String charset) throws UnsupportedEncodingException {
+        return new LineIndex(new String(contents, charset));
+    }
+
+    /**
+     * Returns the whole decoded text, including the line breaks.
+     */
+    public String getContent() {
+        return this.content;
+    }
+
+    /**
+     * Returns the number of lines.
+     */
+    public int getNumberOfLines() {
+        return this.numberOfLines;
+    }
+
+    /**
+     * Returns some line without its line break.
+     * @param lineIndex The line index, starting at zero.
+     */
+    public String getLine(final int lineIndex) {
+        this.checkLineIndex(lineIndex, this.numberOfLines - 1);
+        return this.content.substring(this.lineStarts[lineIndex], this.lineEnds[lineIndex]);
+    }
+
+    /**
+     * Returns the length of some line, excluding its line break.
+     * @param lineIndex The line index, starting at zero.
+     */
+    public int getLineLength(final int lineIndex) {
+        this.checkLineIndex(lineIndex, this.numberOfLines - 1);
+        return this.lineEnds[lineIndex] - this.lineStarts[lineIndex];
+    }
+
+    /**
+     * Returns the offset of the start of some line in the text.
+     * @param lineIndex The line index, starting at zero. The number of lines is allowed, too, and denotes
+     *      the end of the text.
+     */
+    public int getLineStartOffset(final int lineIndex) {
+        this.checkLineIndex(lineIndex, this.numberOfLines);
+        return this.lineStarts[lineIndex];
+    }
+
+    /**
+     * Returns true iff the text is empty or ends with a line break.
+     */
+    public boolean endsWithLineBreak() {
+        return this.numberOfLines == 0 || this.lineEnds[this.numberOfLines - 1] < this.content.length();
+    }
+
+    /**
+     * Returns some range of lines as a single string, with each line terminated by "\n" regardless of the
+     * line break used in the text. Lines outside of the text are ignored.
+     * @param fromIndex The index of the start line (inclusive), starting at zero.
+     * @param toIndex The index of the end line (exclusive), starting at zero.
+     */
+    public String getLinesNormalized(final int fromIndex, final int toIndex) {
+        final int from = Math.max(fromIndex, 0);
+        final int to = Math.min(toIndex, this.numberOfLines);
+        if (from >= to) {
+            return "";
+        }
+        final StringBuilder ret = new StringBuilder(this.lineStarts[to] - this.lineStarts[from] + 1);
+        for (int i = from; i < to; i++) {
+            ret.append(this.content, this.lineStarts[i], this.lineEnds[i]).append('\n');
+        }
+        return ret.toString();
+    }
+
+    private void checkLineIndex(final int lineIndex, final int max) {
+        if (lineIndex < 0 || lineIndex > max) {
+            throw new IndexOutOfBoundsException("line " + lineIndex + " of " + this.numberOfLines);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LineIndex(" + this.numberOfLines + " lines)";
+    }
+}
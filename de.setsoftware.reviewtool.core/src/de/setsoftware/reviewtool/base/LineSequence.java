@@ -1,13 +1,9 @@
 package de.setsoftware.reviewtool.base;
 
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Manages a sequence of lines and remembers the absolute character start and end positions of each line. Line and
@@ -16,15 +12,19 @@ import java.util.Map;
 public class LineSequence {
 
     private final List<String> lines;
-    private final Map<Integer, Integer> lineOffsets;
+
+    /**
+     * The start offset of each line, followed by the end offset of the last line.
+     * Only the first {@code lines.size() + 1} entries are used.
+     */
+    private int[] lineOffsets;
 
     /**
      * Default constructor. Creates an empty LineSequence.
      */
     public LineSequence() {
         this.lines = new ArrayList<>();
-        this.lineOffsets = new HashMap<>();
-        this.lineOffsets.put(0, 0);
+        this.lineOffsets = new int[16];
     }
 
     /**
@@ -34,11 +34,18 @@ public class LineSequence {
      * @throws IOException if some I/O error occurs.
      */
     public LineSequence(byte[] contents, String charset) throws IOException {
-        this();
-        final BufferedReader r = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(contents), charset));
-        String line;
-        while ((line = r.readLine()) != null) {
-            this.addLine(line + '\n');
+        this(LineIndex.create(contents, charset));
+    }
+
+    /**
+     * Constructor which takes the lines from a {@link LineIndex}. Each line is terminated by "\n".
+     * @param index The index holding the line data.
+     */
+    public LineSequence(final LineIndex index) {
+        this.lines = new ArrayList<>(index.getNumberOfLines());
+        this.lineOffsets = new int[index.getNumberOfLines() + 1];
+        for (int i = 0; i < index.getNumberOfLines(); i++) {
+            this.addLine(index.getLine(i) + '\n');
         }
     }
 
@@ -47,8 +54,12 @@ public class LineSequence {
      * @param line The line to add.
      */
     public void addLine(final String line) {
+        final int lineIndex = this.lines.size();
+        if (lineIndex + 1 >= this.lineOffsets.length) {
+            this.lineOffsets = Arrays.copyOf(this.lineOffsets, Math.max(16, this.lineOffsets.length * 2));
+        }
         this.lines.add(line);
-        this.lineOffsets.put(this.lines.size(), this.lineOffsets.get(this.lines.size() - 1) + line.length());
+        this.lineOffsets[lineIndex + 1] = this.lineOffsets[lineIndex] + line.length();
     }
 
     /**
@@ -84,8 +95,9 @@ public class LineSequence {
      * @return The lines as a single string.
      */
     public String getLinesConcatenated(final int fromIndex, final int toIndex) {
-        final StringBuilder builder = new StringBuilder();
-        for (final String s : this.getLines(fromIndex, toIndex)) {
+        final List<String> range = this.lines.subList(fromIndex, toIndex);
+        final StringBuilder builder = new StringBuilder(this.lineOffsets[toIndex] - this.lineOffsets[fromIndex]);
+        for (final String s : range) {
             builder.append(s);
         }
         return builder.toString();
@@ -97,6 +109,9 @@ public class LineSequence {
      * @return The absolute character index pointing at the start of the line.
      */
     public int getStartPositionOfLine(final int lineIndex) {
-        return this.lineOffsets.get(lineIndex);
+        if (lineIndex < 0 || lineIndex > this.lines.size()) {
+            throw new IndexOutOfBoundsException("no line with index " + lineIndex);
+        }
+        return this.lineOffsets[lineIndex];
     }
 }
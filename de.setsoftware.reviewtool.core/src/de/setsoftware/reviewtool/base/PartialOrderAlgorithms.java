@@ -8,9 +8,20 @@ import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Function;
 
 /**
  * Implements some useful algorithms on partially ordered sets.
+ * <p/>
+ * The generic variants of the algorithms only use {@link IPartiallyComparable#le(Object)} and need a quadratic
+ * number of comparisons. For orders where (most of) the elements have a sort key that is compatible to the order
+ * (like commit times or revision numbers), there are variants that need only a near-linear number of comparisons.
+ * A key function is compatible to the order iff for all elements {@code a} and {@code b} with non-null keys,
+ * {@code key(a) < key(b)} implies that {@code a} comes strictly before {@code b}. Elements with equal keys and
+ * elements without key (i.e. for which the key function returns {@code null}) are compared using
+ * {@link IPartiallyComparable#le(Object)}.
  */
 public final class PartialOrderAlgorithms {
 
@@ -79,7 +90,7 @@ public final class PartialOrderAlgorithms {
     /**
      * Returns all maximal elements of a partially ordered collection.
      * If the collection is empty, an empty list is returned.
-     * @param elements A partially ordered collection of elements.
+     * @param elements A partially ordered collection of elements, sorted topologically.
      */
     public static <T extends IPartiallyComparable<T>, U extends T> List<U> getAllMaximalElements(
             final Collection<U> elements) {
@@ -102,6 +113,37 @@ public final class PartialOrderAlgorithms {
         return result;
     }
 
+    /**
+     * Returns all maximal elements of a partially ordered collection, using a sort key compatible to the order.
+     * Only the elements with the greatest key and the elements without key are compared pairwise.
+     * If the collection is empty, an empty list is returned.
+     * @param elements A partially ordered collection of elements, not necessarily sorted.
+     * @param orderKey Function returning the sort key for an element, or {@code null} if it has none.
+     */
+    public static <T extends IPartiallyComparable<T>, U extends T> List<U> getAllMaximalElements(
+            final Collection<U> elements,
+            final Function<? super U, ? extends Comparable<?>> orderKey) {
+
+        final List<U> candidates = new ArrayList<>();
+        final List<U> elementsWithMaximalKey = new ArrayList<>();
+        Comparable<Object> maximalKey = null;
+        for (final U element : elements) {
+            final Comparable<Object> key = getKey(orderKey, element);
+            if (key == null) {
+                candidates.add(element);
+            } else if (maximalKey == null || maximalKey.compareTo(key) < 0) {
+                maximalKey = key;
+                elementsWithMaximalKey.clear();
+                elementsWithMaximalKey.add(element);
+            } else if (maximalKey.compareTo(key) == 0) {
+                elementsWithMaximalKey.add(element);
+            }
+        }
+        // all other elements with key are strictly smaller than those with the maximal key
+        candidates.addAll(elementsWithMaximalKey);
+        return getAllMaximalElements(topoSort(candidates, orderKey));
+    }
+
     /**
      * Performs a topological sort on a partially ordered collection.
      * @param toSort The collection to be sorted topologically.
@@ -121,4 +163,145 @@ public final class PartialOrderAlgorithms {
         }
         return ret;
     }
+
+    /**
+     * Performs a topological sort on a partially ordered collection, using a sort key compatible to the order.
+     * <p/>
+     * The elements are sorted by Kahn's algorithm on an explicit DAG. The elements with key are grouped by key,
+     * and the groups form a chain, so that only elements in the same group and elements without key have to be
+     * compared pairwise. Instead of connecting each element of a group with each element of the next group,
+     * the groups are connected by artificial barrier nodes. Elements that are not ordered relative to each other
+     * keep the order of the input collection.
+     *
+     * @param toSort The collection to be sorted topologically.
+     * @param orderKey Function returning the sort key for an element, or {@code null} if it has none.
+     * @return The sorted set, represented as a list.
+     */
+    public static <T extends IPartiallyComparable<T>, U extends T> List<U> topoSort(
+            final Collection<U> toSort,
+            final Function<? super U, ? extends Comparable<?>> orderKey) {
+
+        if (toSort.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<U> elements = new ArrayList<>(new LinkedHashSet<>(toSort));
+        final int elementCount = elements.size();
+        final TreeMap<Comparable<Object>, List<Integer>> groups = new TreeMap<>();
+        final List<Integer> elementsWithoutKey = new ArrayList<>();
+        for (int i = 0; i < elementCount; i++) {
+            final Comparable<Object> key = getKey(orderKey, elements.get(i));
+            if (key == null) {
+                elementsWithoutKey.add(i);
+            } else {
+                List<Integer> group = groups.get(key);
+                if (group == null) {
+                    group = new ArrayList<>();
+                    groups.put(key, group);
+                }
+                group.add(i);
+            }
+        }
+
+        // nodes 0..elementCount-1 are the elements, the following nodes are the barriers between the groups
+        final int nodeCount = elementCount + Math.max(groups.size() - 1, 0);
+        final List<List<Integer>> successors = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            successors.add(new ArrayList<>());
+        }
+        final int[] inDegree = new int[nodeCount];
+
+        int barrier = elementCount;
+        List<Integer> previousGroup = null;
+        for (final List<Integer> group : groups.values()) {
+            if (previousGroup != null) {
+                for (final int element : previousGroup) {
+                    addEdge(successors, inDegree, element, barrier);
+                }
+                for (final int element : group) {
+                    addEdge(successors, inDegree, barrier, element);
+                }
+                barrier++;
+            }
+            for (int a = 0; a < group.size(); a++) {
+                for (int b = a + 1; b < group.size(); b++) {
+                    addEdgeIfStrictlyOrdered(elements, group.get(a), group.get(b), successors, inDegree);
+                }
+            }
+            previousGroup = group;
+        }
+
+        final boolean[] withoutKey = new boolean[elementCount];
+        for (final int i : elementsWithoutKey) {
+            withoutKey[i] = true;
+        }
+        for (final int i : elementsWithoutKey) {
+            for (int j = 0; j < elementCount; j++) {
+                // pairs of elements without key shall only be compared once
+                if (j != i && !(withoutKey[j] && j < i)) {
+                    addEdgeIfStrictlyOrdered(elements, i, j, successors, inDegree);
+                }
+            }
+        }
+
+        // barriers have larger node numbers than all elements, so elements are preferred when picking a node
+        final PriorityQueue<Integer> ready = new PriorityQueue<>();
+        for (int i = 0; i < nodeCount; i++) {
+            if (inDegree[i] == 0) {
+                ready.add(i);
+            }
+        }
+        final List<U> ret = new ArrayList<>(elementCount);
+        while (!ready.isEmpty()) {
+            final int node = ready.poll();
+            if (node < elementCount) {
+                ret.add(elements.get(node));
+            }
+            for (final int successor : successors.get(node)) {
+                inDegree[successor]--;
+                if (inDegree[successor] == 0) {
+                    ready.add(successor);
+                }
+            }
+        }
+        assert ret.size() == elementCount;
+        return ret;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <U> Comparable<Object> getKey(
+            final Function<? super U, ? extends Comparable<?>> orderKey,
+            final U element) {
+        return (Comparable<Object>) orderKey.apply(element);
+    }
+
+    /**
+     * Adds an edge between the elements with the given indices if one of them is strictly smaller than the other.
+     */
+    private static <T extends IPartiallyComparable<T>, U extends T> void addEdgeIfStrictlyOrdered(
+            final List<U> elements,
+            final int i,
+            final int j,
+            final List<List<Integer>> successors,
+            final int[] inDegree) {
+
+        final U a = elements.get(i);
+        final U b = elements.get(j);
+        final boolean aLeB = a.le(b);
+        final boolean bLeA = b.le(a);
+        if (aLeB && !bLeA) {
+            addEdge(successors, inDegree, i, j);
+        } else if (bLeA && !aLeB) {
+            addEdge(successors, inDegree, j, i);
+        }
+    }
+
+    private static void addEdge(
+            final List<List<Integer>> successors,
+            final int[] inDegree,
+            final int from,
+            final int to) {
+        successors.get(from).add(to);
+        inDegree[to]++;
+    }
 }
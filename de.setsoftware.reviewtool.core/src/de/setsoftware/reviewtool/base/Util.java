@@ -1,5 +1,8 @@
 package de.setsoftware.reviewtool.base;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Iterator;
 
 /**
@@ -47,4 +50,20 @@ public class Util {
         return o1.compareTo(o2) >= 0 ? o1 : o2;
     }
 
+    /**
+     * Reads at most maxLength bytes from the given stream. Returns less bytes only if the stream ends before.
+     */
+    public static byte[] readPrefix(final InputStream in, final int maxLength) throws IOException {
+        final byte[] buffer = new byte[maxLength];
+        int length = 0;
+        while (length < maxLength) {
+            final int read = in.read(buffer, length, maxLength - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        return length == maxLength ? buffer : Arrays.copyOf(buffer, length);
+    }
+
 }
@@ -19,6 +19,11 @@ public class BinaryFileFilter extends IIrrelevanceDetermination {
         return "binary file";
     }
 
+    @Override
+    protected String getConfigurationKey() {
+        return "";
+    }
+
     @Override
     public boolean isIrrelevant(ICommit commit, IChange change) {
         return change instanceof IBinaryChange;
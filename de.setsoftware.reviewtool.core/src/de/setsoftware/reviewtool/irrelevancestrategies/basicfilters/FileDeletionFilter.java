@@ -19,6 +19,11 @@ public class FileDeletionFilter extends IIrrelevanceDetermination {
         return "deleted file";
     }
 
+    @Override
+    protected String getConfigurationKey() {
+        return "";
+    }
+
     @Override
     public boolean isIrrelevant(ICommit commit, IChange change) {
         return change.getType() == FileChangeType.DELETED;
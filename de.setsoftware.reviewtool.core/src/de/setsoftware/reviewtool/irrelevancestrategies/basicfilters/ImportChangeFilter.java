@@ -1,12 +1,7 @@
 package de.setsoftware.reviewtool.irrelevancestrategies.basicfilters;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.StringReader;
-
 import de.setsoftware.reviewtool.model.api.IChange;
 import de.setsoftware.reviewtool.model.api.ICommit;
-import de.setsoftware.reviewtool.model.api.IFragment;
 import de.setsoftware.reviewtool.model.api.ITextualChange;
 import de.setsoftware.reviewtool.model.changestructure.IIrrelevanceDetermination;
 import de.setsoftware.reviewtool.model.changestructure.TextualChangeHunk;
@@ -16,6 +11,8 @@ import de.setsoftware.reviewtool.model.changestructure.TextualChangeHunk;
  */
 public class ImportChangeFilter extends IIrrelevanceDetermination {
 
+    private static final String IMPORT = "import ";
+
     public ImportChangeFilter(int number) {
         super(number);
     }
@@ -25,34 +22,69 @@ public class ImportChangeFilter extends IIrrelevanceDetermination {
         return "ignore changes in imports";
     }
 
+    @Override
+    protected String getConfigurationKey() {
+        return "";
+    }
+
     @Override
     public boolean isIrrelevant(ICommit commit, IChange change) {
         if (change instanceof TextualChangeHunk) {
             final ITextualChange hunk = (ITextualChange) change;
-            return this.isOnlyImports(hunk.getFromFragment()) && this.isOnlyImports(hunk.getToFragment())
-                && !(this.isOnlyWhitespace(hunk.getFromFragment()) && this.isOnlyWhitespace(hunk.getToFragment()));
+            final String from = hunk.getFromFragment().getContentFullLines();
+            final String to = hunk.getToFragment().getContentFullLines();
+            return isOnlyImports(from) && isOnlyImports(to)
+                && !(isOnlyWhitespace(from) && isOnlyWhitespace(to));
         }
         return false;
     }
 
-    private boolean isOnlyImports(IFragment fragment) {
-        final BufferedReader r = new BufferedReader(new StringReader(fragment.getContentFullLines()));
-        String line;
-        try {
-            while ((line = r.readLine()) != null) {
-                final String trimmed = line.trim();
-                if (!(trimmed.isEmpty() || trimmed.startsWith("import "))) {
+    /**
+     * Returns true iff every line of the given string is either blank or, after trimming, starts with
+     * "import ". Scans the string once without splitting it into lines.
+     */
+    static boolean isOnlyImports(String content) {
+        final int len = content.length();
+        int pos = 0;
+        while (pos < len) {
+            //skip leading whitespace of the line
+            while (pos < len && !isLineBreak(content.charAt(pos)) && content.charAt(pos) <= ' ') {
+                pos++;
+            }
+            if (pos < len && !isLineBreak(content.charAt(pos))) {
+                if (!content.startsWith(IMPORT, pos)) {
+                    return false;
+                }
+                //the space after "import" must not be trailing whitespace of the line
+                pos += IMPORT.length();
+                boolean hasMoreContent = false;
+                while (pos < len && !isLineBreak(content.charAt(pos))) {
+                    hasMoreContent |= content.charAt(pos) > ' ';
+                    pos++;
+                }
+                if (!hasMoreContent) {
                     return false;
                 }
             }
-        } catch (final IOException e) {
-            throw new AssertionError(e);
+            pos++;
         }
         return true;
     }
 
-    private boolean isOnlyWhitespace(IFragment fragment) {
-        return fragment.getContentFullLines().trim().isEmpty();
+    private static boolean isLineBreak(char ch) {
+        return ch == '\n' || ch == '\r';
+    }
+
+    /**
+     * Returns true iff the given string is empty after trimming.
+     */
+    static boolean isOnlyWhitespace(String content) {
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
     }
 
 }
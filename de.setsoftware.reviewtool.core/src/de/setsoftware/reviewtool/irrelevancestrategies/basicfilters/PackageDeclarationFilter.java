@@ -21,6 +21,11 @@ public class PackageDeclarationFilter extends IIrrelevanceDetermination {
         return "ignore changes in package declarations";
     }
 
+    @Override
+    protected String getConfigurationKey() {
+        return "";
+    }
+
     @Override
     public boolean isIrrelevant(ICommit commit, IChange change) {
         if (change instanceof TextualChangeHunk) {
@@ -2,7 +2,6 @@ package de.setsoftware.reviewtool.irrelevancestrategies.basicfilters;
 
 import de.setsoftware.reviewtool.model.api.IChange;
 import de.setsoftware.reviewtool.model.api.ICommit;
-import de.setsoftware.reviewtool.model.api.IFragment;
 import de.setsoftware.reviewtool.model.api.ITextualChange;
 import de.setsoftware.reviewtool.model.changestructure.IIrrelevanceDetermination;
 import de.setsoftware.reviewtool.model.changestructure.TextualChangeHunk;
@@ -21,18 +20,51 @@ public class WhitespaceChangeFilter extends IIrrelevanceDetermination {
         return "ignore whitespace only changes";
     }
 
+    @Override
+    protected String getConfigurationKey() {
+        return "";
+    }
+
     @Override
     public boolean isIrrelevant(ICommit commit, IChange change) {
         if (change instanceof TextualChangeHunk) {
             final ITextualChange hunk = (ITextualChange) change;
-            return this.normalizeWhitespace(hunk.getFromFragment()).equals(
-                    this.normalizeWhitespace(hunk.getToFragment()));
+            return equalsIgnoringWhitespace(
+                    hunk.getFromFragment().getContentFullLines(),
+                    hunk.getToFragment().getContentFullLines());
         }
         return false;
     }
 
-    private String normalizeWhitespace(IFragment fragment) {
-        return fragment.getContentFullLines().replaceAll("[ \r\n\t]+", "");
+    /**
+     * Returns true iff both strings are equal after removing all spaces, tabs and line breaks.
+     * Compares both strings in a single pass without creating normalized copies.
+     */
+    static boolean equalsIgnoringWhitespace(String s1, String s2) {
+        final int len1 = s1.length();
+        final int len2 = s2.length();
+        int i1 = 0;
+        int i2 = 0;
+        while (true) {
+            while (i1 < len1 && isWhitespace(s1.charAt(i1))) {
+                i1++;
+            }
+            while (i2 < len2 && isWhitespace(s2.charAt(i2))) {
+                i2++;
+            }
+            if (i1 >= len1 || i2 >= len2) {
+                return i1 >= len1 && i2 >= len2;
+            }
+            if (s1.charAt(i1) != s2.charAt(i2)) {
+                return false;
+            }
+            i1++;
+            i2++;
+        }
+    }
+
+    private static boolean isWhitespace(char ch) {
+        return ch == ' ' || ch == '\r' || ch == '\n' || ch == '\t';
     }
 
 }
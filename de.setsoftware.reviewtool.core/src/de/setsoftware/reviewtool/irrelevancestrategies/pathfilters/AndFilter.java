@@ -28,6 +28,19 @@ public class AndFilter extends IIrrelevanceDetermination {
         }
     }
 
+    @Override
+    protected String getConfigurationKey() {
+        final StringBuilder ret = new StringBuilder();
+        for (final IIrrelevanceDetermination child : this.children) {
+            final String childKey = child.getCacheKey();
+            if (childKey == null) {
+                return null;
+            }
+            ret.append('(').append(childKey).append(')');
+        }
+        return ret.toString();
+    }
+
     @Override
     public boolean isIrrelevant(ICommit commit, IChange change) {
         for (final IIrrelevanceDetermination child : this.children) {
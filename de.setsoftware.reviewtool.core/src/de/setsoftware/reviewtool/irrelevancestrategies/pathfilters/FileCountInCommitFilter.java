@@ -36,6 +36,11 @@ public class FileCountInCommitFilter extends IIrrelevanceDetermination {
         this.fileCountInCurCommit = -1;
     }
 
+    @Override
+    protected String getConfigurationKey() {
+        return Integer.toString(this.threshold);
+    }
+
     @Override
     public boolean isIrrelevant(ICommit commit, IChange change) {
         if (this.curCommit != commit) {
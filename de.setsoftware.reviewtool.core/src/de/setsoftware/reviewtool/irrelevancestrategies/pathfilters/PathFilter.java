@@ -65,6 +65,11 @@ public class PathFilter extends IIrrelevanceDetermination {
         return this.description;
     }
 
+    @Override
+    protected String getConfigurationKey() {
+        return this.pattern.pattern();
+    }
+
     @Override
     public boolean isIrrelevant(ICommit commit, IChange change) {
         return this.pattern.matcher(change.getFrom().getPath()).matches()
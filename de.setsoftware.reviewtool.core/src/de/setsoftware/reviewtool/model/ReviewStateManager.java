@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Executor;
 
 import de.setsoftware.reviewtool.base.WeakListeners;
 import de.setsoftware.reviewtool.model.remarks.DummyMarker;
@@ -13,6 +14,11 @@ import de.setsoftware.reviewtool.model.remarks.ReviewRemarkException;
 
 /**
  * Manages the current ticket under review and provides a facade to the persistence layer.
+ *
+ * <p>Remarks that are saved or deleted are applied to a parsed model of the current review data,
+ * which is kept between the operations. Writing the changed model to the local cache is done by the
+ * write executor, which can delay and thereby coalesce the writes. Pending writes are done before review
+ * data is read or handed on to the ticket.
  */
 public class ReviewStateManager {
 
@@ -23,6 +29,11 @@ public class ReviewStateManager {
     private String ticketKey;
     private ITicketData cachedData;
 
+    private Executor writeExecutor = Runnable::run;
+    private ReviewData liveData;
+    private String liveDataTicketKey;
+    private boolean liveDataDirty;
+
     private final WeakListeners<IReviewDataSaveListener> saveListeners = new WeakListeners<>();
 
     public ReviewStateManager(
@@ -38,6 +49,7 @@ public class ReviewStateManager {
      * Returns the serialized review information from the ticket currently under review.
      */
     public String getCurrentReviewData() {
+        this.writePendingChanges();
         final ITicketData ticket = this.loadTicketDataAndCheckExistence(true);
         if (ticket == null) {
             return null;
@@ -51,11 +63,63 @@ public class ReviewStateManager {
      */
     public void saveCurrentReviewData(String newData) {
         this.ensureTicketKeyIsSet();
-        this.localReviewData.saveLocalReviewData(this.ticketKey, newData);
+        this.discardLiveData();
+        this.writeLocalReviewData(this.ticketKey, newData);
+    }
+
+    private void writeLocalReviewData(String key, String newData) {
+        this.localReviewData.saveLocalReviewData(key, newData);
         this.cachedData = null;
         this.saveListeners.notifyListeners(l -> l.onSave(newData));
     }
 
+    /**
+     * Sets the executor that is used to write changed review data to the local cache. It may delay the
+     * write to combine several changes. By default, the data is written synchronously.
+     */
+    public void setWriteExecutor(Executor executor) {
+        this.writeExecutor = executor;
+    }
+
+    /**
+     * Writes review data that has been changed by saving or deleting remarks but that has not been
+     * written so far to the local cache. Notifies all listeners of the save.
+     * The data is written for the ticket it was changed for, even if another ticket has been selected since then.
+     */
+    public void writePendingChanges() {
+        if (!this.liveDataDirty) {
+            return;
+        }
+        this.liveDataDirty = false;
+        this.writeLocalReviewData(this.liveDataTicketKey, this.liveData.serialize());
+    }
+
+    private void discardLiveData() {
+        this.liveData = null;
+        this.liveDataTicketKey = null;
+        this.liveDataDirty = false;
+    }
+
+    private ReviewData getLiveData() {
+        if (this.liveData != null && this.liveDataTicketKey.equals(this.ticketKey)) {
+            return this.liveData;
+        }
+        this.writePendingChanges();
+        final ReviewData data = this.getUi().getSyntaxFixer().getCurrentReviewDataParsed(this, DummyMarker.FACTORY);
+        if (data != null) {
+            this.liveData = data;
+            this.liveDataTicketKey = this.ticketKey;
+        }
+        return data;
+    }
+
+    private void markLiveDataChanged() {
+        if (!this.liveDataDirty) {
+            this.liveDataDirty = true;
+            this.writeExecutor.execute(this::writePendingChanges);
+        }
+    }
+
     private void ensureTicketKeyIsSet() {
         if (this.ticketKey == null) {
             this.loadTicketDataAndCheckExistence(true);
@@ -67,6 +131,8 @@ public class ReviewStateManager {
      * and clear the local cache.
      */
     public void flushReviewData() {
+        this.writePendingChanges();
+        this.discardLiveData();
         final String cachedData = this.localReviewData.getLocalReviewData(this.ticketKey);
         if (cachedData != null) {
             this.persistence.saveReviewData(this.ticketKey, cachedData);
@@ -78,6 +144,7 @@ public class ReviewStateManager {
      * Clears the locally cached review data, so that the next load will go through to the persistence layer.
      */
     public void clearLocalReviewData() {
+        this.discardLiveData();
         this.localReviewData.clearLocalReviewData(this.ticketKey);
     }
 
@@ -114,6 +181,7 @@ public class ReviewStateManager {
         if (this.ticketKey == null) {
             ITicketData data;
             do {
+                this.writePendingChanges();
                 this.ticketKey = this.userInteraction.getTicketChooser().choose(this.persistence, "", forReview);
                 if (this.ticketKey == null) {
                     return null;
@@ -125,6 +193,7 @@ public class ReviewStateManager {
         } else {
             ITicketData data = this.persistence.loadTicket(this.ticketKey);
             while (data == null) {
+                this.writePendingChanges();
                 this.ticketKey = this.userInteraction.getTicketChooser().choose(
                         this.persistence, this.ticketKey, forReview);
                 if (this.ticketKey == null) {
@@ -151,6 +220,8 @@ public class ReviewStateManager {
     }
 
     public void resetKey() {
+        this.writePendingChanges();
+        this.discardLiveData();
         this.ticketKey = null;
         this.cachedData = null;
     }
@@ -198,9 +269,11 @@ public class ReviewStateManager {
      * Deletes the given review remark. Persists the changed review data and deletes the marker as well.
      */
     public void deleteRemark(ReviewRemark remark) throws ReviewRemarkException {
-        final ReviewData data = this.getUi().getSyntaxFixer().getCurrentReviewDataParsed(this, DummyMarker.FACTORY);
-        data.deleteRemark(remark);
-        this.saveCurrentReviewData(data.serialize());
+        final ReviewData data = this.getLiveData();
+        if (data != null) {
+            data.deleteRemark(remark);
+            this.markLiveDataChanged();
+        }
         remark.deleteMarker();
     }
 
@@ -208,10 +281,13 @@ public class ReviewStateManager {
      * Merges the given remark into the existing remarks and saves it to the persistence.
      */
     public void saveRemark(ReviewRemark remark) {
-        final ReviewData r = this.getUi().getSyntaxFixer().getCurrentReviewDataParsed(
-                this, DummyMarker.FACTORY);
-        r.merge(remark, this.getCurrentRound());
-        this.saveCurrentReviewData(r.serialize());
+        final ReviewData data = this.getLiveData();
+        if (data == null) {
+            return;
+        }
+        //a copy is stored so that later changes to the remark only take effect when it is saved again
+        data.merge(remark.copy(), this.getCurrentRound());
+        this.markLiveDataChanged();
     }
 
     /**
@@ -45,6 +45,14 @@ public interface IFileHistoryGraph {
      */
     public abstract Set<IFileHistoryNode> getIncompleteFlowStarts();
 
+    /**
+     * Returns a stamp that changes whenever nodes with the given path or their edges change. Stamps are unique
+     * among all graphs, so information derived from some graph for a path can be checked for being outdated even
+     * if the graph is replaced by another one. Returns 0 if there were no changes for the path since the graph
+     * was created or deserialized.
+     */
+    public abstract long getModificationStamp(String path);
+
     /**
      * Returns the algorithm used for computing differences between file revisions.
      */
@@ -21,6 +21,27 @@ public interface IRepository extends Serializable {
      */
     public abstract byte[] getFileContents(String path, IRepoRevision<?> revision) throws Exception;
 
+    /**
+     * Returns the size in bytes of some revisioned file in the repository, without loading its contents if possible.
+     * @param path The path to the file.
+     * @param revision The revision of the file. This is also used as peg revision of the path passed above.
+     * @return The file size, or 0 if the file does not exist.
+     * @throws Exception if an error occurs.
+     */
+    public abstract long getFileSize(String path, IRepoRevision<?> revision) throws Exception;
+
+    /**
+     * Returns the first bytes of the contents of some revisioned file in the repository, without loading
+     * the complete contents if possible.
+     * @param path The path to the file.
+     * @param revision The revision of the file. This is also used as peg revision of the path passed above.
+     * @param maxLength The maximal number of bytes to return.
+     * @return The start of the file contents. Shorter than maxLength only if the file is shorter.
+     * @throws Exception if an error occurs.
+     */
+    public abstract byte[] getFileContentsPrefix(String path, IRepoRevision<?> revision, int maxLength)
+            throws Exception;
+
     /**
      * Returns the associated file history graph.
      */
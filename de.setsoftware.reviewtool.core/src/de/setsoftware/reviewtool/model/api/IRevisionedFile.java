@@ -35,6 +35,20 @@ public interface IRevisionedFile extends IPartiallyComparable<IRevisionedFile>,
      */
     public abstract byte[] getContents() throws Exception;
 
+    /**
+     * Returns the size of this revisioned file's contents in bytes, without loading them if possible.
+     * @throws Exception if an error occurrs.
+     */
+    public abstract long getSize() throws Exception;
+
+    /**
+     * Returns the first bytes of this revisioned file's contents, without loading the complete contents
+     * if possible.
+     * @param maxLength The maximal number of bytes to return.
+     * @throws Exception if an error occurrs.
+     */
+    public abstract byte[] getContentsPrefix(int maxLength) throws Exception;
+
     /**
      * Finds a resource corresponding to a path that is relative to the SCM repository root.
      * If none can be found, null is returned.
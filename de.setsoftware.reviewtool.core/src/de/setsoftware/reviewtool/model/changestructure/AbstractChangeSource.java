@@ -27,6 +27,7 @@ import de.setsoftware.reviewtool.model.api.IWorkingCopy;
 public abstract class AbstractChangeSource implements IChangeSource {
 
     private static final String KEY_PLACEHOLDER = "${key}";
+    private static final int BINARY_DETECTION_LENGTH = 128;
 
     private final Map<File, Set<File>> projectsPerWcMap;
     private final String logMessagePattern;
@@ -160,17 +161,16 @@ public abstract class AbstractChangeSource implements IChangeSource {
             //binary detection does not work well for PDFs, so force them to binary
             return false;
         }
-        final byte[] newFileContent = file.getContents();
-        return !contentLooksBinary(newFileContent) && newFileContent.length <= this.maxTextDiffThreshold;
-    }
-
-    private static boolean contentLooksBinary(final byte[] fileContent) {
-        if (fileContent.length == 0) {
+        //only the size and the start of the file are needed, so large files are not loaded completely
+        if (file.getSize() > this.maxTextDiffThreshold) {
             return false;
         }
-        final int max = Math.min(128, fileContent.length);
-        for (int i = 0; i < max; i++) {
-            if (isStrangeChar(fileContent[i])) {
+        return !contentLooksBinary(file.getContentsPrefix(BINARY_DETECTION_LENGTH));
+    }
+
+    private static boolean contentLooksBinary(final byte[] fileContentPrefix) {
+        for (int i = 0; i < fileContentPrefix.length; i++) {
+            if (isStrangeChar(fileContentPrefix[i])) {
                 //we only count ASCII control chars as "strange" (to be UTF-8 agnostic), so
                 //  a single strange char should suffice to declare a file non-text
                 return true;
@@ -5,6 +5,7 @@ import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import de.setsoftware.reviewtool.base.PartialOrderAlgorithms;
 import de.setsoftware.reviewtool.model.api.IFileHistoryEdge;
@@ -22,6 +23,15 @@ import de.setsoftware.reviewtool.model.api.IUnknownRevision;
  */
 public abstract class AbstractFileHistoryGraph implements IFileHistoryGraph {
 
+    private static final AtomicLong LAST_MODIFICATION_STAMP = new AtomicLong();
+
+    /**
+     * Returns a new modification stamp that is greater than all stamps returned before.
+     */
+    protected static long nextModificationStamp() {
+        return LAST_MODIFICATION_STAMP.incrementAndGet();
+    }
+
     @Override
     public final List<IRevisionedFile> getLatestFiles(
             final IRevisionedFile file,
@@ -39,7 +49,7 @@ public abstract class AbstractFileHistoryGraph implements IFileHistoryGraph {
             for (final IFileHistoryNode node : nodes) {
                 revs.add(node.getFile());
             }
-            return PartialOrderAlgorithms.topoSort(revs);
+            return PartialOrderAlgorithms.topoSort(revs, RevisionSortKeys.forFiles(revs));
         }
     }
 
@@ -1,14 +1,31 @@
 package de.setsoftware.reviewtool.model.changestructure;
 
+import java.util.Arrays;
+
+import de.setsoftware.reviewtool.model.api.IRepoRevision;
 import de.setsoftware.reviewtool.model.api.IRepository;
 
 /**
  * Common behaviour for {@link IRepository} implementations.
+ * The file size and contents prefix are determined from the complete file contents by default. Subclasses
+ * should override this when the repository allows to determine them cheaper.
  */
 public abstract class AbstractRepository implements IRepository {
 
     private static final long serialVersionUID = 7916699534735945340L;
 
+    @Override
+    public long getFileSize(final String path, final IRepoRevision<?> revision) throws Exception {
+        return this.getFileContents(path, revision).length;
+    }
+
+    @Override
+    public byte[] getFileContentsPrefix(final String path, final IRepoRevision<?> revision, final int maxLength)
+            throws Exception {
+        final byte[] contents = this.getFileContents(path, revision);
+        return contents.length <= maxLength ? contents : Arrays.copyOf(contents, maxLength);
+    }
+
     @Override
     public final boolean equals(final Object o) {
         if (o instanceof IRepository) {
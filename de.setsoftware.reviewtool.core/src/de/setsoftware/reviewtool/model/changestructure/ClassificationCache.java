@@ -0,0 +1,327 @@
+package de.setsoftware.reviewtool.model.changestructure;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.setsoftware.reviewtool.base.Logger;
+import de.setsoftware.reviewtool.base.ReviewtoolException;
+import de.setsoftware.reviewtool.model.api.IChange;
+import de.setsoftware.reviewtool.model.api.IClassification;
+import de.setsoftware.reviewtool.model.api.ICommit;
+import de.setsoftware.reviewtool.model.api.IFragment;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+import de.setsoftware.reviewtool.model.api.ITextualChange;
+
+/**
+ * Cache for the results of the {@link IChangeClassifier}s, so that unchanged changes don't have to be
+ * classified anew every time the tours of a review are created. The results are keyed by a hash of the
+ * change (commit, paths, revisions and the content of the hunks) and are only used when the keys of
+ * all classifiers ({@link IChangeClassifier#getCacheKey()}) are the same as when they were determined.
+ * The cache can be stored in a file to survive restarts. Only the most recently used entries are kept.
+ */
+public class ClassificationCache {
+
+    /**
+     * The name of the cache file in the state location of the plugin.
+     */
+    public static final String DEFAULT_FILE_NAME = "classificationCache";
+
+    private static final int FILE_FORMAT_VERSION = 1;
+    private static final int DEFAULT_MAX_ENTRIES = 100000;
+
+    /**
+     * A single cached result of a classifier.
+     */
+    private static final class CachedClassification implements Serializable {
+        private static final long serialVersionUID = -2383453166340945713L;
+
+        private final int number;
+        private final String name;
+        private final boolean mergeAsAnd;
+
+        public CachedClassification(IClassification cl) {
+            this.number = cl.getNumber();
+            this.name = cl.getName();
+            this.mergeAsAnd = cl.mergeAsAnd();
+        }
+
+        public IClassification toClassification() {
+            return new Classification(this.number, this.name, this.mergeAsAnd);
+        }
+    }
+
+    /**
+     * The cached results of all classifiers for a single change.
+     */
+    private static final class CachedResults implements Serializable {
+        private static final long serialVersionUID = 8087925472062440547L;
+
+        private final String fingerprint;
+        private final boolean[] determined;
+        private final CachedClassification[] results;
+
+        public CachedResults(String fingerprint, int classifierCount) {
+            this.fingerprint = fingerprint;
+            this.determined = new boolean[classifierCount];
+            this.results = new CachedClassification[classifierCount];
+        }
+    }
+
+    /**
+     * Access to the cached results for a list of classifiers, as used in a single filtering run.
+     */
+    public final class Run {
+        private final List<? extends IChangeClassifier> classifiers;
+        private final boolean[] cacheable;
+        private final String fingerprint;
+
+        private ICommit curCommit;
+        private byte[] curCommitKey;
+
+        private Run(List<? extends IChangeClassifier> classifiers) {
+            this.classifiers = classifiers;
+            this.cacheable = new boolean[classifiers.size()];
+            final StringBuilder fingerprint = new StringBuilder();
+            for (int i = 0; i < classifiers.size(); i++) {
+                final String key = classifiers.get(i).getCacheKey();
+                this.cacheable[i] = key != null;
+                fingerprint.append(key == null ? "-" : key).append('\n');
+            }
+            this.fingerprint = fingerprint.toString();
+        }
+
+        /**
+         * Returns the cached results for the given change.
+         */
+        public Results get(ICommit commit, IChange change) {
+            if (this.curCommit != commit) {
+                this.curCommit = commit;
+                this.curCommitKey = determineCommitKey(commit);
+            }
+            final String key = determineChangeKey(this.curCommitKey, change);
+            synchronized (ClassificationCache.this) {
+                CachedResults entry = ClassificationCache.this.entries.get(key);
+                if (entry == null || !entry.fingerprint.equals(this.fingerprint)) {
+                    entry = new CachedResults(this.fingerprint, this.classifiers.size());
+                    ClassificationCache.this.entries.put(key, entry);
+                }
+                return new Results(this, entry);
+            }
+        }
+    }
+
+    /**
+     * The cached results of the classifiers for a single change.
+     */
+    public final class Results {
+        private final Run run;
+        private final CachedResults entry;
+
+        private Results(Run run, CachedResults entry) {
+            this.run = run;
+            this.entry = entry;
+        }
+
+        /**
+         * Returns true iff the result of the classifier with the given index is contained in the cache.
+         */
+        public boolean isCached(int classifierIndex) {
+            synchronized (ClassificationCache.this) {
+                return this.entry.determined[classifierIndex];
+            }
+        }
+
+        /**
+         * Returns the cached result of the classifier with the given index (which can be null).
+         */
+        public IClassification get(int classifierIndex) {
+            synchronized (ClassificationCache.this) {
+                final CachedClassification result = this.entry.results[classifierIndex];
+                return result == null ? null : result.toClassification();
+            }
+        }
+
+        /**
+         * Stores the result of the classifier with the given index. Results of classifiers that
+         * don't allow caching are ignored.
+         */
+        public void put(int classifierIndex, IClassification classification) {
+            if (!this.run.cacheable[classifierIndex]) {
+                return;
+            }
+            if (classification != null && !(classification instanceof Classification)) {
+                return;
+            }
+            synchronized (ClassificationCache.this) {
+                this.entry.determined[classifierIndex] = true;
+                this.entry.results[classifierIndex] =
+                        classification == null ? null : new CachedClassification(classification);
+                ClassificationCache.this.changed = true;
+            }
+        }
+    }
+
+    private final File file;
+    private final Map<String, CachedResults> entries;
+    private boolean loaded;
+    private boolean changed;
+
+    /**
+     * Creates a cache that is stored in the given file. When the file is null, the cache is only kept in memory.
+     */
+    public ClassificationCache(File file) {
+        this(file, DEFAULT_MAX_ENTRIES);
+    }
+
+    ClassificationCache(File file, final int maxEntries) {
+        this.file = file;
+        this.entries = new LinkedHashMap<String, CachedResults>(16, 0.75f, true) {
+            private static final long serialVersionUID = 2929400394484768734L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResults> eldest) {
+                return this.size() > maxEntries;
+            }
+        };
+        this.loaded = file == null;
+    }
+
+    /**
+     * Starts a filtering run with the given classifiers. Loads the cache from its file if that has not
+     * been done yet.
+     */
+    public synchronized Run startRun(List<? extends IChangeClassifier> classifiers) {
+        if (!this.loaded) {
+            this.loaded = true;
+            this.tryToLoad();
+        }
+        return new Run(classifiers);
+    }
+
+    /**
+     * Stores the cache to its file if it has been changed since it was loaded or stored the last time.
+     */
+    public synchronized void storeIfChanged() {
+        if (this.file == null || !this.changed) {
+            return;
+        }
+        try {
+            this.store();
+            this.changed = false;
+        } catch (final IOException e) {
+            Logger.error("Problem while storing classification cache to " + this.file, e);
+        }
+    }
+
+    private void tryToLoad() {
+        if (!this.file.exists()) {
+            return;
+        }
+        try {
+            this.load();
+        } catch (final ClassNotFoundException | IOException | ClassCastException e) {
+            Logger.error("Problem while loading classification cache from " + this.file, e);
+            this.entries.clear();
+        }
+    }
+
+    private void load() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois =
+                new ObjectInputStream(new BufferedInputStream(new FileInputStream(this.file)))) {
+            if (ois.readInt() != FILE_FORMAT_VERSION) {
+                Logger.info("Ignoring classification cache " + this.file + " with outdated format");
+                return;
+            }
+            final int count = ois.readInt();
+            for (int i = 0; i < count; i++) {
+                final String key = ois.readUTF();
+                final CachedResults value = (CachedResults) ois.readObject();
+                this.entries.put(key, value);
+            }
+        }
+        Logger.debug("Loaded " + this.entries.size() + " entries from classification cache " + this.file);
+    }
+
+    private void store() throws IOException {
+        try (ObjectOutputStream oos =
+                new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(this.file)))) {
+            oos.writeInt(FILE_FORMAT_VERSION);
+            oos.writeInt(this.entries.size());
+            for (final Map.Entry<String, CachedResults> e : this.entries.entrySet()) {
+                oos.writeUTF(e.getKey());
+                oos.writeObject(e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns the number of changes with cached results.
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    private static byte[] determineCommitKey(ICommit commit) {
+        final MessageDigest digest = createDigest();
+        update(digest, commit.getRevision().getRepository().getId());
+        update(digest, commit.getRevision().toString());
+        //the classification can depend on the other changes in the commit (e.g. their number)
+        for (final IChange c : commit.getChanges()) {
+            update(digest, c.getTo().toString());
+        }
+        return digest.digest();
+    }
+
+    private static String determineChangeKey(byte[] commitKey, IChange change) {
+        final MessageDigest digest = createDigest();
+        digest.update(commitKey);
+        update(digest, change.getType().name());
+        update(digest, change.getFrom());
+        update(digest, change.getTo());
+        if (change instanceof ITextualChange) {
+            update(digest, ((ITextualChange) change).getFromFragment());
+            update(digest, ((ITextualChange) change).getToFragment());
+        }
+        return Base64.getEncoder().encodeToString(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, IRevisionedFile file) {
+        update(digest, file.getRepository().getId());
+        update(digest, file.getPath());
+        update(digest, file.getRevision().toString());
+    }
+
+    private static void update(MessageDigest digest, IFragment fragment) {
+        update(digest, fragment.getFrom().getLine() + ":" + fragment.getFrom().getColumn()
+                + "-" + fragment.getTo().getLine() + ":" + fragment.getTo().getColumn());
+        update(digest, fragment.getContentFullLines());
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        digest.update(s.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new ReviewtoolException(e);
+        }
+    }
+
+}
@@ -27,11 +27,128 @@ public final class FileDiff implements IFileDiff {
     /**
      * The hunks this FileDiff object is made of. Later hunks depend on earlier hunks, i.e. the source/target fragment
      * positions of later hunks take the deltas of earlier hunks into consideration.
+     * Hunks are only appended to this list while the FileDiff is constructed.
      */
     private final List<IHunk> hunks;
     private final IRevisionedFile fromRevision;
     private final IRevisionedFile toRevision;
 
+    /**
+     * Index with the accumulated deltas of the hunks. Created lazily and extended when hunks are appended.
+     */
+    private transient HunkIndex index;
+
+    /**
+     * Accumulated line deltas of the hunks in a {@link FileDiff}, together with the data needed to find the hunks
+     * relevant for a position by binary search. The deltas are accumulated like it is done when iterating over
+     * the hunks, i.e. column offsets are only kept for hunks on the same line. As hunks are only ever appended to
+     * a FileDiff under construction, the index can be extended incrementally.
+     */
+    private static final class HunkIndex {
+
+        private final List<IPositionInText> sourceFroms = new ArrayList<>();
+        private final List<IPositionInText> sourceTos = new ArrayList<>();
+        private final List<IPositionInText> targetTos = new ArrayList<>();
+        private boolean sourcesSorted = true;
+        private boolean targetsSorted = true;
+
+        /**
+         * Delta and last line after the first i hunks (in the source resp. target file). Contains one entry more
+         * than there are hunks.
+         */
+        private final List<IDelta> sourceDeltas = new ArrayList<>();
+        private final List<Integer> sourceLastLines = new ArrayList<>();
+        private final List<IDelta> targetDeltas = new ArrayList<>();
+        private final List<Integer> targetLastLines = new ArrayList<>();
+
+        public HunkIndex() {
+            this.sourceDeltas.add(new Delta());
+            this.sourceLastLines.add(0);
+            this.targetDeltas.add(new Delta());
+            this.targetLastLines.add(0);
+        }
+
+        public void update(final List<IHunk> hunks) {
+            for (int i = this.sourceTos.size(); i < hunks.size(); i++) {
+                final IHunk hunk = hunks.get(i);
+                final IFragment source = hunk.getSource();
+                final IFragment target = hunk.getTarget();
+                if (i > 0) {
+                    this.sourcesSorted &= source.getFrom().compareTo(this.sourceFroms.get(i - 1)) >= 0
+                            && source.getTo().compareTo(this.sourceTos.get(i - 1)) >= 0;
+                    this.targetsSorted &= target.getTo().compareTo(this.targetTos.get(i - 1)) >= 0;
+                }
+                this.sourceFroms.add(source.getFrom());
+                this.sourceTos.add(source.getTo());
+                this.targetTos.add(target.getTo());
+
+                this.sourceDeltas.add(this.sourceDeltas.get(i)
+                        .ignoreColumnOffset(source.getFrom().getLine() != this.sourceLastLines.get(i))
+                        .plus(hunk.getDelta()));
+                this.sourceLastLines.add(source.getTo().getLine());
+                this.targetDeltas.add(this.targetDeltas.get(i)
+                        .ignoreColumnOffset(target.getFrom().getLine() != this.targetLastLines.get(i))
+                        .plus(hunk.getDelta()));
+                this.targetLastLines.add(target.getTo().getLine());
+            }
+        }
+
+        /**
+         * Returns the number of leading hunks whose source lies completely before the given fragment, i.e.
+         * that neither overlap it nor start at or after its end.
+         */
+        public int countSourcesBefore(final IFragment fragment) {
+            if (!this.sourcesSorted) {
+                int i = 0;
+                while (i < this.sourceTos.size() && this.isSourceBefore(i, fragment)) {
+                    i++;
+                }
+                return i;
+            }
+            int low = 0;
+            int high = this.sourceTos.size();
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (this.isSourceBefore(mid, fragment)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private boolean isSourceBefore(final int i, final IFragment fragment) {
+            return this.sourceTos.get(i).compareTo(fragment.getFrom()) <= 0
+                    && this.sourceFroms.get(i).compareTo(fragment.getTo()) < 0;
+        }
+
+        /**
+         * Returns the number of leading hunks whose target ends at or before the given position.
+         */
+        public int countTargetsUpTo(final IPositionInText pos) {
+            if (!this.targetsSorted) {
+                int i = 0;
+                while (i < this.targetTos.size() && this.targetTos.get(i).compareTo(pos) <= 0) {
+                    i++;
+                }
+                return i;
+            }
+            int low = 0;
+            int high = this.targetTos.size();
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (this.targetTos.get(mid).compareTo(pos) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+    }
+
     /**
      * Creates an empty FileDiff object that will be filled with hunks.
      */
@@ -140,12 +257,18 @@ public final class FileDiff implements IFileDiff {
 
     @Override
     public IFileDiff merge(final Collection<? extends IHunk> hunksToMerge) throws IncompatibleFragmentException {
-        IFileDiff result = this;
+        FileDiff result = this;
         IDelta delta = new Delta();
         int lastLine = 0;
         for (final IHunk hunk : hunksToMerge) {
             delta = delta.ignoreColumnOffset(hunk.getSource().getFrom().getLine() != lastLine);
-            result = result.merge(hunk.adjustSource(delta));
+            final IHunk adjustedHunk = hunk.adjustSource(delta);
+            if (result != this && result.isAppendable(adjustedHunk)) {
+                //the intermediate results are not visible to others, so the hunk can be appended in place
+                result.appendHunk(adjustedHunk);
+            } else {
+                result = (FileDiff) result.merge(adjustedHunk);
+            }
             delta = delta.plus(hunk.getDelta());
             lastLine = hunk.getSource().getTo().getLine();
         }
@@ -157,6 +280,40 @@ public final class FileDiff implements IFileDiff {
         return this.merge(diff.getHunks()).setTo(diff.getTo());
     }
 
+    /**
+     * Returns true iff merging the given hunk would leave all existing hunks unchanged, i.e. if the hunk
+     * has the same target file and its source starts after the targets of all existing hunks.
+     */
+    private boolean isAppendable(final IHunk hunkToMerge) {
+        if (!hunkToMerge.getTarget().getFile().equals(this.toRevision)) {
+            return false;
+        }
+        if (this.hunks.isEmpty()) {
+            return true;
+        }
+        final IHunk lastHunk = this.hunks.get(this.hunks.size() - 1);
+        return this.getIndex().targetsSorted
+                && lastHunk.getTarget().getTo().compareTo(hunkToMerge.getSource().getFrom()) <= 0;
+    }
+
+    /**
+     * Adds the given hunk to this FileDiff in place. Has the same result as {@link #merge(IHunk)} when
+     * {@link #isAppendable(IHunk)} is true.
+     */
+    private void appendHunk(final IHunk hunkToMerge) throws IncompatibleFragmentException {
+        this.hunks.add(this.createCombinedHunk(Collections.<IHunk>emptyList(), hunkToMerge)
+                .adjustSourceFile(this.fromRevision)
+                .adjustTargetFile(this.toRevision));
+    }
+
+    private synchronized HunkIndex getIndex() {
+        if (this.index == null) {
+            this.index = new HunkIndex();
+        }
+        this.index.update(this.hunks);
+        return this.index;
+    }
+
     /**
      * Combines a list of neighbour hunks with a new hunk to be merged.
      *
@@ -205,10 +362,14 @@ public final class FileDiff implements IFileDiff {
 
         final IFragmentList result = new FragmentList();
         IFragment fragmentRest = fragment;
-        IDelta delta = new Delta();
-        int lastLine = 0;
 
-        for (final IHunk hunk : this.hunks) {
+        //the hunks before the fragment only contribute to the delta, so they are skipped
+        final HunkIndex hunkIndex = this.getIndex();
+        final int start = hunkIndex.countSourcesBefore(fragment);
+        IDelta delta = hunkIndex.sourceDeltas.get(start);
+        int lastLine = hunkIndex.sourceLastLines.get(start);
+
+        for (final IHunk hunk : this.hunks.subList(start, this.hunks.size())) {
             final IFragment source = hunk.getSource();
             if (source.overlaps(fragment)) {
                 final IFragment target = hunk.getTarget();
@@ -341,17 +502,9 @@ public final class FileDiff implements IFileDiff {
      * @return The line delta.
      */
     private IDelta computeDeltaViaTargetFragmentUpTo(final IPositionInText pos) {
-        IDelta delta = new Delta();
-        int lastLine = 0;
-        for (final IHunk hunk : this.hunks) {
-            if (hunk.getTarget().getTo().compareTo(pos) <= 0) {
-                delta = delta.ignoreColumnOffset(hunk.getTarget().getFrom().getLine() != lastLine);
-                delta = delta.plus(hunk.getDelta());
-                lastLine = hunk.getTarget().getTo().getLine();
-            } else {
-                break;
-            }
-        }
-        return delta.ignoreColumnOffset(pos.getLine() != lastLine);
+        final HunkIndex hunkIndex = this.getIndex();
+        final int count = hunkIndex.countTargetsUpTo(pos);
+        return hunkIndex.targetDeltas.get(count).ignoreColumnOffset(
+                pos.getLine() != hunkIndex.targetLastLines.get(count));
     }
 }
@@ -1,6 +1,7 @@
 package de.setsoftware.reviewtool.model.changestructure;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -23,10 +24,10 @@ import de.setsoftware.reviewtool.model.api.IRevisionedFile;
  */
 public final class FileHistoryGraph extends AbstractFileHistoryGraph implements IMutableFileHistoryGraph {
 
-    private static final long serialVersionUID = -1211314455688759596L;
+    private static final long serialVersionUID = 3958420667012496531L;
 
     private final IDiffAlgorithm diffAlgorithm;
-    private final Multimap<String, ProxyableFileHistoryNode> index;
+    private final FileHistoryNodeIndex index;
     private final Multimap<IRevisionedFile, IFileHistoryNode> incompleteFlowStarts;
 
     /**
@@ -35,13 +36,13 @@ public final class FileHistoryGraph extends AbstractFileHistoryGraph implements
      */
     public FileHistoryGraph(final IDiffAlgorithm diffAlgorithm) {
         this.diffAlgorithm = diffAlgorithm;
-        this.index = new Multimap<>();
+        this.index = new FileHistoryNodeIndex();
         this.incompleteFlowStarts = new Multimap<>();
     }
 
     @Override
     public final Set<String> getPaths() {
-        return this.index.keySet();
+        return this.index.getPaths();
     }
 
     @Override
@@ -56,6 +57,7 @@ public final class FileHistoryGraph extends AbstractFileHistoryGraph implements
         } else if (node.getType().equals(IFileHistoryNode.Type.UNCONFIRMED)) {
             node.makeAdded();
         }
+        this.markModified(path);
     }
 
     @Override
@@ -90,6 +92,7 @@ public final class FileHistoryGraph extends AbstractFileHistoryGraph implements
         if (node.getType().equals(IFileHistoryNode.Type.UNCONFIRMED)) {
             node.makeConfirmed();
         }
+        this.markModified(path);
     }
 
     private boolean hasOnlyDummyAncestor(ProxyableFileHistoryNode node) {
@@ -105,6 +108,7 @@ public final class FileHistoryGraph extends AbstractFileHistoryGraph implements
         final IRevisionedFile file = ChangestructureFactory.createFileInRevision(path, revision);
         final ProxyableFileHistoryNode node = this.getOrCreateConnectedNode(file, IFileHistoryNode.Type.CHANGED);
         node.makeDeleted();
+        this.markModified(path);
     }
 
     @Override
@@ -148,6 +152,16 @@ public final class FileHistoryGraph extends AbstractFileHistoryGraph implements
          * but the terminating flow is redundant.
          */
         fromNode.addDescendant(toNode, IFileHistoryEdge.Type.COPY);
+        this.markModified(pathFrom);
+        this.markModified(pathTo);
+    }
+
+    /**
+     * Assigns a new modification stamp to the nodes of the given path. All changes to nodes and edges are
+     * caused by the public add* operations and only affect the nodes of the paths passed to them.
+     */
+    private void markModified(final String path) {
+        this.index.markModified(path, nextModificationStamp());
     }
 
     /**
@@ -201,7 +215,7 @@ public final class FileHistoryGraph extends AbstractFileHistoryGraph implements
         ProxyableFileHistoryNode node = this.getNodeFor(file);
         if (node == null) {
             node = new FileHistoryNode(this, file, nodeType);
-            this.index.put(file.getPath(), node);
+            this.index.add(node);
 
             if (connected) {
                 final Set<ProxyableFileHistoryNode> ancestors = node.getType().equals(IFileHistoryNode.Type.ADDED)
@@ -286,26 +300,20 @@ public final class FileHistoryGraph extends AbstractFileHistoryGraph implements
 
     @Override
     public final ProxyableFileHistoryNode getNodeFor(final IRevisionedFile file) {
-        final List<ProxyableFileHistoryNode> nodesForKey = this.index.get(file.getPath());
-        for (final ProxyableFileHistoryNode node : nodesForKey) {
-            if (node.getFile().getRevision().equals(file.getRevision())) {
-                return node;
-            }
-        }
-        return null;
+        return this.index.get(file);
     }
 
     @Override
     public Set<ProxyableFileHistoryNode> findAncestorsFor(final IRevisionedFile file) {
-        final List<ProxyableFileHistoryNode> nodesForKey = this.lookupFile(file);
+        final Collection<ProxyableFileHistoryNode> nodesForKey = this.index.getAncestorCandidates(file);
 
         final Map<IRevisionedFile, ProxyableFileHistoryNode> ancestorNodes = nodesForKey.stream().filter(
                 (final ProxyableFileHistoryNode node) ->
                     node.getFile().le(file) && !file.le(node.getFile()))
                 .collect(Collectors.toMap(ProxyableFileHistoryNode::getFile, Function.identity()));
 
-        final List<IRevisionedFile> maximalRevisions =
-                PartialOrderAlgorithms.getAllMaximalElements(PartialOrderAlgorithms.topoSort(ancestorNodes.keySet()));
+        final List<IRevisionedFile> maximalRevisions = PartialOrderAlgorithms.getAllMaximalElements(
+                ancestorNodes.keySet(), RevisionSortKeys.forFiles(ancestorNodes.keySet()));
 
         final Set<ProxyableFileHistoryNode> result = maximalRevisions.stream()
                 .map((final IRevisionedFile ancestorFile) -> ancestorNodes.get(ancestorFile))
@@ -314,6 +322,11 @@ public final class FileHistoryGraph extends AbstractFileHistoryGraph implements
         return result;
     }
 
+    @Override
+    public final long getModificationStamp(final String path) {
+        return this.index.getModificationStamp(path);
+    }
+
     @Override
     public final Set<IFileHistoryNode> getIncompleteFlowStarts() {
         final Set<IFileHistoryNode> result = new LinkedHashSet<>();
@@ -329,7 +342,7 @@ public final class FileHistoryGraph extends AbstractFileHistoryGraph implements
      * @return A list of matching {@link ProxyableFileHistoryNode}s.
      */
     protected final List<ProxyableFileHistoryNode> lookupFile(final IRevisionedFile file) {
-        return this.index.get(file.getPath());
+        return this.index.getAll(file);
     }
 
     @Override
@@ -0,0 +1,194 @@
+package de.setsoftware.reviewtool.model.changestructure;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import de.setsoftware.reviewtool.base.IWeaklyOrdered;
+import de.setsoftware.reviewtool.model.api.IRepository;
+import de.setsoftware.reviewtool.model.api.IRevision;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+
+/**
+ * Index of the nodes in a {@link FileHistoryGraph}, grouped by path.
+ * <p/>
+ * For each path, nodes can be looked up by revision in constant time. Nodes whose revisions have an
+ * {@link IWeaklyOrdered} ID are additionally kept sorted by their order key, so that the potential nearest
+ * ancestors of some revision can be found by binary search instead of comparing against all nodes of the path.
+ */
+final class FileHistoryNodeIndex implements Serializable {
+
+    private static final long serialVersionUID = 4720941164361378622L;
+
+    /**
+     * The nodes for a single path.
+     */
+    private static final class NodesForPath implements Serializable {
+
+        private static final long serialVersionUID = -1948516297471337624L;
+
+        private final List<ProxyableFileHistoryNode> allNodes = new ArrayList<>();
+        private final Map<IRevision, ProxyableFileHistoryNode> nodesByRevision = new HashMap<>();
+
+        /**
+         * Nodes with an order key, grouped by key. Only contains nodes whose revisions are comparable to each other,
+         * i.e. which belong to {@link #keyRepository} and have IDs of class {@link #keyIdClass}.
+         */
+        private final TreeMap<Comparable<Object>, List<ProxyableFileHistoryNode>> nodesByOrderKey = new TreeMap<>();
+
+        /**
+         * All nodes without an order key that is comparable to the keys in {@link #nodesByOrderKey}.
+         */
+        private final List<ProxyableFileHistoryNode> unorderedNodes = new ArrayList<>();
+
+        private IRepository keyRepository;
+        private Class<?> keyIdClass;
+
+        private transient long modificationStamp;
+
+        void add(final ProxyableFileHistoryNode node) {
+            final IRevision revision = node.getFile().getRevision();
+            this.allNodes.add(node);
+            this.nodesByRevision.put(revision, node);
+
+            if (this.keyIdClass == null) {
+                final Object id = RevisionSortKeys.getWeaklyOrderedId(revision);
+                if (id != null) {
+                    this.keyRepository = revision.getRepository();
+                    this.keyIdClass = id.getClass();
+                }
+            }
+
+            final Comparable<Object> key = this.getOrderKey(revision);
+            if (key == null) {
+                this.unorderedNodes.add(node);
+            } else {
+                List<ProxyableFileHistoryNode> nodesWithKey = this.nodesByOrderKey.get(key);
+                if (nodesWithKey == null) {
+                    nodesWithKey = new ArrayList<>(1);
+                    this.nodesByOrderKey.put(key, nodesWithKey);
+                }
+                nodesWithKey.add(node);
+            }
+        }
+
+        ProxyableFileHistoryNode get(final IRevision revision) {
+            return this.nodesByRevision.get(revision);
+        }
+
+        Collection<ProxyableFileHistoryNode> getAncestorCandidates(final IRevision revision) {
+            final Comparable<Object> key = this.getOrderKey(revision);
+            if (key == null) {
+                return this.allNodes;
+            }
+
+            // nodes with a smaller key than the maximal smaller one are dominated by the nodes with that key,
+            //  and nodes with an equal or larger key are never strictly smaller
+            final Map.Entry<Comparable<Object>, List<ProxyableFileHistoryNode>> nearestSmaller =
+                    this.nodesByOrderKey.lowerEntry(key);
+            if (nearestSmaller == null) {
+                return this.unorderedNodes;
+            }
+            final List<ProxyableFileHistoryNode> result =
+                    new ArrayList<>(this.unorderedNodes.size() + nearestSmaller.getValue().size());
+            result.addAll(this.unorderedNodes);
+            result.addAll(nearestSmaller.getValue());
+            return result;
+        }
+
+        /**
+         * Returns the order key of the given revision if it can be compared to the keys in this index,
+         * and {@code null} otherwise.
+         */
+        private Comparable<Object> getOrderKey(final IRevision revision) {
+            return RevisionSortKeys.getKey(revision, this.keyRepository, this.keyIdClass);
+        }
+
+        @Override
+        public String toString() {
+            return this.allNodes.toString();
+        }
+    }
+
+    private final Map<String, NodesForPath> nodesByPath = new LinkedHashMap<>();
+
+    /**
+     * Returns all paths having at least one node.
+     */
+    Set<String> getPaths() {
+        return Collections.unmodifiableSet(this.nodesByPath.keySet());
+    }
+
+    /**
+     * Adds a node to the index. There must be no other node for the same file.
+     */
+    void add(final ProxyableFileHistoryNode node) {
+        final String path = node.getFile().getPath();
+        NodesForPath nodes = this.nodesByPath.get(path);
+        if (nodes == null) {
+            nodes = new NodesForPath();
+            this.nodesByPath.put(path, nodes);
+        }
+        nodes.add(node);
+    }
+
+    /**
+     * Records that the nodes for the given path have been changed.
+     * @see FileHistoryGraph#getModificationStamp(String)
+     */
+    void markModified(final String path, final long stamp) {
+        final NodesForPath nodes = this.nodesByPath.get(path);
+        if (nodes != null) {
+            nodes.modificationStamp = stamp;
+        }
+    }
+
+    /**
+     * Returns the stamp of the last modification of nodes for the given path, or 0 if there was none.
+     */
+    long getModificationStamp(final String path) {
+        final NodesForPath nodes = this.nodesByPath.get(path);
+        return nodes == null ? 0 : nodes.modificationStamp;
+    }
+
+    /**
+     * Returns the node for the given file, or {@code null} if there is none.
+     */
+    ProxyableFileHistoryNode get(final IRevisionedFile file) {
+        final NodesForPath nodes = this.nodesByPath.get(file.getPath());
+        return nodes == null ? null : nodes.get(file.getRevision());
+    }
+
+    /**
+     * Returns all nodes for the path of the given file, in insertion order.
+     */
+    List<ProxyableFileHistoryNode> getAll(final IRevisionedFile file) {
+        final NodesForPath nodes = this.nodesByPath.get(file.getPath());
+        return nodes == null
+                ? Collections.<ProxyableFileHistoryNode>emptyList()
+                : Collections.unmodifiableList(nodes.allNodes);
+    }
+
+    /**
+     * Returns nodes for the path of the given file that contain at least all maximal nodes strictly
+     * smaller than the given file. The result may contain further nodes which have to be filtered out by the caller.
+     */
+    Collection<ProxyableFileHistoryNode> getAncestorCandidates(final IRevisionedFile file) {
+        final NodesForPath nodes = this.nodesByPath.get(file.getPath());
+        return nodes == null
+                ? Collections.<ProxyableFileHistoryNode>emptyList()
+                : Collections.unmodifiableCollection(nodes.getAncestorCandidates(file.getRevision()));
+    }
+
+    @Override
+    public String toString() {
+        return this.nodesByPath.toString();
+    }
+}
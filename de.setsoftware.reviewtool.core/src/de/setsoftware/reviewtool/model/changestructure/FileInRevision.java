@@ -1,7 +1,9 @@
 package de.setsoftware.reviewtool.model.changestructure;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -18,6 +20,7 @@ import org.eclipse.core.runtime.Path;
 import de.setsoftware.reviewtool.base.Multimap;
 import de.setsoftware.reviewtool.base.PartialOrderAlgorithms;
 import de.setsoftware.reviewtool.base.ReviewtoolException;
+import de.setsoftware.reviewtool.base.Util;
 import de.setsoftware.reviewtool.model.PositionTransformer;
 import de.setsoftware.reviewtool.model.api.ILocalRevision;
 import de.setsoftware.reviewtool.model.api.IRepoRevision;
@@ -86,6 +89,58 @@ public class FileInRevision implements IRevisionedFile {
         });
     }
 
+    @Override
+    public long getSize() throws Exception {
+        return this.revision.accept(new IRevisionVisitorE<Long, Exception>() {
+
+            @Override
+            public Long handleLocalRevision(final ILocalRevision revision) {
+                final File file = FileInRevision.this.toLocalPath(revision.getWorkingCopy()).toFile();
+                return file.exists() ? file.length() : 0L;
+            }
+
+            @Override
+            public Long handleRepoRevision(final IRepoRevision<?> revision) throws Exception {
+                return FileInRevision.this.getRepository().getFileSize(FileInRevision.this.path, revision);
+            }
+
+            @Override
+            public Long handleUnknownRevision(final IUnknownRevision revision) {
+                return 0L;
+            }
+
+        });
+    }
+
+    @Override
+    public byte[] getContentsPrefix(final int maxLength) throws Exception {
+        return this.revision.accept(new IRevisionVisitorE<byte[], Exception>() {
+
+            @Override
+            public byte[] handleLocalRevision(final ILocalRevision revision) throws IOException {
+                final File file = FileInRevision.this.toLocalPath(revision.getWorkingCopy()).toFile();
+                if (!file.exists()) {
+                    return new byte[0];
+                }
+                try (InputStream in = new FileInputStream(file)) {
+                    return Util.readPrefix(in, maxLength);
+                }
+            }
+
+            @Override
+            public byte[] handleRepoRevision(final IRepoRevision<?> revision) throws Exception {
+                return FileInRevision.this.getRepository().getFileContentsPrefix(
+                        FileInRevision.this.path, revision, maxLength);
+            }
+
+            @Override
+            public byte[] handleUnknownRevision(final IUnknownRevision revision) {
+                return new byte[0];
+            }
+
+        });
+    }
+
     @Override
     public String toString() {
         return this.path + "@" + this.revision;
@@ -172,17 +227,18 @@ public class FileInRevision implements IRevisionedFile {
             return Collections.emptyList();
         }
 
-        final LinkedHashSet<IRevision> remainingRevisions = new LinkedHashSet<>();
+        final LinkedHashSet<IRevision> revisions = new LinkedHashSet<>();
         final Multimap<IRevision, IRevisionedFile> filesForRevision = new Multimap<>();
         for (final IRevisionedFile f : toSort) {
-            remainingRevisions.add(f.getRevision());
+            revisions.add(f.getRevision());
             filesForRevision.put(f.getRevision(), f);
         }
 
+        final List<IRevision> sortedRevisions = PartialOrderAlgorithms.topoSort(
+                revisions, RevisionSortKeys.forRevisions(revisions));
         final List<IRevisionedFile> ret = new ArrayList<>();
-        while (!remainingRevisions.isEmpty()) {
-            final IRevision smallest = PartialOrderAlgorithms.getSomeMinimum(remainingRevisions);
-            final List<IRevisionedFile> revs = new ArrayList<>(filesForRevision.get(smallest));
+        for (final IRevision revision : sortedRevisions) {
+            final List<IRevisionedFile> revs = new ArrayList<>(filesForRevision.get(revision));
             Collections.sort(revs, new Comparator<IRevisionedFile>() {
 
                 @Override
@@ -191,7 +247,6 @@ public class FileInRevision implements IRevisionedFile {
                 }
             });
             ret.addAll(revs);
-            remainingRevisions.remove(smallest);
         }
         return ret;
     }
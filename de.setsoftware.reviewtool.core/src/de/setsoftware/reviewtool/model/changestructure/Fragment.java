@@ -1,15 +1,12 @@
 package de.setsoftware.reviewtool.model.changestructure;
 
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
+import de.setsoftware.reviewtool.base.LineIndex;
 import de.setsoftware.reviewtool.base.ReviewtoolException;
 import de.setsoftware.reviewtool.model.api.IDelta;
 import de.setsoftware.reviewtool.model.api.IFragment;
@@ -161,35 +158,15 @@ public final class Fragment implements IFragment {
             return "";
         }
 
-        final byte[] contents;
+        final LineIndex lines;
         try {
-            contents = this.file.getContents();
+            lines = LineIndexCache.get(this.file);
         } catch (final Exception e) {
             return "?";
         }
 
-        try {
-            final BufferedReader r = new BufferedReader(new InputStreamReader(
-                    new ByteArrayInputStream(contents), "UTF-8"));
-            final StringBuilder ret = new StringBuilder();
-            int lineNumber = 1;
-            String lineContent;
-            while ((lineContent = r.readLine()) != null) {
-                if (lineNumber >= this.from.getLine()) {
-                    if (lineNumber < this.to.getLine()) {
-                        ret.append(lineContent).append('\n');
-                    } else if (lineNumber == this.to.getLine()) {
-                        if (this.to.getColumn() > 1) {
-                            ret.append(lineContent).append('\n');
-                        }
-                    }
-                }
-                lineNumber++;
-            }
-            return ret.toString();
-        } catch (final IOException e) {
-            throw new AssertionError("unexpected exception", e);
-        }
+        final int toLineExclusive = this.to.getColumn() > 1 ? this.to.getLine() : this.to.getLine() - 1;
+        return lines.getLinesNormalized(this.from.getLine() - 1, toLineExclusive);
     }
 
     @Override
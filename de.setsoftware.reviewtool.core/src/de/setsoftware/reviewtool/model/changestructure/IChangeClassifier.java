@@ -21,4 +21,13 @@ public interface IChangeClassifier {
      */
     public abstract void clearCaches();
 
+    /**
+     * Returns a key that identifies the type and configuration of this classifier. Two classifiers with
+     * the same key have to return the same classification for the same change. When the key is null,
+     * the results of this classifier are not stored in the {@link ClassificationCache}.
+     */
+    public default String getCacheKey() {
+        return null;
+    }
+
 }
@@ -49,4 +49,22 @@ public abstract class IIrrelevanceDetermination implements IChangeClassifier {
     public void clearCaches() {
     }
 
+    /**
+     * Returns a key for the configuration of this strategy that is not already contained in its number
+     * and description, or null if the results of the strategy shall not be cached.
+     * The default implementation does not allow caching.
+     */
+    protected String getConfigurationKey() {
+        return null;
+    }
+
+    @Override
+    public final String getCacheKey() {
+        final String configurationKey = this.getConfigurationKey();
+        if (configurationKey == null) {
+            return null;
+        }
+        return this.getClass().getName() + ',' + this.number + ',' + this.getDescription() + ',' + configurationKey;
+    }
+
 }
@@ -0,0 +1,92 @@
+package de.setsoftware.reviewtool.model.changestructure;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.setsoftware.reviewtool.base.LineIndex;
+import de.setsoftware.reviewtool.base.Pair;
+import de.setsoftware.reviewtool.model.api.ILocalRevision;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+
+/**
+ * Caches the UTF-8 decoded {@link LineIndex} of recently used file revisions, so that it can be shared
+ * by all fragments and positions in the same file revision.
+ * <p/>
+ * Contents of repository revisions never change. For files in a local working copy, the file's modification
+ * time and size are remembered and the index is recreated when they change. Local files that do not exist
+ * are not cached.
+ */
+public final class LineIndexCache {
+
+    private static final int MAX_ENTRIES = 64;
+
+    /**
+     * A cached index together with the version of the file it was created for.
+     */
+    private static final class Entry {
+        private final Object version;
+        private final SoftReference<LineIndex> index;
+
+        Entry(final Object version, final LineIndex index) {
+            this.version = version;
+            this.index = new SoftReference<>(index);
+        }
+    }
+
+    private static final Map<IRevisionedFile, Entry> CACHE =
+            new LinkedHashMap<IRevisionedFile, Entry>(MAX_ENTRIES, 0.75f, true) {
+                private static final long serialVersionUID = 2893542045729351077L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<IRevisionedFile, Entry> eldest) {
+                    return this.size() > MAX_ENTRIES;
+                }
+            };
+
+    private LineIndexCache() {
+    }
+
+    /**
+     * Returns the line index for the UTF-8 decoded contents of the given file.
+     * @throws Exception if the file contents could not be loaded.
+     */
+    public static LineIndex get(final IRevisionedFile file) throws Exception {
+        final Object version = determineVersion(file);
+        if (version == null) {
+            return LineIndex.create(file.getContents(), "UTF-8");
+        }
+        synchronized (CACHE) {
+            final Entry entry = CACHE.get(file);
+            if (entry != null && entry.version.equals(version)) {
+                final LineIndex index = entry.index.get();
+                if (index != null) {
+                    return index;
+                }
+            }
+        }
+
+        final LineIndex index = LineIndex.create(file.getContents(), "UTF-8");
+        synchronized (CACHE) {
+            CACHE.put(file, new Entry(version, index));
+        }
+        return index;
+    }
+
+    /**
+     * Returns an object that changes whenever the contents of the given file might have changed,
+     * or {@code null} if this cannot be determined.
+     */
+    private static Object determineVersion(final IRevisionedFile file) {
+        if (file.getRevision() instanceof ILocalRevision) {
+            final File localFile = file.toLocalPath(((ILocalRevision) file.getRevision()).getWorkingCopy()).toFile();
+            if (!localFile.isFile()) {
+                return null;
+            }
+            return Pair.create(localFile.lastModified(), localFile.length());
+        } else {
+            return Boolean.TRUE;
+        }
+    }
+}
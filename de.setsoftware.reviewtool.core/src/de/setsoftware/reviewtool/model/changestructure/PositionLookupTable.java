@@ -4,8 +4,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import org.eclipse.core.filesystem.EFS;
 import org.eclipse.core.filesystem.IFileStore;
@@ -13,7 +12,9 @@ import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 
+import de.setsoftware.reviewtool.base.LineIndex;
 import de.setsoftware.reviewtool.model.api.IPositionInText;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
 
 /**
  * Allows the transformation from position in the form (line,column) to
@@ -21,7 +22,12 @@ import de.setsoftware.reviewtool.model.api.IPositionInText;
  */
 public class PositionLookupTable {
 
-    private final List<Integer> charCountAtEndOfLine = new ArrayList<>();
+    /**
+     * The number of characters before the start of each line, followed by the total number of characters.
+     * Only the first {@link #size} entries are used.
+     */
+    private int[] charCountAtEndOfLine = new int[16];
+    private int size;
 
     private PositionLookupTable() {
     }
@@ -57,24 +63,57 @@ public class PositionLookupTable {
         }
     }
 
+    /**
+     * Creates a lookup table for the UTF-8 decoded contents of the given file revision.
+     * The file is only read and scanned when its line index is not in the {@link LineIndexCache} yet.
+     */
+    public static PositionLookupTable create(IRevisionedFile file) throws Exception {
+        return create(LineIndexCache.get(file));
+    }
+
     /**
      * Creates a lookup table for the contents from the given reader.
      */
     static PositionLookupTable create(Reader reader) throws IOException {
         final PositionLookupTable ret = new PositionLookupTable();
-        int ch;
+        final char[] buffer = new char[8192];
         int charCount = 0;
-        ret.charCountAtEndOfLine.add(0);
-        while ((ch = reader.read()) >= 0) {
-            charCount++;
-            if (ch == '\n') {
-                ret.charCountAtEndOfLine.add(charCount);
+        ret.add(0);
+        int read;
+        while ((read = reader.read(buffer)) >= 0) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    ret.add(charCount + i + 1);
+                }
             }
+            charCount += read;
         }
-        ret.charCountAtEndOfLine.add(charCount);
+        ret.add(charCount);
         return ret;
     }
 
+    /**
+     * Creates a lookup table for the contents from the given line index.
+     * In contrast to the other factory methods, a single "\r" is regarded as a line break, too.
+     */
+    public static PositionLookupTable create(LineIndex index) {
+        final PositionLookupTable ret = new PositionLookupTable();
+        for (int i = 0; i <= index.getNumberOfLines(); i++) {
+            ret.add(index.getLineStartOffset(i));
+        }
+        if (index.endsWithLineBreak()) {
+            ret.add(index.getContent().length());
+        }
+        return ret;
+    }
+
+    private void add(final int charCount) {
+        if (this.size >= this.charCountAtEndOfLine.length) {
+            this.charCountAtEndOfLine = Arrays.copyOf(this.charCountAtEndOfLine, this.size * 2);
+        }
+        this.charCountAtEndOfLine[this.size++] = charCount;
+    }
+
     /**
      * Returns the number of characters from the start of the file up to (and including) the given position.
      */
@@ -84,11 +123,11 @@ public class PositionLookupTable {
         if (pos.getLine() <= 0) {
             return 0;
         }
-        if (pos.getLine() >= this.charCountAtEndOfLine.size()) {
-            return this.charCountAtEndOfLine.get(this.charCountAtEndOfLine.size() - 1);
+        if (pos.getLine() >= this.size) {
+            return this.charCountAtEndOfLine[this.size - 1];
         }
 
-        return this.charCountAtEndOfLine.get(pos.getLine() - 1) + pos.getColumn() - 1;
+        return this.charCountAtEndOfLine[pos.getLine() - 1] + pos.getColumn() - 1;
     }
 
 }
@@ -0,0 +1,92 @@
+package de.setsoftware.reviewtool.model.changestructure;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+import de.setsoftware.reviewtool.base.IWeaklyOrdered;
+import de.setsoftware.reviewtool.base.PartialOrderAlgorithms;
+import de.setsoftware.reviewtool.model.api.IRepoRevision;
+import de.setsoftware.reviewtool.model.api.IRepository;
+import de.setsoftware.reviewtool.model.api.IRevision;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+
+/**
+ * Provides sort keys for revisions that are compatible to the partial order of revisions, for use with the
+ * keyed algorithms in {@link PartialOrderAlgorithms}.
+ * <p/>
+ * Only revisions from the same repository whose IDs are {@link IWeaklyOrdered} and of the same class are comparable
+ * by key. Therefore, the revisions of a collection that belong to the same "key domain" as the first such revision
+ * get a key, all other revisions get none and are compared pairwise.
+ */
+public final class RevisionSortKeys {
+
+    private final IRepository keyRepository;
+    private final Class<?> keyIdClass;
+
+    private RevisionSortKeys(final IRepository keyRepository, final Class<?> keyIdClass) {
+        this.keyRepository = keyRepository;
+        this.keyIdClass = keyIdClass;
+    }
+
+    /**
+     * Returns a key function for the given revisions.
+     */
+    public static Function<IRevision, Comparable<?>> forRevisions(final Collection<? extends IRevision> revisions) {
+        for (final IRevision revision : revisions) {
+            final IWeaklyOrdered<?, ?> id = getWeaklyOrderedId(revision);
+            if (id != null) {
+                return new RevisionSortKeys(revision.getRepository(), id.getClass())::getKey;
+            }
+        }
+        return (final IRevision revision) -> null;
+    }
+
+    /**
+     * Returns a key function for the given revisioned files, based on their revisions.
+     */
+    public static Function<IRevisionedFile, Comparable<?>> forFiles(
+            final Collection<? extends IRevisionedFile> files) {
+        for (final IRevisionedFile file : files) {
+            final IWeaklyOrdered<?, ?> id = getWeaklyOrderedId(file.getRevision());
+            if (id != null) {
+                final RevisionSortKeys keys = new RevisionSortKeys(file.getRevision().getRepository(), id.getClass());
+                return (final IRevisionedFile f) -> keys.getKey(f.getRevision());
+            }
+        }
+        return (final IRevisionedFile file) -> null;
+    }
+
+    /**
+     * Returns the ID of the given revision if it is {@link IWeaklyOrdered}, and {@code null} otherwise.
+     */
+    static IWeaklyOrdered<?, ?> getWeaklyOrderedId(final IRevision revision) {
+        if (revision instanceof IRepoRevision) {
+            final Object id = ((IRepoRevision<?>) revision).getId();
+            if (id instanceof IWeaklyOrdered) {
+                return (IWeaklyOrdered<?, ?>) id;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the sort key of the given revision if it belongs to the given key domain, and {@code null} otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    static Comparable<Object> getKey(
+            final IRevision revision,
+            final IRepository keyRepository,
+            final Class<?> keyIdClass) {
+        final IWeaklyOrdered<?, ?> id = getWeaklyOrderedId(revision);
+        if (id == null
+                || !id.getClass().equals(keyIdClass)
+                || !revision.getRepository().equals(keyRepository)) {
+            return null;
+        }
+        return (Comparable<Object>) id.getOrderKey();
+    }
+
+    private Comparable<?> getKey(final IRevision revision) {
+        return getKey(revision, this.keyRepository, this.keyIdClass);
+    }
+}
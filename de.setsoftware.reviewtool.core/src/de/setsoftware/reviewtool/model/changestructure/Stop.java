@@ -184,26 +184,44 @@ public class Stop extends TourElement implements IStop {
      * Neighboring segments are only considered mergeable if both have the same classification.
      */
     public boolean canBeMergedWith(final IStop other) {
-        if (!this.mostRecentFile.equals(other.getOriginalMostRecentFile())) {
+        return canBeMerged(
+                this.mostRecentFile,
+                this.mostRecentFragment,
+                this.getClassification(),
+                other.getOriginalMostRecentFile(),
+                other.getOriginalMostRecentFragment(),
+                other.getClassification());
+    }
+
+    /**
+     * Return true iff stops with the given data can be merged.
+     * @see #canBeMergedWith(IStop)
+     */
+    public static boolean canBeMerged(
+            final IRevisionedFile file1,
+            final IFragment fragment1,
+            final IClassification[] classification1,
+            final IRevisionedFile file2,
+            final IFragment fragment2,
+            final IClassification[] classification2) {
+        if (!file1.equals(file2)) {
             return false;
         }
-        if (this.mostRecentFragment == null) {
-            if (other.getOriginalMostRecentFragment() == null) {
+        if (fragment1 == null) {
+            if (fragment2 == null) {
                 return true;
             } else {
                 return false;
             }
         } else {
-            if (other.getOriginalMostRecentFragment() == null) {
+            if (fragment2 == null) {
                 return false;
             } else {
-                final boolean fragmentsMergeable =
-                        this.mostRecentFragment.canBeMergedWith(other.getOriginalMostRecentFragment());
-                if (Arrays.equals(this.getClassification(), other.getClassification())) {
+                final boolean fragmentsMergeable = fragment1.canBeMergedWith(fragment2);
+                if (Arrays.equals(classification1, classification2)) {
                     return fragmentsMergeable;
                 } else {
-                    return fragmentsMergeable
-                            && !this.mostRecentFragment.isNeighboring(other.getOriginalMostRecentFragment());
+                    return fragmentsMergeable && !fragment1.isNeighboring(fragment2);
                 }
             }
         }
@@ -216,27 +234,41 @@ public class Stop extends TourElement implements IStop {
      */
     public Stop merge(final Stop other) {
         assert this.canBeMergedWith(other);
+        return mergeAll(Arrays.asList(this, other));
+    }
 
-        final LinkedHashMap<IRevisionedFile, IRevisionedFile> mergedHistoryOrder =
-                new LinkedHashMap<>(this.historyOrder);
-        mergedHistoryOrder.putAll(other.historyOrder);
-
+    /**
+     * Merges the given stops, in the given order, into one stop. The result is the same as when merging them
+     * one after the other, but the history of the resulting stop is only built once.
+     */
+    public static Stop mergeAll(final List<Stop> stops) {
+        final Stop first = stops.get(0);
+        final LinkedHashMap<IRevisionedFile, IRevisionedFile> mergedHistoryOrder = new LinkedHashMap<>();
         final Multimap<IRevisionedFile, IHunk> mergedHistory = new Multimap<>();
-        mergedHistory.putAll(this.history);
-        mergedHistory.putAll(other.getHunks());
+        IFragment mergedFragment = first.mostRecentFragment;
+        IFragment mergedLocalFragment = first.mostRecentFragmentConsideringLocalChanges;
+        IClassification[] mergedClassification = first.classification;
+        for (final Stop s : stops) {
+            mergedHistoryOrder.putAll(s.historyOrder);
+            mergedHistory.putAll(s.history);
+            if (s != first) {
+                mergedFragment = mergedFragment == null ? null : mergedFragment.merge(s.mostRecentFragment);
+                mergedLocalFragment = mergedLocalFragment == null ? null
+                        : mergedLocalFragment.merge(s.mostRecentFragmentConsideringLocalChanges);
+                mergedClassification = Classification.merge(mergedClassification, s.classification);
+            }
+        }
         mergedHistory.sortValues();
 
         return new Stop(
-                this.wc,
+                first.wc,
                 mergedHistoryOrder,
                 mergedHistory,
-                this.mostRecentFile,
-                this.mostRecentFragment == null ? null : this.mostRecentFragment.merge(other.mostRecentFragment),
-                this.mostRecentFileConsideringLocalChanges,
-                this.mostRecentFragmentConsideringLocalChanges == null ? null
-                        : this.mostRecentFragmentConsideringLocalChanges.merge(
-                                other.mostRecentFragmentConsideringLocalChanges),
-                Classification.merge(this.classification, other.classification));
+                first.mostRecentFile,
+                mergedFragment,
+                first.mostRecentFileConsideringLocalChanges,
+                mergedLocalFragment,
+                mergedClassification);
     }
 
     @Override
@@ -0,0 +1,223 @@
+package de.setsoftware.reviewtool.model.changestructure;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IPath;
+
+import de.setsoftware.reviewtool.base.Pair;
+import de.setsoftware.reviewtool.model.api.IFragment;
+
+/**
+ * Index for the position and structure queries on the tours of a review.
+ * The stops of each file are kept sorted by the start line of their most recent fragment, so that the
+ * nearest stop for a line can be found with a binary search. The index is immutable; it has to be
+ * rebuilt when the most recent fragments of the stops change.
+ */
+final class StopIndex {
+
+    /**
+     * An occurrence of a stop in the tours, together with its position in the total order of all stops.
+     */
+    private static final class Entry {
+        private final Stop stop;
+        private final Tour topmostTour;
+        private final int order;
+        private final int from;
+        private final int to;
+
+        public Entry(Stop stop, Tour topmostTour, int order) {
+            this.stop = stop;
+            this.topmostTour = topmostTour;
+            this.order = order;
+            final IFragment fragment = stop.getMostRecentFragment();
+            this.from = fragment == null ? 0 : fragment.getFrom().getLine();
+            this.to = fragment == null ? 0 : fragment.getTo().getLine();
+        }
+    }
+
+    /**
+     * The stops in a single file, with the ones with a fragment sorted by start line.
+     */
+    private static final class FileIndex {
+        private final Entry[] byFrom;
+        private final int[] froms;
+        private final int[] maxToUpTo;
+        private final Entry firstWithoutFragment;
+
+        public FileIndex(List<Entry> entries) {
+            final List<Entry> withFragment = new ArrayList<>(entries.size());
+            Entry firstWithout = null;
+            for (final Entry e : entries) {
+                if (e.stop.getMostRecentFragment() != null) {
+                    withFragment.add(e);
+                } else if (firstWithout == null) {
+                    firstWithout = e;
+                }
+            }
+            withFragment.sort(Comparator.comparingInt((Entry e) -> e.from).thenComparingInt(e -> e.order));
+            this.byFrom = withFragment.toArray(new Entry[withFragment.size()]);
+            this.froms = new int[this.byFrom.length];
+            this.maxToUpTo = new int[this.byFrom.length];
+            int maxTo = Integer.MIN_VALUE;
+            for (int i = 0; i < this.byFrom.length; i++) {
+                this.froms[i] = this.byFrom[i].from;
+                maxTo = Math.max(maxTo, this.byFrom[i].to);
+                this.maxToUpTo[i] = maxTo;
+            }
+            this.firstWithoutFragment = firstWithout;
+        }
+
+        /**
+         * Returns the entry with the minimal distance to the given line. The distance is zero for lines
+         * in the stop, the number of lines for lines below the stop and four times the number of lines for
+         * lines above it. Stops without fragment are only used when there is no other stop in the file.
+         * When several entries have the same distance, the first one in tour order is returned.
+         */
+        public Entry findNearest(int line) {
+            if (this.byFrom.length == 0) {
+                return this.firstWithoutFragment;
+            }
+            //index of the first entry that starts after the line
+            final int after = this.upperBound(line);
+
+            Entry best = null;
+            long bestDist = Long.MAX_VALUE;
+            if (after < this.byFrom.length) {
+                final int from = this.froms[after];
+                Entry candidate = this.byFrom[after];
+                for (int i = after + 1; i < this.byFrom.length && this.froms[i] == from; i++) {
+                    candidate = earlier(candidate, this.byFrom[i]);
+                }
+                best = candidate;
+                //there is a bias that lets lines between stops belong more closely to the stop above than below
+                //  to a certain degree
+                bestDist = (from - line) * 4L;
+            }
+            if (after > 0) {
+                final int maxTo = this.maxToUpTo[after - 1];
+                final int threshold = Math.min(maxTo, line);
+                final long dist = maxTo >= line ? 0 : line - maxTo;
+                //all entries that end at or after the threshold have the same minimal distance
+                Entry candidate = null;
+                for (int i = after - 1; i >= 0 && this.maxToUpTo[i] >= threshold; i--) {
+                    final Entry e = this.byFrom[i];
+                    if (e.to >= threshold) {
+                        candidate = candidate == null ? e : earlier(candidate, e);
+                    }
+                }
+                if (dist < bestDist || (dist == bestDist && candidate.order < best.order)) {
+                    best = candidate;
+                    bestDist = dist;
+                }
+            }
+            return best;
+        }
+
+        private int upperBound(int line) {
+            int low = 0;
+            int high = this.froms.length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (this.froms[mid] <= line) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static Entry earlier(Entry e1, Entry e2) {
+            return e1.order <= e2.order ? e1 : e2;
+        }
+    }
+
+    private final Map<TourElement, Tour> parents = new HashMap<>();
+    private final Map<TourElement, Tour> topmostTours = new HashMap<>();
+    private final Map<Stop, Integer> topmostTourIndices = new IdentityHashMap<>();
+    private final Map<File, List<Stop>> stopsPerFile = new HashMap<>();
+    private final Map<IPath, FileIndex> entriesPerPath = new HashMap<>();
+
+    /**
+     * Builds the index for the given topmost tours, based on the current most recent fragments of the stops.
+     */
+    public StopIndex(List<? extends Tour> tours) {
+        final Map<IPath, List<Entry>> entries = new LinkedHashMap<>();
+        int order = 0;
+        for (int i = 0; i < tours.size(); i++) {
+            final Tour topmost = tours.get(i);
+            this.indexChildren(topmost, topmost);
+            for (final Stop s : topmost.getStops()) {
+                this.topmostTourIndices.putIfAbsent(s, i);
+                final IPath path = s.getMostRecentFile().toLocalPath(s.getWorkingCopy());
+                this.stopsPerFile.computeIfAbsent(path.toFile().getAbsoluteFile(), x -> new ArrayList<>()).add(s);
+                entries.computeIfAbsent(path, x -> new ArrayList<>()).add(new Entry(s, topmost, order++));
+            }
+        }
+        for (final Map.Entry<IPath, List<Entry>> e : entries.entrySet()) {
+            this.entriesPerPath.put(e.getKey(), new FileIndex(e.getValue()));
+        }
+    }
+
+    private void indexChildren(Tour tour, Tour topmost) {
+        for (final TourElement child : tour.getChildren()) {
+            this.parents.putIfAbsent(child, tour);
+            this.topmostTours.putIfAbsent(child, topmost);
+            if (child instanceof Tour) {
+                this.indexChildren((Tour) child, topmost);
+            }
+        }
+    }
+
+    /**
+     * Returns the direct parent tour of the given element, or null if there is none.
+     */
+    public Tour getParentFor(TourElement element) {
+        return this.parents.get(element);
+    }
+
+    /**
+     * Returns the topmost tour containing the given element, or null if there is none.
+     */
+    public Tour getTopmostTourWith(TourElement element) {
+        return this.topmostTours.get(element);
+    }
+
+    /**
+     * Returns the index of the first topmost tour containing the given stop (compared by identity),
+     * or null if there is none.
+     */
+    public Integer getTopmostTourIndex(Stop stop) {
+        return this.topmostTourIndices.get(stop);
+    }
+
+    /**
+     * Returns the stops in the given file, in tour order.
+     */
+    public List<Stop> getStopsFor(File absolutePath) {
+        final List<Stop> ret = this.stopsPerFile.get(absolutePath);
+        return ret == null ? Collections.emptyList() : Collections.unmodifiableList(ret);
+    }
+
+    /**
+     * Returns the stop nearest to the given line in the given file, together with its topmost tour.
+     * Returns null if there is no stop in the file.
+     */
+    public Pair<Tour, Stop> findNearestStop(IPath absoluteResourcePath, int line) {
+        final FileIndex index = this.entriesPerPath.get(absoluteResourcePath);
+        if (index == null) {
+            return null;
+        }
+        final Entry nearest = index.findNearest(line);
+        return nearest == null ? null : Pair.create(nearest.topmostTour, nearest.stop);
+    }
+
+}
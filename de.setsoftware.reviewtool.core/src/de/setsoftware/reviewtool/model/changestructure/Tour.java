@@ -194,20 +194,6 @@ public class Tour extends TourElement {
         };
     }
 
-    Tour findParentFor(TourElement element) {
-        for (final TourElement child : this.children) {
-            if (child.equals(element)) {
-                return this;
-            } else if (child instanceof Tour) {
-                final Tour recursiveResult = ((Tour) child).findParentFor(element);
-                if (recursiveResult != null) {
-                    return recursiveResult;
-                }
-            }
-        }
-        return null;
-    }
-
     /**
      * Returns the intersection of the classification of all children.
      */
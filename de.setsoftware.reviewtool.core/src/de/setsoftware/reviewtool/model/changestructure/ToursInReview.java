@@ -38,6 +38,7 @@ import de.setsoftware.reviewtool.model.api.IClassification;
 import de.setsoftware.reviewtool.model.api.ICommit;
 import de.setsoftware.reviewtool.model.api.IFragment;
 import de.setsoftware.reviewtool.model.api.IFragmentTracer;
+import de.setsoftware.reviewtool.model.api.ILocalRevision;
 import de.setsoftware.reviewtool.model.api.IRevisionedFile;
 import de.setsoftware.reviewtool.model.api.ITextualChange;
 import de.setsoftware.reviewtool.model.api.IWorkingCopy;
@@ -163,6 +164,7 @@ public class ToursInReview {
     private final WeakListeners<IToursInReviewChangeListener> listeners = new WeakListeners<>();
     private final IChangeManagerListener mostRecentFragmentUpdater;
     private final Set<? extends IClassification> irrelevantCategories;
+    private volatile StopIndex index;
 
     private ToursInReview(
             final ChangeManager changeManager,
@@ -188,6 +190,7 @@ public class ToursInReview {
         this.currentTourIndex = 0;
         this.mostRecentFragmentUpdater = null;
         this.irrelevantCategories = Collections.emptySet();
+        this.index = new StopIndex(this.topmostTours);
     }
 
     /**
@@ -206,6 +209,7 @@ public class ToursInReview {
             final ChangeManager changeManager,
             final IChangeSourceUi changeSourceUi,
             final List<? extends IChangeClassifier> changeClassificationStrategies,
+            final ClassificationCache classificationCache,
             final List<? extends ITourRestructuring> tourRestructuringStrategies,
             final IStopOrdering orderingAlgorithm,
             final ICreateToursUi createUi,
@@ -213,7 +217,7 @@ public class ToursInReview {
             final List<ReviewRoundInfo> reviewRounds) {
         changeSourceUi.subTask("Filtering changes...");
         final UserSelectedReductions filteredChanges =
-                filterChanges(changeClassificationStrategies, changes.getMatchedCommits(),
+                filterChanges(changeClassificationStrategies, classificationCache, changes.getMatchedCommits(),
                         createUi, changeSourceUi, reviewRounds);
         if (filteredChanges == null) {
             return null;
@@ -293,10 +297,13 @@ public class ToursInReview {
                 stop.updateMostRecentData(tracer);
             }
         }
+        //the files and lines of the stops might have changed
+        this.index = new StopIndex(this.topmostTours);
     }
 
     private static UserSelectedReductions filterChanges(
             final List<? extends IChangeClassifier> changeClassificationStrategies,
+            final ClassificationCache classificationCache,
             final List<? extends ICommit> changes,
             final ICreateToursUi createUi,
             final IProgressMonitor progressMonitor,
@@ -310,15 +317,18 @@ public class ToursInReview {
             cl.clearCaches();
         }
 
+        final ClassificationCache.Run cachedResults = classificationCache.startRun(changeClassificationStrategies);
         final List<ICommit> changesWithClassifications = new ArrayList<>();
         for (final ICommit commit : changes) {
             changesWithClassifications.add(commit.transformChanges(
-                    (IChange c) -> addClassifications(commit, c, changeClassificationStrategies, progressMonitor)));
+                    (IChange c) -> addClassifications(
+                            commit, c, changeClassificationStrategies, cachedResults, progressMonitor)));
         }
 
         for (final IChangeClassifier cl : changeClassificationStrategies) {
             cl.clearCaches();
         }
+        classificationCache.storeIfChanged();
 
         final Multiset<IClassification> strategyResults = new Multiset<>();
         for (final ICommit commit : changesWithClassifications) {
@@ -361,14 +371,22 @@ public class ToursInReview {
             ICommit commit,
             IChange change,
             List<? extends IChangeClassifier> changeClassificationStrategies,
+            final ClassificationCache.Run cachedResults,
             final IProgressMonitor progressMonitor) {
         IChange ret = change;
-        for (final IChangeClassifier strategy : changeClassificationStrategies) {
+        final ClassificationCache.Results cached = cachedResults.get(commit, change);
+        for (int i = 0; i < changeClassificationStrategies.size(); i++) {
             if (progressMonitor.isCanceled()) {
                 throw new OperationCanceledException();
             }
             try {
-                final IClassification cl = strategy.classify(commit, ret);
+                final IClassification cl;
+                if (cached.isCached(i)) {
+                    cl = cached.get(i);
+                } else {
+                    cl = changeClassificationStrategies.get(i).classify(commit, ret);
+                    cached.put(i, cl);
+                }
                 if (cl != null) {
                     ret = ret.addClassification(cl);
                 }
@@ -512,7 +530,7 @@ public class ToursInReview {
             final IMarker marker;
             if (f.isDetailedFragmentKnown()) {
                 if (!lookupTables.containsKey(resource)) {
-                    lookupTables.put(resource, PositionLookupTable.create((IFile) resource));
+                    lookupTables.put(resource, createLookupTable(f.getMostRecentFile(), (IFile) resource));
                 }
                 final IFragment pos = f.getMostRecentFragment();
                 marker = markerFactory.createStopMarker(resource, tourActive);
@@ -545,6 +563,23 @@ public class ToursInReview {
                 markerFactory, new HashMap<IResource, PositionLookupTable>(), topmostTour, f, true);
     }
 
+    /**
+     * Creates the lookup table for the given local file. When the file is UTF-8 encoded, the line index is
+     * taken from the {@link LineIndexCache}, so that the file is not scanned again after the stop's fragments
+     * have been determined.
+     */
+    private static PositionLookupTable createLookupTable(final IRevisionedFile file, final IFile resource)
+        throws CoreException, IOException {
+        if (file.getRevision() instanceof ILocalRevision && "UTF-8".equalsIgnoreCase(resource.getCharset())) {
+            try {
+                return PositionLookupTable.create(file);
+            } catch (final Exception e) {
+                throw new ReviewtoolException(e);
+            }
+        }
+        return PositionLookupTable.create(resource);
+    }
+
     public List<Tour> getTopmostTours() {
         return this.topmostTours;
     }
@@ -611,11 +646,7 @@ public class ToursInReview {
      * Returns all stops (from all tours) that refer to the given file.
      */
     public List<Stop> getStopsFor(final File absolutePath) {
-        final List<Stop> ret = new ArrayList<>();
-        for (final Tour t : this.topmostTours) {
-            ret.addAll(t.getStopsFor(absolutePath));
-        }
-        return ret;
+        return this.index.getStopsFor(absolutePath);
     }
 
     /**
@@ -623,60 +654,18 @@ public class ToursInReview {
      * If none exists, -1 is returned.
      */
     public int findTourIndexWithStop(final Stop currentStop) {
-        for (int i = 0; i < this.topmostTours.size(); i++) {
-            for (final Stop s : this.topmostTours.get(i).getStops()) {
-                if (s == currentStop) {
-                    return i;
-                }
-            }
-        }
-        return 0;
+        final Integer index = this.index.getTopmostTourIndex(currentStop);
+        return index == null ? 0 : index;
     }
 
     /**
      * Determines a stop that is as close as possible to the given line in the given resource.
      * The closeness measure is tweaked to (hopefully) capture the users intention as good as possible
      * for cases where he did not click directly on a stop.
+     * Returns null when there is no stop in the given resource.
      */
     public Pair<Tour, Stop> findNearestStop(final IPath absoluteResourcePath, final int line) {
-        if (this.topmostTours.isEmpty()) {
-            return null;
-        }
-        Tour bestTour = null;
-        Stop bestStop = null;
-        int bestDist = Integer.MAX_VALUE;
-        for (final Tour t : this.topmostTours) {
-            for (final Stop stop : t.getStops()) {
-                final int candidateDist = this.calculateDistance(stop, absoluteResourcePath, line);
-                if (candidateDist < bestDist) {
-                    bestTour = t;
-                    bestStop = stop;
-                    bestDist = candidateDist;
-                }
-            }
-        }
-        return Pair.create(bestTour, bestStop);
-    }
-
-    private int calculateDistance(final Stop stop, final IPath resource, final int line) {
-        if (!stop.getMostRecentFile().toLocalPath(stop.getWorkingCopy()).equals(resource)) {
-            return Integer.MAX_VALUE;
-        }
-
-        final IFragment fragment = stop.getMostRecentFragment();
-        if (fragment == null) {
-            return Integer.MAX_VALUE - 1;
-        }
-
-        if (line < fragment.getFrom().getLine()) {
-            //there is a bias that lets lines between stops belong more closely to the stop above than below
-            //  to a certain degree
-            return (fragment.getFrom().getLine() - line) * 4;
-        } else if (line > fragment.getTo().getLine()) {
-            return line - fragment.getTo().getLine();
-        } else {
-            return 0;
-        }
+        return this.index.findNearestStop(absoluteResourcePath, line);
     }
 
     /**
@@ -684,13 +673,7 @@ public class ToursInReview {
      * Returns null when none is found.
      */
     public Tour getParentFor(final TourElement element) {
-        for (final Tour t : this.topmostTours) {
-            final Tour parent = t.findParentFor(element);
-            if (parent != null) {
-                return parent;
-            }
-        }
-        return null;
+        return this.index.getParentFor(element);
     }
 
     /**
@@ -698,13 +681,7 @@ public class ToursInReview {
      * Returns null when none is found.
      */
     public Tour getTopmostTourWith(final TourElement element) {
-        for (final Tour t : this.topmostTours) {
-            final Tour parent = t.findParentFor(element);
-            if (parent != null) {
-                return t;
-            }
-        }
-        return null;
+        return this.index.getTopmostTourWith(element);
     }
 
     public Set<? extends IClassification> getIrrelevantCategories() {
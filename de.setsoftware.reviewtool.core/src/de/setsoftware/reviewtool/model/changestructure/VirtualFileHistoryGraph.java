@@ -3,6 +3,7 @@ package de.setsoftware.reviewtool.model.changestructure;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -18,18 +19,64 @@ import de.setsoftware.reviewtool.model.api.IRevisionedFile;
 
 /**
  * Merges two file history graphs (typically a remote and a local one) into one combined file history graph.
- * Note that the nodes returned are snapshots and do not change if the underlying file history graphs change afterwards.
+ * Nodes are cached, so the same node object is returned for a file as long as the underlying file history graphs
+ * do not change for its path. Note that the nodes returned are snapshots: if the underlying graphs change for the
+ * path afterwards, a new node is created, while the old one is not updated.
  */
 public final class VirtualFileHistoryGraph extends AbstractFileHistoryGraph {
 
+    /**
+     * A cached node together with the modification stamps of the underlying graphs it was determined from.
+     */
+    private static final class CachedNode {
+        private final long remoteStamp;
+        private final long localStamp;
+        private final VirtualFileHistoryNode node;
+
+        CachedNode(final long remoteStamp, final long localStamp, final VirtualFileHistoryNode node) {
+            this.remoteStamp = remoteStamp;
+            this.localStamp = localStamp;
+            this.node = node;
+        }
+
+        boolean isUpToDate(final long currentRemoteStamp, final long currentLocalStamp) {
+            return this.remoteStamp == currentRemoteStamp && this.localStamp == currentLocalStamp;
+        }
+    }
+
+    /**
+     * The intermediate nodes of a single path, together with the modification stamps of the underlying graphs
+     * they were determined from.
+     */
+    private static final class IntermediateNodes {
+        private final long remoteStamp;
+        private final long localStamp;
+        private final Map<IRevisionedFile, VirtualFileHistoryNode> nodes;
+
+        IntermediateNodes(final long remoteStamp, final long localStamp) {
+            this.remoteStamp = remoteStamp;
+            this.localStamp = localStamp;
+            this.nodes = new LinkedHashMap<>();
+        }
+
+        boolean isUpToDate(final long currentRemoteStamp, final long currentLocalStamp) {
+            return this.remoteStamp == currentRemoteStamp && this.localStamp == currentLocalStamp;
+        }
+    }
+
     private final IFileHistoryGraph remoteFileHistoryGraph;
     private IFileHistoryGraph localFileHistoryGraph;
-    private final Map<IRevisionedFile, IFileHistoryNode> virtualNodes;
+    private long localFileHistoryGraphStamp;
+    private Multimap<String, IFileHistoryNode> localFlowStartsByPath;
+    private final Map<String, IntermediateNodes> intermediateNodes;
+    private final Map<IRevisionedFile, CachedNode> nodeCache;
 
     public VirtualFileHistoryGraph(final IFileHistoryGraph remoteFileHistoryGraph) {
         this.remoteFileHistoryGraph = remoteFileHistoryGraph;
         this.localFileHistoryGraph = null;
-        this.virtualNodes = new LinkedHashMap<>();
+        this.localFlowStartsByPath = new Multimap<>();
+        this.intermediateNodes = new HashMap<>();
+        this.nodeCache = new HashMap<>();
     }
 
     /**
@@ -42,14 +89,21 @@ public final class VirtualFileHistoryGraph extends AbstractFileHistoryGraph {
 
     /**
      * Sets or unsets the local file history graph.
+     * Cached nodes stay valid for paths that have no nodes in both the old and the new local graph.
      * @param localFileHistoryGraph The new local file history graph. May be {@code null}.
      */
-    public void setLocalFileHistoryGraph(final IFileHistoryGraph localFileHistoryGraph) {
+    public synchronized void setLocalFileHistoryGraph(final IFileHistoryGraph localFileHistoryGraph) {
         this.localFileHistoryGraph = localFileHistoryGraph;
-        this.virtualNodes.clear();
+        this.localFileHistoryGraphStamp = nextModificationStamp();
+
+        this.localFlowStartsByPath = new Multimap<>();
         if (this.localFileHistoryGraph != null) {
-            this.computeIntermediateNodes();
+            for (final IFileHistoryNode localNode : this.localFileHistoryGraph.getIncompleteFlowStarts()) {
+                this.localFlowStartsByPath.put(localNode.getFile().getPath(), localNode);
+            }
         }
+        // outdated intermediate nodes for the remaining paths are detected by their stamps
+        this.intermediateNodes.keySet().retainAll(this.localFlowStartsByPath.keySet());
     }
 
     /**
@@ -60,20 +114,43 @@ public final class VirtualFileHistoryGraph extends AbstractFileHistoryGraph {
         return this.remoteFileHistoryGraph;
     }
 
-    private void computeIntermediateNodes() {
-        for (final IFileHistoryNode localNode : this.localFileHistoryGraph.getIncompleteFlowStarts()) {
-            this.computeIntermediateNodes(localNode);
+    private long getLocalModificationStamp(final String path) {
+        return this.localFileHistoryGraph != null ? this.localFileHistoryGraph.getModificationStamp(path) : 0;
+    }
+
+    /**
+     * Returns the intermediate nodes for the given path, computing them if necessary.
+     * Returns {@code null} if there are no incomplete flow starts for that path in the local graph.
+     */
+    private IntermediateNodes getIntermediateNodes(final String path, final long remoteStamp, final long localStamp) {
+        final List<IFileHistoryNode> localFlowStarts = this.localFlowStartsByPath.get(path);
+        if (localFlowStarts.isEmpty()) {
+            return null;
+        }
+
+        final IntermediateNodes cached = this.intermediateNodes.get(path);
+        if (cached != null && cached.isUpToDate(remoteStamp, localStamp)) {
+            return cached;
         }
+
+        final IntermediateNodes result = new IntermediateNodes(remoteStamp, localStamp);
+        for (final IFileHistoryNode localNode : localFlowStarts) {
+            this.computeIntermediateNodes(localNode, result.nodes);
+        }
+        this.intermediateNodes.put(path, result);
+        return result;
     }
 
-    private void computeIntermediateNodes(final IFileHistoryNode localNode) {
+    private void computeIntermediateNodes(
+            final IFileHistoryNode localNode,
+            final Map<IRevisionedFile, VirtualFileHistoryNode> virtualNodes) {
         final IFileHistoryNode remoteNode = this.remoteFileHistoryGraph.getNodeFor(localNode.getFile());
         if (remoteNode != null) {
             final VirtualFileHistoryNode virtualNode = new VirtualFileHistoryNode(
                     this,
                     localNode.getFile(),
                     Arrays.asList(remoteNode, localNode));
-            this.virtualNodes.put(virtualNode.getFile(), virtualNode);
+            virtualNodes.put(virtualNode.getFile(), virtualNode);
             return;
         }
 
@@ -93,8 +170,8 @@ public final class VirtualFileHistoryGraph extends AbstractFileHistoryGraph {
                 virtualAncestorNode.addDescendant(virtualDescendantNode);
                 virtualDescendantNode.addAncestor(virtualAncestorNode);
 
-                this.virtualNodes.put(virtualAncestorNode.getFile(), virtualAncestorNode);
-                this.virtualNodes.put(virtualDescendantNode.getFile(), virtualDescendantNode);
+                virtualNodes.put(virtualAncestorNode.getFile(), virtualAncestorNode);
+                virtualNodes.put(virtualDescendantNode.getFile(), virtualDescendantNode);
             }
         }
     }
@@ -109,11 +186,33 @@ public final class VirtualFileHistoryGraph extends AbstractFileHistoryGraph {
 
     @Override
     public IFileHistoryNode getNodeFor(final IRevisionedFile file) {
-        final IFileHistoryNode virtualNode = this.virtualNodes.get(file);
-        if (virtualNode != null) {
-            return virtualNode;
+        return this.getVirtualNodeFor(file);
+    }
+
+    private synchronized VirtualFileHistoryNode getVirtualNodeFor(final IRevisionedFile file) {
+        final String path = file.getPath();
+        final long remoteStamp = this.remoteFileHistoryGraph.getModificationStamp(path);
+        final long localStamp = this.getLocalModificationStamp(path);
+
+        final IntermediateNodes intermediate = this.getIntermediateNodes(path, remoteStamp, localStamp);
+        if (intermediate != null) {
+            final VirtualFileHistoryNode virtualNode = intermediate.nodes.get(file);
+            if (virtualNode != null) {
+                return virtualNode;
+            }
         }
 
+        final CachedNode cached = this.nodeCache.get(file);
+        if (cached != null && cached.isUpToDate(remoteStamp, localStamp)) {
+            return cached.node;
+        }
+
+        final VirtualFileHistoryNode node = this.createNode(file);
+        this.nodeCache.put(file, new CachedNode(remoteStamp, localStamp, node));
+        return node;
+    }
+
+    private VirtualFileHistoryNode createNode(final IRevisionedFile file) {
         final List<IFileHistoryNode> nodes = new ArrayList<>();
 
         final IFileHistoryNode remoteNode = this.remoteFileHistoryGraph.getNodeFor(file);
@@ -129,8 +228,7 @@ public final class VirtualFileHistoryGraph extends AbstractFileHistoryGraph {
         }
 
         if (!nodes.isEmpty()) {
-            final VirtualFileHistoryNode node = new VirtualFileHistoryNode(this, file, nodes);
-            return node;
+            return new VirtualFileHistoryNode(this, file, nodes);
         } else {
             return null;
         }
@@ -151,12 +249,11 @@ public final class VirtualFileHistoryGraph extends AbstractFileHistoryGraph {
         }
 
         if (!nodeMap.isEmpty()) {
-            final List<IRevisionedFile> sortedFiles = PartialOrderAlgorithms.topoSort(nodeMap.keySet());
-            final List<IRevisionedFile> maximalFiles = PartialOrderAlgorithms.getAllMaximalElements(sortedFiles);
+            final List<IRevisionedFile> maximalFiles = PartialOrderAlgorithms.getAllMaximalElements(
+                    nodeMap.keySet(), RevisionSortKeys.forFiles(nodeMap.keySet()));
             final Set<VirtualFileHistoryNode> ancestors = new LinkedHashSet<>();
             for (final IRevisionedFile ancestorFile : maximalFiles) {
-                final List<IFileHistoryNode> nodes = nodeMap.get(ancestorFile);
-                ancestors.add(new VirtualFileHistoryNode(this, file, nodes));
+                ancestors.add(this.getVirtualNodeFor(ancestorFile));
             }
             return ancestors;
         } else {
@@ -164,6 +261,13 @@ public final class VirtualFileHistoryGraph extends AbstractFileHistoryGraph {
         }
     }
 
+    @Override
+    public synchronized long getModificationStamp(final String path) {
+        return Math.max(
+                this.localFileHistoryGraphStamp,
+                Math.max(this.remoteFileHistoryGraph.getModificationStamp(path), this.getLocalModificationStamp(path)));
+    }
+
     @Override
     public final Set<IFileHistoryNode> getIncompleteFlowStarts() {
         final Set<IFileHistoryNode> result = new LinkedHashSet<>();
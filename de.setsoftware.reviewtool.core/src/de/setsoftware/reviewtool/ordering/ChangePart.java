@@ -1,9 +1,15 @@
 package de.setsoftware.reviewtool.ordering;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import de.setsoftware.reviewtool.base.ReviewtoolException;
@@ -19,6 +25,21 @@ import de.setsoftware.reviewtool.model.changestructure.Stop;
  */
 public class ChangePart {
 
+    private static final int MAX_CACHED_FILES = 256;
+
+    /**
+     * Cache for the region ends of java files, keyed by a hash of the file's content.
+     */
+    private static final Map<String, int[]> REGION_END_CACHE =
+            new LinkedHashMap<String, int[]>(MAX_CACHED_FILES, 0.75f, true) {
+                private static final long serialVersionUID = -2381750291364817653L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, int[]> eldest) {
+                    return this.size() > MAX_CACHED_FILES;
+                }
+            };
+
     private final List<Stop> stops;
     private final Set<? extends IClassification> irrelevantCategories;
 
@@ -158,40 +179,59 @@ public class ChangePart {
             return;
         }
 
-        final IslandScanner scanner = new IslandScanner(contents);
-        int currentBlockEnd = scanner.getNextRegionEndLineNumber();
+        final int[] regionEnds = getRegionEndLineNumbers(contents);
+        int currentRegion = -1;
         List<Stop> stopsInCurrentBlock = new ArrayList<>();
         for (final Stop s : stopsInCurrentFile) {
             final int stopStartLine = s.getOriginalMostRecentFragment().getFrom().getLine();
-            if (stopStartLine <= currentBlockEnd) {
-                //stop is still in current block
-                stopsInCurrentBlock.add(s);
-            } else {
-                //stop belongs to one of the next block, end the current one and determine new block
-                if (!stopsInCurrentBlock.isEmpty()) {
-                    resultBuffer.add(new ChangePart(stopsInCurrentBlock, irrelevantCategories));
-                }
-                do {
-                    currentBlockEnd = scanner.getNextRegionEndLineNumber();
-                } while (stopStartLine > currentBlockEnd);
+            final int region = findRegion(regionEnds, stopStartLine);
+            if (region != currentRegion && !stopsInCurrentBlock.isEmpty()) {
+                //stop belongs to one of the next blocks, end the current one
+                resultBuffer.add(new ChangePart(stopsInCurrentBlock, irrelevantCategories));
                 stopsInCurrentBlock = new ArrayList<>();
-                stopsInCurrentBlock.add(s);
             }
+            currentRegion = region;
+            stopsInCurrentBlock.add(s);
         }
         resultBuffer.add(new ChangePart(stopsInCurrentBlock, irrelevantCategories));
     }
 
     /**
-     * The token types that the {@link IslandScanner} can emit.
+     * Returns the index of the region that contains the given line, i.e. the index of the first region
+     * end that is not before the line. Returns the number of region ends if the line is after the last one.
      */
-    private static enum TokenType {
-        MULTILINE_COMMENT_START,
-        MULTILINE_COMMENT_END,
-        SINGLE_LINE_COMMENT,
-        BRACE_OPEN,
-        BRACE_CLOSE,
-        SEMI,
-        SEA,
+    private static int findRegion(int[] regionEnds, int line) {
+        final int index = Arrays.binarySearch(regionEnds, line);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Returns the (ascending) line numbers at which the regions of the given java file end. The result
+     * only depends on the file's content and is cached, because the same files are grouped again for
+     * every tour and every reordering.
+     */
+    private static int[] getRegionEndLineNumbers(byte[] contents) {
+        final String key = hash(contents);
+        synchronized (REGION_END_CACHE) {
+            final int[] cached = REGION_END_CACHE.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        final int[] regionEnds = new IslandScanner(contents).scanRegionEndLineNumbers();
+        synchronized (REGION_END_CACHE) {
+            REGION_END_CACHE.put(key, regionEnds);
+        }
+        return regionEnds;
+    }
+
+    private static String hash(byte[] contents) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(contents));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new ReviewtoolException(e);
+        }
     }
 
     /**
@@ -211,207 +251,215 @@ public class ChangePart {
     }
 
     /**
-     * Lexer for part of the java grammar (cmp island grammars).
+     * Lexer for part of the java grammar (cmp island grammars). Works directly on the file's bytes and
+     * only keeps track of the information that is needed to determine the region ends of each line.
      */
     private static final class IslandScanner {
 
         private final byte[] content;
-        private int pos;
-        private IslandScannerState previousEndState;
+        private IslandScannerState state;
 
         private int nestingDepth;
-        private int currentLineNumber;
+        private boolean lineHasTokens;
+        private boolean lineHadPotentialEnd;
 
         public IslandScanner(byte[] content) {
             this.content = content;
-            this.pos = 0;
-            this.previousEndState = IslandScannerState.INIT;
-            this.currentLineNumber = 0;
         }
 
-        public int getNextRegionEndLineNumber() {
-            while (this.pos < this.content.length) {
-                this.currentLineNumber++;
-                boolean hadPotentialEnd = false;
-                final List<TokenType> tokens = this.parseNextLine();
-                for (final TokenType token : tokens) {
-                    switch (token) {
-                    case BRACE_OPEN:
-                        hadPotentialEnd = true;
-                        this.nestingDepth++;
-                        break;
-                    case BRACE_CLOSE:
-                        hadPotentialEnd = true;
-                        this.nestingDepth--;
-                        break;
-                    case SEMI:
-                        hadPotentialEnd = true;
-                        break;
-                    case MULTILINE_COMMENT_START:
-                    case MULTILINE_COMMENT_END:
-                    case SEA:
-                    case SINGLE_LINE_COMMENT:
-                    default:
-                        //other token types not needed
+        /**
+         * Scans the whole content and returns the line numbers (one-based) at which a region ends.
+         */
+        public int[] scanRegionEndLineNumbers() {
+            int[] ret = new int[16];
+            int count = 0;
+            int lineNumber = 0;
+            int pos = 0;
+            IslandScannerState previousEndState = IslandScannerState.INIT;
+            while (pos < this.content.length) {
+                lineNumber++;
+                if (previousEndState == IslandScannerState.IN_MULTILINE_COMMENT) {
+                    this.state = IslandScannerState.IN_MULTILINE_COMMENT;
+                } else {
+                    this.state = IslandScannerState.INIT;
+                }
+                this.lineHasTokens = false;
+                this.lineHadPotentialEnd = false;
+                while (pos < this.content.length) {
+                    final byte cur = this.content[pos++];
+                    if (cur == '\n') {
                         break;
                     }
+                    this.handleChar(cur);
                 }
+                if (this.state != IslandScannerState.INIT) {
+                    //the line contains other content
+                    this.lineHasTokens = true;
+                }
+                previousEndState = this.state;
+
                 if (this.nestingDepth >= 2) {
                     continue;
                 }
-                if (hadPotentialEnd || tokens.isEmpty()) {
-                    return this.currentLineNumber;
+                if (this.lineHadPotentialEnd || !this.lineHasTokens) {
+                    if (count == ret.length) {
+                        ret = Arrays.copyOf(ret, 2 * count);
+                    }
+                    ret[count++] = lineNumber;
                 }
             }
-            return Integer.MAX_VALUE;
+            return Arrays.copyOf(ret, count);
         }
 
-        public List<TokenType> parseNextLine() {
-            final List<TokenType> ret = new ArrayList<>();
-            IslandScannerState state;
-            if (this.previousEndState == IslandScannerState.IN_MULTILINE_COMMENT) {
-                state = IslandScannerState.IN_MULTILINE_COMMENT;
-            } else {
-                state = IslandScannerState.INIT;
-            }
-            while (this.pos < this.content.length) {
-                final byte cur = this.content[this.pos++];
-                if (cur == '\n') {
+        private void token() {
+            this.lineHasTokens = true;
+        }
+
+        private void braceOpen() {
+            this.lineHasTokens = true;
+            this.lineHadPotentialEnd = true;
+            this.nestingDepth++;
+        }
+
+        private void braceClose() {
+            this.lineHasTokens = true;
+            this.lineHadPotentialEnd = true;
+            this.nestingDepth--;
+        }
+
+        private void semi() {
+            this.lineHasTokens = true;
+            this.lineHadPotentialEnd = true;
+        }
+
+        private void handleChar(byte cur) {
+            switch (this.state) {
+            case INIT:
+                switch (cur) {
+                case '/':
+                    this.state = IslandScannerState.POSSIBLE_COMMENT_START;
+                    break;
+                case '"':
+                    this.state = IslandScannerState.STRING;
+                    break;
+                case '\'':
+                    this.state = IslandScannerState.CHAR;
+                    break;
+                case ' ':
+                case '\t':
+                case '\r':
+                    break;
+                case '{':
+                    this.braceOpen();
+                    break;
+                case '}':
+                    this.braceClose();
+                    break;
+                case ';':
+                    this.semi();
+                    break;
+                default:
+                    this.state = IslandScannerState.GENERIC_CONTENT;
                     break;
                 }
-                switch (state) {
-                case INIT:
-                    switch (cur) {
-                    case '/':
-                        state = IslandScannerState.POSSIBLE_COMMENT_START;
-                        break;
-                    case '"':
-                        state = IslandScannerState.STRING;
-                        break;
-                    case '\'':
-                        state = IslandScannerState.CHAR;
-                        break;
-                    case ' ':
-                    case '\t':
-                    case '\r':
-                        break;
-                    case '{':
-                        ret.add(TokenType.BRACE_OPEN);
-                        break;
-                    case '}':
-                        ret.add(TokenType.BRACE_CLOSE);
-                        break;
-                    case ';':
-                        ret.add(TokenType.SEMI);
-                        break;
-                    default:
-                        state = IslandScannerState.GENERIC_CONTENT;
-                        break;
-                    }
+                break;
+            case GENERIC_CONTENT:
+                switch (cur) {
+                case '/':
+                    this.token();
+                    this.state = IslandScannerState.POSSIBLE_COMMENT_START;
                     break;
-                case GENERIC_CONTENT:
-                    switch (cur) {
-                    case '/':
-                        ret.add(TokenType.SEA);
-                        state = IslandScannerState.POSSIBLE_COMMENT_START;
-                        break;
-                    case '"':
-                        state = IslandScannerState.STRING;
-                        break;
-                    case '\'':
-                        state = IslandScannerState.CHAR;
-                        break;
-                    case '{':
-                        ret.add(TokenType.BRACE_OPEN);
-                        break;
-                    case '}':
-                        ret.add(TokenType.BRACE_CLOSE);
-                        break;
-                    case ';':
-                        ret.add(TokenType.SEMI);
-                        break;
-                    default:
-                        break;
-                    }
+                case '"':
+                    this.state = IslandScannerState.STRING;
                     break;
-                case POSSIBLE_COMMENT_START:
-                    switch (cur) {
-                    case '*':
-                        ret.add(TokenType.MULTILINE_COMMENT_START);
-                        state = IslandScannerState.IN_MULTILINE_COMMENT;
-                        break;
-                    case '/':
-                        ret.add(TokenType.SINGLE_LINE_COMMENT);
-                        state = IslandScannerState.IN_SINGLELINE_COMMENT;
-                        break;
-                    default:
-                        state = IslandScannerState.GENERIC_CONTENT;
-                        break;
-                    }
+                case '\'':
+                    this.state = IslandScannerState.CHAR;
                     break;
-                case IN_SINGLELINE_COMMENT:
+                case '{':
+                    this.braceOpen();
                     break;
-                case IN_MULTILINE_COMMENT:
-                    switch (cur) {
-                    case '*':
-                        state = IslandScannerState.POSSIBLE_COMMENT_END;
-                        break;
-                    default:
-                        break;
-                    }
+                case '}':
+                    this.braceClose();
                     break;
-                case POSSIBLE_COMMENT_END:
-                    switch (cur) {
-                    case '/':
-                        ret.add(TokenType.MULTILINE_COMMENT_END);
-                        state = IslandScannerState.GENERIC_CONTENT;
-                        break;
-                    case '*':
-                        break;
-                    default:
-                        state = IslandScannerState.IN_MULTILINE_COMMENT;
-                        break;
-                    }
+                case ';':
+                    this.semi();
                     break;
-                case STRING:
-                    switch (cur) {
-                    case '"':
-                        state = IslandScannerState.GENERIC_CONTENT;
-                        break;
-                    case '\\':
-                        state = IslandScannerState.STRING_ESCAPE;
-                        break;
-                    default:
-                        break;
-                    }
+                default:
                     break;
-                case CHAR:
-                    switch (cur) {
-                    case '\'':
-                        state = IslandScannerState.GENERIC_CONTENT;
-                        break;
-                    case '\\':
-                        state = IslandScannerState.CHAR_ESCAPE;
-                        break;
-                    default:
-                        break;
-                    }
+                }
+                break;
+            case POSSIBLE_COMMENT_START:
+                switch (cur) {
+                case '*':
+                    this.token();
+                    this.state = IslandScannerState.IN_MULTILINE_COMMENT;
                     break;
-                case STRING_ESCAPE:
-                    state = IslandScannerState.STRING;
+                case '/':
+                    this.token();
+                    this.state = IslandScannerState.IN_SINGLELINE_COMMENT;
                     break;
-                case CHAR_ESCAPE:
-                    state = IslandScannerState.CHAR;
+                default:
+                    this.state = IslandScannerState.GENERIC_CONTENT;
+                    break;
+                }
+                break;
+            case IN_SINGLELINE_COMMENT:
+                break;
+            case IN_MULTILINE_COMMENT:
+                switch (cur) {
+                case '*':
+                    this.state = IslandScannerState.POSSIBLE_COMMENT_END;
                     break;
                 default:
-                    throw new AssertionError("unsupported state " + state);
+                    break;
                 }
+                break;
+            case POSSIBLE_COMMENT_END:
+                switch (cur) {
+                case '/':
+                    this.token();
+                    this.state = IslandScannerState.GENERIC_CONTENT;
+                    break;
+                case '*':
+                    break;
+                default:
+                    this.state = IslandScannerState.IN_MULTILINE_COMMENT;
+                    break;
+                }
+                break;
+            case STRING:
+                switch (cur) {
+                case '"':
+                    this.state = IslandScannerState.GENERIC_CONTENT;
+                    break;
+                case '\\':
+                    this.state = IslandScannerState.STRING_ESCAPE;
+                    break;
+                default:
+                    break;
+                }
+                break;
+            case CHAR:
+                switch (cur) {
+                case '\'':
+                    this.state = IslandScannerState.GENERIC_CONTENT;
+                    break;
+                case '\\':
+                    this.state = IslandScannerState.CHAR_ESCAPE;
+                    break;
+                default:
+                    break;
+                }
+                break;
+            case STRING_ESCAPE:
+                this.state = IslandScannerState.STRING;
+                break;
+            case CHAR_ESCAPE:
+                this.state = IslandScannerState.CHAR;
+                break;
+            default:
+                throw new AssertionError("unsupported state " + this.state);
             }
-            if (state != IslandScannerState.INIT && ret.isEmpty()) {
-                ret.add(TokenType.SEA);
-            }
-            this.previousEndState = state;
-            return ret;
         }
 
     }
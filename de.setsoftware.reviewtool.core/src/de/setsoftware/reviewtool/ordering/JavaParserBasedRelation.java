@@ -61,9 +61,13 @@ public abstract class JavaParserBasedRelation implements RelationMatcher {
                 }
                 final LineRangeMap lineRanges = new LineRangeMap(e.getValue());
                 final CompilationUnit c = JavaParser.parse(new ByteArrayInputStream(fileContent));
+                //parsing can take some time for large files
+                TourCalculator.checkInterruption(control);
                 for (final TypeDeclaration<?> t : c.getTypes()) {
                     this.handleType(centerCandidates, rayCandidates, lineRanges, t);
                 }
+            } catch (final InterruptedException e1) {
+                throw e1;
             } catch (final Exception e1) {
                 //ignore problem in files and just move on to the next
                 Logger.info("Problem while parsing file " + e.getKey() + ": " + e1);
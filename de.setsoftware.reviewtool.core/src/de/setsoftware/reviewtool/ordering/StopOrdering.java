@@ -1,10 +1,18 @@
 package de.setsoftware.reviewtool.ordering;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import de.setsoftware.reviewtool.base.DaemonExecutors;
 import de.setsoftware.reviewtool.base.Logger;
 import de.setsoftware.reviewtool.model.api.IClassification;
 import de.setsoftware.reviewtool.model.api.IFragment;
@@ -17,13 +25,54 @@ import de.setsoftware.reviewtool.ordering.efficientalgorithm.TourCalculatorContr
 
 /**
  * Facade for sorting and hierarchical grouping of stops.
+ * <p/>
+ * The relation matchers are independent of each other and are therefore run concurrently. Each of them has
+ * a time budget. When it is exceeded, or when the fast mode is needed, the matcher is stopped and its matches
+ * are ignored. The matches of the other matchers are still used in the configured order.
  */
 public class StopOrdering implements IStopOrdering {
 
+    private static final long MATCHER_TIME_BUDGET = 15000;
+    private static final long POLL_INTERVAL = 100;
+
+    private static final ExecutorService MATCHER_POOL = DaemonExecutors.newFixedThreadPool("CoRT relation matcher");
+
+    /**
+     * The control for a single relation matcher. Tells the matcher to stop when the whole operation is canceled,
+     * when the fast mode is needed or when the matcher's time budget is exceeded.
+     */
+    private static final class MatcherControl implements TourCalculatorControl {
+        private final TourCalculatorControl parent;
+        private final long deadline;
+
+        MatcherControl(TourCalculatorControl parent, long timeBudget) {
+            this.parent = parent;
+            this.deadline = System.currentTimeMillis() + timeBudget;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return this.parent.isCanceled()
+                || this.parent.isFastModeNeeded()
+                || System.currentTimeMillis() > this.deadline;
+        }
+
+        @Override
+        public boolean isFastModeNeeded() {
+            return this.parent.isFastModeNeeded();
+        }
+    }
+
     private final List<RelationMatcher> relationTypes;
+    private final long matcherTimeBudget;
 
     public StopOrdering(List<RelationMatcher> relationTypes) {
+        this(relationTypes, MATCHER_TIME_BUDGET);
+    }
+
+    StopOrdering(List<RelationMatcher> relationTypes, long matcherTimeBudget) {
         this.relationTypes = new ArrayList<>(relationTypes);
+        this.matcherTimeBudget = matcherTimeBudget;
     }
 
     /**
@@ -40,14 +89,7 @@ public class StopOrdering implements IStopOrdering {
 
         TourCalculator.checkInterruption(isCanceled);
 
-        final List<OrderingInfo> orderingInfos = new ArrayList<>();
-        for (final RelationMatcher m : this.relationTypes) {
-            if (isCanceled.isFastModeNeeded()) {
-                break;
-            }
-            orderingInfos.addAll(m.determineMatches(changeParts, isCanceled));
-            TourCalculator.checkInterruption(isCanceled);
-        }
+        final List<OrderingInfo> orderingInfos = this.determineMatches(changeParts, isCanceled);
 
         Logger.info("change parts before sorting: " + changeParts.size());
         final TourCalculator<ChangePart> calculator = TourCalculator.calculateFor(
@@ -66,6 +108,65 @@ public class StopOrdering implements IStopOrdering {
         return hierarchyBuilder.getTopmostElements();
     }
 
+    /**
+     * Runs all relation matchers concurrently and returns their results in the order of the matchers.
+     */
+    List<OrderingInfo> determineMatches(List<ChangePart> changeParts, TourCalculatorControl isCanceled)
+        throws InterruptedException {
+
+        final List<OrderingInfo> ret = new ArrayList<>();
+        if (isCanceled.isFastModeNeeded()) {
+            return ret;
+        }
+
+        final List<Future<Collection<? extends OrderingInfo>>> futures = new ArrayList<>();
+        try {
+            final long timeBudget = this.matcherTimeBudget;
+            for (final RelationMatcher m : this.relationTypes) {
+                //the budget starts when the matcher starts, not when it is queued
+                futures.add(MATCHER_POOL.submit(
+                        () -> m.determineMatches(changeParts, new MatcherControl(isCanceled, timeBudget))));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                ret.addAll(waitForMatches(this.relationTypes.get(i), futures.get(i), isCanceled));
+            }
+        } finally {
+            for (final Future<?> f : futures) {
+                f.cancel(true);
+            }
+        }
+        return ret;
+    }
+
+    private static Collection<? extends OrderingInfo> waitForMatches(
+            RelationMatcher matcher,
+            Future<Collection<? extends OrderingInfo>> future,
+            TourCalculatorControl isCanceled) throws InterruptedException {
+
+        while (true) {
+            TourCalculator.checkInterruption(isCanceled);
+            try {
+                return future.get(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+            } catch (final TimeoutException e) {
+                continue;
+            } catch (final ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof InterruptedException) {
+                    TourCalculator.checkInterruption(isCanceled);
+                    Logger.info("relation matcher " + matcher.getClass().getSimpleName()
+                            + " was stopped, its matches are ignored");
+                    return Collections.emptyList();
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                } else {
+                    throw new RuntimeException(cause);
+                }
+            }
+        }
+    }
+
     private Comparator<ChangePart> nameAndLineComparator() {
         return new Comparator<ChangePart>() {
             @Override
@@ -31,6 +31,7 @@ public class TokenSimilarityRelation implements RelationMatcher {
             final List<ChangePart> changeParts, TourCalculatorControl control) throws InterruptedException {
         final List<Pair<ChangePart, Set<String>>> tokenSets = new ArrayList<>(changeParts.size());
         for (final ChangePart c : changeParts) {
+            TourCalculator.checkInterruption(control);
             if (c.isFullyIrrelevantForReview()) {
                 continue;
             }
@@ -40,10 +41,10 @@ public class TokenSimilarityRelation implements RelationMatcher {
             }
         }
 
-        TourCalculator.checkInterruption(control);
-
         final List<Pair<Double, OrderingInfo>> similarities = new ArrayList<>();
         for (int i = 0; i < tokenSets.size(); i++) {
+            //the comparison is quadratic in the number of change parts, so check for cancellation in each row
+            TourCalculator.checkInterruption(control);
             for (int j = i + 1; j < tokenSets.size(); j++) {
                 final double sim = this.jaccardSimilarity(
                         tokenSets.get(i).getSecond(),
@@ -0,0 +1,42 @@
+package de.setsoftware.reviewtool.plugin;
+
+import java.util.concurrent.Executor;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.ui.progress.UIJob;
+
+/**
+ * Executes tasks in the UI thread after a delay. When a new task is submitted while an earlier one
+ * is still waiting, only the most recent task is executed.
+ */
+class DelayedUiExecutor implements Executor {
+
+    private final long delay;
+    private final UIJob job;
+    private volatile Runnable task;
+
+    public DelayedUiExecutor(String name, long delay) {
+        this.delay = delay;
+        this.job = new UIJob(name) {
+            @Override
+            public IStatus runInUIThread(IProgressMonitor monitor) {
+                final Runnable t = DelayedUiExecutor.this.task;
+                DelayedUiExecutor.this.task = null;
+                if (t != null) {
+                    t.run();
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        this.job.setSystem(true);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        this.task = command;
+        this.job.schedule(this.delay);
+    }
+
+}
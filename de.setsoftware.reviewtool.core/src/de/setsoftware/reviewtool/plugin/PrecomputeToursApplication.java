@@ -0,0 +1,318 @@
+package de.setsoftware.reviewtool.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+import de.setsoftware.reviewtool.base.Logger;
+import de.setsoftware.reviewtool.base.Multiset;
+import de.setsoftware.reviewtool.base.Pair;
+import de.setsoftware.reviewtool.base.ReviewtoolException;
+import de.setsoftware.reviewtool.config.ConfigurationInterpreter;
+import de.setsoftware.reviewtool.config.IConfigurator;
+import de.setsoftware.reviewtool.config.IReviewConfigurable;
+import de.setsoftware.reviewtool.irrelevancestrategies.basicfilters.BasicIrrelevanceFilterConfigurator;
+import de.setsoftware.reviewtool.irrelevancestrategies.basicfilters.BinaryFileFilterConfigurator;
+import de.setsoftware.reviewtool.irrelevancestrategies.basicfilters.FileDeletionFilterConfigurator;
+import de.setsoftware.reviewtool.irrelevancestrategies.pathfilters.FileCountInCommitAndPathFilterConfigurator;
+import de.setsoftware.reviewtool.irrelevancestrategies.pathfilters.FileCountInCommitFilterConfigurator;
+import de.setsoftware.reviewtool.irrelevancestrategies.pathfilters.PathIrrelevanceFilterConfigurator;
+import de.setsoftware.reviewtool.model.ITicketConnector;
+import de.setsoftware.reviewtool.model.api.ChangeSourceException;
+import de.setsoftware.reviewtool.model.api.IChangeData;
+import de.setsoftware.reviewtool.model.api.IChangeSource;
+import de.setsoftware.reviewtool.model.api.IChangeSourceUi;
+import de.setsoftware.reviewtool.model.api.IClassification;
+import de.setsoftware.reviewtool.model.api.ICommit;
+import de.setsoftware.reviewtool.model.api.IFragment;
+import de.setsoftware.reviewtool.model.changestructure.ChangeManager;
+import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
+import de.setsoftware.reviewtool.model.changestructure.ClassificationCache;
+import de.setsoftware.reviewtool.model.changestructure.IChangeClassifier;
+import de.setsoftware.reviewtool.model.changestructure.Stop;
+import de.setsoftware.reviewtool.model.changestructure.Tour;
+import de.setsoftware.reviewtool.model.changestructure.TourElement;
+import de.setsoftware.reviewtool.model.changestructure.ToursInReview;
+import de.setsoftware.reviewtool.model.changestructure.ToursInReview.ICreateToursUi;
+import de.setsoftware.reviewtool.model.changestructure.ToursInReview.ReviewRoundInfo;
+import de.setsoftware.reviewtool.model.changestructure.ToursInReview.UserSelectedReductions;
+import de.setsoftware.reviewtool.ordering.StopOrdering;
+import de.setsoftware.reviewtool.preferredtransitions.api.IPreferredTransitionStrategy;
+import de.setsoftware.reviewtool.tourrestructuring.onestop.OneStopPerPartOfFileRestructuring;
+import de.setsoftware.reviewtool.ui.api.EndReviewExtension;
+import de.setsoftware.reviewtool.ui.api.IStopViewer;
+import de.setsoftware.reviewtool.ui.dialogs.SelectTourStructureDialog;
+
+/**
+ * Headless application that precomputes the tours for tickets, e.g. in a nightly batch for the review queue.
+ * It runs the same steps as starting a review in the IDE (determining the changes, classifying them, creating
+ * and ordering the tours), using the defaults of the dialogs instead of asking the user. Thereby the history
+ * graph caches of the change sources and the classification cache are filled in the state locations of the
+ * given workspace, so that the IDE can reuse them. The resulting tours and the durations of the steps
+ * are written to a text file.
+ *
+ * <p>Usage: {@code eclipse -nosplash -application de.setsoftware.reviewtool.core.precomputeTours
+ * -data <workspace> -repository <path> -config <team config file> -ticket <key> [-ticket <key> ...]
+ * [-param <name>=<value> ...] [-output <dir>]}
+ */
+public class PrecomputeToursApplication implements IApplication {
+
+    private static final Integer EXIT_ERROR = 1;
+    private static final long MAX_WAIT_FOR_JOBS = 5 * 60 * 1000L;
+
+    /**
+     * Collects the parts of the configuration that are needed to create tours and ignores the rest.
+     */
+    private static final class BatchConfigurable implements IReviewConfigurable {
+        private final List<IChangeSource> changeSources = new ArrayList<>();
+        private final List<IChangeClassifier> classifiers = new ArrayList<>();
+
+        @Override
+        public void setPersistence(ITicketConnector persistence) {
+        }
+
+        @Override
+        public void addChangeSource(IChangeSource changeSource) {
+            this.changeSources.add(changeSource);
+        }
+
+        @Override
+        public void addEndReviewExtension(EndReviewExtension extension) {
+        }
+
+        @Override
+        public void setStopViewer(IStopViewer stopViewer) {
+        }
+
+        @Override
+        public void addPostInitTask(Runnable r) {
+        }
+
+        @Override
+        public void addPreferredTransitionStrategy(IPreferredTransitionStrategy strategy) {
+        }
+
+        @Override
+        public void addClassificationStrategy(IChangeClassifier strategy) {
+            this.classifiers.add(strategy);
+        }
+    }
+
+    /**
+     * Progress reporting to the log. Incomplete working copies are restricted to the current HEAD.
+     */
+    private static final class LoggingChangeSourceUi extends NullProgressMonitor implements IChangeSourceUi {
+        @Override
+        public void subTask(String name) {
+            Logger.debug(name);
+        }
+
+        @Override
+        public Boolean handleLocalWorkingIncomplete(String detailInfo) {
+            Logger.info(detailInfo + " -> yes");
+            return true;
+        }
+
+        @Override
+        public void increaseTaskNestingLevel() {
+        }
+
+        @Override
+        public void decreaseTaskNestingLevel() {
+        }
+    }
+
+    /**
+     * Selects all commits and all irrelevance filters, and the default tour structure.
+     */
+    private static final class DefaultCreateToursUi implements ICreateToursUi {
+        @Override
+        public List<? extends Tour> selectInitialTours(List<? extends Pair<String, List<? extends Tour>>> choices) {
+            return choices.get(SelectTourStructureDialog.determineBestStructure(choices)).getSecond();
+        }
+
+        @Override
+        public UserSelectedReductions selectIrrelevant(
+                List<? extends ICommit> changes,
+                Multiset<IClassification> strategyResults,
+                List<ReviewRoundInfo> reviewRounds) {
+            return new UserSelectedReductions(changes, strategyResults.keySet());
+        }
+    }
+
+    @Override
+    public Object start(IApplicationContext context) throws Exception {
+        final String[] args = (String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+        File repository = null;
+        String configFile = null;
+        File outputDir = new File(Activator.getDefault().getStateLocation().toFile(), "precomputedTours");
+        final List<String> ticketKeys = new ArrayList<>();
+        final Map<String, String> params = new LinkedHashMap<>();
+        params.put(ConfigurationInterpreter.USER_PARAM_NAME, System.getProperty("user.name"));
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+            case "-repository":
+                repository = new File(args[i + 1]).getAbsoluteFile();
+                break;
+            case "-config":
+                configFile = args[i + 1];
+                break;
+            case "-ticket":
+                ticketKeys.add(args[i + 1]);
+                break;
+            case "-output":
+                outputDir = new File(args[i + 1]);
+                break;
+            case "-param":
+                final String[] nameAndValue = args[i + 1].split("=", 2);
+                params.put(nameAndValue[0], nameAndValue.length > 1 ? nameAndValue[1] : "");
+                break;
+            default:
+                System.err.println("Unknown argument " + args[i]);
+                return EXIT_ERROR;
+            }
+        }
+        if (repository == null || configFile == null || ticketKeys.isEmpty()) {
+            System.err.println("Usage: -repository <path> -config <file> -ticket <key> [-ticket <key> ...]"
+                    + " [-param <name>=<value> ...] [-output <dir>]");
+            return EXIT_ERROR;
+        }
+
+        final BatchConfigurable config = this.loadConfiguration(configFile, params);
+        for (final IChangeSource src : config.changeSources) {
+            src.addProject(repository);
+        }
+        outputDir.mkdirs();
+
+        boolean ok = true;
+        for (final String ticketKey : ticketKeys) {
+            try {
+                this.precompute(ticketKey, config, new File(outputDir, ticketKey + ".txt"));
+            } catch (final ChangeSourceException | IOException | ReviewtoolException e) {
+                Logger.error("Problem while precomputing tours for " + ticketKey, e);
+                System.err.println(ticketKey + ": " + e);
+                ok = false;
+            }
+        }
+
+        //the SVN history cache is stored in a background job
+        waitForJobs();
+        return ok ? IApplication.EXIT_OK : EXIT_ERROR;
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    private BatchConfigurable loadConfiguration(String configFile, Map<String, String> params)
+        throws IOException, SAXException, ParserConfigurationException {
+
+        final ConfigurationInterpreter interpreter = new ConfigurationInterpreter();
+        interpreter.addConfigurator(new BasicIrrelevanceFilterConfigurator());
+        interpreter.addConfigurator(new PathIrrelevanceFilterConfigurator());
+        interpreter.addConfigurator(new FileDeletionFilterConfigurator());
+        interpreter.addConfigurator(new BinaryFileFilterConfigurator());
+        interpreter.addConfigurator(new FileCountInCommitFilterConfigurator());
+        interpreter.addConfigurator(new FileCountInCommitAndPathFilterConfigurator());
+        for (final IExtension extension : Platform.getExtensionRegistry()
+                .getExtensionPoint("de.setsoftware.reviewtool.configurator").getExtensions()) {
+            for (final IConfigurationElement conf : extension.getConfigurationElements()) {
+                try {
+                    interpreter.addConfigurator((IConfigurator) conf.createExecutableExtension("class"));
+                } catch (final Exception e) {
+                    Logger.error("could not load configurator extension " + extension.getUniqueIdentifier(), e);
+                }
+            }
+        }
+
+        final Document doc = ConfigurationInterpreter.load(configFile);
+        final BatchConfigurable ret = new BatchConfigurable();
+        interpreter.configure(doc, params, ret);
+        return ret;
+    }
+
+    private void precompute(String ticketKey, BatchConfigurable config, File outputFile)
+        throws ChangeSourceException, IOException {
+
+        final IChangeSourceUi ui = new LoggingChangeSourceUi();
+        final long startTime = System.currentTimeMillis();
+        final List<ICommit> commits = new ArrayList<>();
+        for (final IChangeSource src : config.changeSources) {
+            commits.addAll(src.getRepositoryChanges(ticketKey, ui).getMatchedCommits());
+        }
+        final IChangeData changes = ChangestructureFactory.createChangeData(commits);
+        final long changesTime = System.currentTimeMillis();
+
+        final ToursInReview tours = ToursInReview.create(
+                new ChangeManager(false),
+                ui,
+                config.classifiers,
+                new ClassificationCache(new File(
+                        Activator.getDefault().getStateLocation().toFile(), ClassificationCache.DEFAULT_FILE_NAME)),
+                Arrays.asList(new OneStopPerPartOfFileRestructuring()),
+                new StopOrdering(new ArrayList<>(RelationMatcherPreferences.load(
+                        Activator.getDefault().getPreferenceStore()).createMatchers())),
+                new DefaultCreateToursUi(),
+                changes,
+                Collections.<ReviewRoundInfo>emptyList());
+        final long toursTime = System.currentTimeMillis();
+
+        try (PrintWriter w = new PrintWriter(outputFile, StandardCharsets.UTF_8.name())) {
+            w.println("# " + ticketKey + ": " + commits.size() + " commits");
+            w.println("# determine changes: " + (changesTime - startTime) + " ms");
+            w.println("# create tours: " + (toursTime - changesTime) + " ms");
+            for (final Tour t : tours.getTopmostTours()) {
+                writeTour(w, t, "", tours.getIrrelevantCategories());
+            }
+        }
+        System.out.println(String.format("%s: %d commits, %d tours, changes %d ms, tours %d ms",
+                ticketKey, commits.size(), tours.getTopmostTours().size(),
+                changesTime - startTime, toursTime - changesTime));
+    }
+
+    private static void writeTour(
+            PrintWriter w, Tour tour, String indent, Set<? extends IClassification> irrelevantCategories) {
+        w.println(indent + "tour " + tour.getDescription());
+        for (final TourElement e : tour.getChildren()) {
+            if (e instanceof Tour) {
+                writeTour(w, (Tour) e, indent + "  ", irrelevantCategories);
+            } else {
+                final Stop s = (Stop) e;
+                final IFragment fragment = s.getMostRecentFragment();
+                final String lines = fragment == null
+                        ? ""
+                        : ":" + fragment.getFrom().getLine() + "-" + fragment.getTo().getLine();
+                w.println(indent + "  stop " + s.getMostRecentFile().getPath() + lines
+                        + (s.isIrrelevantForReview(irrelevantCategories) ? " (irrelevant)" : ""));
+            }
+        }
+    }
+
+    private static void waitForJobs() throws InterruptedException {
+        final long start = System.currentTimeMillis();
+        while (!Job.getJobManager().isIdle() && System.currentTimeMillis() - start < MAX_WAIT_FOR_JOBS) {
+            Thread.sleep(100);
+        }
+    }
+
+}
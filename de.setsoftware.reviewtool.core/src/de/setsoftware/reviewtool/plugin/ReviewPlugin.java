@@ -1,5 +1,6 @@
 package de.setsoftware.reviewtool.plugin;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -33,6 +34,8 @@ import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchListener;
 import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.WorkbenchException;
@@ -74,6 +77,7 @@ import de.setsoftware.reviewtool.model.api.IClassification;
 import de.setsoftware.reviewtool.model.api.ICommit;
 import de.setsoftware.reviewtool.model.changestructure.ChangeManager;
 import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
+import de.setsoftware.reviewtool.model.changestructure.ClassificationCache;
 import de.setsoftware.reviewtool.model.changestructure.IChangeClassifier;
 import de.setsoftware.reviewtool.model.changestructure.Tour;
 import de.setsoftware.reviewtool.model.changestructure.ToursInReview;
@@ -321,6 +325,8 @@ public class ReviewPlugin implements IReviewConfigurable {
         public abstract Void runInUi(T t, Display display);
     }
 
+    private static final long REVIEW_DATA_WRITE_DELAY = 500;
+
     private static final ReviewPlugin INSTANCE = new ReviewPlugin();
     private final ReviewStateManager persistence;
     private final ChangeManager changeManager = new ChangeManager(true);
@@ -330,6 +336,7 @@ public class ReviewPlugin implements IReviewConfigurable {
     private final ConfigurationInterpreter configInterpreter = new ConfigurationInterpreter();
     private ILaunchesListener launchesListener;
     private final List<IChangeClassifier> relevanceFilters = new ArrayList<>();
+    private final ClassificationCache classificationCache;
     private final List<EndReviewExtension> endReviewExtensions = new ArrayList<>();
     private final List<IPreferredTransitionStrategy> preferredTransitionStrategies = new ArrayList<>();
     private final List<RelationMatcher> relationTypes = new ArrayList<>();
@@ -343,6 +350,22 @@ public class ReviewPlugin implements IReviewConfigurable {
                 new FileReviewDataCache(Activator.getDefault().getStateLocation().toFile()),
                 new DummyPersistence(),
                 new RealUi());
+        this.persistence.setWriteExecutor(new DelayedUiExecutor("Saving review remarks", REVIEW_DATA_WRITE_DELAY));
+        if (PlatformUI.isWorkbenchRunning()) {
+            PlatformUI.getWorkbench().addWorkbenchListener(new IWorkbenchListener() {
+                @Override
+                public boolean preShutdown(IWorkbench workbench, boolean forced) {
+                    ReviewPlugin.this.persistence.writePendingChanges();
+                    return true;
+                }
+
+                @Override
+                public void postShutdown(IWorkbench workbench) {
+                }
+            });
+        }
+        this.classificationCache = new ClassificationCache(
+                new File(Activator.getDefault().getStateLocation().toFile(), ClassificationCache.DEFAULT_FILE_NAME));
 
         final Version bundleVersion = Activator.getDefault().getBundle().getVersion();
         this.configInterpreter.addConfigurator(new TelemetryConfigurator(bundleVersion));
@@ -616,11 +639,12 @@ public class ReviewPlugin implements IReviewConfigurable {
 
     private void loadReviewDataTail(final Mode targetMode) {
         final ReviewData currentReviewData = CorrectSyntaxDialog.getCurrentReviewDataParsed(
-                this.persistence, new RealMarkerFactory());
+                this.persistence, DummyMarker.FACTORY);
         if (currentReviewData == null) {
             this.setMode(Mode.IDLE);
             return;
         }
+        RemarkMarkers.updateMarkers(currentReviewData);
         if (targetMode == Mode.REVIEWING) {
             this.persistence.startReviewing();
         } else {
@@ -942,6 +966,7 @@ public class ReviewPlugin implements IReviewConfigurable {
                     this.changeManager,
                     sourceUi,
                     this.relevanceFilters,
+                    this.classificationCache,
                     Arrays.asList(
                             new OneStopPerPartOfFileRestructuring()),
                     new StopOrdering(this.relationTypes),
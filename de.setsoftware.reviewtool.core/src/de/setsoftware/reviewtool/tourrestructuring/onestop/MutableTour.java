@@ -1,62 +1,127 @@
 package de.setsoftware.reviewtool.tourrestructuring.onestop;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import de.setsoftware.reviewtool.base.Util;
+import de.setsoftware.reviewtool.model.api.IClassification;
+import de.setsoftware.reviewtool.model.api.IFragment;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+import de.setsoftware.reviewtool.model.changestructure.Classification;
 import de.setsoftware.reviewtool.model.changestructure.Stop;
 import de.setsoftware.reviewtool.model.changestructure.Tour;
 
 /**
  * A helper class for restructuring the tours, containing the information like a tour,
  * but being mutable instead.
+ * The stops of the tour are indexed by file, so that only stops in the same file are compared when
+ * looking for mergeable stops. Merged stops are only created when the restructuring is finished.
  */
 class MutableTour {
 
     /**
-     * Helper class containing data about a stop and its position in a (mutable) tour.
+     * A stop that results from merging one or more original stops. The data needed to decide on
+     * further merges is updated on each merge, but the resulting {@link Stop} is only created once.
+     */
+    private static final class PendingStop {
+
+        private final List<Stop> parts = new ArrayList<>();
+        private final IRevisionedFile file;
+        private IFragment fragment;
+        private IClassification[] classification;
+
+        public PendingStop(Stop s) {
+            this.parts.add(s);
+            this.file = s.getOriginalMostRecentFile();
+            this.fragment = s.getOriginalMostRecentFragment();
+            this.classification = s.getClassification();
+        }
+
+        public boolean isSameAs(PendingStop other) {
+            return this == other || this.parts.equals(other.parts);
+        }
+
+        public boolean canBeMergedWith(PendingStop other) {
+            return Stop.canBeMerged(
+                    this.file, this.fragment, this.classification,
+                    other.file, other.fragment, other.classification);
+        }
+
+        public void merge(PendingStop other) {
+            assert this.canBeMergedWith(other);
+            this.parts.addAll(other.parts);
+            this.fragment = this.fragment == null ? null : this.fragment.merge(other.fragment);
+            this.classification = Classification.merge(this.classification, other.classification);
+        }
+
+        public Stop toStop() {
+            return this.parts.size() == 1 ? this.parts.get(0) : Stop.mergeAll(this.parts);
+        }
+
+    }
+
+    /**
+     * Helper class containing data about a stop and the (mutable) tour it belongs to.
      */
     private static class StopInTour {
 
         private final MutableTour tour;
-        private final int index;
+        private final PendingStop stop;
 
-        public StopInTour(MutableTour tour, int stopIndex) {
+        public StopInTour(MutableTour tour, PendingStop stop) {
             this.tour = tour;
-            this.index = stopIndex;
+            this.stop = stop;
         }
 
-        public void merge(Stop s) {
-            this.tour.mergeStop(this.index, s);
+        public void merge(PendingStop s) {
+            this.stop.merge(s);
         }
 
     }
 
     private final Set<String> descriptionParts;
-    private final List<Stop> stops;
+    private final List<PendingStop> stops;
+    private final Map<IRevisionedFile, List<PendingStop>> stopsByFile;
 
     public MutableTour(Tour t) {
         this.descriptionParts = new LinkedHashSet<>();
         this.descriptionParts.add(t.getDescription());
         //mutable tours are normally only used with flat tours; if not, the tour will be flattened now
-        this.stops = new ArrayList<>(t.getStops());
+        this.stops = new ArrayList<>();
+        this.stopsByFile = new HashMap<>();
+        for (final Stop s : t.getStops()) {
+            final PendingStop ps = new PendingStop(s);
+            this.stops.add(ps);
+            List<PendingStop> stopsInFile = this.stopsByFile.get(ps.file);
+            if (stopsInFile == null) {
+                stopsInFile = new ArrayList<>();
+                this.stopsByFile.put(ps.file, stopsInFile);
+            }
+            stopsInFile.add(ps);
+        }
     }
 
     public static List<Tour> toTours(List<MutableTour> mutableTours) {
         final List<Tour> ret = new ArrayList<>();
         for (final MutableTour t : mutableTours) {
+            final List<Stop> stops = new ArrayList<>();
+            for (final PendingStop s : t.stops) {
+                stops.add(s.toStop());
+            }
             ret.add(new Tour(
                     Util.implode(t.descriptionParts, " + "),
-                    t.stops));
+                    stops));
         }
         return ret;
     }
 
     public boolean canBeResolvedCompletely(List<MutableTour> mutableTours, int excludedIndex) {
-        for (final Stop s : this.stops) {
+        for (final PendingStop s : this.stops) {
             if (!this.canBeMerged(s, mutableTours, excludedIndex)) {
                 return false;
             }
@@ -64,28 +129,29 @@ class MutableTour {
         return true;
     }
 
-    private boolean canBeMerged(Stop s, List<MutableTour> mutableTours, int excludedIndex) {
+    private boolean canBeMerged(PendingStop s, List<MutableTour> mutableTours, int excludedIndex) {
         final StopInTour toMergeWith = this.getStopToMergeWith(s, mutableTours, excludedIndex);
         return toMergeWith != null && !mutableTours.get(excludedIndex).equals(toMergeWith.tour);
     }
 
     public boolean resolve(List<MutableTour> mutableTours, int currentIndex) {
         boolean didSomething = false;
-        final Iterator<Stop> iter = this.stops.iterator();
+        final Iterator<PendingStop> iter = this.stops.iterator();
         while (iter.hasNext()) {
-            final Stop s = iter.next();
+            final PendingStop s = iter.next();
             final StopInTour toMergeWith = this.getStopToMergeWith(s, mutableTours, currentIndex);
             if (toMergeWith != null) {
                 toMergeWith.merge(s);
                 toMergeWith.tour.descriptionParts.addAll(this.descriptionParts);
                 iter.remove();
+                this.stopsByFile.get(s.file).remove(s);
                 didSomething = true;
             }
         }
         return didSomething;
     }
 
-    private StopInTour getStopToMergeWith(Stop s, List<MutableTour> mutableTours, int currentIndex) {
+    private StopInTour getStopToMergeWith(PendingStop s, List<MutableTour> mutableTours, int currentIndex) {
         // try to merge with stops of later tours
         for (int tourIndex = currentIndex + 1; tourIndex < mutableTours.size(); tourIndex++) {
             final StopInTour mergeWith = mutableTours.get(tourIndex).getStopToMergeWith(s);
@@ -110,20 +176,19 @@ class MutableTour {
         return null;
     }
 
-    private StopInTour getStopToMergeWith(Stop s) {
-        for (int stopIndex = 0; stopIndex < this.stops.size(); stopIndex++) {
-            final Stop stop = this.stops.get(stopIndex);
-            if (!s.equals(stop) && stop.canBeMergedWith(s)) {
-                return new StopInTour(this, stopIndex);
+    private StopInTour getStopToMergeWith(PendingStop s) {
+        final List<PendingStop> stopsInFile = this.stopsByFile.get(s.file);
+        if (stopsInFile == null) {
+            return null;
+        }
+        for (final PendingStop stop : stopsInFile) {
+            if (!s.isSameAs(stop) && stop.canBeMergedWith(s)) {
+                return new StopInTour(this, stop);
             }
         }
         return null;
     }
 
-    private void mergeStop(int index, Stop s) {
-        this.stops.set(index, this.stops.get(index).merge(s));
-    }
-
     public boolean isEmpty() {
         return this.stops.isEmpty();
     }
@@ -1,22 +1,196 @@
 package de.setsoftware.reviewtool.ui.dialogs;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 
 import de.setsoftware.reviewtool.model.Constants;
+import de.setsoftware.reviewtool.model.PositionTransformer;
 import de.setsoftware.reviewtool.model.ReviewStateManager;
+import de.setsoftware.reviewtool.model.remarks.DummyMarker;
+import de.setsoftware.reviewtool.model.remarks.IReviewMarker;
+import de.setsoftware.reviewtool.model.remarks.Position;
+import de.setsoftware.reviewtool.model.remarks.ReviewData;
+import de.setsoftware.reviewtool.model.remarks.ReviewRemark;
+import de.setsoftware.reviewtool.model.remarks.ReviewRemarkException;
+import de.setsoftware.reviewtool.model.remarks.ReviewRound;
 
 /**
  * Helper methods for review remark markers.
  */
 public class RemarkMarkers {
 
+    /**
+     * Collects the attributes that a review remark sets on its marker, so that they can be compared
+     * to existing markers and be written in one step.
+     */
+    private static final class MarkerAttributes implements IReviewMarker {
+
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        public MarkerAttributes() {
+            //the same priority as set by EclipseMarker.create
+            this.attributes.put(IMarker.PRIORITY, IMarker.PRIORITY_HIGH);
+        }
+
+        @Override
+        public void delete() {
+        }
+
+        @Override
+        public void setMessage(String newText) {
+            this.attributes.put(IMarker.MESSAGE, newText);
+        }
+
+        @Override
+        public String getMessage() {
+            return this.getAttribute(IMarker.MESSAGE, "");
+        }
+
+        @Override
+        public void setAttribute(String attributeName, int value) {
+            this.attributes.put(attributeName, value);
+        }
+
+        @Override
+        public void setAttribute(String attributeName, String value) {
+            this.attributes.put(attributeName, value);
+        }
+
+        @Override
+        public String getAttribute(String attributeName, String defaultValue) {
+            final Object value = this.attributes.get(attributeName);
+            return value instanceof String ? (String) value : defaultValue;
+        }
+
+        @Override
+        public void setLineNumber(int line) {
+            this.attributes.put(IMarker.LINE_NUMBER, line);
+        }
+
+        @Override
+        public void setSeverityInfo() {
+            this.attributes.put(IMarker.SEVERITY, IMarker.SEVERITY_INFO);
+        }
+
+        @Override
+        public void setSeverityWarning() {
+            this.attributes.put(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
+        }
+
+    }
+
     private RemarkMarkers() {
     }
 
+    /**
+     * Loads the review data of the current ticket and brings the remark markers in line with it.
+     */
     public static void loadRemarks(ReviewStateManager persistence) {
-        CorrectSyntaxDialog.getCurrentReviewDataParsed(persistence, new RealMarkerFactory());
+        final ReviewData data = CorrectSyntaxDialog.getCurrentReviewDataParsed(persistence, DummyMarker.FACTORY);
+        if (data != null) {
+            updateMarkers(data);
+        }
+    }
+
+    /**
+     * Brings the remark markers in the workspace in line with the given review data. Markers that are
+     * up to date are kept, other existing markers are reused or deleted, and markers are only created
+     * when there are no more existing markers for the resource. All changes are done in a single
+     * workspace operation, so that there is only one resource change notification.
+     */
+    public static void updateMarkers(ReviewData data) throws ReviewRemarkException {
+        //the remark positions are resolved to resources only once per file
+        final Map<String, List<Map<String, Object>>> attributesByFile = new LinkedHashMap<>();
+        for (final ReviewRound round : data.getReviewRounds()) {
+            for (final ReviewRemark remark : round.getRemarks()) {
+                final MarkerAttributes attributes = new MarkerAttributes();
+                remark.copyTo(attributes);
+                final String file = Position.parse(remark.getPositionString()).getShortFileName();
+                List<Map<String, Object>> list = attributesByFile.get(file);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    attributesByFile.put(file, list);
+                }
+                list.add(attributes.attributes);
+            }
+        }
+
+        final IWorkspace workspace = ResourcesPlugin.getWorkspace();
+        try {
+            workspace.run(new IWorkspaceRunnable() {
+                @Override
+                public void run(IProgressMonitor monitor) throws CoreException {
+                    reconcileMarkers(workspace.getRoot(), attributesByFile);
+                }
+            }, workspace.getRoot(), IWorkspace.AVOID_UPDATE, null);
+        } catch (final CoreException e) {
+            throw new ReviewRemarkException(e);
+        }
+    }
+
+    private static void reconcileMarkers(
+            IWorkspaceRoot root, Map<String, List<Map<String, Object>>> attributesByFile) throws CoreException {
+        final Map<IResource, List<IMarker>> unusedMarkers = new HashMap<>();
+        for (final IMarker marker : root.findMarkers(Constants.REVIEWMARKER_ID, true, IResource.DEPTH_INFINITE)) {
+            getOrCreateList(unusedMarkers, marker.getResource()).add(marker);
+        }
+
+        for (final Map.Entry<String, List<Map<String, Object>>> e : attributesByFile.entrySet()) {
+            final IResource resource = PositionTransformer.toResource(e.getKey());
+            final List<IMarker> existing = getOrCreateList(unusedMarkers, resource);
+            final List<Map<String, Object>> missing = new ArrayList<>();
+            for (final Map<String, Object> attributes : e.getValue()) {
+                if (!removeUpToDateMarker(existing, attributes)) {
+                    missing.add(attributes);
+                }
+            }
+            for (final Map<String, Object> attributes : missing) {
+                final IMarker marker = existing.isEmpty()
+                        ? resource.createMarker(Constants.REVIEWMARKER_ID)
+                        : existing.remove(existing.size() - 1);
+                marker.setAttributes(attributes);
+            }
+        }
+
+        for (final List<IMarker> markers : unusedMarkers.values()) {
+            for (final IMarker marker : markers) {
+                marker.delete();
+            }
+        }
+    }
+
+    private static boolean removeUpToDateMarker(List<IMarker> markers, Map<String, Object> attributes)
+            throws CoreException {
+        final Iterator<IMarker> iter = markers.iterator();
+        while (iter.hasNext()) {
+            if (attributes.equals(iter.next().getAttributes())) {
+                iter.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<IMarker> getOrCreateList(Map<IResource, List<IMarker>> map, IResource resource) {
+        List<IMarker> list = map.get(resource);
+        if (list == null) {
+            list = new ArrayList<>();
+            map.put(resource, list);
+        }
+        return list;
     }
 
     public static void clearMarkers() throws CoreException {
@@ -72,36 +72,42 @@ public class SelectTourStructureDialog extends Dialog {
     private String createText(Pair<String, List<? extends Tour>> choice) {
         return String.format("%s (%d stops in %d tours)",
                 choice.getFirst(),
-                this.countStops(choice.getSecond()),
+                countStops(choice.getSecond()),
                 choice.getSecond().size());
     }
 
     private void selectButtonWithBestStructure() {
-        //the "best" structure is the one with the fewest stops, and of these the one with
-        //  the most tours (hoping that the additional tours help in understanding)
+        final int best = determineBestStructure(this.choices);
+        if (best >= 0) {
+            this.radioButtons.get(best).setSelection(true);
+        }
+    }
+
+    /**
+     * Returns the index of the choice that is selected by default, or -1 if there is no choice.
+     * The "best" structure is the one with the fewest stops, and of these the one with
+     * the most tours (hoping that the additional tours help in understanding).
+     */
+    public static int determineBestStructure(List<? extends Pair<String, List<? extends Tour>>> choices) {
         int bestStopCount = Integer.MAX_VALUE;
         int bestTourCount = Integer.MIN_VALUE;
-        Button bestButton = null;
+        int best = -1;
 
-        for (final Button b : this.radioButtons) {
-            @SuppressWarnings("unchecked")
-            final List<? extends Tour> toursInStructure = (List<? extends Tour>) b.getData();
-            final int curStopCount = this.countStops(toursInStructure);
+        for (int i = 0; i < choices.size(); i++) {
+            final List<? extends Tour> toursInStructure = choices.get(i).getSecond();
+            final int curStopCount = countStops(toursInStructure);
             final int curTourCount = toursInStructure.size();
             if (curStopCount < bestStopCount
                     || (curStopCount == bestStopCount && curTourCount > bestTourCount)) {
                 bestStopCount = curStopCount;
                 bestTourCount = curTourCount;
-                bestButton = b;
+                best = i;
             }
         }
-
-        if (bestButton != null) {
-            bestButton.setSelection(true);
-        }
+        return best;
     }
 
-    private int countStops(List<? extends Tour> toursInStructure) {
+    private static int countStops(List<? extends Tour> toursInStructure) {
         int count = 0;
         for (final Tour t : toursInStructure) {
             count += t.getNumberOfStops(false, Collections.emptySet());
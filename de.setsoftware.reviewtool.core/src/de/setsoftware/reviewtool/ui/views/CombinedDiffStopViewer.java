@@ -1,6 +1,5 @@
 package de.setsoftware.reviewtool.ui.views;
 
-import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.CodingErrorAction;
@@ -39,6 +38,7 @@ import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.ui.IViewPart;
 
+import de.setsoftware.reviewtool.base.LineIndex;
 import de.setsoftware.reviewtool.base.LineSequence;
 import de.setsoftware.reviewtool.base.Pair;
 import de.setsoftware.reviewtool.base.PartialOrderAlgorithms;
@@ -51,6 +51,8 @@ import de.setsoftware.reviewtool.model.api.IFragment;
 import de.setsoftware.reviewtool.model.api.IHunk;
 import de.setsoftware.reviewtool.model.api.IRevisionedFile;
 import de.setsoftware.reviewtool.model.api.IStop;
+import de.setsoftware.reviewtool.model.changestructure.LineIndexCache;
+import de.setsoftware.reviewtool.model.changestructure.RevisionSortKeys;
 import de.setsoftware.reviewtool.ui.api.IStopViewer;
 
 /**
@@ -325,9 +327,9 @@ public class CombinedDiffStopViewer implements IStopViewer {
         private final LineSequence lines;
         private final String charset;
 
-        public FileContent(final byte[] data, final String charset) throws IOException {
+        public FileContent(final byte[] data, final String charset, final LineIndex lines) {
             this.bytes = data;
-            this.lines = new LineSequence(data, charset);
+            this.lines = new LineSequence(lines);
             this.charset = charset;
         }
     }
@@ -403,7 +405,8 @@ public class CombinedDiffStopViewer implements IStopViewer {
         final Set<IRevisionedFile> revisionsForStop = new LinkedHashSet<>();
         revisionsForStop.addAll(stop.getHistory().keySet());
         revisionsForStop.addAll(stop.getHistory().values());
-        final List<IRevisionedFile> sortedStopRevisions = PartialOrderAlgorithms.topoSort(revisionsForStop);
+        final List<IRevisionedFile> sortedStopRevisions = PartialOrderAlgorithms.topoSort(
+                revisionsForStop, RevisionSortKeys.forFiles(revisionsForStop));
         final IRevisionedFile initialLeftRevision = sortedStopRevisions.get(0);
         final IRevisionedFile initialRightRevision = sortedStopRevisions.get(sortedStopRevisions.size() - 1);
 
@@ -658,7 +661,7 @@ public class CombinedDiffStopViewer implements IStopViewer {
         final IFileHistoryNode node = stop.getWorkingCopy().getFileHistoryGraph().getNodeFor(lastRevision);
         final LinkedHashSet<IRevisionedFile> filesBuffer = new LinkedHashSet<>();
         this.determineAllRevisionsOfFileRec(node, filesBuffer);
-        return PartialOrderAlgorithms.topoSort(filesBuffer);
+        return PartialOrderAlgorithms.topoSort(filesBuffer, RevisionSortKeys.forFiles(filesBuffer));
     }
 
     private void determineAllRevisionsOfFileRec(final IFileHistoryNode node, final Set<IRevisionedFile> buffer) {
@@ -702,9 +705,10 @@ public class CombinedDiffStopViewer implements IStopViewer {
                     .onMalformedInput(CodingErrorAction.REPORT)
                     .onUnmappableCharacter(CodingErrorAction.REPORT)
                     .decode(ByteBuffer.wrap(data));
-            return new FileContent(data, "UTF-8");
+            //the line index for UTF-8 is shared with the fragments of the file
+            return new FileContent(data, "UTF-8", LineIndexCache.get(revision));
         } catch (final CharacterCodingException e) {
-            return new FileContent(data, "ISO-8859-1");
+            return new FileContent(data, "ISO-8859-1", LineIndex.create(data, "ISO-8859-1"));
         }
     }
 
@@ -3,11 +3,11 @@ package de.setsoftware.reviewtool.ui.views;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -24,13 +24,12 @@ import org.eclipse.jface.text.TextSelection;
 import org.eclipse.jface.viewers.CellLabelProvider;
 import org.eclipse.jface.viewers.ColumnViewerToolTipSupport;
 import org.eclipse.jface.viewers.ISelection;
-import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.ILazyTreeContentProvider;
 import org.eclipse.jface.viewers.ITreeSelection;
 import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerCell;
-import org.eclipse.jface.viewers.ViewerFilter;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.events.SelectionListener;
@@ -62,6 +61,7 @@ import de.setsoftware.reviewtool.model.api.FileChangeType;
 import de.setsoftware.reviewtool.model.api.IClassification;
 import de.setsoftware.reviewtool.model.api.IFragment;
 import de.setsoftware.reviewtool.model.api.IHunk;
+import de.setsoftware.reviewtool.model.api.ILocalRevision;
 import de.setsoftware.reviewtool.model.api.IRevisionedFile;
 import de.setsoftware.reviewtool.model.api.ITextualChange;
 import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
@@ -74,6 +74,8 @@ import de.setsoftware.reviewtool.model.changestructure.ToursInReview.IToursInRev
 import de.setsoftware.reviewtool.model.remarks.GlobalPosition;
 import de.setsoftware.reviewtool.model.remarks.Position;
 import de.setsoftware.reviewtool.telemetry.Telemetry;
+import de.setsoftware.reviewtool.ui.views.ReviewProgress.ProgressCategory;
+import de.setsoftware.reviewtool.ui.views.ReviewProgress.TourProgress;
 import de.setsoftware.reviewtool.ui.dialogs.DialogHelper;
 import de.setsoftware.reviewtool.ui.dialogs.RealMarkerFactory;
 import de.setsoftware.reviewtool.viewtracking.CodeViewTracker;
@@ -90,26 +92,17 @@ public class ReviewContentView extends ViewPart implements ReviewModeListener, I
 
     /**
      * Action that toggles a filter flag.
+     * The lazy tree does not support {@link org.eclipse.jface.viewers.ViewerFilter}s, therefore
+     * the filtering is done by the content provider.
      */
     private abstract static class FilterStateAction extends Action {
 
         private final String id;
-        private final ViewerFilter filter;
-        private TreeViewer treeViewer;
+        private ViewContentProvider contentProvider;
 
         public FilterStateAction(String id, String text) {
             super(text, SWT.TOGGLE);
             this.id = id;
-            this.filter = new ViewerFilter() {
-                @Override
-                public boolean select(Viewer viewer, Object parentElement, Object element) {
-                    if (element instanceof Stop) {
-                        return FilterStateAction.this.shallShow((Stop) element);
-                    } else {
-                        return true;
-                    }
-                }
-            };
             this.setChecked(Boolean.parseBoolean(DialogHelper.getSetting(id)));
         }
 
@@ -119,28 +112,28 @@ public class ReviewContentView extends ViewPart implements ReviewModeListener, I
             DialogHelper.saveSetting(this.id, Boolean.toString(this.isChecked()));
         }
 
-        public void attach(TreeViewer tv) {
-            this.treeViewer = tv;
-            this.applyFilter();
+        public void attach(ViewContentProvider cp) {
+            this.contentProvider = cp;
         }
 
         private void applyFilter() {
-            if (this.treeViewer == null) {
+            if (this.contentProvider == null) {
                 return;
             }
-            if (this.isChecked()) {
-                if (!Arrays.asList(this.treeViewer.getFilters()).contains(this.filter)) {
-                    this.treeViewer.addFilter(this.filter);
-                }
-            } else {
-                this.treeViewer.removeFilter(this.filter);
-            }
+            this.contentProvider.filtersChanged();
             Telemetry.event("applyContentTreeFilter")
                     .param("id", this.id)
                     .param("checked", this.isChecked())
                     .log();
         }
 
+        /**
+         * Returns true iff the given stop is not hidden by this filter.
+         */
+        public boolean isShown(Stop s) {
+            return !this.isChecked() || this.shallShow(s);
+        }
+
         protected abstract boolean shallShow(Stop s);
     }
 
@@ -151,6 +144,7 @@ public class ReviewContentView extends ViewPart implements ReviewModeListener, I
     private FilterStateAction hideIrrelevant;
     private final Set<String> ticketIdHistory = new LinkedHashSet<>();
     private ProgressChart progressChart;
+    private ReviewProgress progress;
 
     @Override
     public void createPartControl(Composite comp) {
@@ -159,14 +153,16 @@ public class ReviewContentView extends ViewPart implements ReviewModeListener, I
         this.hideChecked = new FilterStateAction("hideChecked", "Hide stops that are marked as checked") {
             @Override
             protected boolean shallShow(Stop s) {
-                final ViewStatistics statistics = TrackerManager.get().getStatistics();
-                return statistics == null || !statistics.isMarkedAsChecked(s);
+                final ReviewProgress progress = ReviewContentView.this.progress;
+                return progress == null ? !isMarkedAsChecked(s) : !progress.isMarkedAsChecked(s);
             }
         };
         this.hideVisited = new FilterStateAction("hideVisited", "Hide visited stops") {
             @Override
             protected boolean shallShow(Stop s) {
-                final ViewStatDataForStop viewRatio = TrackerManager.get().determineViewRatio(s);
+                final ReviewProgress progress = ReviewContentView.this.progress;
+                final ViewStatDataForStop viewRatio = progress == null
+                        ? TrackerManager.get().determineViewRatio(s) : progress.getViewRatio(s);
                 return viewRatio.isPartlyUnvisited();
             }
 
@@ -204,11 +200,18 @@ public class ReviewContentView extends ViewPart implements ReviewModeListener, I
         final Composite panel = new Composite(this.comp, SWT.NULL);
         panel.setLayout(new GridLayout(1, false));
 
-        final TreeViewer tv = new TreeViewer(panel);
+        this.progress = new ReviewProgress(
+                tours, ReviewContentView::isMarkedAsChecked, TrackerManager.get()::determineViewRatio);
+
+        final TreeViewer tv = new TreeViewer(panel, SWT.MULTI | SWT.H_SCROLL | SWT.V_SCROLL | SWT.BORDER | SWT.VIRTUAL);
         ColumnViewerToolTipSupport.enableFor(tv);
         tv.setUseHashlookup(true);
-        tv.setContentProvider(new ViewContentProvider(tours));
-        tv.setLabelProvider(new TourAndStopLabelProvider());
+        final ViewContentProvider contentProvider = new ViewContentProvider(tours, this.progress);
+        tv.setContentProvider(contentProvider);
+        tv.setLabelProvider(new TourAndStopLabelProvider(this.progress));
+        this.hideChecked.attach(contentProvider);
+        this.hideVisited.attach(contentProvider);
+        this.hideIrrelevant.attach(contentProvider);
         tv.setInput(tours);
 
         final Tree tree = tv.getTree();
@@ -220,34 +223,35 @@ public class ReviewContentView extends ViewPart implements ReviewModeListener, I
 
             @Override
             public void widgetDefaultSelected(SelectionEvent e) {
-                ReviewContentView.this.jumpToStopForItem(tours, (TreeItem) e.item, tv);
+                ReviewContentView.this.jumpToStopForItem(tours, (TreeItem) e.item, tv, contentProvider);
             }
         });
 
-        this.hideChecked.attach(tv);
-        this.hideVisited.attach(tv);
-        this.hideIrrelevant.attach(tv);
-
         ViewHelper.createContextMenu(this, tv.getControl(), tv);
         ensureActiveTourExpanded(tv, tours);
 
         this.progressChart = new ProgressChart(panel, SWT.NULL);
         this.progressChart.setLayoutData(new GridData(SWT.FILL, SWT.TOP, true, false));
-        this.updateProgressBar(tours);
+        this.updateProgressBar();
 
         return panel;
     }
 
-    private void jumpToStopForItem(final ToursInReview tours, final TreeItem item, TreeViewer tv) {
-        if (item.getData() instanceof Stop) {
-            final Stop stop = (Stop) item.getData();
-            final Tour tour = this.determineTopmostTour(item);
-            jumpTo(tours, tour, stop, "tree");
-        } else {
-            tv.expandToLevel(item.getData(), 1);
-            if (item.getItemCount() > 0) {
-                this.jumpToStopForItem(tours, item.getItem(0), tv);
+    private void jumpToStopForItem(
+            final ToursInReview tours, final TreeItem item, TreeViewer tv, ViewContentProvider contentProvider) {
+        //the child items of a virtual tree have no data before they are shown, so the first stop is
+        //  determined with the content provider
+        Object element = item.getData();
+        while (element instanceof Tour) {
+            tv.expandToLevel(element, 1);
+            final List<? extends TourElement> children = contentProvider.getVisibleChildren(element);
+            if (children.isEmpty()) {
+                return;
             }
+            element = children.get(0);
+        }
+        if (element instanceof Stop) {
+            jumpTo(tours, this.determineTopmostTour(item), (Stop) element, "tree");
         }
     }
 
@@ -337,7 +341,7 @@ public class ReviewContentView extends ViewPart implements ReviewModeListener, I
             final IEditorPart part = ViewHelper.openEditorForFile(page, fileStore, forceTextEditor);
             //for files not in the workspace, we cannot create markers, but let's at least select the text
             if (stop.isDetailedFragmentKnown() && fileStore.fetchInfo().exists()) {
-                final PositionLookupTable lookup = PositionLookupTable.create(fileStore);
+                final PositionLookupTable lookup = createLookupTable(stop.getMostRecentFile(), fileStore);
                 final int posStart = lookup.getCharsSinceFileStart(stop.getMostRecentFragment().getFrom());
                 final int posEnd = lookup.getCharsSinceFileStart(stop.getMostRecentFragment().getTo());
                 ViewHelper.setSelection(part, new TextSelection(posStart, posEnd - posStart));
@@ -345,6 +349,23 @@ public class ReviewContentView extends ViewPart implements ReviewModeListener, I
         }
     }
 
+    /**
+     * Creates the lookup table for the given file. For local files, the line index is taken from the
+     * {@link de.setsoftware.reviewtool.model.changestructure.LineIndexCache}, where it usually is already
+     * present because the stop's fragment has been determined for the same file.
+     */
+    private static PositionLookupTable createLookupTable(final IRevisionedFile file, final IFileStore fileStore)
+        throws CoreException, IOException {
+        if (file.getRevision() instanceof ILocalRevision) {
+            try {
+                return PositionLookupTable.create(file);
+            } catch (final Exception e) {
+                throw new ReviewtoolException(e);
+            }
+        }
+        return PositionLookupTable.create(fileStore);
+    }
+
     @Override
     public void notifyFixing(ReviewStateManager mgr) {
         this.disposeOldContent();
@@ -428,86 +449,122 @@ public class ReviewContentView extends ViewPart implements ReviewModeListener, I
             this.currentContent.dispose();
         }
         this.progressChart = null;
+        this.progress = null;
+    }
+
+    private boolean isShown(Stop s) {
+        return this.hideChecked.isShown(s)
+            && this.hideVisited.isShown(s)
+            && this.hideIrrelevant.isShown(s);
+    }
+
+    private static boolean isMarkedAsChecked(Stop s) {
+        final ViewStatistics statistics = TrackerManager.get().getStatistics();
+        return statistics != null && statistics.isMarkedAsChecked(s);
     }
 
-    private void updateProgressBar(ToursInReview tours) {
-        if (this.progressChart == null) {
+    private void updateProgressBar() {
+        if (this.progressChart == null || this.progress == null) {
             return;
         }
-        int irrelevant = 0;
-        int visited = 0;
-        int partlyVisited = 0;
-        int unvisited = 0;
-        for (final Tour t : tours.getTopmostTours()) {
-            for (final Stop s : t.getStops()) {
-                final ViewStatistics statistics = TrackerManager.get().getStatistics();
-                if (statistics != null && statistics.isMarkedAsChecked(s)) {
-                    visited++;
-                } else {
-                    final ViewStatDataForStop viewRatio = TrackerManager.get().determineViewRatio(s);
-                    if (viewRatio.isNotViewedAtAll()) {
-                        if (s.isIrrelevantForReview(tours.getIrrelevantCategories())) {
-                            irrelevant++;
-                        } else {
-                            unvisited++;
-                        }
-                    } else if (viewRatio.isPartlyUnvisited()) {
-                        partlyVisited++;
-                    } else {
-                        visited++;
-                    }
-                }
-            }
-        }
-        this.progressChart.setCounts(irrelevant, visited, partlyVisited, unvisited);
+        this.progressChart.setCounts(
+                this.progress.getCount(ProgressCategory.IRRELEVANT),
+                this.progress.getCount(ProgressCategory.VISITED),
+                this.progress.getCount(ProgressCategory.PARTLY_VISITED),
+                this.progress.getCount(ProgressCategory.UNVISITED));
     }
 
     /**
-     * Provides the tree consisting of tours and stops.
+     * Provides the tree consisting of tours and stops. The tree is virtual, so that only the items that
+     * are shown have to be created. The visible children of each tour are cached and are only determined
+     * anew when the filters change or when a stop in the tour might have been filtered.
      */
-    private class ViewContentProvider implements ITreeContentProvider, IToursInReviewChangeListener,
+    private class ViewContentProvider implements ILazyTreeContentProvider, IToursInReviewChangeListener,
             ITrackerCreationListener, IViewStatisticsListener, StopSelectionListener {
 
         private final ToursInReview tours;
+        private final ReviewProgress progress;
+        private final Map<TourElement, Object> parents = new IdentityHashMap<>();
+        private final Map<Object, List<? extends TourElement>> visibleChildren = new IdentityHashMap<>();
         private TreeViewer viewer;
 
-        public ViewContentProvider(ToursInReview tours) {
+        public ViewContentProvider(ToursInReview tours, ReviewProgress progress) {
             this.tours = tours;
+            this.progress = progress;
+            this.determineParents();
             this.tours.registerListener(this);
             TrackerManager.get().registerListener(this);
             CurrentStop.registerListener(this);
         }
 
-        @Override
-        public Object[] getElements(Object inputElement) {
-            assert inputElement == this.tours;
-            return this.getChildren(null);
+        private void determineParents() {
+            this.parents.clear();
+            for (final Tour t : this.tours.getTopmostTours()) {
+                this.parents.put(t, this.tours);
+                this.determineParents(t);
+            }
         }
 
-        @Override
-        public Object[] getChildren(Object parentElement) {
-            if (parentElement == null) {
-                return this.tours.getTopmostTours().toArray();
+        private void determineParents(Tour tour) {
+            for (final TourElement e : tour.getChildren()) {
+                this.parents.put(e, tour);
+                if (e instanceof Tour) {
+                    this.determineParents((Tour) e);
+                }
+            }
+        }
+
+        /**
+         * Returns the children of the given element (a tour or the root) that are not hidden by a filter.
+         */
+        public List<? extends TourElement> getVisibleChildren(Object parentElement) {
+            List<? extends TourElement> ret = this.visibleChildren.get(parentElement);
+            if (ret == null) {
+                ret = this.determineVisibleChildren(parentElement);
+                this.visibleChildren.put(parentElement, ret);
+            }
+            return ret;
+        }
+
+        private List<? extends TourElement> determineVisibleChildren(Object parentElement) {
+            if (parentElement == this.tours) {
+                return this.tours.getTopmostTours();
             } else if (parentElement instanceof Tour) {
-                final Tour s = (Tour) parentElement;
-                return s.getChildren().toArray();
+                final List<? extends TourElement> children = ((Tour) parentElement).getChildren();
+                final List<TourElement> ret = new ArrayList<>(children.size());
+                for (final TourElement e : children) {
+                    if (!(e instanceof Stop) || ReviewContentView.this.isShown((Stop) e)) {
+                        ret.add(e);
+                    }
+                }
+                return ret;
             } else {
-                return new Object[0];
+                return Collections.emptyList();
             }
         }
 
         @Override
-        public Object getParent(Object element) {
-            if (element instanceof TourElement) {
-                return this.tours.getParentFor((TourElement) element);
-            } else {
-                return null;
+        public void updateElement(Object parent, int index) {
+            final List<? extends TourElement> children = this.getVisibleChildren(parent);
+            if (index >= children.size()) {
+                return;
             }
+            final TourElement child = children.get(index);
+            this.viewer.replace(parent, index, child);
+            this.viewer.setHasChildren(child, child instanceof Tour);
         }
 
         @Override
-        public boolean hasChildren(Object element) {
-            return !(element instanceof Stop);
+        public void updateChildCount(Object element, int currentChildCount) {
+            final int count = this.getVisibleChildren(element).size();
+            if (count != currentChildCount) {
+                this.viewer.setChildCount(element, count);
+            }
+        }
+
+        @Override
+        public Object getParent(Object element) {
+            return this.parents.get(element);
         }
 
         @Override
@@ -520,13 +577,28 @@ public class ReviewContentView extends ViewPart implements ReviewModeListener, I
             this.viewer = null;
         }
 
+        /**
+         * Updates the tree after a filter has been switched on or off.
+         */
+        public void filtersChanged() {
+            this.visibleChildren.clear();
+            if (this.viewer == null) {
+                return;
+            }
+            this.viewer.refresh();
+        }
+
         @Override
         public void toursChanged() {
             if (this.viewer == null) {
                 return;
             }
+            this.progress.rebuild();
+            this.determineParents();
+            this.visibleChildren.clear();
             this.viewer.refresh();
             ensureActiveTourExpanded(this.viewer, this.tours);
+            ReviewContentView.this.updateProgressBar();
         }
 
         @Override
@@ -546,6 +618,12 @@ public class ReviewContentView extends ViewPart implements ReviewModeListener, I
         @Override
         public void trackerStarts(CodeViewTracker tracker) {
             tracker.getStatistics().addListener(this);
+            if (this.viewer != null) {
+                this.progress.refreshAll();
+                this.visibleChildren.clear();
+                this.viewer.refresh();
+                ReviewContentView.this.updateProgressBar();
+            }
         }
 
         @Override
@@ -553,24 +631,42 @@ public class ReviewContentView extends ViewPart implements ReviewModeListener, I
             if (this.viewer == null) {
                 return;
             }
-            final Set<Tour> toursToRefresh = new HashSet<>();
-            for (final Stop stop : this.tours.getStopsFor(absolutePath)) {
-                this.viewer.update(stop, null);
-                //making an item in a tree disappear when it is filtered is not as easy as it sounds
-                //  (at least I haven't found nice methods in the API for it), we have to refresh the
-                //  whole tour
-                toursToRefresh.add(this.getTourFor(stop));
+            this.progress.refreshFile(absolutePath);
+            final Set<Tour> toursToRefresh = new LinkedHashSet<>();
+            final Set<Tour> toursToUpdate = new LinkedHashSet<>();
+            for (final Stop stop : this.progress.getStopsFor(absolutePath)) {
+                final Tour tour = this.getTourFor(stop);
+                if (tour != null && this.visibilityChanged(tour)) {
+                    toursToRefresh.add(tour);
+                } else {
+                    this.viewer.update(stop, null);
+                }
+                this.addSelfAndParentsIfNotContained(tour, toursToUpdate);
             }
-            final Set<Tour> toursToUpdate = new HashSet<>();
+            //only tours where a stop appeared or disappeared need a structural refresh, and in
+            //  the virtual tree this only recreates the items that are currently shown
             for (final Tour t : toursToRefresh) {
-                this.viewer.refresh(t, false);
-                this.addSelfAndParentsIfNotContained(t, toursToUpdate);
+                this.viewer.refresh(t);
             }
             //the icon could have changed, therefore update the parent tours
             for (final Tour t : toursToUpdate) {
                 this.viewer.update(t, null);
             }
-            ReviewContentView.this.updateProgressBar(this.tours);
+            ReviewContentView.this.updateProgressBar();
+        }
+
+        private boolean visibilityChanged(Tour tour) {
+            final List<? extends TourElement> oldVisible = this.visibleChildren.get(tour);
+            if (oldVisible == null) {
+                //not shown yet, will be determined when needed
+                return false;
+            }
+            final List<? extends TourElement> newVisible = this.determineVisibleChildren(tour);
+            if (newVisible.equals(oldVisible)) {
+                return false;
+            }
+            this.visibleChildren.put(tour, newVisible);
+            return true;
         }
 
         private void addSelfAndParentsIfNotContained(Tour t, Set<Tour> buffer) {
@@ -578,11 +674,13 @@ public class ReviewContentView extends ViewPart implements ReviewModeListener, I
                 return;
             }
             buffer.add(t);
-            this.addSelfAndParentsIfNotContained(this.tours.getParentFor(t), buffer);
+            final Object parent = this.parents.get(t);
+            this.addSelfAndParentsIfNotContained(parent instanceof Tour ? (Tour) parent : null, buffer);
         }
 
         private Tour getTourFor(Stop stop) {
-            return this.tours.getParentFor(stop);
+            final Object parent = this.parents.get(stop);
+            return parent instanceof Tour ? (Tour) parent : null;
         }
 
         @Override
@@ -623,6 +721,12 @@ public class ReviewContentView extends ViewPart implements ReviewModeListener, I
         private static final RGB IRRELEVANT_COLOR = new RGB(170, 170, 170);
         private static final RGB NOT_VIEWED_COLOR = new RGB(10, 10, 10);
 
+        private final ReviewProgress progress;
+
+        public TourAndStopLabelProvider(ReviewProgress progress) {
+            this.progress = progress;
+        }
+
         private String getText(Object element) {
             if (element instanceof Tour) {
                 return ((Tour) element).getDescription().replace("\r", "").replace("\n", "; ");
@@ -655,39 +759,21 @@ public class ReviewContentView extends ViewPart implements ReviewModeListener, I
             if (tours != null && tours.getActiveTour() == tour) {
                 return Pair.create(ImageCache.getColoredDot(new RGB(255, 0, 0)), Boolean.FALSE);
             }
-            final ViewStatistics statistics = TrackerManager.get().getStatistics();
-            boolean allIrrelevant = true;
-            boolean allNotViewedAtAll = true;
-            boolean allMarkedAsChecked = true;
-            double maxRatio = 0.0;
-            double sumRatio = 0.0;
-            int count = 0;
-
-            final Set<? extends IClassification> irrelevantCategories = tours.getIrrelevantCategories();
-            for (final Stop f : tour.getStops()) {
-                if (statistics != null && statistics.isMarkedAsChecked(f)) {
-                    maxRatio = 1.0;
-                } else {
-                    allMarkedAsChecked = false;
-                }
-                final ViewStatDataForStop viewRatio = this.determineViewRatio(f);
-                allNotViewedAtAll &= viewRatio.isNotViewedAtAll();
-                maxRatio = Math.max(maxRatio, viewRatio.getMaxRatio());
-                sumRatio += viewRatio.getAverageRatio();
-                count++;
-                allIrrelevant &= f.isIrrelevantForReview(irrelevantCategories);
+            final TourProgress tourProgress = this.progress.getTourProgress(tour);
+            if (tourProgress == null) {
+                return Pair.create(null, Boolean.FALSE);
             }
-
-            if (count > 0 && allMarkedAsChecked) {
+            final boolean allIrrelevant = tourProgress.isAllIrrelevant();
+            if (tourProgress.getStopCount() > 0 && tourProgress.isAllMarkedAsChecked()) {
                 return Pair.create(ImageCache.getGreenCheckMark(), allIrrelevant);
             }
             return Pair.create(
                     this.determineImage(
-                            allNotViewedAtAll,
-                            maxRatio,
-                            sumRatio / count,
+                            tourProgress.isAllNotViewedAtAll(),
+                            tourProgress.getMaxRatio(),
+                            tourProgress.getAverageRatio(),
                             allIrrelevant,
-                            this.iconForTour(tour, irrelevantCategories)),
+                            this.iconForTour(tour, tours.getIrrelevantCategories())),
                     allIrrelevant);
         }
 
@@ -717,13 +803,12 @@ public class ReviewContentView extends ViewPart implements ReviewModeListener, I
         }
 
         private Pair<Image, Boolean> determineImageForStop(final Stop f) {
-            final ViewStatistics statistics = TrackerManager.get().getStatistics();
             final boolean isIrrelevant =
                     f.isIrrelevantForReview(ViewDataSource.get().getToursInReview().getIrrelevantCategories());
-            if (statistics != null && statistics.isMarkedAsChecked(f)) {
+            if (this.progress.isMarkedAsChecked(f)) {
                 return Pair.create(ImageCache.getGreenCheckMark(), isIrrelevant);
             }
-            final ViewStatDataForStop viewRatio = this.determineViewRatio(f);
+            final ViewStatDataForStop viewRatio = this.progress.getViewRatio(f);
             return Pair.create(
                     this.determineImage(
                         viewRatio.isNotViewedAtAll(),
@@ -802,10 +887,6 @@ public class ReviewContentView extends ViewPart implements ReviewModeListener, I
             return (int) (ratio * (VIEW_COLORS.length - 1));
         }
 
-        private ViewStatDataForStop determineViewRatio(Stop f) {
-            return TrackerManager.get().determineViewRatio(f);
-        }
-
         private String determineFilename(final Stop f) {
             final Position pos = PositionTransformer.toPosition(
                     f.getMostRecentFile().toLocalPath(f.getWorkingCopy()),
@@ -7,7 +7,6 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.ScrolledComposite;
 import org.eclipse.swt.dnd.Clipboard;
@@ -29,7 +28,6 @@ import org.eclipse.swt.widgets.Text;
 import org.eclipse.ui.part.ViewPart;
 
 import de.setsoftware.reviewtool.base.Logger;
-import de.setsoftware.reviewtool.base.ReviewtoolException;
 import de.setsoftware.reviewtool.model.IReviewDataSaveListener;
 import de.setsoftware.reviewtool.model.ITicketData;
 import de.setsoftware.reviewtool.model.ReviewStateManager;
@@ -188,15 +186,10 @@ public class ReviewInfoView extends ViewPart implements ReviewModeListener, IRev
     }
 
     private void handleReviewDataTextChanged(ReviewStateManager mgr, String newReviewData) {
-        try {
-            Logger.debug("change in review remark text");
-            mgr.saveCurrentReviewData(newReviewData);
-            RemarkMarkers.clearMarkers();
-            RemarkMarkers.loadRemarks(mgr);
-            this.lastText = newReviewData;
-        } catch (final CoreException e) {
-            throw new ReviewtoolException(e);
-        }
+        Logger.debug("change in review remark text");
+        mgr.saveCurrentReviewData(newReviewData);
+        RemarkMarkers.loadRemarks(mgr);
+        this.lastText = newReviewData;
     }
 
     @Override
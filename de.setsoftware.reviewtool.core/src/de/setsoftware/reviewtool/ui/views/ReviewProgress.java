@@ -0,0 +1,310 @@
+package de.setsoftware.reviewtool.ui.views;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import de.setsoftware.reviewtool.model.api.IClassification;
+import de.setsoftware.reviewtool.model.changestructure.Stop;
+import de.setsoftware.reviewtool.model.changestructure.Tour;
+import de.setsoftware.reviewtool.model.changestructure.TourElement;
+import de.setsoftware.reviewtool.model.changestructure.ToursInReview;
+import de.setsoftware.reviewtool.viewtracking.ViewStatDataForStop;
+
+/**
+ * Caches the view state of every stop in a review, together with the aggregated counts for the
+ * progress chart and subtotals for each tour. When the view statistics of a file change, only the stops
+ * in this file are determined anew and the totals are adjusted incrementally.
+ */
+final class ReviewProgress {
+
+    /**
+     * The category a stop is counted in for the progress chart.
+     */
+    enum ProgressCategory {
+        IRRELEVANT,
+        VISITED,
+        PARTLY_VISITED,
+        UNVISITED
+    }
+
+    /**
+     * Subtotals of the view state of all stops in a tour (including those in sub-tours).
+     */
+    static final class TourProgress {
+        private final List<StopProgress> stops = new ArrayList<>();
+        private int checkedCount;
+        private int notViewedAtAllCount;
+        private int irrelevantCount;
+        private double sumAverageRatio;
+        private double maxRatio;
+        private boolean maxRatioStale;
+
+        public int getStopCount() {
+            return this.stops.size();
+        }
+
+        public boolean isAllMarkedAsChecked() {
+            return this.checkedCount == this.stops.size();
+        }
+
+        public boolean isAllNotViewedAtAll() {
+            return this.notViewedAtAllCount == this.stops.size();
+        }
+
+        public boolean isAllIrrelevant() {
+            return this.irrelevantCount == this.stops.size();
+        }
+
+        /**
+         * Returns the maximal view ratio of all stops in the tour. Stops that are marked as checked
+         * count as fully viewed.
+         */
+        public double getMaxRatio() {
+            if (this.maxRatioStale) {
+                double max = 0.0;
+                for (final StopProgress s : this.stops) {
+                    max = Math.max(max, s.getMaxRatio());
+                }
+                this.maxRatio = max;
+                this.maxRatioStale = false;
+            }
+            return this.maxRatio;
+        }
+
+        /**
+         * Returns the average of the average view ratios of all stops in the tour.
+         */
+        public double getAverageRatio() {
+            return this.sumAverageRatio / this.stops.size();
+        }
+
+        private void add(StopProgress s) {
+            if (s.checked) {
+                this.checkedCount++;
+            }
+            if (s.viewRatio.isNotViewedAtAll()) {
+                this.notViewedAtAllCount++;
+            }
+            if (s.irrelevant) {
+                this.irrelevantCount++;
+            }
+            this.sumAverageRatio += s.viewRatio.getAverageRatio();
+            //even when stale, the old maximum is an upper bound for the ratios of the other stops
+            final double ratio = s.getMaxRatio();
+            if (ratio >= this.maxRatio) {
+                this.maxRatio = ratio;
+                this.maxRatioStale = false;
+            }
+        }
+
+        private void remove(StopProgress s) {
+            if (s.checked) {
+                this.checkedCount--;
+            }
+            if (s.viewRatio.isNotViewedAtAll()) {
+                this.notViewedAtAllCount--;
+            }
+            if (s.irrelevant) {
+                this.irrelevantCount--;
+            }
+            this.sumAverageRatio -= s.viewRatio.getAverageRatio();
+            if (s.getMaxRatio() >= this.maxRatio) {
+                //the removed stop could have been the only one with the maximal ratio
+                this.maxRatioStale = true;
+            }
+        }
+    }
+
+    /**
+     * The cached view state of a stop.
+     */
+    private static final class StopProgress {
+        private final Stop stop;
+        private final boolean irrelevant;
+        private final List<TourProgress> tours;
+        private boolean checked;
+        private ViewStatDataForStop viewRatio;
+
+        public StopProgress(Stop stop, boolean irrelevant, List<TourProgress> tours) {
+            this.stop = stop;
+            this.irrelevant = irrelevant;
+            this.tours = tours;
+        }
+
+        public double getMaxRatio() {
+            return this.checked ? Math.max(1.0, this.viewRatio.getMaxRatio()) : this.viewRatio.getMaxRatio();
+        }
+
+        public ProgressCategory getCategory() {
+            if (this.checked) {
+                return ProgressCategory.VISITED;
+            } else if (this.viewRatio.isNotViewedAtAll()) {
+                return this.irrelevant ? ProgressCategory.IRRELEVANT : ProgressCategory.UNVISITED;
+            } else if (this.viewRatio.isPartlyUnvisited()) {
+                return ProgressCategory.PARTLY_VISITED;
+            } else {
+                return ProgressCategory.VISITED;
+            }
+        }
+    }
+
+    private final ToursInReview tours;
+    private final Predicate<Stop> isMarkedAsChecked;
+    private final Function<Stop, ViewStatDataForStop> viewRatioDeterminer;
+
+    private final Map<Stop, StopProgress> stops = new IdentityHashMap<>();
+    private final Map<File, List<StopProgress>> stopsPerFile = new HashMap<>();
+    private final Map<Tour, TourProgress> tourTotals = new IdentityHashMap<>();
+    private final int[] counts = new int[ProgressCategory.values().length];
+
+    /**
+     * Constructor. The state of the stops is determined with the given functions.
+     */
+    public ReviewProgress(
+            ToursInReview tours,
+            Predicate<Stop> isMarkedAsChecked,
+            Function<Stop, ViewStatDataForStop> viewRatioDeterminer) {
+        this.tours = tours;
+        this.isMarkedAsChecked = isMarkedAsChecked;
+        this.viewRatioDeterminer = viewRatioDeterminer;
+        this.rebuild();
+    }
+
+    /**
+     * Determines the state of all stops anew. Needed when the structure of the tours changed.
+     */
+    public void rebuild() {
+        this.stops.clear();
+        this.stopsPerFile.clear();
+        this.tourTotals.clear();
+        Arrays.fill(this.counts, 0);
+        final Set<? extends IClassification> irrelevantCategories = this.tours.getIrrelevantCategories();
+        for (final Tour t : this.tours.getTopmostTours()) {
+            this.addTour(t, Collections.emptyList(), irrelevantCategories);
+        }
+    }
+
+    private void addTour(Tour tour, List<TourProgress> parents, Set<? extends IClassification> irrelevantCategories) {
+        final TourProgress totals = new TourProgress();
+        this.tourTotals.put(tour, totals);
+        final List<TourProgress> chain = new ArrayList<>(parents.size() + 1);
+        chain.add(totals);
+        chain.addAll(parents);
+        for (final TourElement e : tour.getChildren()) {
+            if (e instanceof Tour) {
+                this.addTour((Tour) e, chain, irrelevantCategories);
+            } else {
+                final Stop stop = (Stop) e;
+                final StopProgress s = new StopProgress(stop, stop.isIrrelevantForReview(irrelevantCategories), chain);
+                this.stops.put(stop, s);
+                this.stopsPerFile.computeIfAbsent(stop.getAbsoluteFile(), x -> new ArrayList<>()).add(s);
+                for (final TourProgress t : chain) {
+                    t.stops.add(s);
+                }
+                this.determineState(s);
+                this.add(s);
+            }
+        }
+    }
+
+    /**
+     * Determines the state of all stops anew, e.g. because the view statistics have been replaced.
+     */
+    public void refreshAll() {
+        for (final List<StopProgress> stopsInFile : this.stopsPerFile.values()) {
+            this.refresh(stopsInFile);
+        }
+    }
+
+    /**
+     * Determines the state of the stops in the given file anew and adjusts the totals.
+     */
+    public void refreshFile(File absolutePath) {
+        final List<StopProgress> stopsInFile = this.stopsPerFile.get(absolutePath);
+        if (stopsInFile != null) {
+            this.refresh(stopsInFile);
+        }
+    }
+
+    private void refresh(List<StopProgress> toRefresh) {
+        for (final StopProgress s : toRefresh) {
+            this.remove(s);
+            this.determineState(s);
+            this.add(s);
+        }
+    }
+
+    private void determineState(StopProgress s) {
+        s.checked = this.isMarkedAsChecked.test(s.stop);
+        s.viewRatio = this.viewRatioDeterminer.apply(s.stop);
+    }
+
+    private void add(StopProgress s) {
+        this.counts[s.getCategory().ordinal()]++;
+        for (final TourProgress t : s.tours) {
+            t.add(s);
+        }
+    }
+
+    private void remove(StopProgress s) {
+        this.counts[s.getCategory().ordinal()]--;
+        for (final TourProgress t : s.tours) {
+            t.remove(s);
+        }
+    }
+
+    /**
+     * Returns the number of stops in the given category.
+     */
+    public int getCount(ProgressCategory category) {
+        return this.counts[category.ordinal()];
+    }
+
+    /**
+     * Returns all stops in the given file.
+     */
+    public List<Stop> getStopsFor(File absolutePath) {
+        final List<StopProgress> stopsInFile = this.stopsPerFile.get(absolutePath);
+        if (stopsInFile == null) {
+            return Collections.emptyList();
+        }
+        final List<Stop> ret = new ArrayList<>(stopsInFile.size());
+        for (final StopProgress s : stopsInFile) {
+            ret.add(s.stop);
+        }
+        return ret;
+    }
+
+    /**
+     * Returns true iff the given stop has been explicitly marked as checked.
+     */
+    public boolean isMarkedAsChecked(Stop stop) {
+        final StopProgress s = this.stops.get(stop);
+        return s != null ? s.checked : this.isMarkedAsChecked.test(stop);
+    }
+
+    /**
+     * Returns the view ratio of the given stop.
+     */
+    public ViewStatDataForStop getViewRatio(Stop stop) {
+        final StopProgress s = this.stops.get(stop);
+        return s != null ? s.viewRatio : this.viewRatioDeterminer.apply(stop);
+    }
+
+    /**
+     * Returns the subtotals for the given tour, or null if the tour is not part of the review.
+     */
+    public TourProgress getTourProgress(Tour tour) {
+        return this.tourTotals.get(tour);
+    }
+
+}
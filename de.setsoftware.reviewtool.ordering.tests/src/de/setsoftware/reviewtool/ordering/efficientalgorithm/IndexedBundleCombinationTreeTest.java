@@ -0,0 +1,100 @@
+package de.setsoftware.reviewtool.ordering.efficientalgorithm;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Compares bundle combination trees with an {@link ItemIndex} to the generic ones on random inputs.
+ */
+public class IndexedBundleCombinationTreeTest {
+
+    private static Set<Integer> randomSubset(Random random, int itemCount) {
+        final Set<Integer> ret = new LinkedHashSet<>();
+        final int size = 1 + random.nextInt(Math.min(itemCount, 8));
+        for (int i = 0; i < size; i++) {
+            ret.add(random.nextInt(itemCount + 2));
+        }
+        return ret;
+    }
+
+    private static void assertSameTree(
+            String message, BundleCombinationTreeElement<Integer> expected, BundleCombinationTreeElement<Integer> actual) {
+        if (expected == null || actual == null) {
+            assertEquals(message, expected, actual);
+            return;
+        }
+        assertEquals(message, expected.toString(), actual.toString());
+        final Comparator<Integer> natural = Comparator.naturalOrder();
+        assertEquals(message, expected.getPossibleOrder(natural), actual.getPossibleOrder(natural));
+        assertEquals(message, expected.getPossibleOrder(natural.reversed()), actual.getPossibleOrder(natural.reversed()));
+    }
+
+    @Test
+    public void testIndexedTreeBehavesLikeGenericTree() {
+        final Random random = new Random(4711);
+        for (int round = 0; round < 2000; round++) {
+            final int itemCount = 2 + random.nextInt(100);
+            final List<Integer> items = new ArrayList<>();
+            for (int i = 0; i < itemCount; i++) {
+                items.add(i);
+            }
+            Collections.shuffle(items, random);
+
+            BundleCombinationTreeElement<Integer> generic = BundleCombinationTreeElement.create(items);
+            BundleCombinationTreeElement<Integer> indexed = BundleCombinationTreeElement.createIndexed(items);
+            final List<String> history = new ArrayList<>();
+            final int steps = random.nextInt(40);
+            for (int step = 0; step < steps; step++) {
+                final BundleCombinationTreeElement<Integer> nextGeneric;
+                final BundleCombinationTreeElement<Integer> nextIndexed;
+                if (random.nextInt(4) == 0) {
+                    final Set<Integer> center = randomSubset(random, itemCount);
+                    final Set<Integer> rest = randomSubset(random, itemCount);
+                    rest.removeAll(center);
+                    history.add(center + "<" + rest);
+                    nextGeneric = generic.bundleOrdered(
+                            new SimpleSetAdapter<>(center), new SimpleSetAdapter<>(rest));
+                    nextIndexed = indexed.bundleOrdered(
+                            new SimpleSetAdapter<>(center), new SimpleSetAdapter<>(rest));
+                } else {
+                    final Set<Integer> bundle = randomSubset(random, itemCount);
+                    history.add(bundle.toString());
+                    nextGeneric = generic.bundle(new SimpleSetAdapter<>(bundle));
+                    nextIndexed = indexed.bundle(new SimpleSetAdapter<>(bundle));
+                }
+                assertSameTree(items + " " + history, nextGeneric, nextIndexed);
+                if (nextGeneric != null) {
+                    generic = nextGeneric;
+                    indexed = nextIndexed;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWithSubsettingSet() {
+        final List<Integer> items = Arrays.asList(1, 2, 3, 4, 5, 6);
+        final MatchSet<Integer> toMatch = new UnorderedMatchSet<>(new HashSet<>(Arrays.asList(1, 2)));
+        final List<MatchSet<Integer>> folds = Arrays.asList(
+                new UnorderedMatchSet<>(new HashSet<>(Arrays.asList(2, 3))),
+                new UnorderedMatchSet<>(new HashSet<>(Arrays.asList(5, 6))));
+        final SubsettingSet<Integer> set = new SubsettingSet<>(toMatch, folds);
+        set.preliminaryRemove(1);
+
+        assertSameTree("subsetting set",
+                BundleCombinationTreeElement.create(items).bundle(set),
+                BundleCombinationTreeElement.createIndexed(items).bundle(set));
+    }
+
+}
@@ -433,6 +433,38 @@ public class TourCalculatorTest {
         }
     }
 
+    @Test
+    public void testAgreesWithMapBasedFoldMatching() throws Exception {
+        final Random r = new Random(31);
+        for (int round = 0; round < 3000; round++) {
+            final int size = 3 + r.nextInt(40);
+            final List<String> parts = new ArrayList<>();
+            for (int i = 1; i <= size; i++) {
+                parts.add(Integer.toString(i));
+            }
+            //small match sets, so that many of them overlap and can only be satisfied with folds
+            final List<MatchSet<String>> matchSets = new ArrayList<>();
+            final List<String> shuffled = new ArrayList<>(parts);
+            final int matches = 1 + r.nextInt(2 * size);
+            for (int i = 0; i < matches; i++) {
+                Collections.shuffle(shuffled, r);
+                final Set<String> set = new TreeSet<>(shuffled.subList(0, 2 + r.nextInt(Math.min(size - 1, 5))));
+                if (r.nextBoolean()) {
+                    matchSets.add(new UnorderedMatchSet<>(set));
+                } else {
+                    matchSets.add(new StarMatchSet<>(shuffled.get(0), set));
+                }
+            }
+            final Comparator<String> comparator = r.nextBoolean() ? naturalComparator() : inverseNaturalComparator();
+
+            final List<String> expected = MapBasedTourCalculator.calculateFor(
+                    parts, matchSets, comparator, TourCalculatorControl.NO_CANCEL);
+            final TourCalculator<String> actual = TourCalculator.calculateFor(
+                    parts, matchSets, comparator, TourCalculatorControl.NO_CANCEL);
+            assertEquals("input " + round, expected, actual.getTour());
+        }
+    }
+
     /*
     @Test
     public void testPerformance() throws Exception {
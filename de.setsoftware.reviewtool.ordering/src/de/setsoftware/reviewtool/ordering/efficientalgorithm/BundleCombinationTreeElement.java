@@ -7,6 +7,11 @@ import java.util.List;
 /**
  * Superclass for elements of the bundle combination tree.
  *
+ * <p>A tree can be created with an {@link ItemIndex}. Then each element knows the set of items in its subtree
+ * as a bit set, and bundles are converted to bit sets, too. This allows to determine cheaply whether a subtree
+ * is fully contained in a bundle or disjoint from it, without descending into it. The resulting trees are the
+ * same as without the index.
+ *
  * @param <T> The type of stops.
  */
 public abstract class BundleCombinationTreeElement<T> implements BundleCombination<T> {
@@ -146,31 +151,97 @@ public abstract class BundleCombinationTreeElement<T> implements BundleCombinati
         }
     }
 
+    private final ItemIndex<T> itemIndex;
+    private final ItemBitSet items;
+
+    protected BundleCombinationTreeElement(ItemIndex<T> itemIndex, ItemBitSet items) {
+        this.itemIndex = itemIndex;
+        this.items = items;
+    }
+
     /**
      * Creates a tree element for the given list of stops. Depending on the size of a list it is
      * either directly a leaf or a node with the stops as children.
      */
     public static<S> BundleCombinationTreeElement<S> create(Collection<S> asList) {
+        return createTree(asList, null);
+    }
+
+    /**
+     * Creates a tree element for the given list of stops, like {@link #create(Collection)}, but with
+     * dense IDs for the stops and bit sets of the IDs contained in each subtree.
+     */
+    public static<S> BundleCombinationTreeElement<S> createIndexed(Collection<S> asList) {
+        return createTree(asList, new ItemIndex<>(asList));
+    }
+
+    private static<S> BundleCombinationTreeElement<S> createTree(Collection<S> asList, ItemIndex<S> index) {
         assert asList.size() > 0;
         if (asList.size() == 1) {
-            return new BundleCombinationTreeLeaf<>(asList.iterator().next());
+            return new BundleCombinationTreeLeaf<>(asList.iterator().next(), index);
         } else {
             @SuppressWarnings("unchecked")
             final BundleCombinationTreeElement<S>[] items = new BundleCombinationTreeElement[asList.size()];
             final Iterator<S> iter = asList.iterator();
             int i = 0;
             while (iter.hasNext()) {
-                items[i] = new BundleCombinationTreeLeaf<>(iter.next());
+                items[i] = new BundleCombinationTreeLeaf<>(iter.next(), index);
                 i++;
             }
             return new BundleCombinationTreeNode<>(items, true, true);
         }
     }
 
+    protected final ItemIndex<T> getItemIndex() {
+        return this.itemIndex;
+    }
+
+    /**
+     * Returns the IDs of the items in this subtree, or null if the tree has no {@link ItemIndex}.
+     */
+    protected final ItemBitSet getItems() {
+        return this.items;
+    }
+
+    /**
+     * Converts the given set so that it contains the bit set of its items, if this tree has an {@link ItemIndex}.
+     */
+    private SimpleSet<T> index(SimpleSet<T> set) {
+        if (this.itemIndex == null
+                || (set instanceof IndexedSet && ((IndexedSet<T>) set).getIndex() == this.itemIndex)) {
+            return set;
+        }
+        return this.itemIndex.toIndexedSet(set);
+    }
+
+    /**
+     * Determines the containment of this subtree in the given bundle by comparing bit sets,
+     * if this is possible without looking at the subtree's structure.
+     * Returns {@link ResultType#NONE} if the subtree is disjoint from the bundle, {@link ResultType#FULL}
+     * if it is fully contained in the bundle and null otherwise or if there are no bit sets.
+     */
+    protected final ResultType quickContainment(SimpleSet<T> bundle) {
+        if (this.items == null || !(bundle instanceof IndexedSet)) {
+            return null;
+        }
+        final IndexedSet<T> indexedBundle = (IndexedSet<T>) bundle;
+        if (indexedBundle.getIndex() != this.itemIndex) {
+            return null;
+        }
+        final int common = this.items.countCommon(indexedBundle.getWords());
+        if (common == 0) {
+            return ResultType.NONE;
+        } else if (common == this.items.cardinality()) {
+            return ResultType.FULL;
+        } else {
+            return null;
+        }
+    }
+
     @Override
     public final BundleCombinationTreeElement<T> bundle(SimpleSet<T> bundle) {
         try {
-            final BundleResult<T> result = this.addBundle(bundle);
+            final BundleResult<T> result = this.addBundle(this.index(bundle));
             if (result.resultType == ResultType.CONFLICT) {
                 return null;
             } else {
@@ -189,16 +260,18 @@ public abstract class BundleCombinationTreeElement<T> implements BundleCombinati
      * Assumes that the union of center and rest was already successfully bundled.
      */
     public BundleCombinationTreeElement<T> bundleOrdered(SimpleSet<T> center, SimpleSet<T> rest) {
+        final SimpleSet<T> indexedCenter = this.index(center);
+        final SimpleSet<T> indexedRest = this.index(rest);
         //we assume here that the whole was already bundled
-        final BundleCombinationTreeElement<T> t1 = this.bundle(center);
+        final BundleCombinationTreeElement<T> t1 = this.bundle(indexedCenter);
         if (t1 == null) {
             return null;
         }
-        final BundleCombinationTreeElement<T> t2 = t1.bundle(rest);
+        final BundleCombinationTreeElement<T> t2 = t1.bundle(indexedRest);
         if (t2 == null) {
             return null;
         }
-        return t2.fixOrder(center, rest);
+        return t2.fixOrder(indexedCenter, indexedRest);
     }
 
     protected abstract BundleCombinationTreeElement<T> fixOrder(SimpleSet<T> center, SimpleSet<T> rest);
@@ -12,18 +12,36 @@ import java.util.List;
 class BundleCombinationTreeLeaf<T> extends BundleCombinationTreeElement<T> {
 
     private final T value;
+    private final int id;
     private final BundleResult<T> thisFull;
     private final BundleResult<T> thisNone;
 
     BundleCombinationTreeLeaf(T value) {
+        this(value, null);
+    }
+
+    BundleCombinationTreeLeaf(T value, ItemIndex<T> index) {
+        this(value, index, index == null ? -1 : index.getId(value));
+    }
+
+    private BundleCombinationTreeLeaf(T value, ItemIndex<T> index, int id) {
+        super(index, index == null ? null : ItemBitSet.single(id));
         this.value = value;
+        this.id = id;
         this.thisFull = new BundleResult<>(ResultType.FULL, this);
         this.thisNone = new BundleResult<>(ResultType.NONE, this);
     }
 
+    private boolean isContainedIn(SimpleSet<T> bundle) {
+        if (bundle instanceof IndexedSet && ((IndexedSet<T>) bundle).getIndex() == this.getItemIndex()) {
+            return ((IndexedSet<T>) bundle).containsId(this.id);
+        }
+        return bundle.contains(this.value);
+    }
+
     @Override
     protected BundleResult<T> addBundle(SimpleSet<T> bundle) {
-        return bundle.contains(this.value) ? this.thisFull : this.thisNone;
+        return this.isContainedIn(bundle) ? this.thisFull : this.thisNone;
     }
 
     @Override
@@ -43,7 +61,7 @@ class BundleCombinationTreeLeaf<T> extends BundleCombinationTreeElement<T> {
 
     @Override
     protected ResultType checkContainment(SimpleSet<T> bundle) {
-        return bundle.contains(this.value) ? ResultType.FULL : ResultType.NONE;
+        return this.isContainedIn(bundle) ? ResultType.FULL : ResultType.NONE;
     }
 
     @Override
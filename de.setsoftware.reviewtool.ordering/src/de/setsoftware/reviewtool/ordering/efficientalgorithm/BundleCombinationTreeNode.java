@@ -24,6 +24,7 @@ public class BundleCombinationTreeNode<T> extends BundleCombinationTreeElement<T
 
     BundleCombinationTreeNode(
             BundleCombinationTreeElement<T>[] children, boolean reorderingAllowed, boolean reverseAllowed) {
+        super(children[0].getItemIndex(), children[0].getItemIndex() == null ? null : ItemBitSet.union(children));
         assert children.length >= 2;
         this.children = children;
         this.reorderingAllowed = reorderingAllowed;
@@ -33,6 +34,12 @@ public class BundleCombinationTreeNode<T> extends BundleCombinationTreeElement<T
     @Override
     protected BundleResult<T> addBundle(SimpleSet<T> bundle) {
 
+        //a subtree that is disjoint from the bundle or fully contained in it stays unchanged
+        final ResultType quickResult = this.quickContainment(bundle);
+        if (quickResult != null) {
+            return result(quickResult, this);
+        }
+
         if (this.reorderingAllowed) {
             //add recursively and split by result type
             final Map<ResultType, List<BundleCombinationTreeElement<T>>> parts = new EnumMap<>(ResultType.class);
@@ -418,6 +425,10 @@ public class BundleCombinationTreeNode<T> extends BundleCombinationTreeElement<T
 
     @Override
     protected ResultType checkContainment(SimpleSet<T> bundle) {
+        final ResultType quickResult = this.quickContainment(bundle);
+        if (quickResult != null) {
+            return quickResult;
+        }
         final boolean startsWithMatch = this.children[0].checkContainment(bundle).hasTopMatch();
         final boolean endsWithMatch = this.children[this.children.length - 1].checkContainment(bundle).hasBottomMatch();
         if (startsWithMatch && !endsWithMatch) {
@@ -0,0 +1,49 @@
+package de.setsoftware.reviewtool.ordering.efficientalgorithm;
+
+import java.util.Set;
+
+/**
+ * A {@link SimpleSet} that wraps another one and additionally contains a bit set of the IDs of its items
+ * in an {@link ItemIndex}.
+ *
+ * @param <T> Type of the items.
+ */
+final class IndexedSet<T> implements SimpleSet<T> {
+
+    private final ItemIndex<T> index;
+    private final SimpleSet<T> wrapped;
+    private final long[] words;
+
+    IndexedSet(ItemIndex<T> index, SimpleSet<T> wrapped, long[] words) {
+        this.index = index;
+        this.wrapped = wrapped;
+        this.words = words;
+    }
+
+    ItemIndex<T> getIndex() {
+        return this.index;
+    }
+
+    long[] getWords() {
+        return this.words;
+    }
+
+    /**
+     * Returns true iff the item with the given ID is contained in this set.
+     */
+    boolean containsId(int id) {
+        return (this.words[id >>> 6] & (1L << id)) != 0;
+    }
+
+    @Override
+    public boolean contains(T item) {
+        final int id = this.index.getId(item);
+        return id >= 0 ? this.containsId(id) : this.wrapped.contains(item);
+    }
+
+    @Override
+    public Set<T> toSet() {
+        return this.wrapped.toSet();
+    }
+
+}
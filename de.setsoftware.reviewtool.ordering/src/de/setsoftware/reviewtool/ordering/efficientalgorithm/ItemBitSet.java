@@ -0,0 +1,75 @@
+package de.setsoftware.reviewtool.ordering.efficientalgorithm;
+
+/**
+ * An immutable set of item IDs, stored as a bit set with cached cardinality. To keep the sets of small subtrees
+ * small, only the words between the first and the last set bit are stored.
+ */
+final class ItemBitSet {
+
+    private final int firstWord;
+    private final long[] words;
+    private final int cardinality;
+
+    private ItemBitSet(int firstWord, long[] words, int cardinality) {
+        this.firstWord = firstWord;
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * Returns a set containing only the given ID.
+     */
+    static ItemBitSet single(int id) {
+        return new ItemBitSet(id >>> 6, new long[] {1L << id}, 1);
+    }
+
+    /**
+     * Returns the union of the item sets of the given tree elements, or null if at least one of them has none.
+     */
+    static ItemBitSet union(BundleCombinationTreeElement<?>[] elements) {
+        int first = Integer.MAX_VALUE;
+        int end = 0;
+        for (final BundleCombinationTreeElement<?> element : elements) {
+            final ItemBitSet items = element.getItems();
+            if (items == null) {
+                return null;
+            }
+            first = Math.min(first, items.firstWord);
+            end = Math.max(end, items.firstWord + items.words.length);
+        }
+
+        final long[] words = new long[end - first];
+        for (final BundleCombinationTreeElement<?> element : elements) {
+            final ItemBitSet items = element.getItems();
+            final int offset = items.firstWord - first;
+            for (int i = 0; i < items.words.length; i++) {
+                words[offset + i] |= items.words[i];
+            }
+        }
+        int cardinality = 0;
+        for (final long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        return new ItemBitSet(first, words, cardinality);
+    }
+
+    /**
+     * Returns the number of IDs in this set.
+     */
+    int cardinality() {
+        return this.cardinality;
+    }
+
+    /**
+     * Returns the number of IDs contained both in this set and in the given bit set.
+     */
+    int countCommon(long[] other) {
+        final int end = Math.min(this.words.length, other.length - this.firstWord);
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            count += Long.bitCount(this.words[i] & other[this.firstWord + i]);
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,49 @@
+package de.setsoftware.reviewtool.ordering.efficientalgorithm;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps the items of a bundle combination tree to dense integer IDs, so that sets of items can be
+ * represented as bit sets.
+ *
+ * @param <T> Type of the items.
+ */
+final class ItemIndex<T> {
+
+    private final Map<T, Integer> ids;
+
+    ItemIndex(Collection<T> items) {
+        this.ids = new HashMap<>(items.size() * 2);
+        for (final T item : items) {
+            if (!this.ids.containsKey(item)) {
+                this.ids.put(item, this.ids.size());
+            }
+        }
+    }
+
+    /**
+     * Returns the ID of the given item, or -1 if it is not contained in the index.
+     */
+    int getId(T item) {
+        final Integer id = this.ids.get(item);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns a view of the given set that additionally contains a bit set representation of the items.
+     * Items that are not contained in the index are ignored in the bit set.
+     */
+    IndexedSet<T> toIndexedSet(SimpleSet<T> set) {
+        final long[] words = new long[(this.ids.size() + 63) >>> 6];
+        for (final T item : set.toSet()) {
+            final Integer id = this.ids.get(item);
+            if (id != null) {
+                words[id >>> 6] |= 1L << id;
+            }
+        }
+        return new IndexedSet<>(this, set, words);
+    }
+
+}
@@ -1,16 +1,17 @@
 package de.setsoftware.reviewtool.ordering.efficientalgorithm;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 /**
@@ -26,72 +27,134 @@ public class TourCalculator<T> {
 
     /**
      * Helper class for recursive folding and matching.
+     * <p/>
+     * To avoid comparing each fold with each unsatisfied match, the change parts get dense integer IDs and the
+     * change parts of match sets are represented as bit sets over these IDs. An inverted index from change part
+     * to the unsatisfied matches containing it allows visiting only the matches that overlap with a fold.
      *
      * @param <S> Type of the stops.
      */
     private static final class FoldMatchingHelper<S> {
 
+        /**
+         * An unsatisfied match together with the folds that might help to satisfy it.
+         *
+         * @param <S> Type of the stops.
+         */
+        private static final class UnsatisfiedMatch<S> {
+            private final int index;
+            private final MatchSet<S> match;
+            private final List<MatchSet<S>> potentiallyRelevantFolds = new ArrayList<>();
+            private final List<BitSet> potentiallyRelevantFoldParts = new ArrayList<>();
+
+            UnsatisfiedMatch(int index, MatchSet<S> match) {
+                this.index = index;
+                this.match = match;
+            }
+        }
+
         private BundleCombinationTreeElement<S> bundler;
-        private final Map<MatchSet<S>, List<MatchSet<S>>> unsatisfiedMatchesWithPotentiallyRelevantFolds;
-        private final LinkedList<MatchSet<S>> todoQueue;
+        private final List<UnsatisfiedMatch<S>> unsatisfiedMatches;
+        private final BitSet stillUnsatisfied;
+        private final Map<S, Integer> partIds;
+        private final List<BitSet> unsatisfiedMatchesByPart;
+        private final ArrayDeque<MatchSet<S>> todoQueue;
         private final Map<MatchSet<S>, List<MatchSet<S>>> matchedWithFolds;
 
         public FoldMatchingHelper(BundleCombinationTreeElement<S> bundler, List<MatchSet<S>> unsatisfiedMatches) {
             this.bundler = bundler;
-            this.unsatisfiedMatchesWithPotentiallyRelevantFolds = new LinkedHashMap<>();
-            for (final MatchSet<S> unsatisfiedMatch : unsatisfiedMatches) {
-                this.unsatisfiedMatchesWithPotentiallyRelevantFolds.put(unsatisfiedMatch, new ArrayList<MatchSet<S>>());
+            this.unsatisfiedMatches = new ArrayList<>();
+            this.partIds = new HashMap<>();
+            this.unsatisfiedMatchesByPart = new ArrayList<>();
+            for (final MatchSet<S> unsatisfiedMatch : new LinkedHashSet<>(unsatisfiedMatches)) {
+                final int index = this.unsatisfiedMatches.size();
+                this.unsatisfiedMatches.add(new UnsatisfiedMatch<>(index, unsatisfiedMatch));
+                for (final S part : unsatisfiedMatch.getChangeParts()) {
+                    this.unsatisfiedMatchesByPart.get(this.getPartId(part)).set(index);
+                }
             }
-            this.todoQueue = new LinkedList<>();
+            this.stillUnsatisfied = new BitSet();
+            this.stillUnsatisfied.set(0, this.unsatisfiedMatches.size());
+            this.todoQueue = new ArrayDeque<>();
             this.matchedWithFolds = new LinkedHashMap<>();
         }
 
+        private int getPartId(S part) {
+            Integer id = this.partIds.get(part);
+            if (id == null) {
+                id = this.partIds.size();
+                this.partIds.put(part, id);
+                this.unsatisfiedMatchesByPart.add(new BitSet());
+            }
+            return id;
+        }
+
+        private BitSet toBitSet(MatchSet<S> matchSet) {
+            final BitSet ret = new BitSet();
+            for (final S part : matchSet.getChangeParts()) {
+                ret.set(this.getPartId(part));
+            }
+            return ret;
+        }
+
         public void addPotentialFolds(Collection<MatchSet<S>> matches, TourCalculatorControl control)
             throws InterruptedException {
 
             this.todoQueue.addAll(matches);
             while (!this.todoQueue.isEmpty()) {
                 //assign the next batch of folds to try to the unsatisfied matches they might help to satisfy
-                final Set<MatchSet<S>> unsatisfiedMatchesThatCouldNowMatch = new LinkedHashSet<>();
+                final Set<UnsatisfiedMatch<S>> unsatisfiedMatchesThatCouldNowMatch = new LinkedHashSet<>();
                 while (!this.todoQueue.isEmpty()) {
                     final MatchSet<S> toFold = this.todoQueue.poll();
-                    final Iterator<Entry<MatchSet<S>, List<MatchSet<S>>>> iter =
-                            this.unsatisfiedMatchesWithPotentiallyRelevantFolds.entrySet().iterator();
-                    while (iter.hasNext()) {
-                        final Entry<MatchSet<S>, List<MatchSet<S>>> e = iter.next();
-                        //to be able to satisfy the match, the candidate fold has to contain elements from the match
-                        if (!disjoint(e.getKey().getChangeParts(), toFold.getChangeParts())) {
-                            this.removeSubsets(e.getValue(), toFold);
-                            e.getValue().add(toFold);
-                            unsatisfiedMatchesThatCouldNowMatch.add(e.getKey());
-                        }
+                    final BitSet foldParts = this.toBitSet(toFold);
+                    //to be able to satisfy the match, the candidate fold has to contain elements from the match
+                    final BitSet overlappingMatches = new BitSet();
+                    for (int part = foldParts.nextSetBit(0); part >= 0; part = foldParts.nextSetBit(part + 1)) {
+                        overlappingMatches.or(this.unsatisfiedMatchesByPart.get(part));
+                    }
+                    overlappingMatches.and(this.stillUnsatisfied);
+                    for (int i = overlappingMatches.nextSetBit(0); i >= 0; i = overlappingMatches.nextSetBit(i + 1)) {
+                        final UnsatisfiedMatch<S> e = this.unsatisfiedMatches.get(i);
+                        this.removeSubsets(e, foldParts);
+                        e.potentiallyRelevantFolds.add(toFold);
+                        e.potentiallyRelevantFoldParts.add(foldParts);
+                        unsatisfiedMatchesThatCouldNowMatch.add(e);
                     }
                 }
 
                 checkInterruption(control);
 
                 //check for matches that can now be satisfied
-                for (final MatchSet<S> toMatch : unsatisfiedMatchesThatCouldNowMatch) {
-                    this.matchWithNewFold(
-                            toMatch,
-                            this.unsatisfiedMatchesWithPotentiallyRelevantFolds.get(toMatch),
-                            control);
+                for (final UnsatisfiedMatch<S> toMatch : unsatisfiedMatchesThatCouldNowMatch) {
+                    this.matchWithNewFold(toMatch, control);
+                }
+            }
+        }
+
+        private void removeSubsets(UnsatisfiedMatch<S> unsatisfiedMatch, BitSet toFold) {
+            final Iterator<MatchSet<S>> foldIter = unsatisfiedMatch.potentiallyRelevantFolds.iterator();
+            final Iterator<BitSet> partsIter = unsatisfiedMatch.potentiallyRelevantFoldParts.iterator();
+            while (foldIter.hasNext()) {
+                foldIter.next();
+                if (isSubset(partsIter.next(), toFold)) {
+                    foldIter.remove();
+                    partsIter.remove();
                 }
             }
         }
 
-        private void removeSubsets(List<MatchSet<S>> value, MatchSet<S> toFold) {
-            final Iterator<MatchSet<S>> iter = value.iterator();
-            while (iter.hasNext()) {
-                final MatchSet<S> cur = iter.next();
-                if (toFold.getChangeParts().containsAll(cur.getChangeParts())) {
-                    iter.remove();
+        private static boolean isSubset(BitSet subset, BitSet superset) {
+            for (int i = subset.nextSetBit(0); i >= 0; i = subset.nextSetBit(i + 1)) {
+                if (!superset.get(i)) {
+                    return false;
                 }
             }
+            return true;
         }
 
-        private void matchWithNewFold(
-                MatchSet<S> toMatch, List<MatchSet<S>> potentialFolds, TourCalculatorControl control) {
+        private void matchWithNewFold(UnsatisfiedMatch<S> unsatisfiedMatch, TourCalculatorControl control) {
+            final MatchSet<S> toMatch = unsatisfiedMatch.match;
+            final List<MatchSet<S>> potentialFolds = unsatisfiedMatch.potentiallyRelevantFolds;
             final SubsettingSet<S> activeFolds = new SubsettingSet<>(toMatch, potentialFolds);
             final boolean matchesWithFullSet = this.matchesWithFoldSubset(toMatch, activeFolds);
             if (!matchesWithFullSet) {
@@ -119,7 +182,7 @@ public class TourCalculator<T> {
             this.bundler = this.bundler.bundle(activeFolds);
             this.todoQueue.add(new UnorderedMatchSet<>(activeFolds.toSet()));
             this.matchedWithFolds.put(toMatch, this.selectActiveFolds(potentialFolds, activeFolds));
-            this.unsatisfiedMatchesWithPotentiallyRelevantFolds.remove(toMatch);
+            this.stillUnsatisfied.clear(unsatisfiedMatch.index);
         }
 
         private boolean matchesWithFoldSubset(@SuppressWarnings("unused") MatchSet<S> toMatch, SimpleSet<S> set) {
@@ -182,7 +245,7 @@ public class TourCalculator<T> {
         }
 
         //phase one: bundling without folding
-        BundleCombinationTreeElement<S> bundler = BundleCombinationTreeElement.create(allChangeParts);
+        BundleCombinationTreeElement<S> bundler = BundleCombinationTreeElement.createIndexed(allChangeParts);
         final List<MatchSet<S>> unsatisfiedMatches = new ArrayList<>();
         for (final MatchSet<S> matchSet : matchSets) {
             final BundleCombinationTreeElement<S> next =
@@ -1,8 +1,5 @@
 package de.setsoftware.reviewtool.model.remarks;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
@@ -28,19 +25,7 @@ public class ReviewData {
      */
     public static ReviewData parse(
             Map<Integer, String> reviewersForRounds, IMarkerFactory m, String oldReviewData) {
-        try {
-            final BufferedReader r = new BufferedReader(new StringReader(oldReviewData));
-            String line;
-            final ReviewDataParser parser = new ReviewDataParser(reviewersForRounds, m);
-            while ((line = r.readLine()) != null) {
-                final String trimmedLine = line.trim();
-                parser.handleNextLine(trimmedLine);
-            }
-            parser.endLastItem();
-            return parser.getResult();
-        } catch (final IOException e) {
-            throw new ReviewRemarkException(e);
-        }
+        return new ReviewDataParser(reviewersForRounds, m).parse(oldReviewData);
     }
 
     /**
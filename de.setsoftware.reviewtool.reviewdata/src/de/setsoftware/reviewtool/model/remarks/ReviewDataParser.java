@@ -4,12 +4,13 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Parser for serialized review data.
  * The review data is stored in a human readable format based an Markdown syntax.
+ *
+ * <p>The parser works in a single pass over the input. The lines are not copied, instead the
+ * line-based state machine works on the bounds of the (trimmed) line in the input.
  */
 class ReviewDataParser {
 
@@ -17,9 +18,7 @@ class ReviewDataParser {
     private static final String REMARK_PREFIX = "*# ";
     private static final String COMMENT_PREFIX = "*#* ";
 
-    private static final Pattern REVIEW_HEADER_PATTERN =
-            Pattern.compile("[^a-zA-Z0-9]*review[^a-zA-Z0-9]+(\\d+)[^a-zA-Z0-9]*", Pattern.CASE_INSENSITIVE);
-    private static final Pattern COMMENT_PATTERN = Pattern.compile("([^ ]+): (.+)", Pattern.DOTALL);
+    private static final String REVIEW_HEADER_KEYWORD = "review";
 
     /**
      * States for the parser's state machine.
@@ -45,49 +44,150 @@ class ReviewDataParser {
         this.markerFactory = markerFactory;
     }
 
-    public void handleNextLine(String trimmedLine) throws ReviewRemarkException {
-        final Matcher roundStartMatcher = REVIEW_HEADER_PATTERN.matcher(trimmedLine);
-        if (roundStartMatcher.matches()) {
-            this.currentRound = this.getOrCreateRound(Integer.parseInt(roundStartMatcher.group(1)));
+    /**
+     * Parses the given serialized review data and returns the result. Lines can be terminated
+     * by "\n", "\r" or "\r\n".
+     */
+    public ReviewData parse(CharSequence input) throws ReviewRemarkException {
+        final int length = input.length();
+        int lineStart = 0;
+        int i = 0;
+        while (i < length) {
+            final char ch = input.charAt(i);
+            if (ch == '\n' || ch == '\r') {
+                this.handleLine(input, lineStart, i);
+                if (ch == '\r' && i + 1 < length && input.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                i++;
+                lineStart = i;
+            } else {
+                i++;
+            }
+        }
+        if (lineStart < length) {
+            this.handleLine(input, lineStart, length);
+        }
+        this.endLastItem();
+        return this.getResult();
+    }
+
+    private void handleLine(CharSequence input, int lineStart, int lineEnd) throws ReviewRemarkException {
+        //trim the line like String.trim() does
+        int start = lineStart;
+        int end = lineEnd;
+        while (start < end && input.charAt(start) <= ' ') {
+            start++;
+        }
+        while (start < end && input.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        final String roundNumber = parseReviewHeader(input, start, end);
+        if (roundNumber != null) {
+            this.currentRound = this.getOrCreateRound(Integer.parseInt(roundNumber));
             this.state = ParseState.BEFORE_REMARK;
-        } else if (trimmedLine.isEmpty()) {
+        } else if (start == end) {
             this.endLastItem();
             this.state = ParseState.BEFORE_REMARK;
             this.currentRemark = null;
             this.currentType = RemarkType.CAN_FIX;
-        } else if (trimmedLine.startsWith(TYPE_PREFIX)) {
+        } else if (startsWith(input, start, end, TYPE_PREFIX)) {
             this.endLastItem();
-            final RemarkType type = this.parseType(trimmedLine);
+            final RemarkType type =
+                    ReviewRound.parseType(input.subSequence(start + TYPE_PREFIX.length(), end).toString());
             if (type != null) {
                 this.currentType = type;
                 this.state = ParseState.BEFORE_REMARK;
             } else {
                 //invalid type name, treat it as a remark
-                this.parseRemarkOrCommentStart(trimmedLine);
+                this.parseRemarkOrCommentStart(input, start, end);
                 this.state = ParseState.IN_REMARK;
             }
-        } else if (trimmedLine.startsWith(REMARK_PREFIX)) {
+        } else if (startsWith(input, start, end, REMARK_PREFIX)) {
             this.endLastItem();
-            this.parseRemarkOrCommentStart(trimmedLine);
+            this.parseRemarkOrCommentStart(input, start, end);
             this.state = ParseState.IN_REMARK;
-        } else if (trimmedLine.startsWith(COMMENT_PREFIX)) {
+        } else if (startsWith(input, start, end, COMMENT_PREFIX)) {
             this.endLastItem();
-            this.parseRemarkOrCommentStart(trimmedLine);
+            this.parseRemarkOrCommentStart(input, start, end);
             this.state = ParseState.IN_COMMENT;
-        } else if (trimmedLine.startsWith("-") || trimmedLine.startsWith("#") || trimmedLine.startsWith("*")) {
+        } else if (isItemStartChar(input.charAt(start))) {
             this.endLastItem();
-            this.parseRemarkOrCommentStart(trimmedLine);
+            this.parseRemarkOrCommentStart(input, start, end);
             this.state = ParseState.IN_REMARK;
         } else {
             if (this.state == ParseState.IN_REMARK || this.state == ParseState.IN_COMMENT) {
-                this.currentText.append("\n");
+                this.currentText.append('\n');
             } else {
                 this.state = ParseState.IN_REMARK;
             }
-            this.currentText.append(trimmedLine);
+            this.currentText.append(input, start, end);
         }
     }
 
+    /**
+     * Checks whether the line is a review round header, i.e. consists of "review" (ignoring case) and a number,
+     * separated and surrounded by non-alphanumeric characters. Returns the number if it is a header, null otherwise.
+     */
+    private static String parseReviewHeader(CharSequence input, int start, int end) {
+        int i = start;
+        while (i < end && !isAsciiLetterOrDigit(input.charAt(i))) {
+            i++;
+        }
+        if (end - i < REVIEW_HEADER_KEYWORD.length()) {
+            return null;
+        }
+        for (int k = 0; k < REVIEW_HEADER_KEYWORD.length(); k++) {
+            if ((input.charAt(i + k) | 0x20) != REVIEW_HEADER_KEYWORD.charAt(k)) {
+                return null;
+            }
+        }
+        i += REVIEW_HEADER_KEYWORD.length();
+        final int separatorStart = i;
+        while (i < end && !isAsciiLetterOrDigit(input.charAt(i))) {
+            i++;
+        }
+        if (i == separatorStart) {
+            return null;
+        }
+        final int numberStart = i;
+        while (i < end && input.charAt(i) >= '0' && input.charAt(i) <= '9') {
+            i++;
+        }
+        if (i == numberStart) {
+            return null;
+        }
+        final int numberEnd = i;
+        while (i < end) {
+            if (isAsciiLetterOrDigit(input.charAt(i))) {
+                return null;
+            }
+            i++;
+        }
+        return input.subSequence(numberStart, numberEnd).toString();
+    }
+
+    private static boolean isAsciiLetterOrDigit(char ch) {
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9');
+    }
+
+    private static boolean isItemStartChar(char ch) {
+        return ch == '*' || ch == '#' || ch == '-';
+    }
+
+    private static boolean startsWith(CharSequence input, int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (input.charAt(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private ReviewRound getOrCreateRound(int number) {
         for (final ReviewRound round : this.rounds) {
             if (round.getNumber() == number) {
@@ -99,22 +199,15 @@ class ReviewDataParser {
         return newRound;
     }
 
-    private RemarkType parseType(String trimmedLine) {
-        return ReviewRound.parseType(trimmedLine.substring(2));
-    }
-
-    private void parseRemarkOrCommentStart(String trimmedLine) {
-        String remaining = trimmedLine;
-        while (remaining.startsWith("*")
-                || remaining.startsWith("#")
-                || remaining.startsWith("-")
-                || remaining.startsWith(" ")) {
-            remaining = remaining.substring(1);
+    private void parseRemarkOrCommentStart(CharSequence input, int start, int end) {
+        int i = start;
+        while (i < end && (isItemStartChar(input.charAt(i)) || input.charAt(i) == ' ')) {
+            i++;
         }
-        this.currentText.append(remaining);
+        this.currentText.append(input, i, end);
     }
 
-    void endLastItem() throws ReviewRemarkException {
+    private void endLastItem() throws ReviewRemarkException {
         switch (this.state) {
         case IN_REMARK:
             final ResolutionType resoRemark = this.handleResolutionMarkers();
@@ -132,12 +225,17 @@ class ReviewDataParser {
             break;
         case IN_COMMENT:
             final ResolutionType resoComment = this.handleResolutionMarkers();
-            final Matcher m = COMMENT_PATTERN.matcher(this.currentText);
-            if (m.matches()) {
+            //a comment has the form "user: text", with a user name that does not contain spaces
+            final int firstSpace = this.currentText.indexOf(" ");
+            if (firstSpace >= 2
+                    && this.currentText.charAt(firstSpace - 1) == ':'
+                    && firstSpace + 1 < this.currentText.length()) {
                 if (this.currentRemark == null) {
                     throw new ReviewRemarkException("dangling comment: " + this.currentText);
                 }
-                this.currentRemark.addComment(m.group(1), m.group(2));
+                this.currentRemark.addComment(
+                        this.currentText.substring(0, firstSpace - 1),
+                        this.currentText.substring(firstSpace + 1));
                 if (resoComment != null) {
                     this.currentRemark.setResolution(resoComment);
                 }
@@ -158,8 +256,8 @@ class ReviewDataParser {
     }
 
     private Position parsePosition() {
-        final String text = this.currentText.toString();
-        if (text.startsWith("(")) {
+        if (this.currentText.length() > 0 && this.currentText.charAt(0) == '(') {
+            final String text = this.currentText.toString();
             final String position = text.substring(0, text.indexOf(')') + 1);
             this.currentText.setLength(0);
             this.currentText.append(text.substring(position.length()).trim());
@@ -170,26 +268,29 @@ class ReviewDataParser {
     }
 
     private ResolutionType handleResolutionMarkers() {
-        final String text = this.currentText.toString();
-        if (text.contains(ReviewRemark.RESOLUTION_MARKER_FIXED)) {
-            this.currentText.setLength(0);
-            this.currentText.append(text.replace(ReviewRemark.RESOLUTION_MARKER_FIXED, "").trim());
+        if (this.removeResolutionMarker(ReviewRemark.RESOLUTION_MARKER_FIXED)) {
             return ResolutionType.FIXED;
         }
-        if (text.contains(ReviewRemark.RESOLUTION_MARKER_WONTFIX)) {
-            this.currentText.setLength(0);
-            this.currentText.append(text.replace(ReviewRemark.RESOLUTION_MARKER_WONTFIX, "").trim());
+        if (this.removeResolutionMarker(ReviewRemark.RESOLUTION_MARKER_WONTFIX)) {
             return ResolutionType.WONT_FIX;
         }
-        if (text.contains(ReviewRemark.RESOLUTION_MARKER_QUESTION)) {
-            this.currentText.setLength(0);
-            this.currentText.append(text.replace(ReviewRemark.RESOLUTION_MARKER_QUESTION, "").trim());
+        if (this.removeResolutionMarker(ReviewRemark.RESOLUTION_MARKER_QUESTION)) {
             return ResolutionType.QUESTION;
         }
         return null;
     }
 
-    public ReviewData getResult() throws ReviewRemarkException {
+    private boolean removeResolutionMarker(String marker) {
+        if (this.currentText.indexOf(marker) < 0) {
+            return false;
+        }
+        final String text = this.currentText.toString();
+        this.currentText.setLength(0);
+        this.currentText.append(text.replace(marker, "").trim());
+        return true;
+    }
+
+    private ReviewData getResult() throws ReviewRemarkException {
         if (this.rounds.isEmpty()) {
             return new ReviewData();
         }
@@ -180,6 +180,34 @@ public class ReviewRemark {
                 && this.getComments().get(0).getText().equals(reviewRemark.getComments().get(0).getText());
     }
 
+    /**
+     * Returns a copy of this remark that is backed by a {@link DummyMarker}, so that later changes
+     * to this remark's marker don't affect the copy.
+     */
+    public ReviewRemark copy() throws ReviewRemarkException {
+        final DummyMarker copy = new DummyMarker();
+        this.copyTo(copy);
+        return new ReviewRemark(copy);
+    }
+
+    /**
+     * Writes the data of this remark to the given marker, so that the marker looks like it had been used
+     * to create this remark.
+     */
+    public void copyTo(IReviewMarker target) throws ReviewRemarkException {
+        final RemarkType type = this.getRemarkType();
+        final ResolutionType resolution = this.getResolution();
+        target.setMessage(this.marker.getMessage());
+        setSeverity(target, resolution, type);
+        target.setAttribute(REMARK_TYPE, type.name());
+        target.setAttribute(REMARK_RESOLUTION, resolution.name());
+        target.setAttribute(REMARK_POSITION, this.getPositionString());
+        final Position position = this.getPosition();
+        if (position instanceof FileLinePosition) {
+            target.setLineNumber(position.getLine());
+        }
+    }
+
     public void deleteMarker() {
         this.marker.delete();
     }
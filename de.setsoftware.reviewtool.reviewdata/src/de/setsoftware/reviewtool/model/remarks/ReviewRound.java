@@ -11,6 +11,10 @@ import java.util.List;
  *
  * <p>A review round stores all remarks that were first made during this round. Comments
  * on issues raised earlier are stored at these earlier rounds.
+ *
+ * <p>The serialized form of a round is cached until the round is changed by one of its methods.
+ * Changes to the markers of the contained remarks are not noticed, so remarks have to be merged
+ * anew when they have been changed.
  */
 public class ReviewRound {
 
@@ -23,6 +27,7 @@ public class ReviewRound {
 
     private final int nbr;
     private final List<ReviewRemark> remarks = new ArrayList<>();
+    private String serialized;
 
     public ReviewRound(int nbr) {
         this.nbr = nbr;
@@ -40,6 +45,7 @@ public class ReviewRound {
         final int index = this.findSimilar(reviewRemark);
         if (index >= 0) {
             this.remarks.set(index, reviewRemark);
+            this.serialized = null;
         } else {
             this.add(reviewRemark);
         }
@@ -59,6 +65,7 @@ public class ReviewRound {
     public void add(ReviewRemark reviewRemark) {
         final int index = this.findInsertionIndex(reviewRemark);
         this.remarks.add(index, reviewRemark);
+        this.serialized = null;
     }
 
     private int findInsertionIndex(ReviewRemark reviewRemark) {
@@ -78,6 +85,13 @@ public class ReviewRound {
      * Creates a String representation of this review round.
      */
     public String serialize() throws ReviewRemarkException {
+        if (this.serialized == null) {
+            this.serialized = this.serializeRemarks();
+        }
+        return this.serialized;
+    }
+
+    private String serializeRemarks() throws ReviewRemarkException {
         final StringBuilder ret = new StringBuilder();
         ret.append("Review ").append(this.nbr).append(":\n");
         this.serializeRemarksWithType(OTHER_REMARK_HEADER[0], ret, RemarkType.OTHER);
@@ -158,6 +172,7 @@ public class ReviewRound {
         final int i = this.findSimilar(reviewRemark);
         if (i >= 0) {
             this.remarks.remove(i);
+            this.serialized = null;
         }
     }
 
@@ -169,9 +184,11 @@ public class ReviewRound {
     }
 
     /**
-     * Returns the remarks.
+     * Returns the remarks. As the returned list can be changed by the caller, the cached serialized
+     * form is discarded.
      */
     public List<ReviewRemark> getRemarks() {
+        this.serialized = null;
         return this.remarks;
     }
 
@@ -1,6 +1,7 @@
 package de.setsoftware.reviewtool.summary;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -10,10 +11,13 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
@@ -28,13 +32,17 @@ import org.eclipse.jdt.core.dom.TypeDeclaration;
 
 import de.setsoftware.reviewtool.model.api.IChange;
 import de.setsoftware.reviewtool.model.api.ICommit;
-import de.setsoftware.reviewtool.model.api.IRevisionedFile;
 import de.setsoftware.reviewtool.summary.ChangePart.Kind;
 
 /**
  * This class generates default representation of a commits for the summary and
  * creates temporary file copies of changed files that can be used by other
  * summarize techniques.
+ *
+ * <p>Parsing ({@link #parse}) only works on data of the commit and can be done for several
+ * commits in parallel. The results are added to the model with {@link #mergeInto}, which has to
+ * be done for the commits in their order. The temporary files are only needed by techniques that
+ * read the sources from disk, the sources are also kept in memory.
  */
 public class CommitParser {
     public static final String MEMBER_SEPARATOR = ".";
@@ -55,6 +63,16 @@ public class CommitParser {
     public String[] previousDirFilesArray;
     public String[] currentDirFilesArray;
 
+    /**
+     * The sources of the changed Java files, keyed by the path relative to the working copy root.
+     */
+    public final Map<String, String> previousSources = new LinkedHashMap<>();
+    public final Map<String, String> currentSources = new LinkedHashMap<>();
+
+    private final List<ChangePart> nonSourceNewParts = new ArrayList<>();
+    private final List<ChangePart> nonSourceDeletedParts = new ArrayList<>();
+    private final List<ChangePart> nonSourceChangedParts = new ArrayList<>();
+
     private final List<ChangePart> previousMethods = new ArrayList<>();
     private final Map<ChangePart, String> previousMethodsCode = new HashMap<>();
 
@@ -67,28 +85,36 @@ public class CommitParser {
     private final List<ChangePart> currentTypes = new ArrayList<>();
     private final Map<ChangePart, String> currentTypesCode = new HashMap<>();
 
-    private final ChangePartsModel model;
+    private final List<ChangePart> previousInvocations = new ArrayList<>();
+    private final List<ChangePart> currentInvocations = new ArrayList<>();
 
-    public CommitParser(ICommit commit, ChangePartsModel model) {
+    private ChangePartsModel model;
+
+    public CommitParser(ICommit commit) {
         this.commit = commit;
-        this.model = model;
     }
 
     /**
-     * Parse commit, populate model with detected change parts, compute change parts
-     * relevance and create temporary file copies of changed files.
+     * Parse commit, determine the contained change parts and method invocations and create temporary
+     * file copies of changed files. Each version of a file is parsed only once. The parsing is stopped
+     * when the given monitor is canceled.
      */
-    public void processCommit() throws Exception {
+    public void parse(IProgressMonitor monitor) throws Exception {
         this.tmpDir = Files.createTempDirectory("CORT");
         this.previousDir = this.tmpDir.resolve("prev");
         this.currentDir = this.tmpDir.resolve("cur");
 
         for (final IChange change : this.commit.getChanges()) {
+            if (monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            final byte[] contentsFrom = change.getFrom().getContents();
+            final byte[] contentsTo = change.getTo().getContents();
             if (this.isSourceFile(change)) {
-                this.writeTmpFileFrom(change);
-                this.writeTmpFileTo(change);
+                this.writeTmpFileFrom(change, contentsFrom);
+                this.writeTmpFileTo(change, contentsTo);
             } else {
-                this.processNonSourceChange(change);
+                this.processNonSourceChange(change, contentsFrom, contentsTo);
             }
         }
 
@@ -104,12 +130,35 @@ public class CommitParser {
             this.currentDirFilesArray[i] = i2.next().toString();
         }
 
-        this.parseTmpFilesFrom();
-        this.parseTmpFilesTo();
+        this.parseTmpFiles(this.previousDirFilesArray, this.previousMethods, this.previousMethodsCode,
+                this.previousTypes, this.previousTypesCode, this.previousInvocations, monitor);
+        this.parseTmpFiles(this.currentDirFilesArray, this.currentMethods, this.currentMethodsCode,
+                this.currentTypes, this.currentTypesCode, this.currentInvocations, monitor);
+    }
+
+    /**
+     * Populate model with the change parts detected by {@link #parse} and compute change parts relevance.
+     */
+    public void mergeInto(ChangePartsModel model) {
+        this.model = model;
+        for (final ChangePart part : this.nonSourceNewParts) {
+            model.newParts.addPart(part);
+        }
+        for (final ChangePart part : this.nonSourceDeletedParts) {
+            model.deletedParts.addPart(part);
+        }
+        for (final ChangePart part : this.nonSourceChangedParts) {
+            model.changedParts.addPart(part);
+        }
         this.processParsedData();
 
-        this.parseTmpFilesFromForRelevance();
-        this.parseTmpFilesToForRelevance();
+        for (final ChangePart part : this.previousInvocations) {
+            model.deletedParts.increaseRelevance(part);
+        }
+        for (final ChangePart part : this.currentInvocations) {
+            model.changedParts.increaseRelevance(part);
+            model.newParts.increaseRelevance(part);
+        }
         this.addCodeLengthToRelevance();
     }
 
@@ -132,46 +181,36 @@ public class CommitParser {
         return root.relativize(file);
     }
 
-    private void processNonSourceChange(IChange change) throws Exception {
-        if (this.isNewFile(change)) {
-            this.model.newParts.addPart(
+    private void processNonSourceChange(IChange change, byte[] contentsFrom, byte[] contentsTo) {
+        if (contentsFrom.length == 0 && contentsTo.length != 0) {
+            this.nonSourceNewParts.add(
                     new ChangePart(this.getRelPathTo(change).toString(), "", "", Kind.NON_SOURCE_FILE));
-        } else if (this.isDeletedFile(change)) {
-            this.model.deletedParts.addPart(
+        } else if (contentsFrom.length != 0 && contentsTo.length == 0) {
+            this.nonSourceDeletedParts.add(
                     new ChangePart(this.getRelPathFrom(change).toString(), "", "", Kind.NON_SOURCE_FILE));
         } else {
-            this.model.changedParts.addPart(
+            this.nonSourceChangedParts.add(
                     new ChangePart(this.getRelPathFrom(change).toString(), "", "", Kind.NON_SOURCE_FILE));
         }
     }
 
-    private boolean isNewFile(IChange change) throws Exception {
-        final IRevisionedFile revFileFrom = change.getFrom();
-        final IRevisionedFile revFileTo = change.getTo();
-        return (revFileFrom.getContents().length == 0 && revFileTo.getContents().length != 0);
-    }
-
-    private boolean isDeletedFile(IChange change) throws Exception {
-        final IRevisionedFile revFileFrom = change.getFrom();
-        final IRevisionedFile revFileTo = change.getTo();
-        return (revFileFrom.getContents().length != 0 && revFileTo.getContents().length == 0);
-    }
-
-    private void writeTmpFileFrom(IChange change) throws Exception {
-        final IRevisionedFile revFile = change.getFrom();
-        final Path file = this.previousDir.resolve(this.getRelPathFrom(change));
-        if (revFile.getContents().length != 0 && this.previousDirFiles.add(file)) {
+    private void writeTmpFileFrom(IChange change, byte[] contents) throws IOException {
+        final Path relPath = this.getRelPathFrom(change);
+        final Path file = this.previousDir.resolve(relPath);
+        if (contents.length != 0 && this.previousDirFiles.add(file)) {
             Files.createDirectories(file.getParent());
-            Files.write(file, revFile.getContents());
+            Files.write(file, contents);
+            this.previousSources.put(relPath.toString(), new String(contents, Charset.defaultCharset()));
         }
     }
 
-    private void writeTmpFileTo(IChange change) throws Exception {
-        final IRevisionedFile revFile = change.getTo();
-        final Path file = this.currentDir.resolve(this.getRelPathFrom(change));
-        if (revFile.getContents().length != 0 && this.currentDirFiles.add(file)) {
+    private void writeTmpFileTo(IChange change, byte[] contents) throws IOException {
+        final Path relPath = this.getRelPathFrom(change);
+        final Path file = this.currentDir.resolve(relPath);
+        if (contents.length != 0 && this.currentDirFiles.add(file)) {
             Files.createDirectories(file.getParent());
-            Files.write(file, revFile.getContents());
+            Files.write(file, contents);
+            this.currentSources.put(relPath.toString(), new String(contents, Charset.defaultCharset()));
         }
     }
 
@@ -210,7 +249,14 @@ public class CommitParser {
         return type.getPackage().getName();
     }
 
-    private void parseTmpFilesFrom() {
+    private void parseTmpFiles(
+            String[] files,
+            final List<ChangePart> methods,
+            final Map<ChangePart, String> methodsCode,
+            final List<ChangePart> types,
+            final Map<ChangePart, String> typesCode,
+            final List<ChangePart> invocations,
+            IProgressMonitor monitor) {
         final ASTParser parser = this.makeAstParser(new String[0]);
         final FileASTRequestor requestor = new FileASTRequestor() {
             @Override
@@ -223,8 +269,8 @@ public class CommitParser {
                         final String name = CommitParser.this.getName(node.resolveBinding());
                         final String parent = CommitParser.this.getParent(node.resolveBinding());
                         final ChangePart part = new ChangePart(name, parent, sourceFolder, Kind.METHOD);
-                        CommitParser.this.previousMethods.add(part);
-                        CommitParser.this.previousMethodsCode.put(part, node.toString());
+                        methods.add(part);
+                        methodsCode.put(part, node.toString());
                         return true;
                     }
 
@@ -233,49 +279,26 @@ public class CommitParser {
                         final String name = CommitParser.this.getName(node.resolveBinding());
                         final String parent = CommitParser.this.getParent(node.resolveBinding());
                         final ChangePart part = new ChangePart(name, parent, sourceFolder, Kind.TYPE);
-                        CommitParser.this.previousTypes.add(part);
-                        CommitParser.this.previousTypesCode.put(part, node.toString());
-                        return true;
-                    }
-                };
-                compilationUnit.accept(visitor);
-            }
-        };
-        parser.createASTs(this.previousDirFilesArray, null, new String[0], requestor, null);
-    }
-
-    private void parseTmpFilesTo() {
-        final ASTParser parser = this.makeAstParser(new String[0]);
-        final FileASTRequestor requestor = new FileASTRequestor() {
-            @Override
-            public void acceptAST(String sourceFilePath, CompilationUnit compilationUnit) {
-                final String sourceFolder = determineSourceFolder(sourceFilePath);
-
-                final ASTVisitor visitor = new ASTVisitor() {
-                    @Override
-                    public boolean visit(MethodDeclaration node) {
-                        final String name = CommitParser.this.getName(node.resolveBinding());
-                        final String parent = CommitParser.this.getParent(node.resolveBinding());
-                        final ChangePart part = new ChangePart(name, parent, sourceFolder, Kind.METHOD);
-                        CommitParser.this.currentMethods.add(part);
-                        CommitParser.this.currentMethodsCode.put(part, node.toString());
+                        types.add(part);
+                        typesCode.put(part, node.toString());
                         return true;
                     }
 
                     @Override
-                    public boolean visit(TypeDeclaration node) {
-                        final String name = CommitParser.this.getName(node.resolveBinding());
-                        final String parent = CommitParser.this.getParent(node.resolveBinding());
-                        final ChangePart part = new ChangePart(name, parent, sourceFolder, Kind.TYPE);
-                        CommitParser.this.currentTypes.add(part);
-                        CommitParser.this.currentTypesCode.put(part, node.toString());
+                    public boolean visit(MethodInvocation node) {
+                        final IMethodBinding method = node.resolveMethodBinding();
+                        if (method != null) {
+                            final String name = CommitParser.this.getName(method);
+                            final String parent = CommitParser.this.getParent(method);
+                            invocations.add(new ChangePart(name, parent, sourceFolder, Kind.METHOD));
+                        }
                         return true;
                     }
                 };
                 compilationUnit.accept(visitor);
             }
         };
-        parser.createASTs(this.currentDirFilesArray, null, new String[0], requestor, null);
+        parser.createASTs(files, null, new String[0], requestor, monitor);
     }
 
     static String determineSourceFolder(String path) {
@@ -351,6 +374,9 @@ public class CommitParser {
      * Remove temporary files.
      */
     public void clean() throws IOException {
+        if (this.tmpDir == null || !Files.exists(this.tmpDir)) {
+            return;
+        }
         Files.walkFileTree(this.tmpDir, new SimpleFileVisitor<Path>() {
             @Override
             public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
@@ -370,61 +396,6 @@ public class CommitParser {
         });
     }
 
-    private void parseTmpFilesFromForRelevance() {
-        final ASTParser parser = this.makeAstParser(new String[0]);
-        final FileASTRequestor requestor = new FileASTRequestor() {
-            @Override
-            public void acceptAST(String sourceFilePath, CompilationUnit compilationUnit) {
-                final String sourceFolder = determineSourceFolder(sourceFilePath);
-
-                final ASTVisitor visitor = new ASTVisitor() {
-                    @Override
-                    public boolean visit(MethodInvocation node) {
-                        final IMethodBinding method = node.resolveMethodBinding();
-                        if (method != null) {
-                            final String name = CommitParser.this.getName(method);
-                            final String parent = CommitParser.this.getParent(method);
-                            final ChangePart part = new ChangePart(name, parent, sourceFolder, Kind.METHOD);
-
-                            CommitParser.this.model.deletedParts.increaseRelevance(part);
-                        }
-                        return true;
-                    }
-                };
-                compilationUnit.accept(visitor);
-            }
-        };
-        parser.createASTs(this.previousDirFilesArray, null, new String[0], requestor, null);
-    }
-
-    private void parseTmpFilesToForRelevance() {
-        final ASTParser parser = this.makeAstParser(new String[0]);
-        final FileASTRequestor requestor = new FileASTRequestor() {
-            @Override
-            public void acceptAST(String sourceFilePath, CompilationUnit compilationUnit) {
-                final String sourceFolder = determineSourceFolder(sourceFilePath);
-
-                final ASTVisitor visitor = new ASTVisitor() {
-                    @Override
-                    public boolean visit(MethodInvocation node) {
-                        final IMethodBinding method = node.resolveMethodBinding();
-                        if (method != null) {
-                            final String name = CommitParser.this.getName(method);
-                            final String parent = CommitParser.this.getParent(method);
-                            final ChangePart part = new ChangePart(name, parent, sourceFolder, Kind.METHOD);
-
-                            CommitParser.this.model.changedParts.increaseRelevance(part);
-                            CommitParser.this.model.newParts.increaseRelevance(part);
-                        }
-                        return true;
-                    }
-                };
-                compilationUnit.accept(visitor);
-            }
-        };
-        parser.createASTs(this.currentDirFilesArray, null, new String[0], requestor, null);
-    }
-
     private void addCodeLengthToRelevance() {
         for (final ChangePart part : this.model.deletedParts.getAllMethodParts()) {
             part.relevance = (int) ((part.relevance
@@ -1,24 +1,60 @@
 package de.setsoftware.reviewtool.summary;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.text.IRegion;
 
+import de.setsoftware.reviewtool.base.DaemonExecutors;
+import de.setsoftware.reviewtool.base.Logger;
 import de.setsoftware.reviewtool.model.api.ICommit;
+import refdiff.core.rm2.model.refactoring.SDRefactoring;
 
 /**
  * Controls commits processing and manages all needed object for summary
  * generation and presentation.
+ *
+ * <p>The commits are parsed and analyzed by RefDiff in parallel. The results are then merged into the
+ * model in the order of the commits, and DeltaDoc is run in parallel again for each commit. DeltaDoc
+ * stops on its own when its time budget is exceeded. When new commits are processed while an earlier
+ * summary is still being generated, the earlier generation is canceled.
  */
 public class Controller {
     public static final int SUMMARY_LENGTH = 20;
     public static final int REFDIFF_LENGTH = SUMMARY_LENGTH / 2;
     public static final int DELTADOC_LENGTH = SUMMARY_LENGTH / 2;
 
+    private static final long DELTADOC_TIME_BUDGET = 10000;
+
+    private static final ExecutorService SUMMARY_POOL = DaemonExecutors.newFixedThreadPool("CoRT summary");
+
+    /**
+     * The result of the parts of the commit processing that can be done in parallel.
+     */
+    private static final class ParsedCommit {
+        private final CommitParser parser;
+        private final List<SDRefactoring> refactorings;
+
+        ParsedCommit(CommitParser parser, List<SDRefactoring> refactorings) {
+            this.parser = parser;
+            this.refactorings = refactorings;
+        }
+    }
+
     private final ReviewContentSummaryView view;
     private List<SummaryTextPart> summary;
     private ChangePartsModel model;
+    private Job currentJob;
 
     /**
      * Create controller for given view.
@@ -34,51 +70,101 @@ public class Controller {
     public synchronized void processCommits(List<? extends ICommit> commits) {
         this.view.setText("Generating summary...");
         this.view.setHyperLinks(new ArrayList<>());
-        final Runnable r = new Runnable() {
+        if (this.currentJob != null) {
+            this.currentJob.cancel();
+        }
+        final Job job = new Job("Generating summary") {
             @Override
-            public void run() {
-                Controller.this.processCommitsIntrnal(commits);
+            protected IStatus run(IProgressMonitor monitor) {
+                Controller.this.processCommitsInternal(this, commits, monitor);
+                return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
             }
         };
-        final Thread t = new Thread(r);
-        t.start();
+        job.setSystem(true);
+        this.currentJob = job;
+        job.schedule();
     }
 
-    @SuppressWarnings("deprecation")
-    private synchronized void processCommitsIntrnal(List<? extends ICommit> commits) {
-        this.model = new ChangePartsModel();
-        String refDiff = "";
-        final TextWithStyles deltaDoc = new TextWithStyles();
+    private void processCommitsInternal(Job job, List<? extends ICommit> commits, IProgressMonitor monitor) {
+        final List<Future<ParsedCommit>> parsedCommits = new ArrayList<>();
         for (final ICommit commit : commits) {
-            try {
-                final CommitParser parser = new CommitParser(commit, this.model);
-                parser.processCommit();
-                refDiff = refDiff + RefDiffTechnique.process(parser.previousDir, parser.currentDir,
-                        parser.previousDirFiles, parser.currentDirFiles, this.model);
-
-                final Runnable r = new Runnable() {
-                    @Override
-                    public void run() {
-                        synchronized (deltaDoc) {
-                            deltaDoc.add(DeltaDocTechnique.process(parser.previousDir, parser.currentDir,
-                                    parser.previousDirFiles, parser.currentDirFiles, Controller.this.model));
-                        }
+            parsedCommits.add(SUMMARY_POOL.submit(() -> parseCommit(commit, monitor)));
+        }
+
+        final ChangePartsModel newModel = new ChangePartsModel();
+        final StringBuilder refDiff = new StringBuilder();
+        final List<Future<TextWithStyles>> deltaDocs = new ArrayList<>();
+        try {
+            for (final Future<ParsedCommit> f : parsedCommits) {
+                final ParsedCommit parsed;
+                try {
+                    parsed = f.get();
+                } catch (final ExecutionException e) {
+                    if (!monitor.isCanceled()) {
+                        Logger.error("error while parsing commit for summary", e.getCause());
                     }
-                };
-                final Thread t = new Thread(r);
-                t.start();
-                int sleeps = 10;
-                while (t.isAlive() && sleeps > 0) {
-                    sleeps--;
-                    Thread.sleep(1000);
+                    continue;
+                }
+                parsed.parser.mergeInto(newModel);
+                refDiff.append(RefDiffTechnique.process(parsed.refactorings, newModel));
+                final List<ChangePart> changedTypes = newModel.changedParts.getAllTypeParts();
+                deltaDocs.add(SUMMARY_POOL.submit(() -> DeltaDocTechnique.process(
+                        parsed.parser.previousSources,
+                        parsed.parser.currentSources,
+                        changedTypes,
+                        System.currentTimeMillis() + DELTADOC_TIME_BUDGET,
+                        monitor)));
+            }
+
+            final TextWithStyles deltaDoc = new TextWithStyles();
+            for (final Future<TextWithStyles> f : deltaDocs) {
+                try {
+                    deltaDoc.add(f.get(2 * DELTADOC_TIME_BUDGET, TimeUnit.MILLISECONDS));
+                } catch (final TimeoutException e) {
+                    f.cancel(true);
+                    Logger.warn("DeltaDoc did not finish in time", e);
+                } catch (final ExecutionException e) {
+                    Logger.error("error in DeltaDoc", e.getCause());
                 }
-                t.stop();
+            }
+            if (monitor.isCanceled()) {
+                return;
+            }
+            this.showSummary(job, newModel, refDiff.toString(), deltaDoc);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            cancelAll(parsedCommits);
+            cancelAll(deltaDocs);
+        }
+    }
 
+    private static ParsedCommit parseCommit(ICommit commit, IProgressMonitor monitor) throws Exception {
+        final CommitParser parser = new CommitParser(commit);
+        try {
+            parser.parse(monitor);
+            return new ParsedCommit(parser, RefDiffTechnique.detectRefactorings(parser));
+        } finally {
+            try {
                 parser.clean();
-            } catch (final Exception e) {
-                e.printStackTrace();
+            } catch (final IOException e) {
+                Logger.warn("could not remove temporary files", e);
             }
         }
+    }
+
+    private static void cancelAll(List<? extends Future<?>> futures) {
+        for (final Future<?> f : futures) {
+            f.cancel(true);
+        }
+    }
+
+    private synchronized void showSummary(
+            Job job, ChangePartsModel newModel, String refDiff, TextWithStyles deltaDoc) {
+        if (job != this.currentJob) {
+            return;
+        }
+        this.model = newModel;
         this.model.sort();
         this.summary = new ArrayList<>();
 
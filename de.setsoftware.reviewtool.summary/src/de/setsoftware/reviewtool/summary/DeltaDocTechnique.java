@@ -1,12 +1,15 @@
 package de.setsoftware.reviewtool.summary;
 
 import java.io.File;
-import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.regex.Matcher;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import de.setsoftware.reviewtool.base.Logger;
+
 import raykernel.apps.deltadoc2.DeltaDoc;
 import raykernel.apps.deltadoc2.PreProcess;
 import raykernel.apps.deltadoc2.hierarchical.CombinePredicates;
@@ -15,7 +18,6 @@ import raykernel.apps.deltadoc2.hierarchical.HierarchicalDoc;
 import raykernel.apps.deltadoc2.print.DocPrinter;
 import raykernel.apps.deltadoc2.print.DocToPlainText;
 import raykernel.apps.deltadoc2.record.RevisionRecord;
-import raykernel.io.FileReader;
 import raykernel.lang.parse.ClassDeclaration;
 import raykernel.lang.parse.EclipseCFGParser;
 
@@ -24,55 +26,30 @@ import raykernel.lang.parse.EclipseCFGParser;
  */
 public class DeltaDocTechnique {
     /**
-     * Generate DeltaDoc summary for changed types.
+     * Generate DeltaDoc summary for the given changed types, based on the given sources (relative path
+     * to file content). The types are processed one after the other, processing stops when the
+     * deadline (in terms of {@link System#currentTimeMillis()}) is reached or the monitor is canceled.
+     * In that case, the summary for the types processed so far is returned.
      */
-    public static TextWithStyles process(Path previousDir, Path currentDir, Set<Path> previousDirFiles,
-            Set<Path> currentDirFiles, ChangePartsModel model) {
-
-        final ArrayList<String> filesBefore = new ArrayList<>();
-        final ArrayList<String> filesCurrent = new ArrayList<>();
-
-        for (final Path file : previousDirFiles) {
-            filesBefore.add(previousDir.relativize(file).toString());
-        }
-
-        for (final Path file : currentDirFiles) {
-            filesCurrent.add(currentDir.relativize(file).toString());
-        }
+    public static TextWithStyles process(Map<String, String> previousSources, Map<String, String> currentSources,
+            List<ChangePart> changedTypes, long deadline, IProgressMonitor monitor) {
 
         final TextWithStyles text = new TextWithStyles();
 
-        for (final ChangePart type : model.changedParts.getAllTypeParts()) {
-            // Path fileFrom = previousDir.resolve(type.getParent().replaceAll("\\.",
-            // File.separator))
-            // .resolve(type.getName() + ".java");
-            // Path fileTo = currentDir.resolve(type.getParent().replaceAll("\\.",
-            // File.separator))
-            // .resolve(type.getName() + ".java");
+        for (final ChangePart type : changedTypes) {
+            if (monitor.isCanceled() || System.currentTimeMillis() >= deadline) {
+                break;
+            }
 
             final String parentPath = type.getParent().replaceAll("\\.", Matcher.quoteReplacement(File.separator));
             final String relFilePath = parentPath + File.separator + type.getName() + ".java";
 
-            File f1 = null;
-            File f2 = null;
-            for (final String file : filesBefore) {
-                if (file.contains(relFilePath)) {
-                    f1 = new File(previousDir.toFile(), file);
-                }
-            }
-            for (final String file : filesCurrent) {
-                if (file.contains(relFilePath)) {
-                    f2 = new File(currentDir.toFile(), file);
-                }
-            }
+            final String source1 = findSource(previousSources, relFilePath);
+            final String source2 = findSource(currentSources, relFilePath);
 
-            if (f1 != null && f2 != null) {
+            if (source1 != null && source2 != null) {
                 final DocPrinter print = new DocToPlainText();
                 try {
-                    // *** read in files ***
-                    final String source1 = FileReader.readFile(f1);
-                    final String source2 = FileReader.readFile(f2);
-
                     // *** parse them, create CFGs ***
                     final EclipseCFGParser parser = new EclipseCFGParser();
                     final List<ClassDeclaration> classes1 = parser.parse(source1);
@@ -102,7 +79,7 @@ public class DeltaDocTechnique {
                         }
                     }
                 } catch (final Exception e) {
-                    e.printStackTrace();
+                    Logger.error("DeltaDoc failed for " + type, e);
                 }
 
             }
@@ -110,4 +87,14 @@ public class DeltaDocTechnique {
 
         return text;
     }
+
+    private static String findSource(Map<String, String> sources, String relFilePath) {
+        String ret = null;
+        for (final Entry<String, String> e : sources.entrySet()) {
+            if (e.getKey().contains(relFilePath)) {
+                ret = e.getValue();
+            }
+        }
+        return ret;
+    }
 }
@@ -2,7 +2,7 @@ package de.setsoftware.reviewtool.summary;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Set;
+import java.util.List;
 
 import de.setsoftware.reviewtool.summary.ChangePart.Kind;
 import refdiff.core.api.RefactoringType;
@@ -17,30 +17,37 @@ import refdiff.core.rm2.model.refactoring.SDRefactoring;
  */
 public class RefDiffTechnique {
     /**
-     * Detect refactorings summary using RefDiff and remove recognized refactorings
-     * from default model.
+     * Detect refactorings in the files of the given parsed commit using RefDiff. Only works on
+     * the data of the commit, so that it can be done for several commits in parallel.
      */
-    public static String process(Path previousDir, Path currentDir, Set<Path> previousDirFiles,
-            Set<Path> currentDirFiles, ChangePartsModel model) {
+    public static List<SDRefactoring> detectRefactorings(CommitParser parser) {
         final ArrayList<String> filesBefore = new ArrayList<>();
         final ArrayList<String> filesCurrent = new ArrayList<>();
 
-        for (final Path file : previousDirFiles) {
-            filesBefore.add(previousDir.relativize(file).toString());
+        for (final Path file : parser.previousDirFiles) {
+            filesBefore.add(parser.previousDir.relativize(file).toString());
         }
 
-        for (final Path file : currentDirFiles) {
-            filesCurrent.add(currentDir.relativize(file).toString());
+        for (final Path file : parser.currentDirFiles) {
+            filesCurrent.add(parser.currentDir.relativize(file).toString());
         }
 
         final RefDiffConfigImpl config = new RefDiffConfigImpl();
         final SDModelBuilder builder = new SDModelBuilder(config);
-        builder.analyzeAfter(currentDir.toFile(), filesCurrent);
-        builder.analyzeBefore(previousDir.toFile(), filesBefore);
+        builder.analyzeAfter(parser.currentDir.toFile(), filesCurrent);
+        builder.analyzeBefore(parser.previousDir.toFile(), filesBefore);
         final SDModel sdModel = builder.buildModel();
 
+        return new ArrayList<>(sdModel.getRefactorings());
+    }
+
+    /**
+     * Create refactorings summary for the detected refactorings and remove recognized refactorings
+     * from default model.
+     */
+    public static String process(List<SDRefactoring> refactorings, ChangePartsModel model) {
         final StringBuilder text = new StringBuilder("");
-        for (final SDRefactoring ref : sdModel.getRefactorings()) {
+        for (final SDRefactoring ref : refactorings) {
             if (ref.getRefactoringType() == RefactoringType.MOVE_CLASS
                     || ref.getRefactoringType() == RefactoringType.MOVE_RENAME_CLASS
                     || ref.getRefactoringType() == RefactoringType.RENAME_CLASS) {
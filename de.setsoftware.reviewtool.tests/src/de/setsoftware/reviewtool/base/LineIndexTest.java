@@ -0,0 +1,79 @@
+package de.setsoftware.reviewtool.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link LineIndex}.
+ */
+public class LineIndexTest {
+
+    @Test
+    public void testEmpty() {
+        final LineIndex index = LineIndex.create("");
+        assertEquals(0, index.getNumberOfLines());
+        assertEquals(0, index.getLineStartOffset(0));
+        assertTrue(index.endsWithLineBreak());
+        assertEquals("", index.getLinesNormalized(0, 1));
+    }
+
+    @Test
+    public void testLinesWithDifferentLineBreaks() {
+        final LineIndex index = LineIndex.create("a\nbc\r\n\rdef");
+        assertEquals(4, index.getNumberOfLines());
+        assertEquals("a", index.getLine(0));
+        assertEquals("bc", index.getLine(1));
+        assertEquals("", index.getLine(2));
+        assertEquals("def", index.getLine(3));
+        assertEquals(0, index.getLineStartOffset(0));
+        assertEquals(2, index.getLineStartOffset(1));
+        assertEquals(6, index.getLineStartOffset(2));
+        assertEquals(7, index.getLineStartOffset(3));
+        assertEquals(10, index.getLineStartOffset(4));
+        assertEquals(2, index.getLineLength(1));
+        assertFalse(index.endsWithLineBreak());
+    }
+
+    @Test
+    public void testTrailingLineBreakDoesNotStartLine() {
+        final LineIndex index = LineIndex.create("a\r\nb\r\n");
+        assertEquals(2, index.getNumberOfLines());
+        assertEquals("b", index.getLine(1));
+        assertEquals(6, index.getLineStartOffset(2));
+        assertTrue(index.endsWithLineBreak());
+    }
+
+    @Test
+    public void testGetLinesNormalized() {
+        final LineIndex index = LineIndex.create("a\r\nb\rc\nd");
+        assertEquals("a\nb\nc\nd\n", index.getLinesNormalized(0, 4));
+        assertEquals("b\nc\n", index.getLinesNormalized(1, 3));
+        assertEquals("", index.getLinesNormalized(2, 2));
+        assertEquals("c\nd\n", index.getLinesNormalized(2, 10));
+        assertEquals("a\n", index.getLinesNormalized(-1, 1));
+    }
+
+    @Test
+    public void testManyLines() {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append("line ").append(i).append('\n');
+        }
+        final LineIndex index = LineIndex.create(text.toString());
+        assertEquals(1000, index.getNumberOfLines());
+        assertEquals("line 999", index.getLine(999));
+        assertEquals(text.indexOf("line 500"), index.getLineStartOffset(500));
+    }
+
+    @Test
+    public void testLineSequenceFromIndex() throws Exception {
+        final LineSequence fromIndex = new LineSequence(LineIndex.create("a\r\nbc\nd"));
+        final LineSequence fromBytes = new LineSequence("a\r\nbc\nd".getBytes("UTF-8"), "UTF-8");
+        assertEquals(3, fromIndex.getNumberOfLines());
+        assertEquals(fromBytes.getLinesConcatenated(0, 3), fromIndex.getLinesConcatenated(0, 3));
+        assertEquals(5, fromIndex.getStartPositionOfLine(2));
+    }
+}
@@ -0,0 +1,144 @@
+package de.setsoftware.reviewtool.base;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link LineSequence}.
+ */
+public class LineSequenceTest {
+
+    /**
+     * The former implementation of {@link LineSequence}, based on boxed integers. Used as a test oracle.
+     */
+    private static final class BoxedLineSequence {
+
+        private final List<String> lines = new ArrayList<>();
+        private final Map<Integer, Integer> lineOffsets = new HashMap<>();
+
+        BoxedLineSequence() {
+            this.lineOffsets.put(0, 0);
+        }
+
+        BoxedLineSequence(byte[] contents, String charset) throws IOException {
+            this();
+            final BufferedReader r = new BufferedReader(
+                    new InputStreamReader(new ByteArrayInputStream(contents), charset));
+            String line;
+            while ((line = r.readLine()) != null) {
+                this.addLine(line + '\n');
+            }
+        }
+
+        void addLine(final String line) {
+            this.lines.add(line);
+            this.lineOffsets.put(this.lines.size(), this.lineOffsets.get(this.lines.size() - 1) + line.length());
+        }
+
+        String[] getLines(final int fromIndex, final int toIndex) {
+            return this.lines.subList(fromIndex, toIndex).toArray(new String[] { });
+        }
+
+        String getLinesConcatenated(final int fromIndex, final int toIndex) {
+            final StringBuilder builder = new StringBuilder();
+            for (final String s : this.getLines(fromIndex, toIndex)) {
+                builder.append(s);
+            }
+            return builder.toString();
+        }
+    }
+
+    private static String randomText(final Random random) {
+        final String[] pieces = {"a", "bc", " ", "\n", "\r\n", "\r", "ä", "xyz"};
+        final StringBuilder ret = new StringBuilder();
+        final int count = random.nextInt(60);
+        for (int i = 0; i < count; i++) {
+            ret.append(pieces[random.nextInt(pieces.length)]);
+        }
+        return ret.toString();
+    }
+
+    private static void assertSameContent(final BoxedLineSequence expected, final LineSequence actual) {
+        final int lineCount = expected.lines.size();
+        assertEquals(lineCount, actual.getNumberOfLines());
+        for (int i = 0; i < lineCount; i++) {
+            assertEquals(expected.lines.get(i), actual.getLine(i));
+        }
+        for (int i = 0; i <= lineCount; i++) {
+            assertEquals((int) expected.lineOffsets.get(i), actual.getStartPositionOfLine(i));
+            for (int j = i; j <= lineCount; j++) {
+                assertArrayEquals(expected.getLines(i, j), actual.getLines(i, j));
+                assertEquals(expected.getLinesConcatenated(i, j), actual.getLinesConcatenated(i, j));
+            }
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        final LineSequence s = new LineSequence();
+        assertEquals(0, s.getNumberOfLines());
+        assertEquals(0, s.getStartPositionOfLine(0));
+        assertEquals("", s.getLinesConcatenated(0, 0));
+    }
+
+    @Test
+    public void testAddLine() {
+        final LineSequence s = new LineSequence();
+        s.addLine("abc\n");
+        s.addLine("\n");
+        s.addLine("de");
+        assertEquals(3, s.getNumberOfLines());
+        assertEquals(0, s.getStartPositionOfLine(0));
+        assertEquals(4, s.getStartPositionOfLine(1));
+        assertEquals(5, s.getStartPositionOfLine(2));
+        assertEquals(7, s.getStartPositionOfLine(3));
+        assertEquals("\nde", s.getLinesConcatenated(1, 3));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testStartPositionOfInvalidLine() {
+        final LineSequence s = new LineSequence();
+        s.addLine("abc\n");
+        s.getStartPositionOfLine(2);
+    }
+
+    @Test
+    public void testAgreesWithBoxedImplementationWhenLoadingBytes() throws Exception {
+        final Random random = new Random(123);
+        for (int round = 0; round < 300; round++) {
+            final String text = randomText(random);
+            for (final String charset : new String[] {"UTF-8", "ISO-8859-1"}) {
+                final byte[] bytes = text.getBytes(charset);
+                assertSameContent(new BoxedLineSequence(bytes, charset), new LineSequence(bytes, charset));
+            }
+        }
+    }
+
+    @Test
+    public void testAgreesWithBoxedImplementationWhenAddingLines() {
+        final Random random = new Random(456);
+        for (int round = 0; round < 100; round++) {
+            final BoxedLineSequence expected = new BoxedLineSequence();
+            final LineSequence actual = new LineSequence();
+            final int count = random.nextInt(50);
+            for (int i = 0; i < count; i++) {
+                final String line = randomText(random);
+                expected.addLine(line);
+                actual.addLine(line);
+            }
+            assertSameContent(expected, actual);
+        }
+    }
+}
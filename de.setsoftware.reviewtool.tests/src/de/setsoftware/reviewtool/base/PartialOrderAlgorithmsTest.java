@@ -9,7 +9,10 @@ import static org.junit.Assert.assertThat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
 
 import org.junit.Test;
 
@@ -53,6 +56,33 @@ public class PartialOrderAlgorithmsTest {
         }
     }
 
+    /**
+     * A sort key compatible to the divisor ordering: Powers of two are keyed by their exponent,
+     * all other numbers have no key.
+     */
+    private static final Function<MyNumber, Comparable<?>> POWER_OF_TWO_KEY = (final MyNumber n) ->
+        Long.bitCount(n.value) == 1 ? Long.numberOfTrailingZeros(n.value) : null;
+
+    private List<MyNumber> numbers(final long... values) {
+        final List<MyNumber> ret = new ArrayList<>();
+        for (final long value : values) {
+            ret.add(new MyNumber(value));
+        }
+        return ret;
+    }
+
+    private static void assertIsTopologicallySorted(final List<MyNumber> expectedElements, final List<MyNumber> actual) {
+        assertThat(actual.size(), is(equalTo(expectedElements.size())));
+        assertThat(new HashSet<>(actual), is(equalTo(new HashSet<>(expectedElements))));
+        for (int i = 0; i < actual.size(); i++) {
+            for (int j = i + 1; j < actual.size(); j++) {
+                final MyNumber a = actual.get(i);
+                final MyNumber b = actual.get(j);
+                assertThat(a + " before " + b, b.le(a) && !a.le(b), is(false));
+            }
+        }
+    }
+
     @Test
     public void testGetSomeMinimum() {
         final MyNumber n1 = new MyNumber(1L);
@@ -213,4 +243,64 @@ public class PartialOrderAlgorithmsTest {
                 is(equalTo(Arrays.asList(n2, n4, n3))),
                 is(equalTo(Arrays.asList(n3, n2, n4)))));
     }
+
+    @Test
+    public void testTopoSortWithKeyOnlyKeyedElements() {
+        final List<MyNumber> numbers = this.numbers(8, 2, 16, 1, 4);
+        assertThat(PartialOrderAlgorithms.topoSort(numbers, POWER_OF_TWO_KEY),
+                is(equalTo(this.numbers(1, 2, 4, 8, 16))));
+    }
+
+    @Test
+    public void testTopoSortWithKeyMixedElements() {
+        final List<MyNumber> numbers = this.numbers(12, 8, 3, 2, 5, 1, 4, 6);
+        final List<MyNumber> sorted = PartialOrderAlgorithms.topoSort(numbers, POWER_OF_TWO_KEY);
+        assertIsTopologicallySorted(numbers, sorted);
+        assertThat(sorted.get(0), is(equalTo(new MyNumber(1))));
+    }
+
+    @Test
+    public void testTopoSortWithKeyIsStableForIncomparableElements() {
+        final List<MyNumber> numbers = this.numbers(7, 5, 2, 3);
+        assertThat(PartialOrderAlgorithms.topoSort(numbers, POWER_OF_TWO_KEY),
+                is(equalTo(numbers)));
+    }
+
+    @Test
+    public void testTopoSortWithKeyEmpty() {
+        assertThat(PartialOrderAlgorithms.topoSort(Collections.<MyNumber>emptyList(), POWER_OF_TWO_KEY),
+                is(equalTo(Collections.<MyNumber>emptyList())));
+    }
+
+    @Test
+    public void testGetAllMaximalElementsWithKey() {
+        assertThat(PartialOrderAlgorithms.getAllMaximalElements(this.numbers(1, 2, 4, 8), POWER_OF_TWO_KEY),
+                is(equalTo(this.numbers(8))));
+        assertThat(new HashSet<>(PartialOrderAlgorithms.getAllMaximalElements(
+                    this.numbers(1, 2, 4, 3, 6), POWER_OF_TWO_KEY)),
+                is(equalTo(new HashSet<>(this.numbers(4, 6)))));
+        assertThat(PartialOrderAlgorithms.getAllMaximalElements(
+                    Collections.<MyNumber>emptyList(), POWER_OF_TWO_KEY),
+                is(equalTo(Collections.<MyNumber>emptyList())));
+    }
+
+    @Test
+    public void testKeyedAlgorithmsAgreeWithGenericOnes() {
+        final Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            final List<MyNumber> numbers = new ArrayList<>();
+            final int count = random.nextInt(20);
+            for (int i = 0; i < count; i++) {
+                final long value = random.nextBoolean() ? 1L << random.nextInt(8) : 1 + random.nextInt(100);
+                if (!numbers.contains(new MyNumber(value))) {
+                    numbers.add(new MyNumber(value));
+                }
+            }
+
+            assertIsTopologicallySorted(numbers, PartialOrderAlgorithms.topoSort(numbers, POWER_OF_TWO_KEY));
+            assertThat(new HashSet<>(PartialOrderAlgorithms.getAllMaximalElements(numbers, POWER_OF_TWO_KEY)),
+                    is(equalTo(new HashSet<>(PartialOrderAlgorithms.getAllMaximalElements(
+                            PartialOrderAlgorithms.topoSort(numbers))))));
+        }
+    }
 }
@@ -0,0 +1,37 @@
+package de.setsoftware.reviewtool.base;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link Util}.
+ */
+public class UtilTest {
+
+    private static InputStream slowStream(final byte[] data) {
+        //returns at most three bytes per read, like a stream that is not fully buffered
+        return new FilterInputStream(new ByteArrayInputStream(data)) {
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                return super.read(b, off, Math.min(len, 3));
+            }
+        };
+    }
+
+    @Test
+    public void testReadPrefix() throws Exception {
+        final byte[] data = "0123456789".getBytes("UTF-8");
+        assertThat(Util.readPrefix(slowStream(data), 4), is(equalTo("0123".getBytes("UTF-8"))));
+        assertThat(Util.readPrefix(slowStream(data), 10), is(equalTo(data)));
+        assertThat(Util.readPrefix(slowStream(data), 128), is(equalTo(data)));
+        assertThat(Util.readPrefix(slowStream(new byte[0]), 128), is(equalTo(new byte[0])));
+    }
+}
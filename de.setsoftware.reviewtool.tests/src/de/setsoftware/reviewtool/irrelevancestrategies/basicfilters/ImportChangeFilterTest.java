@@ -1,8 +1,14 @@
 package de.setsoftware.reviewtool.irrelevancestrategies.basicfilters;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+
 import org.junit.Test;
 
 import de.setsoftware.reviewtool.model.api.FileChangeType;
@@ -76,4 +82,45 @@ public class ImportChangeFilterTest {
                 "\n")));
     }
 
+    /**
+     * The former line reader based implementation, used as oracle for the char scanner.
+     */
+    private static boolean isOnlyImportsWithReader(String content) throws IOException {
+        final BufferedReader r = new BufferedReader(new StringReader(content));
+        String line;
+        while ((line = r.readLine()) != null) {
+            final String trimmed = line.trim();
+            if (!(trimmed.isEmpty() || trimmed.startsWith("import "))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String randomContent(Random random) {
+        final String[] parts = {
+            "import ", "import", "imports ", "x", "a.b.C;", " ", "\t", "\n", "\r", "\r\n", "\u00A0", "\f",
+        };
+        final StringBuilder ret = new StringBuilder();
+        final int count = random.nextInt(10);
+        for (int i = 0; i < count; i++) {
+            ret.append(parts[random.nextInt(parts.length)]);
+        }
+        return ret.toString();
+    }
+
+    @Test
+    public void testEquivalentToReaderBasedImplementation() throws Exception {
+        final Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            final String content = randomContent(random);
+            assertEquals(content,
+                    isOnlyImportsWithReader(content),
+                    ImportChangeFilter.isOnlyImports(content));
+            assertEquals(content,
+                    content.trim().isEmpty(),
+                    ImportChangeFilter.isOnlyWhitespace(content));
+        }
+    }
+
 }
@@ -1,8 +1,11 @@
 package de.setsoftware.reviewtool.irrelevancestrategies.basicfilters;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Random;
+
 import org.junit.Test;
 
 import de.setsoftware.reviewtool.model.api.FileChangeType;
@@ -88,4 +91,48 @@ public class WhitespaceChangeFilterTest {
                 "{\n  doStuff(\n    1,\n    2,\n    3);\n}")));
     }
 
+    /**
+     * The former regex based implementation, used as oracle for the char scanner.
+     */
+    private static boolean equalsIgnoringWhitespaceWithRegex(String s1, String s2) {
+        return s1.replaceAll("[ \r\n\t]+", "").equals(s2.replaceAll("[ \r\n\t]+", ""));
+    }
+
+    private static String randomString(Random random, String alphabet, int maxLength) {
+        final StringBuilder ret = new StringBuilder();
+        final int length = random.nextInt(maxLength);
+        for (int i = 0; i < length; i++) {
+            ret.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return ret.toString();
+    }
+
+    private static String insertRandomWhitespace(Random random, String s) {
+        final StringBuilder ret = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            if (random.nextInt(3) == 0) {
+                ret.append(" \t\r\n".charAt(random.nextInt(4)));
+            }
+            if (s.charAt(i) != ' ' || random.nextBoolean()) {
+                ret.append(s.charAt(i));
+            }
+        }
+        return ret.toString();
+    }
+
+    @Test
+    public void testEquivalentToRegexBasedImplementation() {
+        final Random random = new Random(42);
+        final String alphabet = "ab; \t\r\n\u00A0\f";
+        for (int i = 0; i < 20000; i++) {
+            final String s1 = randomString(random, alphabet, 12);
+            final String s2 = random.nextBoolean()
+                    ? insertRandomWhitespace(random, s1)
+                    : randomString(random, alphabet, 12);
+            assertEquals(s1 + "|" + s2,
+                    equalsIgnoringWhitespaceWithRegex(s1, s2),
+                    WhitespaceChangeFilter.equalsIgnoringWhitespace(s1, s2));
+        }
+    }
+
 }
@@ -1,6 +1,12 @@
 package de.setsoftware.reviewtool.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.junit.Test;
 
@@ -8,8 +14,10 @@ import de.setsoftware.reviewtool.model.remarks.DummyMarker;
 import de.setsoftware.reviewtool.model.remarks.FilePosition;
 import de.setsoftware.reviewtool.model.remarks.GlobalPosition;
 import de.setsoftware.reviewtool.model.remarks.IReviewMarker;
+import de.setsoftware.reviewtool.model.remarks.Position;
 import de.setsoftware.reviewtool.model.remarks.RemarkType;
 import de.setsoftware.reviewtool.model.remarks.ResolutionType;
+import de.setsoftware.reviewtool.model.remarks.ReviewData;
 import de.setsoftware.reviewtool.model.remarks.ReviewRemark;
 
 /**
@@ -324,4 +332,187 @@ public class RemarkSaveTest {
                 p.getCurrentReviewData());
     }
 
+    @Test
+    public void testWritesAreCoalesced() throws Exception {
+        final InMemoryReviewDataCache cache = new InMemoryReviewDataCache();
+        final ReviewStateManager p = new ReviewStateManager(cache, new PersistenceStub(), stubTicketChooser());
+        final List<Runnable> scheduledWrites = new ArrayList<>();
+        p.setWriteExecutor(scheduledWrites::add);
+        final List<String> savedData = new ArrayList<>();
+        final IReviewDataSaveListener listener = savedData::add;
+        p.addSaveListener(listener);
+
+        p.saveRemark(ReviewRemark.create(newMarker(), "TB", global(), "Anm A", RemarkType.MUST_FIX));
+        p.saveRemark(ReviewRemark.create(newMarker(), "TB", global(), "Anm B", RemarkType.CAN_FIX));
+        final ReviewRemark r3 = ReviewRemark.create(newMarker(), "TB", global(), "Anm C", RemarkType.MUST_FIX);
+        p.saveRemark(r3);
+        p.deleteRemark(r3);
+
+        assertEquals(1, scheduledWrites.size());
+        assertNull(cache.getLocalReviewData("TEST-1234"));
+        assertEquals(0, savedData.size());
+
+        scheduledWrites.get(0).run();
+        final String expected = "Review 1:\n"
+                + "* muss\n"
+                + "*# Anm A\n"
+                + "* kann\n"
+                + "*# Anm B\n";
+        assertEquals(expected, cache.getLocalReviewData("TEST-1234"));
+        assertEquals(1, savedData.size());
+        assertEquals(expected, savedData.get(0));
+
+        p.saveRemark(ReviewRemark.create(newMarker(), "TB", global(), "Anm D", RemarkType.CAN_FIX));
+        assertEquals(2, scheduledWrites.size());
+    }
+
+    @Test
+    public void testPendingWriteIsDoneBeforeRead() throws Exception {
+        final ReviewStateManager p = createPersistence();
+        final List<Runnable> scheduledWrites = new ArrayList<>();
+        p.setWriteExecutor(scheduledWrites::add);
+
+        p.saveRemark(ReviewRemark.create(newMarker(), "TB", global(), "Anm A", RemarkType.MUST_FIX));
+
+        assertEquals(
+                "Review 1:\n"
+                        + "* muss\n"
+                        + "*# Anm A\n",
+                        p.getCurrentReviewData());
+        //the scheduled write has nothing left to do
+        scheduledWrites.get(0).run();
+    }
+
+    /**
+     * Saves a remark for ticket TEST-1 with a delayed write, then lets TEST-1 vanish so that the
+     * ticket chooser is asked again and returns the given ticket. Returns the local review data
+     * after the delayed write has been run.
+     */
+    private static InMemoryReviewDataCache switchTicketWithPendingChanges(String newTicket) {
+        final InMemoryReviewDataCache cache = new InMemoryReviewDataCache();
+        final Set<String> deletedTickets = new HashSet<>();
+        final PersistenceStub persistence = new PersistenceStub() {
+            @Override
+            public ITicketData loadTicket(String ticketKey) {
+                return deletedTickets.contains(ticketKey) ? null : super.loadTicket(ticketKey);
+            }
+        };
+        final String[] chosenTicket = new String[] {"TEST-1"};
+        final StubUi syntaxFixer = new StubUi(null);
+        final IUserInteraction ui = new IUserInteraction() {
+            @Override
+            public ITicketChooser getTicketChooser() {
+                return (ITicketConnector c, String ticketKeyDefault, boolean forReview) -> chosenTicket[0];
+            }
+
+            @Override
+            public ISyntaxFixer getSyntaxFixer() {
+                return syntaxFixer;
+            }
+        };
+        final ReviewStateManager p = new ReviewStateManager(cache, persistence, ui);
+        final List<Runnable> scheduledWrites = new ArrayList<>();
+        p.setWriteExecutor(scheduledWrites::add);
+
+        p.saveRemark(ReviewRemark.create(newMarker(), "TB", global(), "Anm A", RemarkType.MUST_FIX));
+        assertNull(cache.getLocalReviewData("TEST-1"));
+
+        deletedTickets.add("TEST-1");
+        chosenTicket[0] = newTicket;
+        assertEquals(newTicket != null, p.selectTicket(true));
+        assertEquals(newTicket, p.getTicketKey());
+        scheduledWrites.get(0).run();
+        return cache;
+    }
+
+    @Test
+    public void testPendingChangesAreWrittenForTheirTicketWhenTicketIsSwitched() throws Exception {
+        final InMemoryReviewDataCache cache = switchTicketWithPendingChanges("TEST-2");
+
+        assertEquals(
+                "Review 1:\n"
+                        + "* muss\n"
+                        + "*# Anm A\n",
+                        cache.getLocalReviewData("TEST-1"));
+        assertNull(cache.getLocalReviewData("TEST-2"));
+    }
+
+    @Test
+    public void testPendingChangesAreWrittenForTheirTicketWhenNoTicketIsChosen() throws Exception {
+        final InMemoryReviewDataCache cache = switchTicketWithPendingChanges(null);
+
+        assertEquals(
+                "Review 1:\n"
+                        + "* muss\n"
+                        + "*# Anm A\n",
+                        cache.getLocalReviewData("TEST-1"));
+        assertNull(cache.getLocalReviewData(null));
+    }
+
+    @Test
+    public void testLaterChangesToSavedRemarkAreIgnoredUntilSavedAgain() throws Exception {
+        final ReviewStateManager p = createPersistence();
+        final ReviewRemark r1 = ReviewRemark.create(newMarker(), "TB", global(), "Anm A", RemarkType.MUST_FIX);
+        p.saveRemark(r1);
+        r1.addComment("XY", "Antwort");
+
+        assertEquals(
+                "Review 1:\n"
+                        + "* muss\n"
+                        + "*# Anm A\n",
+                        p.getCurrentReviewData());
+
+        p.saveRemark(r1);
+        assertEquals(
+                "Review 1:\n"
+                        + "* muss\n"
+                        + "*# Anm A\n"
+                        + "*#* XY: Antwort\n",
+                        p.getCurrentReviewData());
+    }
+
+    /**
+     * Applies the change to the given review data the way it was done before the model was kept in memory,
+     * i.e. by parsing and serializing everything.
+     */
+    private static String saveByReparsing(ReviewStateManager p, String oldData, ReviewRemark remark, boolean delete) {
+        final ReviewData d = ReviewData.parse(p.getReviewersForRounds(), DummyMarker.FACTORY, oldData);
+        if (delete) {
+            d.deleteRemark(remark);
+        } else {
+            d.merge(remark.copy(), p.getCurrentRound());
+        }
+        return d.serialize();
+    }
+
+    @Test
+    public void testIncrementalSerializationMatchesFullSerialization() throws Exception {
+        final PersistenceStub stubPersistence = new PersistenceStub();
+        final ReviewStateManager p = new ReviewStateManager(
+                new InMemoryReviewDataCache(), stubPersistence, stubTicketChooser());
+        final List<ReviewRemark> saved = new ArrayList<>();
+        String expected = "";
+        for (int round = 1; round <= 4; round++) {
+            stubPersistence.setReviewRound(round);
+            for (int i = 0; i < 10; i++) {
+                final Position pos = i % 3 == 0 ? global() : new FilePosition("Datei" + (i % 4));
+                final ReviewRemark r = ReviewRemark.create(
+                        newMarker(), "TB", pos, "Anm " + round + "." + i, RemarkType.values()[i % 5]);
+                p.saveRemark(r);
+                expected = saveByReparsing(p, expected, r, false);
+                saved.add(r);
+            }
+            final ReviewRemark old = saved.get(saved.size() / 2);
+            old.addComment("XY", "Antwort in Runde " + round);
+            old.setResolution(ResolutionType.QUESTION);
+            p.saveRemark(old);
+            expected = saveByReparsing(p, expected, old, false);
+            final ReviewRemark deleted = saved.remove(round);
+            p.deleteRemark(deleted);
+            expected = saveByReparsing(p, expected, deleted, true);
+
+            assertEquals(expected, p.getCurrentReviewData());
+        }
+    }
+
 }
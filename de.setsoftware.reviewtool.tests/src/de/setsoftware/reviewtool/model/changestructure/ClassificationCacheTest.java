@@ -0,0 +1,257 @@
+package de.setsoftware.reviewtool.model.changestructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.setsoftware.reviewtool.base.ComparableWrapper;
+import de.setsoftware.reviewtool.base.Logger;
+import de.setsoftware.reviewtool.model.api.FileChangeType;
+import de.setsoftware.reviewtool.model.api.IChange;
+import de.setsoftware.reviewtool.model.api.IClassification;
+import de.setsoftware.reviewtool.model.api.ICommit;
+import de.setsoftware.reviewtool.model.api.IFragment;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+
+/**
+ * Tests for {@link ClassificationCache}.
+ */
+public class ClassificationCacheTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    /**
+     * Classifier that marks changes containing a certain text and counts its invocations.
+     */
+    private static final class CountingClassifier extends IIrrelevanceDetermination {
+        private final String text;
+        private int count;
+
+        public CountingClassifier(int number, String text) {
+            super(number);
+            this.text = text;
+        }
+
+        @Override
+        public String getDescription() {
+            return "contains " + this.text;
+        }
+
+        @Override
+        protected String getConfigurationKey() {
+            return this.text;
+        }
+
+        @Override
+        public boolean isIrrelevant(ICommit commit, IChange change) {
+            this.count++;
+            return ((TextualChangeHunk) change).getToFragment().getContentFullLines().contains(this.text);
+        }
+    }
+
+    private static IRevisionedFile file(final String name, final int revision) {
+        return ChangestructureFactory.createFileInRevision(
+                name, ChangestructureFactory.createRepoRevision(ComparableWrapper.wrap(revision), StubRepo.INSTANCE));
+    }
+
+    private static IFragment fragment(IRevisionedFile file, String content) {
+        return Fragment.createWithContent(
+                file,
+                ChangestructureFactory.createPositionInText(1, 1),
+                ChangestructureFactory.createPositionInText(2, 1),
+                content);
+    }
+
+    private static IChange change(String path, String from, String to) {
+        return ChangestructureFactory.createTextualChangeHunk(
+                StubWorkingCopy.INSTANCE,
+                FileChangeType.OTHER,
+                fragment(file(path, 1), from),
+                fragment(file(path, 2), to));
+    }
+
+    private static ICommit commit(IChange... changes) {
+        return ChangestructureFactory.createCommit(
+                StubWorkingCopy.INSTANCE,
+                "message",
+                Arrays.asList(changes),
+                ChangestructureFactory.createRepoRevision(ComparableWrapper.wrap(2), StubRepo.INSTANCE),
+                new Date(0));
+    }
+
+    /**
+     * Classifies the given change like {@link ToursInReview} does it.
+     */
+    private static IClassification[] classify(
+            ClassificationCache cache, List<? extends IChangeClassifier> classifiers, ICommit commit, IChange change) {
+        final ClassificationCache.Results results = cache.startRun(classifiers).get(commit, change);
+        IChange ret = change;
+        for (int i = 0; i < classifiers.size(); i++) {
+            final IClassification cl;
+            if (results.isCached(i)) {
+                cl = results.get(i);
+            } else {
+                cl = classifiers.get(i).classify(commit, ret);
+                results.put(i, cl);
+            }
+            if (cl != null) {
+                ret = ret.addClassification(cl);
+            }
+        }
+        return ret.getClassification();
+    }
+
+    @Before
+    public void setUp() {
+        Logger.setLogger(new Logger() {
+            @Override
+            protected void log(int status, String message, Throwable exception) {
+            }
+
+            @Override
+            protected void log(int status, String message) {
+            }
+        });
+    }
+
+    @Test
+    public void testResultsAreReusedForSameChange() {
+        final ClassificationCache cache = new ClassificationCache(null);
+        final CountingClassifier classifier = new CountingClassifier(1, "x");
+        final List<CountingClassifier> classifiers = Collections.singletonList(classifier);
+
+        final IChange c1 = change("/a.java", "a", "x");
+        final IChange c2 = change("/b.java", "a", "b");
+        final ICommit commit = commit(c1, c2);
+        final IClassification[] first = classify(cache, classifiers, commit, c1);
+        assertEquals(0, classify(cache, classifiers, commit, c2).length);
+        assertEquals(2, classifier.count);
+
+        final ICommit reloadedCommit = commit(change("/a.java", "a", "x"), change("/b.java", "a", "b"));
+        final IClassification[] second =
+                classify(cache, classifiers, reloadedCommit, reloadedCommit.getChanges().get(0));
+        assertEquals(0, classify(cache, classifiers, reloadedCommit, reloadedCommit.getChanges().get(1)).length);
+        assertEquals(2, classifier.count);
+        assertEquals(Arrays.asList(first), Arrays.asList(second));
+        assertEquals(1, second[0].getNumber());
+        assertTrue(second[0].mergeAsAnd());
+    }
+
+    @Test
+    public void testChangedContentIsClassifiedAnew() {
+        final ClassificationCache cache = new ClassificationCache(null);
+        final CountingClassifier classifier = new CountingClassifier(1, "x");
+        final List<CountingClassifier> classifiers = Collections.singletonList(classifier);
+
+        final IChange c1 = change("/a.java", "a", "x");
+        classify(cache, classifiers, commit(c1), c1);
+        final IChange c2 = change("/a.java", "a", "y");
+        assertEquals(0, classify(cache, classifiers, commit(c2), c2).length);
+        assertEquals(2, classifier.count);
+    }
+
+    @Test
+    public void testChangedConfigurationInvalidatesResults() {
+        final ClassificationCache cache = new ClassificationCache(null);
+        final IChange c = change("/a.java", "a", "x");
+        final ICommit commit = commit(c);
+
+        final CountingClassifier x = new CountingClassifier(1, "x");
+        assertEquals(1, classify(cache, Collections.singletonList(x), commit, c).length);
+        final CountingClassifier y = new CountingClassifier(1, "y");
+        assertEquals(0, classify(cache, Collections.singletonList(y), commit, c).length);
+        assertEquals(1, y.count);
+        final CountingClassifier x2 = new CountingClassifier(1, "x");
+        assertEquals(1, classify(cache, Arrays.asList(x2, y), commit, c).length);
+        assertEquals(1, x2.count);
+    }
+
+    @Test
+    public void testClassifierWithoutKeyIsAlwaysRun() {
+        final ClassificationCache cache = new ClassificationCache(null);
+        final int[] count = new int[1];
+        final IChangeClassifier uncached = new IChangeClassifier() {
+            @Override
+            public IClassification classify(ICommit commit, IChange change) {
+                count[0]++;
+                return null;
+            }
+
+            @Override
+            public void clearCaches() {
+            }
+        };
+        final IChange c = change("/a.java", "a", "x");
+        final ICommit commit = commit(c);
+        classify(cache, Collections.singletonList(uncached), commit, c);
+        classify(cache, Collections.singletonList(uncached), commit, c);
+        assertEquals(2, count[0]);
+    }
+
+    @Test
+    public void testStoreAndLoad() throws IOException {
+        final File file = new File(this.tempFolder.getRoot(), "cache");
+        final IChange c = change("/a.java", "a", "x");
+        final ICommit commit = commit(c);
+
+        final ClassificationCache cache1 = new ClassificationCache(file);
+        classify(cache1, Collections.singletonList(new CountingClassifier(3, "x")), commit, c);
+        cache1.storeIfChanged();
+        assertTrue(file.exists());
+
+        final ClassificationCache cache2 = new ClassificationCache(file);
+        final CountingClassifier classifier = new CountingClassifier(3, "x");
+        final IClassification[] result = classify(cache2, Collections.singletonList(classifier), commit, c);
+        assertEquals(0, classifier.count);
+        assertEquals(1, result.length);
+        assertEquals("contains x", result[0].getName());
+        assertEquals(3, result[0].getNumber());
+    }
+
+    @Test
+    public void testCorruptFileIsIgnored() throws IOException {
+        final File file = this.tempFolder.newFile("cache");
+        final IChange c = change("/a.java", "a", "x");
+
+        final ClassificationCache cache = new ClassificationCache(file);
+        final CountingClassifier classifier = new CountingClassifier(1, "x");
+        assertEquals(1, classify(cache, Collections.singletonList(classifier), commit(c), c).length);
+        assertEquals(1, classifier.count);
+    }
+
+    @Test
+    public void testOnlyMostRecentlyUsedEntriesAreKept() {
+        final ClassificationCache cache = new ClassificationCache(null, 2);
+        final CountingClassifier classifier = new CountingClassifier(1, "x");
+        final List<CountingClassifier> classifiers = Collections.singletonList(classifier);
+        final IChange c1 = change("/a.java", "a", "1");
+        final IChange c2 = change("/a.java", "a", "2");
+        final IChange c3 = change("/a.java", "a", "3");
+        final ICommit commit = commit(c1, c2, c3);
+
+        classify(cache, classifiers, commit, c1);
+        classify(cache, classifiers, commit, c2);
+        classify(cache, classifiers, commit, c1);
+        classify(cache, classifiers, commit, c3);
+        assertEquals(2, cache.size());
+        assertEquals(3, classifier.count);
+
+        classify(cache, classifiers, commit, c1);
+        assertEquals(3, classifier.count);
+        classify(cache, classifiers, commit, c2);
+        assertEquals(4, classifier.count);
+        assertEquals(2, cache.size());
+    }
+}
@@ -5,14 +5,18 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
 import de.setsoftware.reviewtool.base.ComparableWrapper;
+import de.setsoftware.reviewtool.model.api.IDelta;
 import de.setsoftware.reviewtool.model.api.IFileDiff;
 import de.setsoftware.reviewtool.model.api.IFragment;
 import de.setsoftware.reviewtool.model.api.IFragmentList;
+import de.setsoftware.reviewtool.model.api.IHunk;
 import de.setsoftware.reviewtool.model.api.IncompatibleFragmentException;
 
 /**
@@ -299,4 +303,136 @@ public class FileDiffTest {
                         new Fragment(f4, pos(5, 9), pos(5, 11))),
                 actual1);
     }
+
+    private static List<Hunk> randomDiff(final Random random, final FileInRevision from, final FileInRevision to) {
+        final List<Hunk> ret = new ArrayList<>();
+        final int count = random.nextInt(30);
+        int line = 1;
+        int lineDelta = 0;
+        for (int i = 0; i < count; i++) {
+            line += random.nextInt(4);
+            if (random.nextInt(5) == 0) {
+                //change inside a line
+                final int col = 1 + random.nextInt(10);
+                final int oldLength = random.nextInt(4);
+                final int newLength = random.nextInt(4);
+                ret.add(new Hunk(
+                        new Fragment(from, pos(line, col), pos(line, col + oldLength)),
+                        new Fragment(to, pos(line + lineDelta, col), pos(line + lineDelta, col + newLength))));
+                line++;
+            } else {
+                final int oldLines = random.nextInt(4);
+                final int newLines = random.nextInt(4);
+                ret.add(new Hunk(
+                        new Fragment(from, pos(line, 1), pos(line + oldLines, 1)),
+                        new Fragment(to, pos(line + lineDelta, 1), pos(line + lineDelta + newLines, 1))));
+                line += oldLines;
+                lineDelta += newLines - oldLines;
+            }
+        }
+        return ret;
+    }
+
+    private static String traceOrException(final IFileDiff diff, final IFragment fragment) {
+        try {
+            return diff.traceFragment(fragment).toString();
+        } catch (final RuntimeException e) {
+            return e.getClass().getName();
+        }
+    }
+
+    @Test
+    public void testMergeOfManyHunksIsSameAsSingleMerges() throws Exception {
+        final Random random = new Random(1234);
+        final FileInRevision f1 = file("a.java", 1);
+        final FileInRevision f2 = file("a.java", 2);
+        for (int run = 0; run < 300; run++) {
+            final List<Hunk> hunks = randomDiff(random, f1, f2);
+
+            final IFileDiff actual = new FileDiff(f1, f2).merge(hunks);
+
+            IFileDiff expected = new FileDiff(f1, f2);
+            IDelta delta = new Delta();
+            int lastLine = 0;
+            for (final Hunk hunk : hunks) {
+                delta = delta.ignoreColumnOffset(hunk.getSource().getFrom().getLine() != lastLine);
+                expected = expected.merge(hunk.adjustSource(delta));
+                delta = delta.plus(hunk.getDelta());
+                lastLine = hunk.getSource().getTo().getLine();
+            }
+
+            assertEquals(expected.getHunks(), actual.getHunks());
+            for (int i = 0; i < 20; i++) {
+                final int start = 1 + random.nextInt(60);
+                final IFragment fragment = new Fragment(f1, pos(start, 1), pos(start + random.nextInt(5), 1));
+                assertEquals(traceOrException(expected, fragment), traceOrException(actual, fragment));
+            }
+        }
+    }
+
+    private static Object mergeOrException(final IFileDiff diff, final List<? extends IHunk> hunks) {
+        try {
+            return diff.merge(hunks);
+        } catch (final IncompatibleFragmentException | RuntimeException e) {
+            return e.getClass().getName();
+        }
+    }
+
+    private static void assertSameAsLinearFileDiff(
+            final Random random, final Object expected, final Object actual, final FileInRevision traceFile) {
+        if (expected instanceof String || actual instanceof String) {
+            assertEquals(expected, actual);
+            return;
+        }
+        final IFileDiff expectedDiff = (IFileDiff) expected;
+        final IFileDiff actualDiff = (IFileDiff) actual;
+        assertEquals(expectedDiff.getHunks(), actualDiff.getHunks());
+        assertEquals(expectedDiff.getTo(), actualDiff.getTo());
+        for (int i = 0; i < 20; i++) {
+            final int start = 1 + random.nextInt(60);
+            final IFragment fragment = new Fragment(traceFile, pos(start, 1), pos(start + random.nextInt(5), 1));
+            assertEquals(traceOrException(expectedDiff, fragment), traceOrException(actualDiff, fragment));
+        }
+    }
+
+    @Test
+    public void testIndexedDeltasAreSameAsLinearDeltas() throws Exception {
+        final Random random = new Random(4321);
+        final FileInRevision f1 = file("a.java", 1);
+        final FileInRevision f2 = file("a.java", 2);
+        final FileInRevision f3 = file("a.java", 3);
+        for (int run = 0; run < 300; run++) {
+            final List<Hunk> hunks12 = randomDiff(random, f1, f2);
+            final List<Hunk> hunks23 = randomDiff(random, f2, f3);
+
+            final IFileDiff expected12 = new LinearFileDiff(f1, f2).merge(hunks12);
+            final IFileDiff actual12 = new FileDiff(f1, f2).merge(hunks12);
+            assertSameAsLinearFileDiff(random, expected12, actual12, f1);
+
+            final IFileDiff expected13 = expected12.merge(new LinearFileDiff(f2, f3).merge(hunks23));
+            final IFileDiff actual13 = actual12.merge(new FileDiff(f2, f3).merge(hunks23));
+            assertSameAsLinearFileDiff(random, expected13, actual13, f1);
+        }
+    }
+
+    @Test
+    public void testIndexedDeltasAreSameAsLinearDeltasForUnsortedHunks() throws Exception {
+        final Random random = new Random(8765);
+        final FileInRevision f1 = file("a.java", 1);
+        final FileInRevision f2 = file("a.java", 2);
+        for (int run = 0; run < 1000; run++) {
+            final List<Hunk> hunks = randomDiff(random, f1, f2);
+            if (run % 2 == 0) {
+                Collections.shuffle(hunks, random);
+            } else {
+                Collections.reverse(hunks);
+            }
+
+            assertSameAsLinearFileDiff(
+                    random,
+                    mergeOrException(new LinearFileDiff(f1, f2), hunks),
+                    mergeOrException(new FileDiff(f1, f2), hunks),
+                    f1);
+        }
+    }
 }
@@ -5,6 +5,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -12,10 +13,12 @@ import java.util.Set;
 
 import org.junit.Test;
 
+import de.setsoftware.reviewtool.base.IWeaklyOrdered;
 import de.setsoftware.reviewtool.diffalgorithms.DiffAlgorithmFactory;
 import de.setsoftware.reviewtool.model.api.IFileHistoryEdge;
 import de.setsoftware.reviewtool.model.api.IFileHistoryNode;
 import de.setsoftware.reviewtool.model.api.IRepository;
+import de.setsoftware.reviewtool.model.api.IRevision;
 import de.setsoftware.reviewtool.model.api.IRevisionedFile;
 
 /**
@@ -579,6 +582,104 @@ public final class FileHistoryGraphTest {
         assertEquals(Collections.singleton(createAlphaNode(repo, g, aDelNode)), aDelNode.getAncestors());
     }
 
+    @Test
+    public void testFindAncestorsForManyRevisions() {
+        final IRepository repo = new TestRepository("123");
+        final FileHistoryGraph g = graph();
+
+        g.addAddition("/trunk/a", new TestRepoRevision(repo, 1L));
+        for (long i = 3; i <= 99; i += 2) {
+            g.addChange("/trunk/a", new TestRepoRevision(repo, i),
+                    Collections.singleton(new TestRepoRevision(repo, i - 2)));
+        }
+
+        final IRevisionedFile aRev50 =
+                ChangestructureFactory.createFileInRevision("/trunk/a", new TestRepoRevision(repo, 50L));
+        final IRevisionedFile aRev49 =
+                ChangestructureFactory.createFileInRevision("/trunk/a", new TestRepoRevision(repo, 49L));
+        final IRevisionedFile aRev47 =
+                ChangestructureFactory.createFileInRevision("/trunk/a", new TestRepoRevision(repo, 47L));
+        final IRevisionedFile aRev1 =
+                ChangestructureFactory.createFileInRevision("/trunk/a", new TestRepoRevision(repo, 1L));
+
+        assertEquals(Collections.singleton(g.getNodeFor(aRev49)), g.findAncestorsFor(aRev50));
+        assertEquals(Collections.singleton(g.getNodeFor(aRev47)), g.findAncestorsFor(aRev49));
+        assertEquals(Collections.singleton(createAlphaNode(repo, g, g.getNodeFor(aRev1)).getAncestor()),
+                g.findAncestorsFor(aRev1));
+        assertEquals(Collections.emptySet(),
+                g.findAncestorsFor(ChangestructureFactory.createFileInRevision("/trunk/b", aRev50.getRevision())));
+    }
+
+    @Test
+    public void testFindAncestorsForIncomparableRevisionsWithSameOrderKey() {
+        final IRepository repo = new TestRepository("123");
+        final FileHistoryGraph g = graph();
+
+        final IRevision rev1 = ChangestructureFactory.createRepoRevision(new TimestampedID("a", 1), repo);
+        final IRevision rev2a = ChangestructureFactory.createRepoRevision(new TimestampedID("b", 2), repo);
+        final IRevision rev2b = ChangestructureFactory.createRepoRevision(new TimestampedID("c", 2), repo);
+        final IRevision rev3 = ChangestructureFactory.createRepoRevision(new TimestampedID("d", 3), repo);
+
+        g.addAddition("/trunk/a", rev1);
+        g.addChange("/trunk/a", rev2a, Collections.singleton(rev1));
+        g.addChange("/trunk/a", rev2b, Collections.singleton(rev1));
+
+        final IRevisionedFile aRev1 = ChangestructureFactory.createFileInRevision("/trunk/a", rev1);
+        final IRevisionedFile aRev2a = ChangestructureFactory.createFileInRevision("/trunk/a", rev2a);
+        final IRevisionedFile aRev2b = ChangestructureFactory.createFileInRevision("/trunk/a", rev2b);
+        final IRevisionedFile aRev3 = ChangestructureFactory.createFileInRevision("/trunk/a", rev3);
+
+        assertEquals(Collections.singleton(g.getNodeFor(aRev1)), g.findAncestorsFor(aRev2a));
+        assertEquals(Collections.singleton(g.getNodeFor(aRev1)), g.findAncestorsFor(aRev2b));
+        assertEquals(new HashSet<>(Arrays.asList(g.getNodeFor(aRev2a), g.getNodeFor(aRev2b))),
+                g.findAncestorsFor(aRev3));
+    }
+
+    /**
+     * An ID that is ordered by a timestamp, with different IDs having the same timestamp being incomparable.
+     */
+    private static final class TimestampedID implements IWeaklyOrdered<TimestampedID, Integer>, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String id;
+        private final int time;
+
+        TimestampedID(final String id, final int time) {
+            this.id = id;
+            this.time = time;
+        }
+
+        @Override
+        public boolean le(final TimestampedID other) {
+            return this.time < other.time || this.id.equals(other.id);
+        }
+
+        @Override
+        public Integer getOrderKey() {
+            return this.time;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj instanceof TimestampedID) {
+                final TimestampedID other = (TimestampedID) obj;
+                return this.id.equals(other.id);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.id.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return this.id;
+        }
+    }
+
     @Test
     public void testGetPaths() {
         final IRepository repo = new TestRepository("123");
@@ -2,17 +2,56 @@ package de.setsoftware.reviewtool.model.changestructure;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
+import de.setsoftware.reviewtool.base.LineIndex;
 import de.setsoftware.reviewtool.model.api.IPositionInText;
+import de.setsoftware.reviewtool.ordering.StubFile;
 
 /**
  * Tests for {@link PositionLookupTable}.
  */
 public class PositionLookupTableTest {
 
+    /**
+     * The former implementation of {@link PositionLookupTable}, based on a list of boxed integers.
+     * Used as a test oracle.
+     */
+    private static final class BoxedPositionLookupTable {
+
+        private final List<Integer> charCountAtEndOfLine = new ArrayList<>();
+
+        BoxedPositionLookupTable(Reader reader) throws IOException {
+            int ch;
+            int charCount = 0;
+            this.charCountAtEndOfLine.add(0);
+            while ((ch = reader.read()) >= 0) {
+                charCount++;
+                if (ch == '\n') {
+                    this.charCountAtEndOfLine.add(charCount);
+                }
+            }
+            this.charCountAtEndOfLine.add(charCount);
+        }
+
+        int getCharsSinceFileStart(IPositionInText pos) {
+            if (pos.getLine() <= 0) {
+                return 0;
+            }
+            if (pos.getLine() >= this.charCountAtEndOfLine.size()) {
+                return this.charCountAtEndOfLine.get(this.charCountAtEndOfLine.size() - 1);
+            }
+            return this.charCountAtEndOfLine.get(pos.getLine() - 1) + pos.getColumn() - 1;
+        }
+    }
+
     private static IPositionInText pos(int line, int column) {
         return new PositionInText(line, column);
     }
@@ -47,4 +86,66 @@ public class PositionLookupTableTest {
         assertEquals(45, t.getCharsSinceFileStart(pos(6, 6)));
     }
 
+    @Test
+    public void testCreateFromLineIndexAgreesWithReader() throws Exception {
+        final String[] texts = {
+            "",
+            "\n",
+            "zeile 1\r\nzeile 2\r\nletzte zeile",
+            "zeile 1\nzeile 2\n",
+            "\n\nx\n\n",
+        };
+        for (final String text : texts) {
+            final PositionLookupTable expected = PositionLookupTable.create(new StringReader(text));
+            final PositionLookupTable actual = PositionLookupTable.create(LineIndex.create(text));
+            for (int line = 0; line < 8; line++) {
+                for (int column = 1; column < 4; column++) {
+                    assertEquals(text + " " + line + ":" + column,
+                            expected.getCharsSinceFileStart(pos(line, column)),
+                            actual.getCharsSinceFileStart(pos(line, column)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCreateFromFileRevision() throws Exception {
+        final String text = "zeile 1\r\nzeile 2\nletzte zeile";
+        final PositionLookupTable expected = PositionLookupTable.create(new StringReader(text));
+        final PositionLookupTable actual = PositionLookupTable.create(new StubFile("a.java", 1, text));
+        for (int line = 0; line < 5; line++) {
+            for (int column = 1; column < 4; column++) {
+                assertEquals(expected.getCharsSinceFileStart(pos(line, column)),
+                        actual.getCharsSinceFileStart(pos(line, column)));
+            }
+        }
+    }
+
+    @Test
+    public void testAgreesWithBoxedImplementation() throws Exception {
+        final Random random = new Random(789);
+        final String[] pieces = {"a", "bc", " ", "\n", "\r\n", "\u00e4"};
+        for (int round = 0; round < 200; round++) {
+            final StringBuilder text = new StringBuilder();
+            // large texts, so that the reader's buffer has to be refilled
+            final int count = random.nextInt(10) == 0 ? 5000 : random.nextInt(50);
+            for (int i = 0; i < count; i++) {
+                text.append(pieces[random.nextInt(pieces.length)]);
+            }
+
+            final BoxedPositionLookupTable expected =
+                    new BoxedPositionLookupTable(new StringReader(text.toString()));
+            final PositionLookupTable actual = PositionLookupTable.create(new StringReader(text.toString()));
+            final PositionLookupTable fromIndex = PositionLookupTable.create(LineIndex.create(text.toString()));
+            final int lineCount = expected.charCountAtEndOfLine.size();
+            for (int line = -1; line <= lineCount + 1; line++) {
+                for (int column = 1; column < 5; column++) {
+                    final IPositionInText pos = pos(line, column);
+                    assertEquals(expected.getCharsSinceFileStart(pos), actual.getCharsSinceFileStart(pos));
+                    assertEquals(expected.getCharsSinceFileStart(pos), fromIndex.getCharsSinceFileStart(pos));
+                }
+            }
+        }
+    }
+
 }
@@ -1,15 +1,25 @@
 package de.setsoftware.reviewtool.model.changestructure;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Test;
 
 import de.setsoftware.reviewtool.base.ComparableWrapper;
+import de.setsoftware.reviewtool.base.Multimap;
 import de.setsoftware.reviewtool.model.api.FileChangeType;
+import de.setsoftware.reviewtool.model.api.IClassification;
+import de.setsoftware.reviewtool.model.api.IFragment;
+import de.setsoftware.reviewtool.model.api.IHunk;
 import de.setsoftware.reviewtool.model.api.IPositionInText;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+import de.setsoftware.reviewtool.model.api.ITextualChange;
 
 /**
  * Tests for {@link Stop}.
@@ -99,4 +109,140 @@ public class StopTest {
         assertEquals(5, merged.getNumberOfAddedLines());
         assertEquals(3, merged.getNumberOfRemovedLines());
     }
+
+    private static Stop textStop(final int revision, final int fromLine, final int toLine) {
+        return textStop(revision, fromLine, toLine, Classification.NONE);
+    }
+
+    private static Stop textStop(
+            final int revision, final int fromLine, final int toLine, final IClassification... classification) {
+        ITextualChange change = ChangestructureFactory.createTextualChangeHunk(
+                null,
+                FileChangeType.OTHER,
+                ChangestructureFactory.createFragment(file("a.java", revision), line(fromLine), line(toLine)),
+                ChangestructureFactory.createFragment(file("a.java", revision + 1), line(fromLine), line(toLine + 1)));
+        for (final IClassification cl : classification) {
+            change = (ITextualChange) change.addClassification(cl);
+        }
+        return new Stop(
+                change, ChangestructureFactory.createFragment(file("a.java", 9), line(fromLine), line(toLine + 1)));
+    }
+
+    private static Stop binaryStop(final int revision) {
+        return new Stop(
+                ChangestructureFactory.createBinaryChange(
+                        null, FileChangeType.OTHER, file("a.bin", revision), file("a.bin", revision + 1)),
+                file("a.bin", 9));
+    }
+
+    /**
+     * The data of a stop as it was computed by the former pairwise implementation of {@link Stop#merge}.
+     * It is used as the oracle for the tests of {@link Stop#mergeAll}.
+     */
+    private static final class PairwiseMergedStop {
+        private final LinkedHashMap<IRevisionedFile, IRevisionedFile> historyOrder;
+        private final Multimap<IRevisionedFile, IHunk> history;
+        private final IFragment mostRecentFragment;
+        private final IClassification[] classification;
+
+        private PairwiseMergedStop(
+                final LinkedHashMap<IRevisionedFile, IRevisionedFile> historyOrder,
+                final Multimap<IRevisionedFile, IHunk> history,
+                final IFragment mostRecentFragment,
+                final IClassification[] classification) {
+            this.historyOrder = historyOrder;
+            this.history = history;
+            this.mostRecentFragment = mostRecentFragment;
+            this.classification = classification;
+        }
+
+        static PairwiseMergedStop of(final Stop stop) {
+            final Multimap<IRevisionedFile, IHunk> history = new Multimap<>();
+            history.putAll(stop.getHunks());
+            return new PairwiseMergedStop(
+                    new LinkedHashMap<>(stop.getHistory()),
+                    history,
+                    stop.getOriginalMostRecentFragment(),
+                    stop.getClassification());
+        }
+
+        static PairwiseMergedStop mergeOneAfterTheOther(final List<Stop> stops) {
+            PairwiseMergedStop ret = of(stops.get(0));
+            for (final Stop s : stops.subList(1, stops.size())) {
+                ret = ret.merge(of(s));
+            }
+            return ret;
+        }
+
+        PairwiseMergedStop merge(final PairwiseMergedStop other) {
+            final LinkedHashMap<IRevisionedFile, IRevisionedFile> mergedHistoryOrder =
+                    new LinkedHashMap<>(this.historyOrder);
+            mergedHistoryOrder.putAll(other.historyOrder);
+            final Multimap<IRevisionedFile, IHunk> mergedHistory = new Multimap<>();
+            mergedHistory.putAll(this.history);
+            mergedHistory.putAll(other.history);
+            mergedHistory.sortValues();
+            return new PairwiseMergedStop(
+                    mergedHistoryOrder,
+                    mergedHistory,
+                    this.mostRecentFragment == null ? null : this.mostRecentFragment.merge(other.mostRecentFragment),
+                    Classification.merge(this.classification, other.classification));
+        }
+
+        void assertSameAs(final Stop actual) {
+            assertEquals(
+                    new ArrayList<>(this.historyOrder.entrySet()),
+                    new ArrayList<>(actual.getHistory().entrySet()));
+            final Multimap<IRevisionedFile, IHunk> actualHistory = new Multimap<>();
+            actualHistory.putAll(actual.getHunks());
+            assertEquals(this.history, actualHistory);
+            assertEquals(this.mostRecentFragment, actual.getOriginalMostRecentFragment());
+            assertArrayEquals(this.classification, actual.getClassification());
+        }
+    }
+
+    private static void checkMergeAll(final Stop... stops) {
+        final List<Stop> list = Arrays.asList(stops);
+        PairwiseMergedStop.mergeOneAfterTheOther(list).assertSameAs(Stop.mergeAll(list));
+    }
+
+    @Test
+    public void testMergeAllIsSameAsFormerPairwiseMerge() {
+        checkMergeAll(textStop(3, 10, 12));
+        checkMergeAll(textStop(3, 10, 12), textStop(1, 12, 14), textStop(2, 8, 11), textStop(1, 14, 15));
+        checkMergeAll(textStop(1, 14, 15), textStop(2, 8, 11), textStop(1, 12, 14), textStop(3, 10, 12));
+        checkMergeAll(textStop(5, 1, 2), textStop(4, 30, 31), textStop(5, 1, 2), textStop(3, 17, 20));
+    }
+
+    @Test
+    public void testMergeAllIsSameAsFormerPairwiseMergeWithClassifications() {
+        final IClassification irrelevant = new Classification(1, "irrelevant", true);
+        final IClassification moved = new Classification(2, "moved", false);
+        final IClassification renamed = new Classification(3, "renamed", false);
+        checkMergeAll(
+                textStop(3, 10, 12, irrelevant, moved),
+                textStop(1, 12, 14, irrelevant),
+                textStop(2, 8, 11, irrelevant, renamed));
+        checkMergeAll(
+                textStop(3, 10, 12, irrelevant, moved),
+                textStop(1, 12, 14),
+                textStop(2, 8, 11, irrelevant, renamed));
+    }
+
+    @Test
+    public void testMergeAllIsSameAsFormerPairwiseMergeForBinaryStops() {
+        checkMergeAll(binaryStop(3), binaryStop(1), binaryStop(2));
+    }
+
+    @Test
+    public void testMergeAllIsSameAsMergingOneAfterTheOther() {
+        final Stop s1 = textStop(3, 10, 12);
+        final Stop s2 = textStop(1, 12, 14);
+        final Stop s3 = textStop(2, 8, 11);
+        final Stop s4 = textStop(1, 14, 15);
+        final Stop merged = Stop.mergeAll(Arrays.asList(s1, s2, s3, s4));
+        assertEquals(s1.merge(s2).merge(s3).merge(s4), merged);
+        assertEquals(s1.merge(s2).merge(s3.merge(s4)), merged);
+        assertEquals(5, merged.getNumberOfFragments());
+    }
 }
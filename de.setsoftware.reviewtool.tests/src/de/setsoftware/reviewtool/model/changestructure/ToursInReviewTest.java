@@ -0,0 +1,181 @@
+package de.setsoftware.reviewtool.model.changestructure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.junit.Test;
+
+import de.setsoftware.reviewtool.base.ComparableWrapper;
+import de.setsoftware.reviewtool.base.Pair;
+import de.setsoftware.reviewtool.model.api.FileChangeType;
+import de.setsoftware.reviewtool.model.api.IPositionInText;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+
+/**
+ * Tests for the position and structure queries of {@link ToursInReview}.
+ */
+public class ToursInReviewTest {
+
+    private static IRevisionedFile file(final String name, final int revision) {
+        return ChangestructureFactory.createFileInRevision(
+                name, ChangestructureFactory.createRepoRevision(ComparableWrapper.wrap(revision), StubRepo.INSTANCE));
+    }
+
+    private static Stop stop(final String file, final int lineFrom, final int lineTo) {
+        final IPositionInText posFrom = ChangestructureFactory.createPositionInText(lineFrom, 1);
+        final IPositionInText posTo = ChangestructureFactory.createPositionInText(lineTo, 1);
+        return new Stop(
+                ChangestructureFactory.createTextualChangeHunk(
+                        StubWorkingCopy.INSTANCE,
+                        FileChangeType.OTHER,
+                        ChangestructureFactory.createFragment(file(file, 1), posFrom, posTo),
+                        ChangestructureFactory.createFragment(file(file, 2), posFrom, posTo)),
+                ChangestructureFactory.createFragment(file(file, 2), posFrom, posTo));
+    }
+
+    private static Stop binaryStop(final String file) {
+        return new Stop(
+                ChangestructureFactory.createBinaryChange(
+                        StubWorkingCopy.INSTANCE, FileChangeType.OTHER, file(file, 1), file(file, 2)),
+                file(file, 2));
+    }
+
+    private static Tour tour(final String description, final TourElement... elements) {
+        return new Tour(description, Arrays.asList(elements));
+    }
+
+    /**
+     * The straightforward implementation of {@link ToursInReview#findNearestStop}, used as the oracle.
+     */
+    private static Pair<Tour, Stop> findNearestStopByScanning(List<Tour> tours, IPath path, int line) {
+        Tour bestTour = null;
+        Stop bestStop = null;
+        int bestDist = Integer.MAX_VALUE;
+        for (final Tour t : tours) {
+            for (final Stop stop : t.getStops()) {
+                final int candidateDist = distance(stop, path, line);
+                if (candidateDist < bestDist) {
+                    bestTour = t;
+                    bestStop = stop;
+                    bestDist = candidateDist;
+                }
+            }
+        }
+        return bestStop == null ? null : Pair.create(bestTour, bestStop);
+    }
+
+    private static int distance(Stop stop, IPath resource, int line) {
+        if (!stop.getMostRecentFile().toLocalPath(stop.getWorkingCopy()).equals(resource)) {
+            return Integer.MAX_VALUE;
+        }
+        if (stop.getMostRecentFragment() == null) {
+            return Integer.MAX_VALUE - 1;
+        }
+        final int from = stop.getMostRecentFragment().getFrom().getLine();
+        final int to = stop.getMostRecentFragment().getTo().getLine();
+        if (line < from) {
+            return (from - line) * 4;
+        } else if (line > to) {
+            return line - to;
+        } else {
+            return 0;
+        }
+    }
+
+    @Test
+    public void testFindNearestStop() {
+        final Stop s1 = stop("/a.java", 10, 12);
+        final Stop s2 = stop("/a.java", 20, 25);
+        final Stop s3 = stop("/b.java", 1, 3);
+        final Tour t1 = tour("t1", s1, s3);
+        final Tour t2 = tour("t2", s2);
+        final ToursInReview tours = ToursInReview.create(Arrays.asList(t1, t2));
+
+        assertEquals(Pair.create(t1, s1), tours.findNearestStop(new Path("/a.java"), 11));
+        assertEquals(Pair.create(t1, s1), tours.findNearestStop(new Path("/a.java"), 1));
+        assertEquals(Pair.create(t1, s1), tours.findNearestStop(new Path("/a.java"), 15));
+        assertEquals(Pair.create(t2, s2), tours.findNearestStop(new Path("/a.java"), 19));
+        assertEquals(Pair.create(t2, s2), tours.findNearestStop(new Path("/a.java"), 100));
+        assertEquals(Pair.create(t1, s3), tours.findNearestStop(new Path("/b.java"), 100));
+        assertNull(tours.findNearestStop(new Path("/c.java"), 1));
+    }
+
+    @Test
+    public void testFindNearestStopWithoutFragment() {
+        final Stop s1 = binaryStop("/a.bin");
+        final Stop s2 = binaryStop("/a.bin");
+        final Tour t1 = tour("t1", s1, s2);
+        final ToursInReview tours = ToursInReview.create(Arrays.asList(t1));
+
+        assertSame(s1, tours.findNearestStop(new Path("/a.bin"), 5).getSecond());
+    }
+
+    @Test
+    public void testStructureQueries() {
+        final Stop s1 = stop("/a.java", 10, 12);
+        final Stop s2 = stop("/a.java", 20, 25);
+        final Stop s3 = stop("/b.java", 1, 3);
+        final Tour inner = tour("inner", s2, s3);
+        final Tour t1 = tour("t1", s1);
+        final Tour t2 = tour("t2", inner);
+        final ToursInReview tours = ToursInReview.create(Arrays.asList(t1, t2));
+
+        assertSame(t1, tours.getParentFor(s1));
+        assertSame(inner, tours.getParentFor(s2));
+        assertSame(t2, tours.getParentFor(inner));
+        assertNull(tours.getParentFor(t1));
+        assertSame(t2, tours.getTopmostTourWith(s3));
+        assertSame(t2, tours.getTopmostTourWith(inner));
+        assertEquals(1, tours.findTourIndexWithStop(s2));
+        assertEquals(0, tours.findTourIndexWithStop(s1));
+        assertEquals(0, tours.findTourIndexWithStop(stop("/c.java", 1, 1)));
+        assertEquals(Arrays.asList(s1, s2), tours.getStopsFor(new File("/a.java").getAbsoluteFile()));
+        assertEquals(Arrays.asList(), tours.getStopsFor(new File("/c.java").getAbsoluteFile()));
+    }
+
+    @Test
+    public void testFindNearestStopMatchesScanning() {
+        final Random random = new Random(4711);
+        for (int round = 0; round < 50; round++) {
+            final List<Tour> topmost = new ArrayList<>();
+            final int tourCount = 1 + random.nextInt(4);
+            for (int t = 0; t < tourCount; t++) {
+                final List<TourElement> stops = new ArrayList<>();
+                final int stopCount = random.nextInt(15);
+                for (int i = 0; i < stopCount; i++) {
+                    final String file = "/f" + random.nextInt(3) + ".java";
+                    if (random.nextInt(10) == 0) {
+                        stops.add(binaryStop(file));
+                    } else {
+                        final int from = 1 + random.nextInt(60);
+                        stops.add(stop(file, from, from + random.nextInt(10)));
+                    }
+                }
+                topmost.add(new Tour("t" + t, stops));
+            }
+            final ToursInReview tours = ToursInReview.create(topmost);
+            for (int f = 0; f < 4; f++) {
+                final IPath path = new Path("/f" + f + ".java");
+                for (int line = 0; line < 80; line++) {
+                    final Pair<Tour, Stop> expected = findNearestStopByScanning(topmost, path, line);
+                    final Pair<Tour, Stop> actual = tours.findNearestStop(path, line);
+                    if (expected == null) {
+                        assertNull(actual);
+                    } else {
+                        assertSame(path + ":" + line, expected.getFirst(), actual.getFirst());
+                        assertSame(path + ":" + line, expected.getSecond(), actual.getSecond());
+                    }
+                }
+            }
+        }
+    }
+}
@@ -5,6 +5,8 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 
 import java.io.File;
@@ -599,4 +601,43 @@ public class VirtualFileHistoryGraphTest {
         this.testThatBIsUnchanged();
         this.testThatDIsUnchanged();
     }
+
+    @Test
+    public void testNodesAreReusedUntilUnderlyingGraphChangesForPath() {
+        final IMutableFileHistoryGraph localGraph = graph();
+        localGraph.addChange("/dir1/dir2/a.txt", this.localRev(), Collections.singleton(this.rev(2)));
+        this.virtualFileHistoryGraph.setLocalFileHistoryGraph(localGraph);
+
+        final IRevisionedFile aFileL = this.file("/dir1/dir2/a.txt", this.localRev());
+        final IRevisionedFile dFileR1 = this.file("/dir1/dir2/d.txt", this.rev(1));
+        final IFileHistoryNode aNodeL = this.virtualFileHistoryGraph.getNodeFor(aFileL);
+        final IFileHistoryNode dNodeR1 = this.virtualFileHistoryGraph.getNodeFor(dFileR1);
+        assertSame(aNodeL, this.virtualFileHistoryGraph.getNodeFor(aFileL));
+        assertSame(dNodeR1, this.virtualFileHistoryGraph.getNodeFor(dFileR1));
+
+        this.remoteFileHistoryGraph.addChange("/dir1/dir2/d.txt", this.rev(3), Collections.singleton(this.rev(1)));
+        assertSame(aNodeL, this.virtualFileHistoryGraph.getNodeFor(aFileL));
+        final IFileHistoryNode dNodeR1New = this.virtualFileHistoryGraph.getNodeFor(dFileR1);
+        assertNotSame(dNodeR1, dNodeR1New);
+        assertThat(dNodeR1New.getDescendants().size(), is(equalTo(1)));
+
+        final IMutableFileHistoryGraph newLocalGraph = graph();
+        newLocalGraph.addChange("/dir1/dir2/a.txt", this.localRev(), Collections.singleton(this.rev(2)));
+        this.virtualFileHistoryGraph.setLocalFileHistoryGraph(newLocalGraph);
+        assertSame(dNodeR1New, this.virtualFileHistoryGraph.getNodeFor(dFileR1));
+        assertNotSame(aNodeL, this.virtualFileHistoryGraph.getNodeFor(aFileL));
+    }
+
+    @Test
+    public void testFindAncestorsReturnsCachedNodes() {
+        final IMutableFileHistoryGraph localGraph = graph();
+        localGraph.addChange("/dir1/dir2/a.txt", this.localRev(), Collections.singleton(this.rev(2)));
+        this.virtualFileHistoryGraph.setLocalFileHistoryGraph(localGraph);
+
+        final IFileHistoryNode aNodeR2 = this.virtualFileHistoryGraph.getNodeFor(this.file("/dir1/dir2/a.txt", this.rev(2)));
+        final Set<VirtualFileHistoryNode> ancestors =
+                this.virtualFileHistoryGraph.findAncestorsFor(this.file("/dir1/dir2/a.txt", this.rev(3)));
+        assertThat(ancestors.size(), is(equalTo(1)));
+        assertSame(aNodeR2, ancestors.iterator().next());
+    }
 }
@@ -0,0 +1,151 @@
+package de.setsoftware.reviewtool.model.remarks;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ReviewDataParser} that compare its results to those of the former
+ * line-based implementation ({@link LineBasedReviewDataParser}).
+ */
+public class ReviewDataParserTest {
+
+    private static final String[] LINE_STARTS = {
+        "Review 1:",
+        "Review 2:",
+        "review 3",
+        "== REVIEW 4 ==",
+        "Review 12 (Std.rev 12345):",
+        "Reviewer 1:",
+        "Review 1a:",
+        "Review:",
+        "* muss",
+        "* kann",
+        "* wichtig",
+        "* positiv",
+        "* direkt eingepflegt",
+        "* temporärer Marker",
+        "* sonstige Anmerkungen",
+        "* optional / weniger wichtig",
+        "* unbekannt",
+        "*  muss",
+        "*# ",
+        "*#* ",
+        "*#*",
+        "*#",
+        "** ",
+        "- ",
+        "# ",
+        "*",
+        "",
+        "",
+        "text ",
+    };
+
+    private static final String[] LINE_PARTS = {
+        "Anm A",
+        "das ist blöd",
+        "(Testklasse, 1234) ",
+        "(DateiX) ",
+        "(Datei, 5)",
+        "(",
+        ")",
+        "TB: ",
+        "XY: Antwort",
+        "ab:",
+        "ab: ",
+        ":",
+        " ",
+        "\t",
+        "(/)",
+        "(x)",
+        "(?)",
+        "((/)/)",
+        "*",
+        "#",
+        "-",
+        "review",
+        "7",
+        "ä",
+    };
+
+    private static final String[] LINE_ENDS = {"\n", "\n", "\n", "\r\n", "\r", "\n\n"};
+
+    private static String randomReviewData(Random random) {
+        final StringBuilder ret = new StringBuilder();
+        final int lineCount = random.nextInt(25);
+        for (int i = 0; i < lineCount; i++) {
+            if (random.nextInt(8) == 0) {
+                ret.append(random.nextBoolean() ? "  " : "\t");
+            }
+            ret.append(LINE_STARTS[random.nextInt(LINE_STARTS.length)]);
+            final int partCount = random.nextInt(4);
+            for (int j = 0; j < partCount; j++) {
+                ret.append(LINE_PARTS[random.nextInt(LINE_PARTS.length)]);
+            }
+            if (random.nextInt(8) == 0) {
+                ret.append(' ');
+            }
+            if (i < lineCount - 1 || random.nextBoolean()) {
+                ret.append(LINE_ENDS[random.nextInt(LINE_ENDS.length)]);
+            }
+        }
+        return ret.toString();
+    }
+
+    /**
+     * Returns the serialized parse result, or the exception if the data could not be parsed.
+     */
+    private static String parseWithNewParser(Map<Integer, String> reviewers, String input) {
+        try {
+            return ReviewData.parse(reviewers, DummyMarker.FACTORY, input).serialize();
+        } catch (final RuntimeException e) {
+            return "exception " + e;
+        }
+    }
+
+    private static String parseWithOldParser(Map<Integer, String> reviewers, String input) {
+        try {
+            return LineBasedReviewDataParser.parse(reviewers, DummyMarker.FACTORY, input).serialize();
+        } catch (final RuntimeException e) {
+            return "exception " + e;
+        }
+    }
+
+    private static void assertSameResult(String input) {
+        final Map<Integer, String> reviewers = new HashMap<>();
+        reviewers.put(1, "TB");
+        reviewers.put(2, "XY");
+        assertEquals(input, parseWithOldParser(reviewers, input), parseWithNewParser(reviewers, input));
+    }
+
+    @Test
+    public void testExamples() {
+        assertSameResult("");
+        assertSameResult("\n");
+        assertSameResult("Review 1:\n* muss\n*# Anm A\n*#* XY: Antwort (/)\n");
+        assertSameResult("Review 1:\r\n* muss\r\n*# (Datei, 5) Anm A\r\n\r\nReview 2:\r\n* kann\r\n*# Anm B (x)");
+        assertSameResult("  review\t7 \n\t* positiv \n - Anm A\nzweite Zeile\n");
+        assertSameResult("Review 1:\n*# Anm A\nReview 2:\nFortsetzung\n");
+        assertSameResult("Review 1:\n*#* dangling: comment\n");
+        assertSameResult("Review 1:\n*# Anm A\n*#* kein Kommentar\n");
+        assertSameResult("Review 1:\n*# Anm A\n*#* : ohne Benutzer\n");
+        assertSameResult("Review 1:\n*# Anm A\n*#* TB:\n");
+        assertSameResult("Review 1:\n*# Anm A\n\nReview 1:\n*# Anm B\n");
+        assertSameResult("Review 99999999999:\n*# Anm A\n");
+        assertSameResult("*# (Datei Anm A\n");
+    }
+
+    @Test
+    public void testRandomInputs() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            assertSameResult(randomReviewData(random));
+        }
+    }
+
+}
@@ -286,4 +286,39 @@ public class ChangePartTest {
                         s36)));
     }
 
+    @Test
+    public void testGroupFilesWithSameContent() {
+        final String content =
+                "package x.y.z;\r\n"
+                + "\r\n"
+                + "public class Testclass {\r\n"
+                + "    public void foo() {\r\n"
+                + "        /* not the end {\r\n"
+                + "         } */\r\n"
+                + "        System.out.println(\"}\");\r\n"
+                + "    }\r\n"
+                + "    public void bar() {\r\n"
+                + "        System.out.println(\"bar\");\r\n"
+                + "    }\r\n"
+                + "}";
+        final IRevisionedFile file1 = file("Testklasse.java", 4, content);
+        final IRevisionedFile file2 = file("Testklasse2.java", 5, content);
+        final Stop s11 = singleLineStop(file1, 5);
+        final Stop s12 = singleLineStop(file1, 7);
+        final Stop s13 = singleLineStop(file1, 10);
+        final Stop s14 = singleLineStop(file1, 12);
+        final Stop s21 = singleLineStop(file2, 6);
+        final Stop s22 = singleLineStop(file2, 9);
+        final Stop s23 = singleLineStop(file2, 10);
+        final List<ChangePart> expected = Arrays.asList(
+                cp(s11, s12),
+                cp(s13),
+                cp(s14),
+                cp(s21),
+                cp(s22, s23));
+        assertEquals(expected, group(Arrays.asList(s11, s12, s13, s14, s21, s22, s23)));
+        //the second time, the cached region ends are used
+        assertEquals(expected, group(Arrays.asList(s23, s22, s21, s14, s13, s12, s11)));
+    }
+
 }
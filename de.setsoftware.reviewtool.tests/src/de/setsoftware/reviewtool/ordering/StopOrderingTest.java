@@ -0,0 +1,151 @@
+package de.setsoftware.reviewtool.ordering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.setsoftware.reviewtool.base.ComparableWrapper;
+import de.setsoftware.reviewtool.base.Logger;
+import de.setsoftware.reviewtool.model.api.FileChangeType;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
+import de.setsoftware.reviewtool.model.changestructure.Stop;
+import de.setsoftware.reviewtool.model.changestructure.StubRepo;
+import de.setsoftware.reviewtool.ordering.efficientalgorithm.TourCalculator;
+import de.setsoftware.reviewtool.ordering.efficientalgorithm.TourCalculatorControl;
+
+/**
+ * Tests for the concurrent execution of the relation matchers in {@link StopOrdering}.
+ */
+public class StopOrderingTest {
+
+    private static IRevisionedFile file(final String name, final int revision) {
+        return ChangestructureFactory.createFileInRevision(
+                name, ChangestructureFactory.createRepoRevision(ComparableWrapper.wrap(revision), StubRepo.INSTANCE));
+    }
+
+    private static ChangePart cp(final String name) {
+        final Stop stop = new Stop(
+                ChangestructureFactory.createBinaryChange(null, FileChangeType.OTHER, file(name, 1), file(name, 3)),
+                file(name, 4));
+        return new ChangePart(Collections.singletonList(stop), Collections.emptySet());
+    }
+
+    private static OrderingInfo oi(final String description, final ChangePart... parts) {
+        return OrderingInfoImpl.unordered(HierarchyExplicitness.NONE, description, Arrays.asList(parts));
+    }
+
+    private static RelationMatcher fixed(final long delay, final OrderingInfo... result) {
+        return (final List<ChangePart> changeParts, final TourCalculatorControl control) -> {
+            Thread.sleep(delay);
+            return Arrays.asList(result);
+        };
+    }
+
+    private static RelationMatcher endless(final CountDownLatch stopped) {
+        return (final List<ChangePart> changeParts, final TourCalculatorControl control) -> {
+            try {
+                while (true) {
+                    TourCalculator.checkInterruption(control);
+                    Thread.sleep(5);
+                }
+            } finally {
+                stopped.countDown();
+            }
+        };
+    }
+
+    @Before
+    public void setUp() {
+        Logger.setLogger(new Logger() {
+            @Override
+            protected void log(int status, String message, Throwable exception) {
+            }
+            @Override
+            protected void log(int status, String message) {
+            }
+        });
+    }
+
+    @Test
+    public void testResultsKeepMatcherOrder() throws Exception {
+        final ChangePart a = cp("a");
+        final ChangePart b = cp("b");
+        final ChangePart c = cp("c");
+        final OrderingInfo slow = oi("slow", a, b);
+        final OrderingInfo fast1 = oi("fast1", b, c);
+        final OrderingInfo fast2 = oi("fast2", a, c);
+        final StopOrdering ordering = new StopOrdering(Arrays.asList(
+                fixed(300, slow), fixed(0, fast1), fixed(0), fixed(10, fast2)));
+
+        assertEquals(
+                Arrays.asList(slow, fast1, fast2),
+                ordering.determineMatches(Arrays.asList(a, b, c), TourCalculatorControl.NO_CANCEL));
+    }
+
+    @Test
+    public void testMatcherExceedingItsBudgetIsIgnored() throws Exception {
+        final ChangePart a = cp("a");
+        final ChangePart b = cp("b");
+        final OrderingInfo result = oi("fast", a, b);
+        final CountDownLatch stopped = new CountDownLatch(1);
+        final StopOrdering ordering = new StopOrdering(Arrays.asList(endless(stopped), fixed(0, result)), 200);
+
+        assertEquals(
+                Collections.singletonList(result),
+                ordering.determineMatches(Arrays.asList(a, b), TourCalculatorControl.NO_CANCEL));
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCancellationStopsRunningMatchers() throws Exception {
+        final CountDownLatch stopped = new CountDownLatch(1);
+        final StopOrdering ordering = new StopOrdering(Arrays.asList(fixed(0), endless(stopped)));
+        final long start = System.currentTimeMillis();
+        final TourCalculatorControl cancelLater = new TourCalculatorControl() {
+            @Override
+            public boolean isCanceled() {
+                return System.currentTimeMillis() - start > 200;
+            }
+
+            @Override
+            public boolean isFastModeNeeded() {
+                return false;
+            }
+        };
+
+        try {
+            ordering.determineMatches(Arrays.asList(cp("a"), cp("b")), cancelLater);
+            fail("expected InterruptedException");
+        } catch (final InterruptedException e) {
+            //expected
+        }
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testExceptionInMatcherIsPropagated() throws Exception {
+        final IllegalStateException exception = new IllegalStateException("test");
+        final StopOrdering ordering = new StopOrdering(Arrays.asList(
+                fixed(0),
+                (final List<ChangePart> changeParts, final TourCalculatorControl control) -> {
+                    throw exception;
+                }));
+
+        try {
+            ordering.determineMatches(Arrays.asList(cp("a"), cp("b")), TourCalculatorControl.NO_CANCEL);
+            fail("expected IllegalStateException");
+        } catch (final IllegalStateException e) {
+            assertEquals(exception, e);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package de.setsoftware.reviewtool.ordering;
 
+import java.util.Arrays;
+
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.IPath;
 
@@ -49,6 +51,17 @@ public class StubFile implements IRevisionedFile {
         return this.content.getBytes("UTF-8");
     }
 
+    @Override
+    public long getSize() throws Exception {
+        return this.getContents().length;
+    }
+
+    @Override
+    public byte[] getContentsPrefix(final int maxLength) throws Exception {
+        final byte[] contents = this.getContents();
+        return contents.length <= maxLength ? contents : Arrays.copyOf(contents, maxLength);
+    }
+
     @Override
     public IResource determineResource() {
         return this.file.determineResource();
@@ -0,0 +1,209 @@
+package de.setsoftware.reviewtool.ui.views;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.setsoftware.reviewtool.base.ComparableWrapper;
+import de.setsoftware.reviewtool.model.api.FileChangeType;
+import de.setsoftware.reviewtool.model.api.IPositionInText;
+import de.setsoftware.reviewtool.model.api.IRevisionedFile;
+import de.setsoftware.reviewtool.model.changestructure.ChangestructureFactory;
+import de.setsoftware.reviewtool.model.changestructure.Stop;
+import de.setsoftware.reviewtool.model.changestructure.StubRepo;
+import de.setsoftware.reviewtool.model.changestructure.StubWorkingCopy;
+import de.setsoftware.reviewtool.model.changestructure.Tour;
+import de.setsoftware.reviewtool.model.changestructure.TourElement;
+import de.setsoftware.reviewtool.model.changestructure.ToursInReview;
+import de.setsoftware.reviewtool.ui.views.ReviewProgress.ProgressCategory;
+import de.setsoftware.reviewtool.ui.views.ReviewProgress.TourProgress;
+import de.setsoftware.reviewtool.viewtracking.ViewStatistics;
+
+/**
+ * Tests for {@link ReviewProgress}.
+ */
+public class ReviewProgressTest {
+
+    private static final int LONG_ENOUGH = 2;
+
+    private static IRevisionedFile file(final String name, final int revision) {
+        return ChangestructureFactory.createFileInRevision(
+                name, ChangestructureFactory.createRepoRevision(ComparableWrapper.wrap(revision), StubRepo.INSTANCE));
+    }
+
+    private static Stop stop(final String file, final int lineFrom, final int lineTo) {
+        final IPositionInText posFrom = ChangestructureFactory.createPositionInText(lineFrom, 1);
+        final IPositionInText posTo = ChangestructureFactory.createPositionInText(lineTo + 1, 1);
+        return new Stop(
+                ChangestructureFactory.createTextualChangeHunk(
+                        StubWorkingCopy.INSTANCE,
+                        FileChangeType.OTHER,
+                        ChangestructureFactory.createFragment(file(file, 1), posFrom, posTo),
+                        ChangestructureFactory.createFragment(file(file, 2), posFrom, posTo)),
+                ChangestructureFactory.createFragment(file(file, 2), posFrom, posTo));
+    }
+
+    private static Tour tour(final String description, final TourElement... elements) {
+        return new Tour(description, Arrays.asList(elements));
+    }
+
+    private static File abs(final String file) {
+        return new File(file).getAbsoluteFile();
+    }
+
+    private static ReviewProgress progress(final ToursInReview tours, final ViewStatistics statistics) {
+        return new ReviewProgress(
+                tours, statistics::isMarkedAsChecked, (Stop s) -> statistics.determineViewRatio(s, LONG_ENOUGH));
+    }
+
+    private static void assertSameState(final ReviewProgress expected, final ReviewProgress actual, List<Tour> tours) {
+        for (final ProgressCategory c : ProgressCategory.values()) {
+            assertEquals(c.toString(), expected.getCount(c), actual.getCount(c));
+        }
+        final List<Tour> allTours = new ArrayList<>();
+        collectTours(tours, allTours);
+        for (final Tour t : allTours) {
+            final TourProgress e = expected.getTourProgress(t);
+            final TourProgress a = actual.getTourProgress(t);
+            assertEquals(e.getStopCount(), a.getStopCount());
+            assertEquals(e.isAllMarkedAsChecked(), a.isAllMarkedAsChecked());
+            assertEquals(e.isAllNotViewedAtAll(), a.isAllNotViewedAtAll());
+            assertEquals(e.isAllIrrelevant(), a.isAllIrrelevant());
+            assertEquals(e.getMaxRatio(), a.getMaxRatio(), 0.000001);
+            assertEquals(e.getAverageRatio(), a.getAverageRatio(), 0.000001);
+        }
+    }
+
+    private static void collectTours(final List<? extends TourElement> elements, final List<Tour> buffer) {
+        for (final TourElement e : elements) {
+            if (e instanceof Tour) {
+                buffer.add((Tour) e);
+                collectTours(((Tour) e).getChildren(), buffer);
+            }
+        }
+    }
+
+    @Test
+    public void testInitialCounts() {
+        final ViewStatistics statistics = new ViewStatistics();
+        final Stop s1 = stop("/a.java", 1, 2);
+        final Stop s2 = stop("/a.java", 10, 10);
+        final Stop s3 = stop("/b.java", 5, 6);
+        statistics.mark(abs("/a.java"), 1, 1);
+        statistics.mark(abs("/a.java"), 1, 1);
+        statistics.toggleExplicitlyCheckedMark(Collections.singleton(s3));
+
+        final ReviewProgress progress =
+                progress(ToursInReview.create(Arrays.asList(tour("t1", s1, s2), tour("t2", s3))), statistics);
+
+        assertEquals(0, progress.getCount(ProgressCategory.IRRELEVANT));
+        assertEquals(1, progress.getCount(ProgressCategory.VISITED));
+        assertEquals(1, progress.getCount(ProgressCategory.PARTLY_VISITED));
+        assertEquals(1, progress.getCount(ProgressCategory.UNVISITED));
+        assertTrue(progress.isMarkedAsChecked(s3));
+        assertFalse(progress.isMarkedAsChecked(s1));
+        assertEquals(Arrays.asList(s1, s2), progress.getStopsFor(abs("/a.java")));
+    }
+
+    @Test
+    public void testTourSubtotalsIncludeSubtours() {
+        final ViewStatistics statistics = new ViewStatistics();
+        final Stop s1 = stop("/a.java", 1, 1);
+        final Stop s2 = stop("/b.java", 1, 1);
+        final Tour inner = tour("inner", s2);
+        final Tour outer = tour("outer", s1, inner);
+        final ReviewProgress progress = progress(ToursInReview.create(Arrays.asList(outer)), statistics);
+
+        assertEquals(2, progress.getTourProgress(outer).getStopCount());
+        assertEquals(1, progress.getTourProgress(inner).getStopCount());
+        assertTrue(progress.getTourProgress(outer).isAllNotViewedAtAll());
+
+        statistics.mark(abs("/b.java"), 1, 1);
+        progress.refreshFile(abs("/b.java"));
+        assertFalse(progress.getTourProgress(outer).isAllNotViewedAtAll());
+        assertEquals(0.5, progress.getTourProgress(inner).getMaxRatio(), 0.000001);
+        assertEquals(0.25, progress.getTourProgress(outer).getAverageRatio(), 0.000001);
+
+        statistics.toggleExplicitlyCheckedMark(Arrays.asList(s1, s2));
+        progress.refreshFile(abs("/a.java"));
+        progress.refreshFile(abs("/b.java"));
+        assertTrue(progress.getTourProgress(outer).isAllMarkedAsChecked());
+        assertEquals(1.0, progress.getTourProgress(outer).getMaxRatio(), 0.000001);
+
+        statistics.toggleExplicitlyCheckedMark(Arrays.asList(s1, s2));
+        progress.refreshFile(abs("/a.java"));
+        progress.refreshFile(abs("/b.java"));
+        assertFalse(progress.getTourProgress(outer).isAllMarkedAsChecked());
+        assertEquals(0.5, progress.getTourProgress(outer).getMaxRatio(), 0.000001);
+    }
+
+    @Test
+    public void testOnlyStopsInChangedFileAreDeterminedAnew() {
+        final ViewStatistics statistics = new ViewStatistics();
+        final List<Stop> determined = new ArrayList<>();
+        final Stop s1 = stop("/a.java", 1, 1);
+        final Stop s2 = stop("/b.java", 1, 1);
+        final Stop s3 = stop("/b.java", 3, 4);
+        final ReviewProgress progress = new ReviewProgress(
+                ToursInReview.create(Arrays.asList(tour("t1", s1, s2), tour("t2", s3))),
+                statistics::isMarkedAsChecked,
+                (Stop s) -> {
+                    determined.add(s);
+                    return statistics.determineViewRatio(s, LONG_ENOUGH);
+                });
+        determined.clear();
+
+        statistics.mark(abs("/b.java"), 1, 1);
+        progress.refreshFile(abs("/b.java"));
+        assertEquals(Arrays.asList(s2, s3), determined);
+
+        determined.clear();
+        progress.refreshFile(abs("/c.java"));
+        assertEquals(Collections.emptyList(), determined);
+    }
+
+    @Test
+    public void testIncrementalUpdatesMatchFullDetermination() {
+        final Random random = new Random(123);
+        final String[] files = {"/a.java", "/b.java", "/c.java", "/d.java"};
+        final List<Stop> stops = new ArrayList<>();
+        final List<Tour> topmost = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final List<TourElement> children = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                final int line = 1 + random.nextInt(30);
+                final Stop s = stop(files[random.nextInt(files.length)], line, line + random.nextInt(4));
+                stops.add(s);
+                children.add(s);
+            }
+            children.add(tour("sub" + t, stops.get(stops.size() - 1 - random.nextInt(6))));
+            topmost.add(new Tour("t" + t, children));
+        }
+        final ToursInReview tours = ToursInReview.create(topmost);
+        final ViewStatistics statistics = new ViewStatistics();
+        final ReviewProgress incremental = progress(tours, statistics);
+
+        for (int step = 0; step < 200; step++) {
+            final String file = files[random.nextInt(files.length)];
+            if (random.nextInt(5) == 0) {
+                final Stop s = stops.get(random.nextInt(stops.size()));
+                statistics.toggleExplicitlyCheckedMark(Collections.singleton(s));
+                incremental.refreshFile(s.getAbsoluteFile());
+            } else {
+                final int line = 1 + random.nextInt(35);
+                statistics.mark(abs(file), line, line + random.nextInt(3));
+                incremental.refreshFile(abs(file));
+            }
+            assertSameState(progress(tours, statistics), incremental, topmost);
+        }
+    }
+}